@@ -44,9 +44,12 @@ import org.junit.runner.RunWith;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
 public class PredatorProviderTest {
+    private static final int BENCHMARK_ROWS = 500;
+
     @Test
     public void insertPostTest() {
         ContentValues values = new ContentValues();
@@ -112,4 +115,128 @@ public class PredatorProviderTest {
 
         cursor.close();
     }
+
+    @Test
+    public void bulkInsertPostsTest() {
+        Context appContext = InstrumentationRegistry.getTargetContext();
+        appContext.getContentResolver().delete(PredatorContract.PostsEntry.CONTENT_URI_POSTS_DELETE, null, null);
+
+        ContentValues[] bulkValues = getBulkPostValues(BENCHMARK_ROWS);
+        int count = appContext.getContentResolver().bulkInsert(PredatorContract.PostsEntry.CONTENT_URI_POSTS_ADD, bulkValues);
+        assertEquals("Error: Records not inserted into posts table during bulk insert", BENCHMARK_ROWS, count);
+
+        // Update the same posts without the dashboard flag, existing flag should be preserved.
+        for (ContentValues values : bulkValues) {
+            values.remove(PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD);
+            values.put(PredatorContract.PostsEntry.COLUMN_VOTES_COUNT, 10);
+        }
+        appContext.getContentResolver().bulkInsert(PredatorContract.PostsEntry.CONTENT_URI_POSTS_ADD, bulkValues);
+
+        Cursor cursor = appContext.getContentResolver().query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
+                null,
+                PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + "=1 AND " +
+                        PredatorContract.PostsEntry.COLUMN_VOTES_COUNT + "=10",
+                null,
+                null);
+
+        assertEquals("Error: Records not updated in posts table during bulk insert", BENCHMARK_ROWS, cursor.getCount());
+        cursor.close();
+    }
+
+    @Test
+    public void bulkInsertPostsBenchmark() {
+        Context appContext = InstrumentationRegistry.getTargetContext();
+        appContext.getContentResolver().delete(PredatorContract.PostsEntry.CONTENT_URI_POSTS_DELETE, null, null);
+
+        ContentValues[] bulkValues = getBulkPostValues(BENCHMARK_ROWS);
+
+        long startTime = System.nanoTime();
+        for (ContentValues values : bulkValues) {
+            appContext.getContentResolver().insert(PredatorContract.PostsEntry.CONTENT_URI_POSTS_ADD, values);
+        }
+        long rowByRowTime = System.nanoTime() - startTime;
+
+        assertEquals("Error: Records not inserted into posts table row by row", BENCHMARK_ROWS, getPostsCount(appContext));
+
+        appContext.getContentResolver().delete(PredatorContract.PostsEntry.CONTENT_URI_POSTS_DELETE, null, null);
+
+        startTime = System.nanoTime();
+        appContext.getContentResolver().bulkInsert(PredatorContract.PostsEntry.CONTENT_URI_POSTS_ADD, bulkValues);
+        long bulkTime = System.nanoTime() - startTime;
+
+        assertEquals("Error: Records not inserted into posts table during bulk insert", BENCHMARK_ROWS, getPostsCount(appContext));
+        // Row by row inserts commit a transaction per row, the bulk insert commits a single one.
+        assertTrue("Error: Bulk insert not faster than row by row inserts, row by row: " +
+                        getRowsPerSecond(rowByRowTime) + " rows/s, bulk: " + getRowsPerSecond(bulkTime) + " rows/s",
+                bulkTime * 2 < rowByRowTime);
+    }
+
+    @Test
+    public void postUsersTest() {
+        Context appContext = InstrumentationRegistry.getTargetContext();
+
+        ContentValues hunter = new ContentValues();
+        hunter.put(PredatorContract.UsersEntry.COLUMN_USER_ID, 1);
+        hunter.put(PredatorContract.UsersEntry.COLUMN_NAME, "hunter");
+        hunter.put(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS, 12);
+
+        ContentValues voter = new ContentValues();
+        voter.put(PredatorContract.UsersEntry.COLUMN_USER_ID, 1);
+        voter.put(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS, 123);
+
+        appContext.getContentResolver().bulkInsert(PredatorContract.UsersEntry.CONTENT_URI_USERS_ADD,
+                new ContentValues[]{hunter, voter});
+
+        // Post 12 should not match the vote on post 123.
+        Cursor cursor = appContext.getContentResolver().query(PredatorContract.PostUsersEntry.CONTENT_URI_POST_USERS,
+                null,
+                PredatorContract.PostUsersEntry.TABLE_NAME + "." + PredatorContract.PostUsersEntry.COLUMN_POST_ID + "=?",
+                new String[]{"12"},
+                null);
+
+        assertEquals("Error: Unexpected users for post", 1, cursor.getCount());
+        cursor.moveToFirst();
+        assertEquals("Error: Unexpected role for user",
+                PredatorContract.PostUsersEntry.ROLE_HUNTER,
+                cursor.getInt(cursor.getColumnIndex(PredatorContract.PostUsersEntry.COLUMN_ROLE)));
+        assertEquals("Error: User details not preserved",
+                "hunter",
+                cursor.getString(cursor.getColumnIndex(PredatorContract.UsersEntry.COLUMN_NAME)));
+        cursor.close();
+    }
+
+    private ContentValues[] getBulkPostValues(int size) {
+        ContentValues[] bulkValues = new ContentValues[size];
+        for (int i = 0; i < size; i++) {
+            ContentValues values = new ContentValues();
+            values.put(PredatorContract.PostsEntry.COLUMN_POST_ID, i + 1);
+            values.put(PredatorContract.PostsEntry.COLUMN_CATEGORY_ID, 1);
+            values.put(PredatorContract.PostsEntry.COLUMN_DAY, "day");
+            values.put(PredatorContract.PostsEntry.COLUMN_NAME, "name " + i);
+            values.put(PredatorContract.PostsEntry.COLUMN_TAGLINE, "tagline " + i);
+            values.put(PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT, 2);
+            values.put(PredatorContract.PostsEntry.COLUMN_CREATED_AT, "created at");
+            values.put(PredatorContract.PostsEntry.COLUMN_DISCUSSION_URL, "disc url");
+            values.put(PredatorContract.PostsEntry.COLUMN_REDIRECT_URL, "redirect url");
+            values.put(PredatorContract.PostsEntry.COLUMN_VOTES_COUNT, 5);
+            values.put(PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD, 1);
+            bulkValues[i] = values;
+        }
+        return bulkValues;
+    }
+
+    private int getPostsCount(Context context) {
+        Cursor cursor = context.getContentResolver().query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
+                null,
+                null,
+                null,
+                null);
+        int count = cursor.getCount();
+        cursor.close();
+        return count;
+    }
+
+    private long getRowsPerSecond(long nanos) {
+        return BENCHMARK_ROWS * 1000000000L / Math.max(nanos, 1);
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.crazyhitty.chdev.ks.predator.models.Post;
+import com.crazyhitty.chdev.ks.predator.utils.CursorUtils;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * Verifies the projection aware mapping of CursorRowMapper and compares it with the
+ * column name lookups of CursorUtils while mapping 10k posts.
+ */
+
+@RunWith(AndroidJUnit4.class)
+public class CursorRowMapperTest {
+    private static final String TAG = "CursorRowMapperTest";
+
+    private static final int BENCHMARK_ROWS = 10000;
+
+    private static final String[] POST_COLUMNS = new String[]{
+            PredatorContract.PostsEntry.COLUMN_ID,
+            PredatorContract.PostsEntry.COLUMN_POST_ID,
+            PredatorContract.PostsEntry.COLUMN_CATEGORY_ID,
+            PredatorContract.PostsEntry.COLUMN_DAY,
+            PredatorContract.PostsEntry.COLUMN_NAME,
+            PredatorContract.PostsEntry.COLUMN_TAGLINE,
+            PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT,
+            PredatorContract.PostsEntry.COLUMN_CREATED_AT,
+            PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS,
+            PredatorContract.PostsEntry.COLUMN_DISCUSSION_URL,
+            PredatorContract.PostsEntry.COLUMN_REDIRECT_URL,
+            PredatorContract.PostsEntry.COLUMN_VOTES_COUNT,
+            PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL,
+            PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL_ORIGINAL,
+            PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_300PX,
+            PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_850PX,
+            PredatorContract.PostsEntry.COLUMN_USER_NAME,
+            PredatorContract.PostsEntry.COLUMN_USER_USERNAME,
+            PredatorContract.PostsEntry.COLUMN_USER_ID,
+            PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_100PX,
+            PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL,
+            PredatorContract.PostsEntry.COLUMN_NOTIFICATION_SHOWN,
+            PredatorContract.PostsEntry.COLUMN_READ_STATUS
+    };
+
+    @Test
+    public void mapsOnlyProjectedColumns() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{
+                PredatorContract.PostsEntry.COLUMN_POST_ID,
+                PredatorContract.PostsEntry.COLUMN_NAME
+        });
+        cursor.addRow(new Object[]{12, "post 12"});
+        cursor.addRow(new Object[]{123, "post 123"});
+
+        List<Post> posts = PredatorDbValuesHelper.getPostsFromCursor(cursor);
+        cursor.close();
+
+        assertEquals(2, posts.size());
+        assertEquals(123, posts.get(1).getPostId());
+        assertEquals("post 123", posts.get(1).getName());
+        assertNull(posts.get(1).getTagline());
+    }
+
+    @Test
+    public void mapPostsBenchmark() {
+        MatrixCursor cursor = getPostsCursor();
+
+        long startTime = System.nanoTime();
+        List<Post> namedPosts = getPostsByColumnName(cursor);
+        long columnNameTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        List<Post> indexedPosts = PredatorDbValuesHelper.getPostsFromCursor(cursor);
+        long columnIndexTime = System.nanoTime() - startTime;
+        cursor.close();
+
+        assertEquals(namedPosts.size(), indexedPosts.size());
+        assertEquals(namedPosts.get(BENCHMARK_ROWS - 1).getName(), indexedPosts.get(BENCHMARK_ROWS - 1).getName());
+
+        Log.i(TAG, "mapPostsBenchmark: column names: " + columnNameTime / 1000000 + "ms, " +
+                "column indexes: " + columnIndexTime / 1000000 + "ms");
+    }
+
+    private MatrixCursor getPostsCursor() {
+        MatrixCursor cursor = new MatrixCursor(POST_COLUMNS, BENCHMARK_ROWS);
+        for (int i = 0; i < BENCHMARK_ROWS; i++) {
+            cursor.addRow(new Object[]{i, i, 1, "day", "name " + i, "tagline " + i, 2, "created at", i,
+                    "disc url", "redirect url", 5, "thumbnail", "thumbnail original", "screenshot 300px",
+                    "screenshot 850px", "user name", "user username", i, "user 100px", "user original", 0, 0});
+        }
+        return cursor;
+    }
+
+    /**
+     * Maps the posts the way PredatorDbValuesHelper used to, looking up every column by its name
+     * for every row.
+     */
+    private List<Post> getPostsByColumnName(Cursor cursor) {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < cursor.getCount(); i++) {
+            cursor.moveToPosition(i);
+            Post post = new Post();
+            post.setId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_ID));
+            post.setPostId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_POST_ID));
+            post.setCategoryId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_CATEGORY_ID));
+            post.setDay(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_DAY));
+            post.setName(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_NAME));
+            post.setTagline(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_TAGLINE));
+            post.setCommentCount(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT));
+            post.setCreatedAt(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_CREATED_AT));
+            post.setCreatedAtMillis(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS));
+            post.setDiscussionUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_DISCUSSION_URL));
+            post.setRedirectUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_REDIRECT_URL));
+            post.setVotesCount(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_VOTES_COUNT));
+            post.setThumbnailImageUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL));
+            post.setThumbnailImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL_ORIGINAL));
+            post.setScreenshotUrl300px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_300PX));
+            post.setScreenshotUrl850px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_850PX));
+            post.setUsername(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_NAME));
+            post.setUsernameAlternative(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_USERNAME));
+            post.setUserId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_USER_ID));
+            post.setUserImageUrl100px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_100PX));
+            post.setUserImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL));
+            post.setNotificationShown(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_NOTIFICATION_SHOWN));
+            post.setRead(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_READ_STATUS));
+            posts.add(post);
+        }
+        return posts;
+    }
+}
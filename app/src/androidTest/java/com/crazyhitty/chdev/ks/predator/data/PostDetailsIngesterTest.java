@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.crazyhitty.chdev.ks.predator.utils.CommentTimeCalculator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.fail;
+
+/**
+ * Verifies that a post details refresh is applied completely or not at all.
+ */
+
+@RunWith(AndroidJUnit4.class)
+public class PostDetailsIngesterTest {
+    // Negative id, so that it never clashes with the posts synced by the app.
+    private static final int POST_ID = -1017;
+
+    private static final String USER = "{\"id\":1,\"name\":\"user\",\"created_at\":\"2017-07-09T03:14:10.000-07:00\"," +
+            "\"image_url\":{\"100px\":\"100px\",\"original\":\"original\"}}";
+
+    @Before
+    public void setUp() {
+        PredatorDatabase.init(InstrumentationRegistry.getTargetContext());
+    }
+
+    @After
+    public void tearDown() {
+        PredatorDatabase.getInstance()
+                .deleteMediaForPost(POST_ID);
+        PredatorDatabase.getInstance()
+                .deleteCommentsForPost(POST_ID);
+        PredatorDatabase.getInstance()
+                .deleteInstallLinksForPost(POST_ID);
+        PredatorDbHelper.getInstance(InstrumentationRegistry.getTargetContext())
+                .getWritableDatabase()
+                .delete(PredatorContract.PostsEntry.TABLE_NAME,
+                        PredatorContract.PostsEntry.COLUMN_POST_ID + "=" + POST_ID,
+                        null);
+    }
+
+    @Test
+    public void incompleteResponseKeepsPreviousDetails() throws Exception {
+        new PostDetailsIngester(POST_ID).ingest(new StringReader(getResponse(3, 2, true)));
+        assertEquals(3, getCommentsCount());
+        assertEquals(2, getMediaCount());
+
+        try {
+            // Connection dropped after the new comments were already written.
+            new PostDetailsIngester(POST_ID, 1).ingest(new StringReader(getResponse(5, 1, false)));
+            fail("Incomplete response should not be ingested");
+        } catch (IOException e) {
+            // Expected.
+        }
+
+        assertEquals(3, getCommentsCount());
+        assertEquals(2, getMediaCount());
+    }
+
+    private String getResponse(int commentsCount, int mediaCount, boolean complete) {
+        StringBuilder response = new StringBuilder("{\"post\":{\"id\":" + POST_ID +
+                ",\"name\":\"post\",\"created_at\":\"2017-07-09T03:14:10.000-07:00\"," +
+                "\"thumbnail\":{\"image_url\":\"thumbnail\"},\"user\":" + USER + ",\"comments\":[");
+        for (int i = 0; i < commentsCount; i++) {
+            response.append(i == 0 ? "" : ",")
+                    .append("{\"id\":").append(i + 1)
+                    .append(",\"post_id\":").append(POST_ID)
+                    .append(",\"body\":\"comment\",\"created_at\":\"2017-07-09T03:14:10.000-07:00\",\"user\":")
+                    .append(USER)
+                    .append("}");
+        }
+        response.append("],\"media\":[");
+        for (int i = 0; i < mediaCount; i++) {
+            response.append(i == 0 ? "" : ",")
+                    .append("{\"id\":").append(i + 1).append(",\"media_type\":\"image\"}");
+        }
+        response.append("]");
+        return complete ? response.append("}}").toString() : response.toString();
+    }
+
+    private int getCommentsCount() {
+        return PredatorDatabase.getInstance()
+                .getCommentsForPost(POST_ID, CommentTimeCalculator.getInstance())
+                .size();
+    }
+
+    private int getMediaCount() {
+        return PredatorDatabase.getInstance()
+                .getMediaForPost(POST_ID)
+                .size();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Measures the latency of the dashboard query while a sync of 500 posts keeps writing
+ * to the database, with and without write ahead logging.
+ */
+
+@RunWith(AndroidJUnit4.class)
+public class PredatorDbContentionTest {
+    private static final String TAG = "PredatorDbContention";
+    private static final String DATABASE_NAME = "predator_contention_test.db";
+
+    private static final int SYNC_POSTS = 500;
+    private static final int DASHBOARD_READS = 100;
+
+    private final Context mContext = InstrumentationRegistry.getTargetContext();
+
+    @After
+    public void tearDown() {
+        mContext.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void dashboardLatencyWhileSyncingBenchmark() throws Exception {
+        long[] rollbackJournalLatencies = measureDashboardLatencies(false);
+        tearDown();
+        long[] writeAheadLogLatencies = measureDashboardLatencies(true);
+
+        Log.i(TAG, "dashboardLatencyWhileSyncingBenchmark: rollback journal: " + getSummary(rollbackJournalLatencies) +
+                ", write ahead log: " + getSummary(writeAheadLogLatencies));
+    }
+
+    private long[] measureDashboardLatencies(boolean writeAheadLoggingEnabled) throws Exception {
+        final PredatorDbHelper predatorDbHelper = new PredatorDbHelper(mContext,
+                DATABASE_NAME,
+                writeAheadLoggingEnabled);
+        final ContentValues[] bulkValues = getBulkPostValues();
+        predatorDbHelper.bulkAddOrUpdatePosts(bulkValues);
+
+        // Keep syncing the same posts until all of the dashboard reads are done.
+        final AtomicBoolean syncing = new AtomicBoolean(true);
+        Thread syncThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int votes = 0;
+                while (syncing.get()) {
+                    votes++;
+                    for (ContentValues values : bulkValues) {
+                        values.put(PredatorContract.PostsEntry.COLUMN_VOTES_COUNT, votes);
+                    }
+                    predatorDbHelper.bulkAddOrUpdatePosts(bulkValues);
+                }
+            }
+        });
+        syncThread.start();
+
+        long[] latencies = new long[DASHBOARD_READS];
+        try {
+            for (int i = 0; i < DASHBOARD_READS; i++) {
+                long startTime = System.nanoTime();
+                Cursor cursor = predatorDbHelper.getPosts(null,
+                        PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + "=1",
+                        null,
+                        PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + " DESC");
+                // getCount() is what actually executes the query.
+                assertEquals(SYNC_POSTS, cursor.getCount());
+                cursor.close();
+                latencies[i] = System.nanoTime() - startTime;
+            }
+        } finally {
+            syncing.set(false);
+            syncThread.join();
+        }
+
+        predatorDbHelper.checkpoint();
+        predatorDbHelper.close();
+        return latencies;
+    }
+
+    private String getSummary(long[] latencies) {
+        long[] sortedLatencies = latencies.clone();
+        Arrays.sort(sortedLatencies);
+        return "median: " + sortedLatencies[sortedLatencies.length / 2] / 1000 + "us, " +
+                "p90: " + sortedLatencies[sortedLatencies.length * 9 / 10] / 1000 + "us, " +
+                "max: " + sortedLatencies[sortedLatencies.length - 1] / 1000 + "us";
+    }
+
+    private ContentValues[] getBulkPostValues() {
+        ContentValues[] bulkValues = new ContentValues[SYNC_POSTS];
+        for (int i = 0; i < SYNC_POSTS; i++) {
+            ContentValues values = new ContentValues();
+            values.put(PredatorContract.PostsEntry.COLUMN_POST_ID, i + 1);
+            values.put(PredatorContract.PostsEntry.COLUMN_DAY, "day");
+            values.put(PredatorContract.PostsEntry.COLUMN_NAME, "name " + i);
+            values.put(PredatorContract.PostsEntry.COLUMN_TAGLINE, "tagline " + i);
+            values.put(PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS, i);
+            values.put(PredatorContract.PostsEntry.COLUMN_VOTES_COUNT, 0);
+            values.put(PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD, 1);
+            bulkValues[i] = values;
+        }
+        return bulkValues;
+    }
+}
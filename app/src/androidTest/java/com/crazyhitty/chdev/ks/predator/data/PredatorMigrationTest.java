@@ -0,0 +1,283 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.SparseArray;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Creates synthetic databases for every historical version, upgrades them to the
+ * latest version and verifies that the cached data is preserved and searchable, and that the
+ * resulting schema is identical to a freshly created database.
+ */
+
+@RunWith(AndroidJUnit4.class)
+public class PredatorMigrationTest {
+    private static final String MIGRATED_DATABASE_NAME = "predator_migration_test.db";
+    private static final String FRESH_DATABASE_NAME = "predator_migration_fresh_test.db";
+
+    /**
+     * Schema of every historical version, exactly as it was created by that version. These should
+     * never reference PredatorContract as the contract always represents the latest version.
+     */
+    private static final SparseArray<String[]> HISTORICAL_SCHEMAS = new SparseArray<>();
+
+    static {
+        HISTORICAL_SCHEMAS.put(14, new String[]{
+                "CREATE TABLE posts_table(id INTEGER PRIMARY KEY AUTOINCREMENT, post_id INTEGER UNIQUE, collection_id INTEGER, category_id INTEGER, day TEXT, name TEXT, tagline TEXT, comment_count INTEGER, created_at TEXT, created_at_millis INTEGER, discussion_url TEXT, redirect_url TEXT, votes_count INTEGER, thumbnail_image_url TEXT, thumbnail_image_url_original TEXT, screenshot_url_300px TEXT, screenshot_url_800px TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT, is_in_collection INTEGER DEFAULT 0, for_dashboard INTEGER DEFAULT 0, notification_shown INTEGER DEFAULT 0, read_status INTEGER DEFAULT 0);",
+                "CREATE TABLE users_table(id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER UNIQUE, created_at TEXT, name TEXT, username TEXT, headline TEXT, website_url TEXT, image_url_100px TEXT, image_url_original TEXT, maker_post_ids TEXT, hunter_post_ids TEXT, voted_post_ids TEXT, follower_user_ids TEXT, following_user_ids TEXT);",
+                "CREATE TABLE comments_table(id INTEGER PRIMARY KEY AUTOINCREMENT, comment_id INTEGER UNIQUE, body TEXT, created_at TEXT, created_at_millis INTEGER, parent_comment_id INTEGER, post_id INTEGER, user_id INTEGER, user_created_at TEXT, user_name TEXT, user_username TEXT, user_headline TEXT, user_image_url_100px TEXT, user_image_url_original TEXT, user_website_url TEXT, url TEXT, votes INTEGER, is_sticky INTEGER, is_maker INTEGER, is_hunter INTEGER, is_live_guest INTEGER);",
+                "CREATE TABLE install_links_table(id INTEGER PRIMARY KEY AUTOINCREMENT, install_link_id INTEGER UNIQUE, post_id INTEGER, created_at TEXT, is_primary_link INTEGER, redirect_url TEXT, platform TEXT);",
+                "CREATE TABLE media_table(id INTEGER PRIMARY KEY AUTOINCREMENT, media_id INTEGER UNIQUE, post_id INTEGER, media_type TEXT, platform TEXT, video_id TEXT, original_width INTEGER, original_height INTEGER, image_url TEXT);",
+                "CREATE TABLE collections_table(id INTEGER PRIMARY KEY AUTOINCREMENT, collection_id INTEGER UNIQUE, name TEXT, title TEXT, created_at TEXT, updated_at TEXT, featured_at TEXT, subscriber_count TEXT, category_id INTEGER, collection_url TEXT, post_counts INTEGER, background_image_url TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT);",
+                "CREATE TABLE category_table(id INTEGER PRIMARY KEY AUTOINCREMENT, category_id INTEGER UNIQUE, slug TEXT, name TEXT, color TEXT, item_name TEXT);",
+                // Synthetic cached data.
+                "INSERT INTO posts_table(post_id, name, for_dashboard) VALUES (12, 'post 12', 1);",
+                "INSERT INTO posts_table(post_id, name, for_dashboard) VALUES (123, 'post 123', 1);",
+                "INSERT INTO comments_table(comment_id, post_id, body) VALUES (1, 12, 'comment');",
+                "INSERT INTO users_table(user_id, name, hunter_post_ids, voted_post_ids, following_user_ids) VALUES (1, 'user 1', '12', '123,12', '2');",
+                "INSERT INTO users_table(user_id, name, maker_post_ids, follower_user_ids) VALUES (2, 'user 2', '123', '1');"
+        });
+        HISTORICAL_SCHEMAS.put(15, new String[]{
+                "CREATE TABLE posts_table(id INTEGER PRIMARY KEY AUTOINCREMENT, post_id INTEGER UNIQUE, collection_id INTEGER, category_id INTEGER, day TEXT, name TEXT, tagline TEXT, comment_count INTEGER, created_at TEXT, created_at_millis INTEGER, discussion_url TEXT, redirect_url TEXT, votes_count INTEGER, thumbnail_image_url TEXT, thumbnail_image_url_original TEXT, screenshot_url_300px TEXT, screenshot_url_800px TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT, is_in_collection INTEGER DEFAULT 0, for_dashboard INTEGER DEFAULT 0, notification_shown INTEGER DEFAULT 0, read_status INTEGER DEFAULT 0);",
+                "CREATE TABLE users_table(id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER UNIQUE, created_at TEXT, name TEXT, username TEXT, headline TEXT, website_url TEXT, image_url_100px TEXT, image_url_original TEXT);",
+                "CREATE TABLE comments_table(id INTEGER PRIMARY KEY AUTOINCREMENT, comment_id INTEGER UNIQUE, body TEXT, created_at TEXT, created_at_millis INTEGER, parent_comment_id INTEGER, post_id INTEGER, user_id INTEGER, user_created_at TEXT, user_name TEXT, user_username TEXT, user_headline TEXT, user_image_url_100px TEXT, user_image_url_original TEXT, user_website_url TEXT, url TEXT, votes INTEGER, is_sticky INTEGER, is_maker INTEGER, is_hunter INTEGER, is_live_guest INTEGER);",
+                "CREATE TABLE install_links_table(id INTEGER PRIMARY KEY AUTOINCREMENT, install_link_id INTEGER UNIQUE, post_id INTEGER, created_at TEXT, is_primary_link INTEGER, redirect_url TEXT, platform TEXT);",
+                "CREATE TABLE media_table(id INTEGER PRIMARY KEY AUTOINCREMENT, media_id INTEGER UNIQUE, post_id INTEGER, media_type TEXT, platform TEXT, video_id TEXT, original_width INTEGER, original_height INTEGER, image_url TEXT);",
+                "CREATE TABLE collections_table(id INTEGER PRIMARY KEY AUTOINCREMENT, collection_id INTEGER UNIQUE, name TEXT, title TEXT, created_at TEXT, updated_at TEXT, featured_at TEXT, subscriber_count TEXT, category_id INTEGER, collection_url TEXT, post_counts INTEGER, background_image_url TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT);",
+                "CREATE TABLE category_table(id INTEGER PRIMARY KEY AUTOINCREMENT, category_id INTEGER UNIQUE, slug TEXT, name TEXT, color TEXT, item_name TEXT);",
+                "CREATE TABLE post_users_table(id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, post_id INTEGER NOT NULL, role INTEGER NOT NULL, UNIQUE(post_id, role, user_id));",
+                "CREATE INDEX post_users_user_id_role_index ON post_users_table(user_id, role);",
+                "CREATE TABLE user_follows_table(id INTEGER PRIMARY KEY AUTOINCREMENT, follower_user_id INTEGER NOT NULL, following_user_id INTEGER NOT NULL, UNIQUE(follower_user_id, following_user_id));",
+                "CREATE INDEX user_follows_following_user_id_index ON user_follows_table(following_user_id);",
+                // Synthetic cached data.
+                "INSERT INTO posts_table(post_id, name, for_dashboard) VALUES (12, 'post 12', 1);",
+                "INSERT INTO posts_table(post_id, name, for_dashboard) VALUES (123, 'post 123', 1);",
+                "INSERT INTO comments_table(comment_id, post_id, body) VALUES (1, 12, 'comment');",
+                "INSERT INTO users_table(user_id, name) VALUES (1, 'user 1');",
+                "INSERT INTO users_table(user_id, name) VALUES (2, 'user 2');",
+                "INSERT INTO post_users_table(user_id, post_id, role) VALUES (1, 12, 1);",
+                "INSERT INTO user_follows_table(follower_user_id, following_user_id) VALUES (1, 2);"
+        });
+        HISTORICAL_SCHEMAS.put(16, new String[]{
+                "CREATE TABLE posts_table(id INTEGER PRIMARY KEY AUTOINCREMENT, post_id INTEGER UNIQUE, collection_id INTEGER, category_id INTEGER, day TEXT, name TEXT, tagline TEXT, comment_count INTEGER, created_at TEXT, created_at_millis INTEGER, discussion_url TEXT, redirect_url TEXT, votes_count INTEGER, thumbnail_image_url TEXT, thumbnail_image_url_original TEXT, screenshot_url_300px TEXT, screenshot_url_800px TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT, is_in_collection INTEGER DEFAULT 0, for_dashboard INTEGER DEFAULT 0, notification_shown INTEGER DEFAULT 0, read_status INTEGER DEFAULT 0);",
+                "CREATE TABLE users_table(id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER UNIQUE, created_at TEXT, name TEXT, username TEXT, headline TEXT, website_url TEXT, image_url_100px TEXT, image_url_original TEXT);",
+                "CREATE TABLE comments_table(id INTEGER PRIMARY KEY AUTOINCREMENT, comment_id INTEGER UNIQUE, body TEXT, created_at TEXT, created_at_millis INTEGER, parent_comment_id INTEGER, post_id INTEGER, user_id INTEGER, user_created_at TEXT, user_name TEXT, user_username TEXT, user_headline TEXT, user_image_url_100px TEXT, user_image_url_original TEXT, user_website_url TEXT, url TEXT, votes INTEGER, is_sticky INTEGER, is_maker INTEGER, is_hunter INTEGER, is_live_guest INTEGER);",
+                "CREATE TABLE install_links_table(id INTEGER PRIMARY KEY AUTOINCREMENT, install_link_id INTEGER UNIQUE, post_id INTEGER, created_at TEXT, is_primary_link INTEGER, redirect_url TEXT, platform TEXT);",
+                "CREATE TABLE media_table(id INTEGER PRIMARY KEY AUTOINCREMENT, media_id INTEGER UNIQUE, post_id INTEGER, media_type TEXT, platform TEXT, video_id TEXT, original_width INTEGER, original_height INTEGER, image_url TEXT);",
+                "CREATE TABLE collections_table(id INTEGER PRIMARY KEY AUTOINCREMENT, collection_id INTEGER UNIQUE, name TEXT, title TEXT, created_at TEXT, updated_at TEXT, featured_at TEXT, subscriber_count TEXT, category_id INTEGER, collection_url TEXT, post_counts INTEGER, background_image_url TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT);",
+                "CREATE TABLE category_table(id INTEGER PRIMARY KEY AUTOINCREMENT, category_id INTEGER UNIQUE, slug TEXT, name TEXT, color TEXT, item_name TEXT);",
+                "CREATE TABLE post_users_table(id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, post_id INTEGER NOT NULL, role INTEGER NOT NULL, UNIQUE(post_id, role, user_id));",
+                "CREATE INDEX post_users_user_id_role_index ON post_users_table(user_id, role);",
+                "CREATE TABLE user_follows_table(id INTEGER PRIMARY KEY AUTOINCREMENT, follower_user_id INTEGER NOT NULL, following_user_id INTEGER NOT NULL, UNIQUE(follower_user_id, following_user_id));",
+                "CREATE INDEX user_follows_following_user_id_index ON user_follows_table(following_user_id);",
+                "CREATE INDEX posts_dashboard_created_at_index ON posts_table(for_dashboard, created_at_millis);",
+                "CREATE INDEX posts_dashboard_day_votes_index ON posts_table(for_dashboard, day, votes_count);",
+                "CREATE INDEX posts_notification_index ON posts_table(for_dashboard, notification_shown, read_status, created_at_millis);",
+                "CREATE INDEX posts_collection_index ON posts_table(collection_id, is_in_collection, votes_count);",
+                "CREATE INDEX comments_post_id_index ON comments_table(post_id, created_at_millis, id);",
+                "CREATE INDEX media_post_id_index ON media_table(post_id);",
+                "CREATE INDEX install_links_post_id_index ON install_links_table(post_id);",
+                // Synthetic cached data.
+                "INSERT INTO posts_table(post_id, name, for_dashboard) VALUES (12, 'post 12', 1);",
+                "INSERT INTO posts_table(post_id, name, for_dashboard) VALUES (123, 'post 123', 1);",
+                "INSERT INTO comments_table(comment_id, post_id, body) VALUES (1, 12, 'comment');",
+                "INSERT INTO users_table(user_id, name) VALUES (1, 'user 1');",
+                "INSERT INTO users_table(user_id, name) VALUES (2, 'user 2');",
+                "INSERT INTO post_users_table(user_id, post_id, role) VALUES (1, 12, 1);",
+                "INSERT INTO user_follows_table(follower_user_id, following_user_id) VALUES (1, 2);"
+        });
+        HISTORICAL_SCHEMAS.put(17, new String[]{
+                "CREATE TABLE posts_table(id INTEGER PRIMARY KEY AUTOINCREMENT, post_id INTEGER UNIQUE, collection_id INTEGER, category_id INTEGER, day TEXT, name TEXT, tagline TEXT, comment_count INTEGER, created_at TEXT, created_at_millis INTEGER, discussion_url TEXT, redirect_url TEXT, votes_count INTEGER, thumbnail_image_url TEXT, thumbnail_image_url_original TEXT, screenshot_url_300px TEXT, screenshot_url_800px TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT, is_in_collection INTEGER DEFAULT 0, for_dashboard INTEGER DEFAULT 0, notification_shown INTEGER DEFAULT 0, read_status INTEGER DEFAULT 0);",
+                "CREATE TABLE users_table(id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER UNIQUE, created_at TEXT, name TEXT, username TEXT, headline TEXT, website_url TEXT, image_url_100px TEXT, image_url_original TEXT);",
+                "CREATE TABLE comments_table(id INTEGER PRIMARY KEY AUTOINCREMENT, comment_id INTEGER UNIQUE, body TEXT, created_at TEXT, created_at_millis INTEGER, parent_comment_id INTEGER, post_id INTEGER, user_id INTEGER, user_created_at TEXT, user_name TEXT, user_username TEXT, user_headline TEXT, user_image_url_100px TEXT, user_image_url_original TEXT, user_website_url TEXT, url TEXT, votes INTEGER, is_sticky INTEGER, is_maker INTEGER, is_hunter INTEGER, is_live_guest INTEGER);",
+                "CREATE TABLE install_links_table(id INTEGER PRIMARY KEY AUTOINCREMENT, install_link_id INTEGER UNIQUE, post_id INTEGER, created_at TEXT, is_primary_link INTEGER, redirect_url TEXT, platform TEXT);",
+                "CREATE TABLE media_table(id INTEGER PRIMARY KEY AUTOINCREMENT, media_id INTEGER UNIQUE, post_id INTEGER, media_type TEXT, platform TEXT, video_id TEXT, original_width INTEGER, original_height INTEGER, image_url TEXT);",
+                "CREATE TABLE collections_table(id INTEGER PRIMARY KEY AUTOINCREMENT, collection_id INTEGER UNIQUE, name TEXT, title TEXT, created_at TEXT, updated_at TEXT, featured_at TEXT, subscriber_count TEXT, category_id INTEGER, collection_url TEXT, post_counts INTEGER, background_image_url TEXT, user_name TEXT, user_username TEXT, user_id INTEGER, user_image_url_100px TEXT, user_image_url_original TEXT);",
+                "CREATE TABLE category_table(id INTEGER PRIMARY KEY AUTOINCREMENT, category_id INTEGER UNIQUE, slug TEXT, name TEXT, color TEXT, item_name TEXT);",
+                "CREATE TABLE post_users_table(id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, post_id INTEGER NOT NULL, role INTEGER NOT NULL, UNIQUE(post_id, role, user_id));",
+                "CREATE INDEX post_users_user_id_role_index ON post_users_table(user_id, role);",
+                "CREATE TABLE user_follows_table(id INTEGER PRIMARY KEY AUTOINCREMENT, follower_user_id INTEGER NOT NULL, following_user_id INTEGER NOT NULL, UNIQUE(follower_user_id, following_user_id));",
+                "CREATE INDEX user_follows_following_user_id_index ON user_follows_table(following_user_id);",
+                "CREATE INDEX posts_dashboard_created_at_post_id_index ON posts_table(for_dashboard, created_at_millis, post_id);",
+                "CREATE INDEX posts_dashboard_day_votes_post_id_index ON posts_table(for_dashboard, day, votes_count, post_id);",
+                "CREATE INDEX posts_notification_index ON posts_table(for_dashboard, notification_shown, read_status, created_at_millis);",
+                "CREATE INDEX posts_collection_index ON posts_table(collection_id, is_in_collection, votes_count);",
+                "CREATE INDEX comments_post_id_index ON comments_table(post_id, created_at_millis, id);",
+                "CREATE INDEX media_post_id_index ON media_table(post_id);",
+                "CREATE INDEX install_links_post_id_index ON install_links_table(post_id);",
+                // Synthetic cached data.
+                "INSERT INTO posts_table(post_id, name, tagline, for_dashboard) VALUES (12, 'post 12', 'offline reader', 1);",
+                "INSERT INTO posts_table(post_id, name, tagline, for_dashboard) VALUES (123, 'post 123', 'design tools', 1);",
+                "INSERT INTO collections_table(collection_id, name, title) VALUES (7, 'Design tools', 'Tools for designers');",
+                "INSERT INTO comments_table(comment_id, post_id, body) VALUES (1, 12, 'comment');",
+                "INSERT INTO users_table(user_id, name) VALUES (1, 'user 1');",
+                "INSERT INTO users_table(user_id, name) VALUES (2, 'user 2');",
+                "INSERT INTO post_users_table(user_id, post_id, role) VALUES (1, 12, 1);",
+                "INSERT INTO user_follows_table(follower_user_id, following_user_id) VALUES (1, 2);"
+        });
+    }
+
+    private final Context mContext = InstrumentationRegistry.getTargetContext();
+
+    @After
+    public void tearDown() {
+        mContext.deleteDatabase(MIGRATED_DATABASE_NAME);
+        mContext.deleteDatabase(FRESH_DATABASE_NAME);
+    }
+
+    @Test
+    public void upgradeFromEveryHistoricalVersion() {
+        for (int i = 0; i < HISTORICAL_SCHEMAS.size(); i++) {
+            int version = HISTORICAL_SCHEMAS.keyAt(i);
+            createHistoricalDatabase(version, HISTORICAL_SCHEMAS.valueAt(i));
+
+            PredatorDbHelper migratedDbHelper = new PredatorDbHelper(mContext, MIGRATED_DATABASE_NAME);
+            SQLiteDatabase migratedDb = migratedDbHelper.getWritableDatabase();
+            SQLiteDatabase freshDb = new PredatorDbHelper(mContext, FRESH_DATABASE_NAME).getWritableDatabase();
+
+            assertEquals(PredatorDbHelper.DATABASE_VERSION, migratedDb.getVersion());
+            assertEquals("Schema mismatch after upgrading from " + version,
+                    getSchema(freshDb),
+                    getSchema(migratedDb));
+
+            // Cached data should survive the upgrade.
+            assertEquals("Posts lost while upgrading from " + version,
+                    2, getCount(migratedDb, PredatorContract.PostsEntry.TABLE_NAME));
+            assertEquals("Users lost while upgrading from " + version,
+                    2, getCount(migratedDb, PredatorContract.UsersEntry.TABLE_NAME));
+            assertEquals("Comments lost while upgrading from " + version,
+                    1, getCount(migratedDb, PredatorContract.CommentsEntry.TABLE_NAME));
+            // Posts stored before the search tables existed should be searchable as well.
+            assertEquals("Posts not searchable after upgrading from " + version,
+                    2, getCount(migratedDbHelper.searchPosts("post*")));
+
+            migratedDb.close();
+            freshDb.close();
+            tearDown();
+        }
+    }
+
+    @Test
+    public void upgradeFrom14MovesUserIdsIntoRelationTables() {
+        createHistoricalDatabase(14, HISTORICAL_SCHEMAS.get(14));
+
+        SQLiteDatabase db = new PredatorDbHelper(mContext, MIGRATED_DATABASE_NAME).getWritableDatabase();
+
+        // Hunter of 12, upvoter of 123 and 12 and maker of 123.
+        assertEquals(4, getCount(db, PredatorContract.PostUsersEntry.TABLE_NAME));
+        Cursor cursor = db.query(PredatorContract.PostUsersEntry.TABLE_NAME,
+                null,
+                PredatorContract.PostUsersEntry.COLUMN_POST_ID + "=12",
+                null,
+                null,
+                null,
+                null);
+        assertEquals(2, cursor.getCount());
+        cursor.close();
+
+        // Both sides describe the same follow, so it should only be stored once.
+        assertEquals(1, getCount(db, PredatorContract.UserFollowsEntry.TABLE_NAME));
+        db.close();
+    }
+
+    @Test
+    public void upgradeFrom17IndexesStoredPostsAndCollections() {
+        createHistoricalDatabase(17, HISTORICAL_SCHEMAS.get(17));
+
+        PredatorDbHelper dbHelper = new PredatorDbHelper(mContext, MIGRATED_DATABASE_NAME);
+
+        // Name and tagline of posts, name and title of collections are searchable.
+        assertEquals(1, getCount(dbHelper.searchPosts("123*")));
+        assertEquals(1, getCount(dbHelper.searchPosts("offline* reader*")));
+        assertEquals(1, getCount(dbHelper.searchCollections("design* tools*")));
+        assertEquals(1, getCount(dbHelper.searchCollections("designers*")));
+        dbHelper.close();
+    }
+
+    private void createHistoricalDatabase(int version, String[] statements) {
+        mContext.deleteDatabase(MIGRATED_DATABASE_NAME);
+        SQLiteDatabase db = mContext.openOrCreateDatabase(MIGRATED_DATABASE_NAME, Context.MODE_PRIVATE, null);
+        for (String statement : statements) {
+            db.execSQL(statement);
+        }
+        db.setVersion(version);
+        db.close();
+    }
+
+    private static List<String> getSchema(SQLiteDatabase db) {
+        List<String> schema = new ArrayList<>();
+        Cursor tables = db.rawQuery("SELECT type, name, tbl_name FROM sqlite_master " +
+                "WHERE name NOT LIKE 'sqlite_%' AND name != 'android_metadata'", null);
+        while (tables.moveToNext()) {
+            String type = tables.getString(0);
+            String name = tables.getString(1);
+            if ("table".equals(type)) {
+                Cursor columns = db.rawQuery("PRAGMA table_info(" + name + ")", null);
+                while (columns.moveToNext()) {
+                    schema.add(name + "." + columns.getString(1) + " " +
+                            columns.getString(2) + " " +
+                            columns.getInt(3) + " " +
+                            columns.getString(4) + " " +
+                            columns.getInt(5));
+                }
+                columns.close();
+            } else {
+                schema.add(type + " " + name + " on " + tables.getString(2));
+            }
+        }
+        tables.close();
+        Collections.sort(schema);
+        return schema;
+    }
+
+    private static int getCount(Cursor cursor) {
+        int count = cursor.getCount();
+        cursor.close();
+        return count;
+    }
+
+    private static int getCount(SQLiteDatabase db, String tableName) {
+        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + tableName, null);
+        cursor.moveToFirst();
+        int count = cursor.getInt(0);
+        cursor.close();
+        return count;
+    }
+}
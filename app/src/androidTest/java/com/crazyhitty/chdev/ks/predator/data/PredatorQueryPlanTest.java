@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.crazyhitty.chdev.ks.predator.models.Post;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Runs every read query of PredatorDatabase, captures the sql that was executed and
+ * verifies via EXPLAIN QUERY PLAN that none of the filtered queries fall back to a full table
+ * scan. Queries which can't run with default arguments, like the dashboard pages, are called
+ * explicitly and must be captured.
+ */
+
+@RunWith(AndroidJUnit4.class)
+public class PredatorQueryPlanTest {
+    /**
+     * Read queries which need real arguments, they are called explicitly instead of by reflection.
+     */
+    private static final List<String> EXPLICIT_QUERIES = Arrays.asList("getPostsPage",
+            "getDashboardPostCounts");
+
+    private final List<String> mQueries = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() {
+        PredatorDbHelper.sQueryListener = new PredatorDbHelper.QueryListener() {
+            @Override
+            public void onQuery(String sql) {
+                mQueries.add(sql);
+            }
+        };
+        PredatorDatabase.init(InstrumentationRegistry.getTargetContext());
+    }
+
+    @After
+    public void tearDown() {
+        PredatorDbHelper.sQueryListener = null;
+    }
+
+    @Test
+    public void filteredQueriesUseIndexes() throws Exception {
+        PredatorDatabase predatorDatabase = PredatorDatabase.getInstance();
+        for (Method method : PredatorDatabase.class.getDeclaredMethods()) {
+            if (!isReadQuery(method) || EXPLICIT_QUERIES.contains(method.getName())) {
+                continue;
+            }
+            try {
+                method.invoke(predatorDatabase, getArguments(method));
+            } catch (InvocationTargetException e) {
+                // Null helpers passed as arguments may fail while mapping rows, the query itself
+                // has already been captured at that point.
+            }
+        }
+        callExplicitQueries(predatorDatabase);
+        // Stop capturing so that the EXPLAIN statements below are not recorded as well.
+        PredatorDbHelper.sQueryListener = null;
+        assertFalse("No queries were captured", mQueries.isEmpty());
+
+        SQLiteDatabase db = PredatorDbHelper.getInstance(InstrumentationRegistry.getTargetContext())
+                .getReadableDatabase();
+        List<String> fullTableScans = new ArrayList<>();
+        for (String sql : mQueries) {
+            if (!sql.contains(" WHERE ")) {
+                // Unfiltered reads are expected to walk the whole table.
+                continue;
+            }
+            Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, getBindArgs(sql));
+            try {
+                int detailIndex = cursor.getColumnIndexOrThrow("detail");
+                while (cursor.moveToNext()) {
+                    String detail = cursor.getString(detailIndex);
+                    if (isFullTableScan(detail)) {
+                        fullTableScans.add(detail + " -> " + sql);
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        assertTrue("Full table scans found: " + fullTableScans, fullTableScans.isEmpty());
+    }
+
+    private void callExplicitQueries(PredatorDatabase predatorDatabase) {
+        Post lastPost = new Post();
+        lastPost.setPostId(1);
+        lastPost.setDay("2017-01-01");
+        lastPost.setCreatedAtMillis(1);
+        lastPost.setVotesCount(1);
+
+        int queryCount = mQueries.size();
+        predatorDatabase.getPostsPage(PredatorSharedPreferences.POSTS_SORTING_TYPE.LATEST, null, 1);
+        assertQueryCaptured("latest posts first page", queryCount, "created_at_millis DESC");
+
+        queryCount = mQueries.size();
+        predatorDatabase.getPostsPage(PredatorSharedPreferences.POSTS_SORTING_TYPE.LATEST, lastPost, 1);
+        assertQueryCaptured("latest posts next page", queryCount, "created_at_millis<=?");
+
+        queryCount = mQueries.size();
+        predatorDatabase.getPostsPage(PredatorSharedPreferences.POSTS_SORTING_TYPE.VOTE_COUNT, null, 1);
+        assertQueryCaptured("voted posts first page", queryCount, "votes_count DESC");
+
+        queryCount = mQueries.size();
+        predatorDatabase.getPostsPage(PredatorSharedPreferences.POSTS_SORTING_TYPE.VOTE_COUNT, lastPost, 1);
+        assertQueryCaptured("voted posts next page", queryCount, "day<=?");
+
+        queryCount = mQueries.size();
+        predatorDatabase.getDashboardPostCounts(Arrays.asList(1, 2, 3));
+        assertQueryCaptured("dashboard post counts", queryCount, "post_id IN (1,2,3)");
+    }
+
+    private void assertQueryCaptured(String description, int queryCount, String expectedSql) {
+        for (int i = queryCount; i < mQueries.size(); i++) {
+            if (mQueries.get(i).contains(expectedSql)) {
+                return;
+            }
+        }
+        fail("Query of " + description + " was not captured, expected sql containing: " + expectedSql);
+    }
+
+    private boolean isReadQuery(Method method) {
+        return Modifier.isPublic(method.getModifiers()) &&
+                !Modifier.isStatic(method.getModifiers()) &&
+                method.getName().startsWith("get");
+    }
+
+    private Object[] getArguments(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Object[] arguments = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] == int.class) {
+                arguments[i] = 1;
+            }
+        }
+        return arguments;
+    }
+
+    private String[] getBindArgs(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        String[] bindArgs = new String[count];
+        for (int i = 0; i < count; i++) {
+            bindArgs[i] = "1";
+        }
+        return bindArgs;
+    }
+
+    private boolean isFullTableScan(String detail) {
+        return detail.matches("^SCAN (TABLE )?\\w+_table( AS \\w+)?$");
+    }
+}
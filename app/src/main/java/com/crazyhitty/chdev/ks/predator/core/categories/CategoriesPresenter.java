@@ -32,15 +32,18 @@ import com.crazyhitty.chdev.ks.predator.data.PredatorDbValuesHelper;
 import com.crazyhitty.chdev.ks.predator.models.Category;
 import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
+import com.crazyhitty.chdev.ks.predator.utils.NotModifiedFallback;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.models.CategoriesData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import io.reactivex.Observable;
 import io.reactivex.ObservableEmitter;
@@ -76,23 +79,47 @@ public class CategoriesPresenter implements CategoriesContract.Presenter {
 
     @Override
     public void fetchCategories(final Context context, final String token) {
-        Observable<List<Category>> categoriesObservable = ProductHuntRestApi.getApi()
-                .getCategories(CoreUtils.getAuthToken(token))
+        Observable<List<Category>> categoriesObservable = Observable.defer(new Callable<ObservableSource<CategoriesData>>() {
+            @Override
+            public ObservableSource<CategoriesData> call() throws Exception {
+                // Unchanged categories can only be skipped if they are still stored.
+                return ProductHuntRestApi.getApi()
+                        .getCategories(CoreUtils.getAuthToken(token),
+                                ProductHuntHttpClient.getConditionalRequest(PredatorDatabase.getInstance().hasCategories()));
+            }
+        })
                 .map(new Function<CategoriesData, List<Category>>() {
                     @Override
                     public List<Category> apply(CategoriesData categoriesData) throws Exception {
-                        // Delete existing categories from category table.
-                        PredatorDatabase.getInstance()
-                                .deleteAllCategories();
-
-                        // Insert new categories into category table.
+                        // Replace the previous categories atomically, so that they are never read half way.
                         PredatorDatabase.getInstance()
-                                .insertCategories(PredatorDbValuesHelper.getBulkContentValuesForCategories(categoriesData.getCategories()));
+                                .beginTransaction();
+                        try {
+                            // Delete existing categories from category table.
+                            PredatorDatabase.getInstance()
+                                    .deleteAllCategories();
+
+                            // Insert new categories into category table.
+                            PredatorDatabase.getInstance()
+                                    .insertCategories(PredatorDbValuesHelper.getBulkContentValuesForCategories(categoriesData.getCategories()));
+                            PredatorDatabase.getInstance()
+                                    .setTransactionSuccessful();
+                        } finally {
+                            PredatorDatabase.getInstance()
+                                    .endTransaction();
+                        }
 
                         return PredatorDatabase.getInstance()
                                 .getCategories();
                     }
                 })
+                .onErrorResumeNext(new NotModifiedFallback<List<Category>>() {
+                    @Override
+                    protected List<Category> getStoredData() throws Exception {
+                        return PredatorDatabase.getInstance()
+                                .getCategories();
+                    }
+                })
                 .flatMap(new Function<List<Category>, ObservableSource<List<Category>>>() {
                     @Override
                     public ObservableSource<List<Category>> apply(final List<Category> categories) throws Exception {
@@ -138,30 +165,36 @@ public class CategoriesPresenter implements CategoriesContract.Presenter {
             public void subscribe(ObservableEmitter<List<Category>> emitter) throws Exception {
                 // Add categories.
                 // Fetch categories from categories.json located in res/raw.
+                // The file is parsed while it is being read, instead of being copied into a string first.
                 InputStream inputStream = context.getResources().openRawResource(categories);
-                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-                String categoriesJsonStr = "";
+                JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(inputStream, "UTF-8")));
+                CategoriesData categoriesData;
                 try {
-                    String value;
-                    while ((value = reader.readLine()) != null) {
-                        categoriesJsonStr = categoriesJsonStr.concat(value);
+                    categoriesData = ProductHuntHttpClient.getGson().fromJson(reader, CategoriesData.class);
+                } finally {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        Logger.e(TAG, "subscribe: unable to close categories.json", e);
                     }
-                    reader.close();
-                    inputStream.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
                 }
 
-                // Convert librariesJsonStr to CategoriesData object via gson.
-                CategoriesData categoriesData = new Gson().fromJson(categoriesJsonStr, CategoriesData.class);
-
-                // Delete existing categories from category table.
                 PredatorDatabase.getInstance()
-                        .deleteAllCategories();
-
-                // Insert new categories into category table.
-                PredatorDatabase.getInstance()
-                        .insertCategories(PredatorDbValuesHelper.getBulkContentValuesForCategories(categoriesData.getCategories()));
+                        .beginTransaction();
+                try {
+                    // Delete existing categories from category table.
+                    PredatorDatabase.getInstance()
+                            .deleteAllCategories();
+
+                    // Insert new categories into category table.
+                    PredatorDatabase.getInstance()
+                            .insertCategories(PredatorDbValuesHelper.getBulkContentValuesForCategories(categoriesData.getCategories()));
+                    PredatorDatabase.getInstance()
+                            .setTransactionSuccessful();
+                } finally {
+                    PredatorDatabase.getInstance()
+                            .endTransaction();
+                }
 
                 List<Category> categories = PredatorDatabase.getInstance()
                         .getCategories();
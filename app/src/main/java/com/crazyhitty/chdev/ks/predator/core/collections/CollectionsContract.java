@@ -42,6 +42,8 @@ public interface CollectionsContract {
         void showCollections(List<Collection> collections);
 
         void unableToFetchCollections(boolean onLoadMore, boolean wasLoadingOfflinePosts, String errorMessage);
+
+        void offlineDataStale();
     }
 
     interface Presenter extends BasePresenter {
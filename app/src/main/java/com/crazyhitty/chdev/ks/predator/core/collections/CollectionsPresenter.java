@@ -26,13 +26,10 @@ package com.crazyhitty.chdev.ks.predator.core.collections;
 
 import android.support.annotation.NonNull;
 
+import com.crazyhitty.chdev.ks.predator.data.CollectionsRepository;
 import com.crazyhitty.chdev.ks.predator.data.PredatorDatabase;
-import com.crazyhitty.chdev.ks.predator.data.PredatorDbValuesHelper;
 import com.crazyhitty.chdev.ks.predator.models.Collection;
-import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.models.CollectionsData;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
 
 import java.util.List;
 
@@ -55,8 +52,7 @@ import io.reactivex.schedulers.Schedulers;
 
 public class CollectionsPresenter implements CollectionsContract.Presenter {
     private static final String TAG = "CollectionsPresenter";
-    private static final int PER_PAGE_COUNT = 50;
-    private static int sPage = 1;
+    private static int sPage = CollectionsRepository.FIRST_PAGE;
     @NonNull
     private CollectionsContract.View mView;
     private CompositeDisposable mCompositeDisposable;
@@ -89,7 +85,10 @@ public class CollectionsPresenter implements CollectionsContract.Presenter {
         mCompositeDisposable.add(collectionsCursorObservable.subscribeWith(new DisposableObserver<List<Collection>>() {
             @Override
             public void onComplete() {
-                // Done.
+                if (CollectionsRepository.getInstance().isStale(CollectionsRepository.FIRST_PAGE)) {
+                    // Stored collections are shown already, revalidate them in the background.
+                    mView.offlineDataStale();
+                }
             }
 
             @Override
@@ -107,30 +106,13 @@ public class CollectionsPresenter implements CollectionsContract.Presenter {
 
     @Override
     public void getLatestCollections(final String token, final boolean clearPrevious) {
-        Observable<List<Collection>> collectionsCursorObservable = ProductHuntRestApi.getApi()
-                .getCollections(CoreUtils.getAuthToken(token), sPage, PER_PAGE_COUNT, true)
-                .map(new Function<CollectionsData, List<Collection>>() {
-                    @Override
-                    public List<Collection> apply(CollectionsData collectionsData) throws Exception {
-                        if (clearPrevious) {
-                            // Clear previous collections from database.
-                            PredatorDatabase.getInstance()
-                                    .deleteAllCollections();
-
-                            // Clear posts currently available for collections from database.
-                            PredatorDatabase.getInstance()
-                                    .deletePostsForCollections();
-                        }
-
-                        // Add content to the database.
-                        PredatorDatabase.getInstance()
-                                .insertCollections(PredatorDbValuesHelper.getBulkContentValuesForCollections(collectionsData.getCollections()));
-
-                        // Retrieve the results from the database.
-                        return PredatorDatabase.getInstance()
-                                .getCollections();
-                    }
-                })
+        if (clearPrevious) {
+            // Latest collections start from the first page again.
+            sPage = CollectionsRepository.FIRST_PAGE;
+        }
+
+        Observable<List<Collection>> collectionsCursorObservable = CollectionsRepository.getInstance()
+                .revalidate(sPage, token)
                 .flatMap(new Function<List<Collection>, ObservableSource<List<Collection>>>() {
                     @Override
                     public ObservableSource<List<Collection>> apply(final List<Collection> collections) throws Exception {
@@ -79,6 +79,8 @@ public interface PostDetailsContract {
 
         void noOfflineDataAvailable();
 
+        void offlineDataStale();
+
         void dismissLoading();
 
         boolean isInternetAvailable();
@@ -28,8 +28,8 @@ import android.content.Intent;
 import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
+import com.crazyhitty.chdev.ks.predator.data.PostDetailsRepository;
 import com.crazyhitty.chdev.ks.predator.data.PredatorDatabase;
-import com.crazyhitty.chdev.ks.predator.data.PredatorDbValuesHelper;
 import com.crazyhitty.chdev.ks.predator.models.Comment;
 import com.crazyhitty.chdev.ks.predator.models.InstallLink;
 import com.crazyhitty.chdev.ks.predator.models.Media;
@@ -37,22 +37,20 @@ import com.crazyhitty.chdev.ks.predator.models.Post;
 import com.crazyhitty.chdev.ks.predator.models.PostDetails;
 import com.crazyhitty.chdev.ks.predator.models.User;
 import com.crazyhitty.chdev.ks.predator.utils.CommentTimeCalculator;
-import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
 import com.crazyhitty.chdev.ks.predator.utils.UsersComparator;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostCommentsData;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostDetailsData;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostsData;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
 
 import io.reactivex.Observable;
 import io.reactivex.ObservableEmitter;
 import io.reactivex.ObservableOnSubscribe;
 import io.reactivex.ObservableSource;
+import io.reactivex.Scheduler;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.functions.Function;
@@ -69,6 +67,14 @@ import io.reactivex.schedulers.Schedulers;
 public class PostDetailsPresenter implements PostDetailsContract.Presenter {
     private static final String TAG = "PostDetailsPresenter";
 
+    // Same as the number of connections SQLite keeps open for readers in write ahead logging mode.
+    private static final int SECTIONS_POOL_SIZE = 4;
+
+    /**
+     * Bounded pool on which the independent sections of the post details are queried concurrently.
+     */
+    private static final Scheduler SECTIONS_SCHEDULER = Schedulers.from(Executors.newFixedThreadPool(SECTIONS_POOL_SIZE));
+
     @NonNull
     private PostDetailsContract.View mView;
     private CompositeDisposable mCompositeDisposable;
@@ -155,113 +161,20 @@ public class PostDetailsPresenter implements PostDetailsContract.Presenter {
 
     @Override
     public void getExtraDetails(String token, final int postId) {
-        Observable<PostDetailsDataType> postDetailsCursorTypeObservable = ProductHuntRestApi.getApi()
-                .getPostDetails(CoreUtils.getAuthToken(token), postId)
+        final long startTime = System.currentTimeMillis();
+        Observable<PostDetailsDataType> postDetailsCursorTypeObservable = PostDetailsRepository.getInstance()
+                .revalidate(postId, token)
                 .subscribeOn(Schedulers.io())
-                .observeOn(Schedulers.computation())
-                .flatMap(new Function<PostDetailsData, ObservableSource<PostDetailsDataType>>() {
+                .flatMap(new Function<Boolean, ObservableSource<PostDetailsDataType>>() {
                     @Override
-                    public ObservableSource<PostDetailsDataType> apply(final PostDetailsData postDetailsData) throws Exception {
-                        return Observable.create(new ObservableOnSubscribe<PostDetailsDataType>() {
-                            @Override
-                            public void subscribe(ObservableEmitter<PostDetailsDataType> emitter) throws Exception {
-                                // Update post details.
-                                PredatorDatabase.getInstance()
-                                        .insertPost(PredatorDbValuesHelper.getContentValuesForPost(postDetailsData.getPost()));
-
-                                // Get post details.
-                                PostDetailsDataType postDetails = new PostDetailsDataType();
-                                postDetails.setPostDetails(PredatorDatabase.getInstance()
-                                        .getPostDetails(postId));
-                                postDetails.setType(PostDetailsDataType.TYPE.POST_DETAILS);
-                                emitter.onNext(postDetails);
-
-                                // Add/update the hunter/makers for this post.
-                                PredatorDatabase.getInstance()
-                                        .insertUser(PredatorDbValuesHelper.getContentValuesForHunterUser(postId,
-                                                postDetailsData.getPost().getUser()));
-                                for (PostsData.Posts.Makers maker : postDetailsData.getPost().getMakers()) {
-                                    PredatorDatabase.getInstance()
-                                            .insertUser(PredatorDbValuesHelper.getContentValuesForMakerUser(postId,
-                                                    maker));
-                                }
-
-                                // Add users who upvoted this post to database.
-                                PredatorDatabase.getInstance()
-                                        .insertUsers(PredatorDbValuesHelper.getBulkContentValuesForUsers(postId,
-                                                postDetailsData.getPost().getVotes()));
-
-                                List<User> users = PredatorDatabase.getInstance()
-                                        .getAllUsersForPost(postId);
-                                if (users != null && !users.isEmpty()) {
-                                    // Sort the users list on basis of user type.
-                                    Collections.sort(users, new UsersComparator());
-
-                                    PostDetailsDataType postDetailsDataType = new PostDetailsDataType();
-                                    postDetailsDataType.setType(PostDetailsDataType.TYPE.USERS);
-                                    postDetailsDataType.setUsers(users);
-                                    emitter.onNext(postDetailsDataType);
-                                } else {
-                                    PostDetailsDataType postDetailsDataType = new PostDetailsDataType();
-                                    postDetailsDataType.setType(PostDetailsDataType.TYPE.USERS);
-                                    postDetailsDataType.setUsers(null);
-                                    emitter.onNext(postDetailsDataType);
-                                }
-
-                                // Clear media for that particular post.
-                                PredatorDatabase.getInstance()
-                                        .deleteMediaForPost(postId);
-
-                                // Add media to database.
-                                PredatorDatabase.getInstance()
-                                        .insertBulkMedia(PredatorDbValuesHelper.getBulkContentValuesForMedia(postId, postDetailsData.getPost().getMedia()));
-
-                                // Query the media available.
-                                List<Media> media = PredatorDatabase.getInstance()
-                                        .getMediaForPost(postId);
-                                PostDetailsDataType postDetailsMedia = new PostDetailsDataType();
-                                postDetailsMedia.setMedia(media);
-                                postDetailsMedia.setType(PostDetailsDataType.TYPE.MEDIA);
-                                emitter.onNext(postDetailsMedia);
-
-                                // Clear comments for that particular post.
-                                PredatorDatabase.getInstance()
-                                        .deleteCommentsForPost(postId);
-
-                                // Add comments to database.
-                                addCommentsToDatabase(postDetailsData.getPost().getComments());
-
-                                // Query the comments available.
-                                List<Comment> comments = PredatorDatabase.getInstance()
-                                        .getCommentsForPost(postId,
-                                                0,
-                                                new ArrayList<Comment>(),
-                                                0,
-                                                CommentTimeCalculator.getInstance());
-                                PostDetailsDataType postDetailsComments = new PostDetailsDataType();
-                                postDetailsComments.setType(PostDetailsDataType.TYPE.COMMENTS);
-                                postDetailsComments.setComments(comments);
-                                emitter.onNext(postDetailsComments);
-
-                                // Clear install links for that particular post.
-                                PredatorDatabase.getInstance()
-                                        .deleteInstallLinksForPost(postId);
-
-                                // Add install links to database.
-                                PredatorDatabase.getInstance()
-                                        .insertInstallLinks(PredatorDbValuesHelper.getBulkContentValuesForInstallLinks(postDetailsData.getPost().getInstallLinks()));
-
-                                // Query the install links available.
-                                List<InstallLink> installLinks = PredatorDatabase.getInstance()
-                                        .getInstallLinksForPost(postId);
-                                PostDetailsDataType postDetailsInstallLinks = new PostDetailsDataType();
-                                postDetailsInstallLinks.setInstallLinks(installLinks);
-                                postDetailsInstallLinks.setType(PostDetailsDataType.TYPE.INSTALL_LINKS);
-                                emitter.onNext(postDetailsInstallLinks);
-
-                                emitter.onComplete();
-                            }
-                        });
+                    public ObservableSource<PostDetailsDataType> apply(Boolean changed) throws Exception {
+                        if (!changed) {
+                            // Details of this post didn't change, so the ones already shown are
+                            // still the latest ones.
+                            Logger.d(TAG, "apply: details not modified for post: " + postId);
+                            return Observable.empty();
+                        }
+                        return getSections(postId, true);
                     }
                 })
                 .observeOn(AndroidSchedulers.mainThread());
@@ -269,7 +182,7 @@ public class PostDetailsPresenter implements PostDetailsContract.Presenter {
         mCompositeDisposable.add(postDetailsCursorTypeObservable.subscribeWith(new DisposableObserver<PostDetailsDataType>() {
             @Override
             public void onComplete() {
-                // Done
+                mView.dismissLoading();
             }
 
             @Override
@@ -280,6 +193,8 @@ public class PostDetailsPresenter implements PostDetailsContract.Presenter {
 
             @Override
             public void onNext(PostDetailsDataType postDetailsDataType) {
+                Logger.d(TAG, "onNext: " + postDetailsDataType.getType() + " available after " +
+                        (System.currentTimeMillis() - startTime) + "ms");
                 switch (postDetailsDataType.getType()) {
                     case POST_DETAILS:
                         if (postDetailsDataType.isEmpty()) {
@@ -324,81 +239,36 @@ public class PostDetailsPresenter implements PostDetailsContract.Presenter {
 
     @Override
     public void getExtraDetailsOffline(final int postId) {
-        Observable<PostDetailsDataType> postDetailsCursorTypeObservable = Observable.create(new ObservableOnSubscribe<PostDetailsDataType>() {
-            @Override
-            public void subscribe(ObservableEmitter<PostDetailsDataType> emitter) throws Exception {
-                List<User> users = PredatorDatabase.getInstance()
-                        .getAllUsersForPost(postId);
-                if (users != null && !users.isEmpty()) {
-                    // Sort the users list on basis of user type.
-                    Collections.sort(users, new UsersComparator());
-
-                    PostDetailsDataType postDetailsDataType = new PostDetailsDataType();
-                    postDetailsDataType.setType(PostDetailsDataType.TYPE.USERS);
-                    postDetailsDataType.setUsers(users);
-                    emitter.onNext(postDetailsDataType);
-                } else {
-                    PostDetailsDataType postDetailsDataType = new PostDetailsDataType();
-                    postDetailsDataType.setType(PostDetailsDataType.TYPE.USERS);
-                    postDetailsDataType.setUsers(null);
-                    emitter.onNext(postDetailsDataType);
-                }
-
-                // Query the media available.
-                List<Media> media = PredatorDatabase.getInstance()
-                        .getMediaForPost(postId);
-                PostDetailsDataType postDetailsMedia = new PostDetailsDataType();
-                postDetailsMedia.setMedia(media);
-                postDetailsMedia.setType(PostDetailsDataType.TYPE.MEDIA);
-                emitter.onNext(postDetailsMedia);
-
-                // Query the comments available.
-                List<Comment> comments = PredatorDatabase.getInstance()
-                        .getCommentsForPost(postId,
-                                0,
-                                new ArrayList<Comment>(),
-                                0,
-                                CommentTimeCalculator.getInstance());
-                PostDetailsDataType postDetailsComments = new PostDetailsDataType();
-                postDetailsComments.setType(PostDetailsDataType.TYPE.COMMENTS);
-                postDetailsComments.setComments(comments);
-                emitter.onNext(postDetailsComments);
-
-                // Query the install links available.
-                List<InstallLink> installLinks = PredatorDatabase.getInstance()
-                        .getInstallLinksForPost(postId);
-                PostDetailsDataType postDetailsInstallLinks = new PostDetailsDataType();
-                postDetailsInstallLinks.setInstallLinks(installLinks);
-                postDetailsInstallLinks.setType(PostDetailsDataType.TYPE.INSTALL_LINKS);
-                emitter.onNext(postDetailsInstallLinks);
-
-                if (users == null || users.isEmpty() ||
-                        media == null || media.isEmpty() ||
-                        comments == null || comments.isEmpty() ||
-                        installLinks == null || installLinks.isEmpty()) {
-                    emitter.onError(new NullPointerException("Complete offline data for this post is unavailable"));
-                }
-
-                emitter.onComplete();
-            }
-        });
-        postDetailsCursorTypeObservable.subscribeOn(Schedulers.computation());
-        postDetailsCursorTypeObservable.observeOn(AndroidSchedulers.mainThread());
+        final long startTime = System.currentTimeMillis();
+        Observable<PostDetailsDataType> postDetailsCursorTypeObservable = getSections(postId, false)
+                .observeOn(AndroidSchedulers.mainThread());
 
         mCompositeDisposable.add(postDetailsCursorTypeObservable.subscribeWith(new DisposableObserver<PostDetailsDataType>() {
+            private boolean mOfflineDataIncomplete = false;
+
             @Override
             public void onComplete() {
-                // Done
+                if (mOfflineDataIncomplete) {
+                    mView.noOfflineDataAvailable();
+                    mView.dismissLoading();
+                } else if (PostDetailsRepository.getInstance().isStale(postId)) {
+                    // Stored details are shown already, revalidate them in the background.
+                    mView.offlineDataStale();
+                }
             }
 
             @Override
             public void onError(Throwable e) {
+                Logger.e(TAG, "onError: " + e.getMessage(), e);
                 mView.noOfflineDataAvailable();
                 mView.dismissLoading();
             }
 
             @Override
             public void onNext(PostDetailsDataType postDetailsDataType) {
+                Logger.d(TAG, "onNext: " + postDetailsDataType.getType() + " available after " +
+                        (System.currentTimeMillis() - startTime) + "ms");
+                mOfflineDataIncomplete |= postDetailsDataType.isEmpty();
                 switch (postDetailsDataType.getType()) {
                     case POST_DETAILS:
                         if (postDetailsDataType.isEmpty()) {
@@ -594,12 +464,95 @@ public class PostDetailsPresenter implements PostDetailsContract.Presenter {
         mCompositeDisposable.clear();
     }
 
-    private void addCommentsToDatabase(List<PostCommentsData.Comments> comments) {
-        for (PostCommentsData.Comments comment : comments) {
-            PredatorDatabase.getInstance()
-                    .insertComment(PredatorDbValuesHelper.getContentValuesForComments(comment));
-            addCommentsToDatabase(comment.getChildComments());
+    /**
+     * Query the sections of the post concurrently, every section is emitted as soon as it is
+     * available instead of waiting for the ones before it.
+     *
+     * @param postId          Id of the post
+     * @param withPostDetails True, if the details of the post itself should be emitted too
+     * @return Observable emitting all of the sections in the order they become available
+     */
+    private Observable<PostDetailsDataType> getSections(final int postId, boolean withPostDetails) {
+        List<Observable<PostDetailsDataType>> sections = new ArrayList<>();
+
+        if (withPostDetails) {
+            sections.add(getSection(new Callable<PostDetailsDataType>() {
+                @Override
+                public PostDetailsDataType call() throws Exception {
+                    // Get post details.
+                    PostDetailsDataType postDetails = new PostDetailsDataType();
+                    postDetails.setPostDetails(PredatorDatabase.getInstance()
+                            .getPostDetails(postId));
+                    postDetails.setType(PostDetailsDataType.TYPE.POST_DETAILS);
+                    return postDetails;
+                }
+            }));
         }
+
+        sections.add(getSection(new Callable<PostDetailsDataType>() {
+            @Override
+            public PostDetailsDataType call() throws Exception {
+                List<User> users = PredatorDatabase.getInstance()
+                        .getAllUsersForPost(postId);
+                if (users != null && !users.isEmpty()) {
+                    // Sort the users list on basis of user type.
+                    Collections.sort(users, new UsersComparator());
+                } else {
+                    users = null;
+                }
+
+                PostDetailsDataType postDetailsDataType = new PostDetailsDataType();
+                postDetailsDataType.setType(PostDetailsDataType.TYPE.USERS);
+                postDetailsDataType.setUsers(users);
+                return postDetailsDataType;
+            }
+        }));
+
+        sections.add(getSection(new Callable<PostDetailsDataType>() {
+            @Override
+            public PostDetailsDataType call() throws Exception {
+                // Query the media available.
+                List<Media> media = PredatorDatabase.getInstance()
+                        .getMediaForPost(postId);
+                PostDetailsDataType postDetailsMedia = new PostDetailsDataType();
+                postDetailsMedia.setMedia(media);
+                postDetailsMedia.setType(PostDetailsDataType.TYPE.MEDIA);
+                return postDetailsMedia;
+            }
+        }));
+
+        sections.add(getSection(new Callable<PostDetailsDataType>() {
+            @Override
+            public PostDetailsDataType call() throws Exception {
+                // Query the comments available.
+                List<Comment> comments = PredatorDatabase.getInstance()
+                        .getCommentsForPost(postId, CommentTimeCalculator.getInstance());
+                PostDetailsDataType postDetailsComments = new PostDetailsDataType();
+                postDetailsComments.setType(PostDetailsDataType.TYPE.COMMENTS);
+                postDetailsComments.setComments(comments);
+                return postDetailsComments;
+            }
+        }));
+
+        sections.add(getSection(new Callable<PostDetailsDataType>() {
+            @Override
+            public PostDetailsDataType call() throws Exception {
+                // Query the install links available.
+                List<InstallLink> installLinks = PredatorDatabase.getInstance()
+                        .getInstallLinksForPost(postId);
+                PostDetailsDataType postDetailsInstallLinks = new PostDetailsDataType();
+                postDetailsInstallLinks.setInstallLinks(installLinks);
+                postDetailsInstallLinks.setType(PostDetailsDataType.TYPE.INSTALL_LINKS);
+                return postDetailsInstallLinks;
+            }
+        }));
+
+        return Observable.merge(sections);
+    }
+
+    private Observable<PostDetailsDataType> getSection(Callable<PostDetailsDataType> section) {
+        return Observable.fromCallable(section)
+                .subscribeOn(SECTIONS_SCHEDULER);
     }
 
     /*public static class PostDetailsUnavailableException extends Throwable {
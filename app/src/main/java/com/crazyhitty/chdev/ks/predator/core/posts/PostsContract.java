@@ -45,8 +45,12 @@ public interface PostsContract {
     interface View extends BaseView<Presenter> {
         void showPosts(List<Post> posts, HashMap<Integer, String> dateHashMap);
 
+        void showMorePosts(List<Post> posts, HashMap<Integer, String> dateHashMap);
+
         void unableToGetPosts(boolean onLoadMore, boolean wasLoadingOfflinePosts, String errorMessage);
 
+        void offlineDataStale();
+
         void postsCleared();
 
         void unableToClearPosts(String message);
@@ -59,6 +63,10 @@ public interface PostsContract {
     interface Presenter extends BasePresenter {
         void getOfflinePosts(PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType);
 
+        void loadMoreOfflinePosts(PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType);
+
+        boolean hasMoreOfflinePosts();
+
         void getPosts(String token, PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType, boolean today);
 
         void loadMorePosts(String token, PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType);
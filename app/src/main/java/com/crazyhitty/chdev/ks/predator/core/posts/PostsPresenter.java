@@ -28,19 +28,19 @@ import android.appwidget.AppWidgetManager;
 import android.content.ComponentName;
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.crazyhitty.chdev.ks.predator.R;
 import com.crazyhitty.chdev.ks.predator.data.Constants;
+import com.crazyhitty.chdev.ks.predator.data.DaySyncResult;
+import com.crazyhitty.chdev.ks.predator.data.PostsRepository;
+import com.crazyhitty.chdev.ks.predator.data.PostsSyncState;
 import com.crazyhitty.chdev.ks.predator.data.PredatorDatabase;
-import com.crazyhitty.chdev.ks.predator.data.PredatorDbValuesHelper;
 import com.crazyhitty.chdev.ks.predator.data.PredatorSharedPreferences;
 import com.crazyhitty.chdev.ks.predator.models.Post;
 import com.crazyhitty.chdev.ks.predator.ui.widget.PredatorPostsWidgetProvider;
-import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
 import com.crazyhitty.chdev.ks.predator.utils.DateUtils;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostsData;
-import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -67,19 +67,45 @@ import io.reactivex.schedulers.Schedulers;
 public class PostsPresenter implements PostsContract.Presenter {
     private static final String TAG = "PostsPresenter";
 
+    /**
+     * Offline posts are paged from io threads as well as the widget's binder thread, so the page
+     * state below is guarded by this presenter.
+     */
     private String mLastDate = DateUtils.getPredatorCurrentDate();
 
     private HashMap<Integer, String> mDateHashMap = new HashMap<>();
 
     private boolean mLoadMore = false;
 
+    private final int mPageSize;
+
+    /**
+     * Last offline post which was loaded, next page starts right after it.
+     */
+    private Post mLastOfflinePost;
+
+    private int mOfflinePostsCount;
+
+    /**
+     * Incremented whenever offline posts start from the first page again, so that pages requested
+     * before that are dropped instead of being added after the new first page.
+     */
+    private int mOfflinePostsGeneration;
+
+    private volatile boolean mHasMoreOfflinePosts = true;
+
     @NonNull
     private PostsContract.View mView;
 
     private CompositeDisposable mCompositeDisposable;
 
     public PostsPresenter(@NonNull PostsContract.View view) {
+        this(view, Constants.Posts.PAGE_SIZE);
+    }
+
+    public PostsPresenter(@NonNull PostsContract.View view, int pageSize) {
         this.mView = view;
+        mPageSize = pageSize;
         mCompositeDisposable = new CompositeDisposable();
     }
 
@@ -95,38 +121,28 @@ public class PostsPresenter implements PostsContract.Presenter {
 
     @Override
     public void getOfflinePosts(final PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType) {
-        Observable<List<Post>> postsDataObservable = Observable.create(new ObservableOnSubscribe<List<Post>>() {
+        Observable<OfflinePostsPage> postsDataObservable = Observable.create(new ObservableOnSubscribe<OfflinePostsPage>() {
             @Override
-            public void subscribe(ObservableEmitter<List<Post>> emitter) throws Exception {
-                List<Post> posts = new ArrayList<>();
-
-                switch (postsSortingType) {
-                    case LATEST:
-                        posts = PredatorDatabase.getInstance()
-                                .getPosts();
-                        break;
-                    case VOTE_COUNT:
-                        posts = PredatorDatabase.getInstance()
-                                .getPostsSortedByVoteCount();
-                        break;
-                }
+            public void subscribe(ObservableEmitter<OfflinePostsPage> emitter) throws Exception {
+                OfflinePostsPage offlinePostsPage = getFirstOfflinePostsPage(postsSortingType);
 
-                if (posts != null && !posts.isEmpty()) {
-                    dateMatcher(posts);
-                    emitter.onNext(posts);
+                if (!offlinePostsPage.getPosts().isEmpty()) {
+                    emitter.onNext(offlinePostsPage);
                 } else {
                     emitter.onError(new NoPostsAvailableException());
                 }
                 emitter.onComplete();
             }
-        });
-        postsDataObservable.subscribeOn(Schedulers.io());
-        postsDataObservable.observeOn(AndroidSchedulers.mainThread());
+        }).subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
 
-        mCompositeDisposable.add(postsDataObservable.subscribeWith(new DisposableObserver<List<Post>>() {
+        mCompositeDisposable.add(postsDataObservable.subscribeWith(new DisposableObserver<OfflinePostsPage>() {
             @Override
             public void onComplete() {
-                // Done
+                if (PostsRepository.getInstance().isStale(DateUtils.getPredatorCurrentDate())) {
+                    // Stored posts are shown already, revalidate them in the background.
+                    mView.offlineDataStale();
+                }
             }
 
             @Override
@@ -136,74 +152,93 @@ public class PostsPresenter implements PostsContract.Presenter {
             }
 
             @Override
-            public void onNext(List<Post> posts) {
-                mView.showPosts(posts, mDateHashMap);
+            public void onNext(OfflinePostsPage offlinePostsPage) {
+                mView.showPosts(offlinePostsPage.getPosts(), offlinePostsPage.getDateHashMap());
+            }
+        }));
+    }
+
+    @Override
+    public void loadMoreOfflinePosts(final PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType) {
+        final int offlinePostsGeneration = getOfflinePostsGeneration();
+        Observable<OfflinePostsPage> postsDataObservable = Observable.create(new ObservableOnSubscribe<OfflinePostsPage>() {
+            @Override
+            public void subscribe(ObservableEmitter<OfflinePostsPage> emitter) throws Exception {
+                OfflinePostsPage offlinePostsPage = getNextOfflinePostsPage(postsSortingType,
+                        offlinePostsGeneration);
+                if (offlinePostsPage != null) {
+                    emitter.onNext(offlinePostsPage);
+                }
+                emitter.onComplete();
+            }
+        }).subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
+
+        mCompositeDisposable.add(postsDataObservable.subscribeWith(new DisposableObserver<OfflinePostsPage>() {
+            @Override
+            public void onComplete() {
+                // Done
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                Logger.e(TAG, "onError: " + e.getMessage(), e);
+                mView.unableToGetPosts(true, true, e.getMessage());
+            }
+
+            @Override
+            public void onNext(OfflinePostsPage offlinePostsPage) {
+                mView.showMorePosts(offlinePostsPage.getPosts(), offlinePostsPage.getDateHashMap());
             }
         }));
     }
 
+    @Override
+    public boolean hasMoreOfflinePosts() {
+        return mHasMoreOfflinePosts;
+    }
+
     @Override
     public void getPosts(final String token, final PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType, boolean today) {
         Logger.d(TAG, "getPosts: called");
 
         if (today) {
             mLoadMore = false;
-            mLastDate = DateUtils.getPredatorCurrentDate();
-            mDateHashMap = new HashMap<>();
+            synchronized (this) {
+                mLastDate = DateUtils.getPredatorCurrentDate();
+                resetOfflinePosts();
+            }
         }
 
-        Observable<List<Post>> postsDataObservable = ProductHuntRestApi.getApi()
-                .getPostsCategoryWise(CoreUtils.getAuthToken(token), Constants.Posts.CATEGORY_ALL, mLastDate)
-                .map(new Function<PostsData, List<Post>>() {
+        final int offlinePostsGeneration = getOfflinePostsGeneration();
+        Observable<OfflinePostsPage> postsDataObservable = PostsRepository.getInstance()
+                .revalidate(getLastDate(), token)
+                .map(new Function<DaySyncResult, OfflinePostsPage>() {
                     @Override
-                    public List<Post> apply(PostsData postsData) throws Exception {
-                        if (postsData.getPosts() == null || postsData.getPosts().isEmpty()) {
-                            return new ArrayList<Post>();
-                        }
-
-                        for (PostsData.Posts post : postsData.getPosts()) {
-                            Logger.d(TAG, "post: " + post.getName());
-                            PredatorDatabase.getInstance()
-                                    .insertPost(PredatorDbValuesHelper.getContentValuesForPost(post));
-
-                            // Add/update users.
-                            PredatorDatabase.getInstance()
-                                    .insertUser(PredatorDbValuesHelper.getContentValuesForHunterUser(post.getId(), post.getUser()));
-                            for (PostsData.Posts.Makers maker : post.getMakers()) {
-                                PredatorDatabase.getInstance()
-                                        .insertUser(PredatorDbValuesHelper.getContentValuesForMakerUser(post.getId(), maker));
-                            }
+                    public OfflinePostsPage apply(DaySyncResult daySyncResult) throws Exception {
+                        Logger.d(TAG, "apply: stored posts: " + daySyncResult);
+
+                        // Latest posts start from the first page again, while older posts
+                        // continue after the posts which are already loaded.
+                        OfflinePostsPage offlinePostsPage = getNextOfflinePostsPage(postsSortingType,
+                                offlinePostsGeneration);
+                        if (offlinePostsPage == null) {
+                            // Posts were reloaded from the first page in the meantime.
+                            return OfflinePostsPage.DROPPED;
                         }
-
-                        List<Post> posts = new ArrayList<>();
-
-                        switch (postsSortingType) {
-                            case LATEST:
-                                posts = PredatorDatabase.getInstance()
-                                        .getPosts();
-                                break;
-                            case VOTE_COUNT:
-                                posts = PredatorDatabase.getInstance()
-                                        .getPostsSortedByVoteCount();
-                                break;
-                        }
-
-                        if (posts != null && !posts.isEmpty()) {
-                            dateMatcher(posts);
-                        }
-                        Logger.d(TAG, "apply: posts: " + posts);
-                        return posts;
+                        Logger.d(TAG, "apply: posts: " + offlinePostsPage.getPosts());
+                        return offlinePostsPage;
                     }
                 })
-                .flatMap(new Function<List<Post>, ObservableSource<List<Post>>>() {
+                .flatMap(new Function<OfflinePostsPage, ObservableSource<OfflinePostsPage>>() {
                     @Override
-                    public ObservableSource<List<Post>> apply(final List<Post> posts) throws Exception {
-                        return Observable.create(new ObservableOnSubscribe<List<Post>>() {
+                    public ObservableSource<OfflinePostsPage> apply(final OfflinePostsPage offlinePostsPage) throws Exception {
+                        return Observable.create(new ObservableOnSubscribe<OfflinePostsPage>() {
                             @Override
-                            public void subscribe(ObservableEmitter<List<Post>> emitter) throws Exception {
-                                if (posts != null && posts.size() != 0) {
-                                    emitter.onNext(posts);
-                                } else {
+                            public void subscribe(ObservableEmitter<OfflinePostsPage> emitter) throws Exception {
+                                if (!offlinePostsPage.getPosts().isEmpty()) {
+                                    emitter.onNext(offlinePostsPage);
+                                } else if (offlinePostsPage != OfflinePostsPage.DROPPED) {
                                     loadMorePosts(token, postsSortingType);
                                 }
                                 emitter.onComplete();
@@ -214,7 +249,7 @@ public class PostsPresenter implements PostsContract.Presenter {
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread());
 
-        mCompositeDisposable.add(postsDataObservable.subscribeWith(new DisposableObserver<List<Post>>() {
+        mCompositeDisposable.add(postsDataObservable.subscribeWith(new DisposableObserver<OfflinePostsPage>() {
             @Override
             public void onComplete() {
                 // Done
@@ -227,15 +262,22 @@ public class PostsPresenter implements PostsContract.Presenter {
             }
 
             @Override
-            public void onNext(List<Post> posts) {
-                mView.showPosts(posts, mDateHashMap);
+            public void onNext(OfflinePostsPage offlinePostsPage) {
+                if (offlinePostsPage.isFirstPage()) {
+                    // First page replaces the posts which are currently shown.
+                    mView.showPosts(offlinePostsPage.getPosts(), offlinePostsPage.getDateHashMap());
+                } else {
+                    mView.showMorePosts(offlinePostsPage.getPosts(), offlinePostsPage.getDateHashMap());
+                }
             }
         }));
     }
 
     @Override
     public void loadMorePosts(String token, PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType) {
-        mLastDate = DateUtils.getPredatorPostPreviousDate(mLastDate);
+        synchronized (this) {
+            mLastDate = DateUtils.getPredatorPostPreviousDate(mLastDate);
+        }
         mLoadMore = true;
         getPosts(token, postsSortingType, false);
     }
@@ -262,6 +304,9 @@ public class PostsPresenter implements PostsContract.Presenter {
                         .deleteAllComments();
                 PredatorDatabase.getInstance()
                         .deleteAllMedia();
+                // Every day has to be synced again from scratch.
+                PostsSyncState.getInstance()
+                        .clear();
                 emitter.onComplete();
             }
         }).subscribeOn(Schedulers.io())
@@ -364,13 +409,69 @@ public class PostsPresenter implements PostsContract.Presenter {
         return PredatorSharedPreferences.getPostsSortingType(context);
     }
 
+    private synchronized String getLastDate() {
+        return mLastDate;
+    }
+
+    private synchronized int getOfflinePostsGeneration() {
+        return mOfflinePostsGeneration;
+    }
+
+    private synchronized void resetOfflinePosts() {
+        mLastOfflinePost = null;
+        mOfflinePostsCount = 0;
+        mOfflinePostsGeneration++;
+        mHasMoreOfflinePosts = true;
+        mDateHashMap = new HashMap<>();
+    }
+
+    /**
+     * Start the offline posts from the first page again and load it.
+     *
+     * @param postsSortingType Order of the posts
+     * @return First page of the posts, empty if no posts are stored
+     */
+    private synchronized OfflinePostsPage getFirstOfflinePostsPage(PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType) {
+        resetOfflinePosts();
+        return getNextOfflinePostsPage(postsSortingType, mOfflinePostsGeneration);
+    }
+
+    /**
+     * Load the page of offline posts after the last loaded post. Should be called on a background
+     * thread. Page loads are serialized, so every page continues after the previous one.
+     *
+     * @param postsSortingType       Order of the posts
+     * @param offlinePostsGeneration Generation of the offline posts when this page was requested
+     * @return Posts of the next page, empty if all of the offline posts are already loaded, or
+     * null if the offline posts were reset after this page was requested
+     */
+    @Nullable
+    private synchronized OfflinePostsPage getNextOfflinePostsPage(PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType,
+                                                                  int offlinePostsGeneration) {
+        if (offlinePostsGeneration != mOfflinePostsGeneration) {
+            return null;
+        }
+        List<Post> posts = PredatorDatabase.getInstance()
+                .getPostsPage(postsSortingType, mLastOfflinePost, mPageSize);
+        boolean firstPage = mLastOfflinePost == null;
+        mHasMoreOfflinePosts = posts.size() == mPageSize;
+        if (!posts.isEmpty()) {
+            dateMatcher(posts, mOfflinePostsCount);
+            mOfflinePostsCount += posts.size();
+            mLastOfflinePost = posts.get(posts.size() - 1);
+        }
+        // The view keeps the dates it was given, later pages must not change them underneath it.
+        return new OfflinePostsPage(posts, new HashMap<>(mDateHashMap), firstPage);
+    }
+
     /**
      * Matches all the post publish dates and create a hashmap for positions and dates wherever the
      * dates are changed in the cursor.
      *
-     * @param posts List containing posts
+     * @param posts  List containing posts
+     * @param offset Position of the first post in the complete list
      */
-    private void dateMatcher(List<Post> posts) {
+    private void dateMatcher(List<Post> posts, int offset) {
         for (int i = 0; i < posts.size(); i++) {
             // Match post date with current date
             String date = posts.get(i).getDay();
@@ -378,12 +479,46 @@ public class PostsPresenter implements PostsContract.Presenter {
             String dateToBeShown = DateUtils.getPredatorPostDate(date);
 
             if (!mDateHashMap.containsValue(dateToBeShown)) {
-                mDateHashMap.put(i, dateToBeShown);
+                mDateHashMap.put(offset + i, dateToBeShown);
                 mLastDate = date;
             }
         }
     }
 
+    /**
+     * A page of offline posts along with the dates to be shown for all of the loaded posts.
+     */
+    private static class OfflinePostsPage {
+        /**
+         * Marks a page which was dropped because offline posts were reset.
+         */
+        private static final OfflinePostsPage DROPPED = new OfflinePostsPage(new ArrayList<Post>(),
+                new HashMap<Integer, String>(),
+                false);
+
+        private final List<Post> mPosts;
+        private final HashMap<Integer, String> mDateHashMap;
+        private final boolean mFirstPage;
+
+        private OfflinePostsPage(List<Post> posts, HashMap<Integer, String> dateHashMap, boolean firstPage) {
+            mPosts = posts;
+            mDateHashMap = dateHashMap;
+            mFirstPage = firstPage;
+        }
+
+        private List<Post> getPosts() {
+            return mPosts;
+        }
+
+        private HashMap<Integer, String> getDateHashMap() {
+            return mDateHashMap;
+        }
+
+        private boolean isFirstPage() {
+            return mFirstPage;
+        }
+    }
+
     public static class NoPostsAvailableException extends Throwable {
         @Override
         public String getMessage() {
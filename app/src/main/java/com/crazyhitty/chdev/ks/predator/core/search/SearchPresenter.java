@@ -24,35 +24,48 @@
 
 package com.crazyhitty.chdev.ks.predator.core.search;
 
+import android.support.annotation.Nullable;
 import android.text.Spannable;
+import android.text.TextUtils;
 
 import com.crazyhitty.chdev.ks.predator.data.Constants;
+import com.crazyhitty.chdev.ks.predator.data.LocalSearchHit;
+import com.crazyhitty.chdev.ks.predator.data.PredatorDatabase;
 import com.crazyhitty.chdev.ks.predator.models.Collection;
 import com.crazyhitty.chdev.ks.predator.models.Post;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
+import com.crazyhitty.chdev.ks.predator.utils.SearchHighlighter;
 import com.crazyhitty.chdev.ks.predator.utils.SearchSpanCreator;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.models.SearchData;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.models.SearchRequestData;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Observable;
-import io.reactivex.ObservableEmitter;
-import io.reactivex.ObservableOnSubscribe;
 import io.reactivex.ObservableSource;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.observers.DisposableObserver;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
 
 /**
  * Author:      Kartik Sharma
  * Email Id:    cr42yh17m4n@gmail.com
  * Created:     10/9/17 10:26 PM
- * Description: Unavailable
+ * Description: Searches posts and collections as the user types. Keywords are debounced, and a
+ * new keyword cancels the request of the previous one. Results are cached page wise in
+ * {@link SearchResultsCache}. Stored posts and collections matching the keyword, along with the
+ * cached results of a shorter prefix of it, are shown while its own results are being requested,
+ * and they are all that is shown while offline.
  */
 
 public class SearchPresenter implements SearchContract.Presenter {
@@ -60,6 +73,12 @@ public class SearchPresenter implements SearchContract.Presenter {
 
     private SearchContract.View mView;
     private CompositeDisposable mCompositeDisposable;
+    private CompositeDisposable mLoadMoreDisposable;
+
+    /**
+     * Keywords typed by the user, an empty keyword cancels the ongoing search.
+     */
+    private final PublishSubject<String> mKeywordSubject = PublishSubject.create();
 
     private int mPostSearchPage = 0;
     private int mCollectionSearchPage = 0;
@@ -72,113 +91,32 @@ public class SearchPresenter implements SearchContract.Presenter {
     public SearchPresenter(SearchContract.View view, int searchSpanColor) {
         mView = view;
         mCompositeDisposable = new CompositeDisposable();
+        mLoadMoreDisposable = new CompositeDisposable();
         mSearchSpanColor = searchSpanColor;
     }
 
     @Override
     public void subscribe() {
-
-    }
-
-    @Override
-    public void unSubscribe() {
-        mCompositeDisposable.clear();
-    }
-
-    @Override
-    public void search(String keyword) {
-        mCompositeDisposable.clear();
-
-        mPostSearchPage = 0;
-        mCollectionSearchPage = 0;
-
-        mLoadingMorePosts = false;
-        mLoadingMoreCollections = false;
-
-        Observable<SearchDataType> searchDataTypeObservable = ProductHuntRestApi.getSearchApi()
-                .search(SearchRequestData.getDefaultRequest(keyword))
-                .flatMap(new Function<SearchData, ObservableSource<SearchDataType>>() {
+        Observable<SearchDataType> searchDataTypeObservable = mKeywordSubject
+                .debounce(new Function<String, ObservableSource<Long>>() {
                     @Override
-                    public ObservableSource<SearchDataType> apply(final SearchData searchData) throws Exception {
-                        return Observable.create(new ObservableOnSubscribe<SearchDataType>() {
-                            @Override
-                            public void subscribe(ObservableEmitter<SearchDataType> emitter) throws Exception {
-                                if (searchData == null) {
-                                    emitter.onError(new NullPointerException("SearchData is empty"));
-                                    emitter.onComplete();
-                                    return;
-                                }
-
-                                for (SearchData.Results results : searchData.getResults()) {
-                                    switch (results.getIndex()) {
-                                        case Constants.Search.POST_PRODUCTION:
-                                            List<Post> posts = new ArrayList<>();
-
-                                            for (SearchData.Results.Hits hit : results.getHits()) {
-                                                Post post = new Post();
-                                                post.setName(hit.getName());
-                                                post.setTagline(hit.getTagline());
-                                                post.setVotesCount(hit.getVoteCount());
-                                                post.setCommentCount(hit.getCommentsCount());
-                                                post.setCreatedAt(hit.getCreatedAt());
-                                                post.setCreatedAtMillis(hit.getPostedDate());
-                                                post.setPostId(hit.getId());
-                                                post.setRedirectUrl(hit.getUrl());
-                                                post.setThumbnailImageUrl(hit.getThumbnail().getImageUrl());
-                                                post.setUserId(hit.getUserId());
-                                                post.setUserImageUrlOriginal(hit.getUser().getAvatarUrl());
-                                                post.setUsername(hit.getUser().getName());
-                                                post.setUsernameAlternative(hit.getUser().getUsername());
-                                                post.setNameSpannable(getSpannableText(hit.getName(),
-                                                        hit.getHighlightResult().getName().getMatchedWords()));
-                                                post.setTaglineSpannable(getSpannableText(hit.getTagline(),
-                                                        hit.getHighlightResult().getTagline().getMatchedWords()));
-                                                posts.add(post);
-                                            }
-
-                                            SearchDataType searchDataPosts = new SearchDataType();
-                                            searchDataPosts.setPosts(posts);
-                                            searchDataPosts.setType(SearchDataType.TYPE.POST);
-                                            emitter.onNext(searchDataPosts);
-                                            break;
-                                        case Constants.Search.COLLECTION_PRODUCTION:
-                                            List<Collection> collections = new ArrayList<>();
-
-                                            for (SearchData.Results.Hits hit : results.getHits()) {
-                                                Collection collection = new Collection();
-                                                collection.setCollectionId(hit.getId());
-                                                collection.setName(hit.getName());
-                                                collection.setTitle(hit.getTitle());
-                                                collection.setBackgroundImageUrl(hit.getBackgroundImageBannerUrl());
-                                                collection.setCollectionUrl(hit.getUrl());
-                                                collection.setCategoryId(hit.getCategoryId());
-                                                collection.setPostCounts(hit.getPostsCount());
-                                                collection.setUserId(hit.getUserId());
-                                                collection.setUsername(hit.getUser().getName());
-                                                collection.setUsernameAlternative(hit.getUser().getUsername());
-                                                collection.setUserImageUrl100px(hit.getUser().getAvatarUrl());
-                                                collection.setNameSpannable(getSpannableText(hit.getName(),
-                                                        hit.getHighlightResult().getName().getMatchedWords()));
-                                                /*collection.setTitleSpannable(getSpannableText(hit.getTitle(),
-                                                        hit.getHighlightResult().getTitle().getMatchedWords()));*/
-
-                                                collections.add(collection);
-                                            }
-
-                                            SearchDataType searchDataCollections = new SearchDataType();
-                                            searchDataCollections.setCollections(collections);
-                                            searchDataCollections.setType(SearchDataType.TYPE.COLLECTION);
-                                            emitter.onNext(searchDataCollections);
-                                            break;
-                                    }
-                                }
-
-                                emitter.onComplete();
-                            }
-                        });
+                    public ObservableSource<Long> apply(String keyword) throws Exception {
+                        // Cancelling doesn't have to wait for the user to stop typing.
+                        if (TextUtils.isEmpty(keyword)) {
+                            return Observable.empty();
+                        }
+                        return Observable.timer(Constants.Search.DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                })
+                .switchMap(new Function<String, ObservableSource<SearchDataType>>() {
+                    @Override
+                    public ObservableSource<SearchDataType> apply(String keyword) throws Exception {
+                        if (TextUtils.isEmpty(keyword)) {
+                            return Observable.empty();
+                        }
+                        return getSearchResults(keyword);
                     }
                 })
-                .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread());
 
         mCompositeDisposable.add(searchDataTypeObservable.subscribeWith(new DisposableObserver<SearchDataType>() {
@@ -199,6 +137,10 @@ public class SearchPresenter implements SearchContract.Presenter {
                             mView.noCollectionsAvailable(false);
                         }
                         break;
+                    case ERROR:
+                        mView.noPostsAvailable(false);
+                        mView.noCollectionsAvailable(false);
+                        break;
                 }
             }
 
@@ -217,67 +159,230 @@ public class SearchPresenter implements SearchContract.Presenter {
     }
 
     @Override
-    public void loadMorePosts(String keyword) {
-        mLoadingMorePosts = true;
+    public void unSubscribe() {
+        mCompositeDisposable.clear();
+        mLoadMoreDisposable.clear();
+    }
+
+    @Override
+    public void search(String keyword) {
+        mLoadMoreDisposable.clear();
+
+        mPostSearchPage = 0;
+        mCollectionSearchPage = 0;
 
-        Observable<SearchDataType> searchDataTypeObservable = ProductHuntRestApi.getSearchApi()
-                .search(SearchRequestData.getPostRequest(keyword, mPostSearchPage + 1))
-                .flatMap(new Function<SearchData, ObservableSource<SearchDataType>>() {
+        mLoadingMorePosts = false;
+        mLoadingMoreCollections = false;
+
+        mKeywordSubject.onNext(keyword);
+    }
+
+    /**
+     * @return Observable emitting the cached results of the keyword if available. Otherwise the
+     * local results are emitted first, which are the stored posts and collections matching the
+     * keyword along with the matching results of a cached prefix. They are followed by the
+     * results received from the network, merged with the local ones.
+     */
+    private Observable<SearchDataType> getSearchResults(final String keyword) {
+        SearchResultsCache searchResultsCache = SearchResultsCache.getInstance();
+        List<Post> cachedPosts = searchResultsCache.getPosts(keyword, 0);
+        List<Collection> cachedCollections = searchResultsCache.getCollections(keyword, 0);
+        if (cachedPosts != null && cachedCollections != null) {
+            Logger.d(TAG, "getSearchResults: cached results available for: " + keyword);
+            return Observable.just(SearchDataType.posts(cachedPosts),
+                    SearchDataType.collections(cachedCollections));
+        }
+
+        return Observable.fromCallable(new Callable<List<SearchDataType>>() {
+            @Override
+            public List<SearchDataType> call() throws Exception {
+                return getLocalResults(keyword);
+            }
+        }).subscribeOn(Schedulers.io())
+                .flatMap(new Function<List<SearchDataType>, ObservableSource<SearchDataType>>() {
                     @Override
-                    public ObservableSource<SearchDataType> apply(final SearchData searchData) throws Exception {
-                        return Observable.create(new ObservableOnSubscribe<SearchDataType>() {
-                            @Override
-                            public void subscribe(ObservableEmitter<SearchDataType> emitter) throws Exception {
-                                if (searchData == null) {
-                                    emitter.onError(new NullPointerException("SearchData is empty"));
-                                    emitter.onComplete();
-                                    return;
-                                }
-
-                                for (SearchData.Results results : searchData.getResults()) {
-                                    switch (results.getIndex()) {
-                                        case Constants.Search.POST_PRODUCTION:
-                                            List<Post> posts = new ArrayList<>();
-
-                                            for (SearchData.Results.Hits hit : results.getHits()) {
-                                                Post post = new Post();
-                                                post.setName(hit.getName());
-                                                post.setTagline(hit.getTagline());
-                                                post.setVotesCount(hit.getVoteCount());
-                                                post.setCommentCount(hit.getCommentsCount());
-                                                post.setCreatedAt(hit.getCreatedAt());
-                                                post.setCreatedAtMillis(hit.getPostedDate());
-                                                post.setPostId(hit.getId());
-                                                post.setRedirectUrl(hit.getUrl());
-                                                post.setThumbnailImageUrl(hit.getThumbnail().getImageUrl());
-                                                post.setUserId(hit.getUserId());
-                                                post.setUserImageUrlOriginal(hit.getUser().getAvatarUrl());
-                                                post.setUsername(hit.getUser().getName());
-                                                post.setUsernameAlternative(hit.getUser().getUsername());
-                                                post.setNameSpannable(getSpannableText(hit.getName(),
-                                                        hit.getHighlightResult().getName().getMatchedWords()));
-                                                post.setTaglineSpannable(getSpannableText(hit.getTagline(),
-                                                        hit.getHighlightResult().getTagline().getMatchedWords()));
-                                                posts.add(post);
-                                            }
-
-                                            SearchDataType searchDataPosts = new SearchDataType();
-                                            searchDataPosts.setPosts(posts);
-                                            searchDataPosts.setType(SearchDataType.TYPE.POST);
-                                            emitter.onNext(searchDataPosts);
-                                            break;
-                                    }
-                                }
-
-                                emitter.onComplete();
-                            }
-                        });
+                    public ObservableSource<SearchDataType> apply(List<SearchDataType> localResults) throws Exception {
+                        return Observable.fromIterable(localResults)
+                                .concatWith(getRemoteResults(keyword, localResults));
                     }
-                })
+                });
+    }
+
+    private Observable<SearchDataType> getRemoteResults(final String keyword, final List<SearchDataType> localResults) {
+        return ProductHuntRestApi.getSearchApi()
+                .search(SearchRequestData.getDefaultRequest(keyword))
                 .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread());
+                .flatMapIterable(new Function<SearchData, Iterable<SearchDataType>>() {
+                    @Override
+                    public Iterable<SearchDataType> apply(SearchData searchData) throws Exception {
+                        return getSearchDataTypes(searchData, true, true);
+                    }
+                })
+                .map(new Function<SearchDataType, SearchDataType>() {
+                    @Override
+                    public SearchDataType apply(SearchDataType searchDataType) throws Exception {
+                        return mergeLocalResults(searchDataType, localResults);
+                    }
+                })
+                .doOnNext(new Consumer<SearchDataType>() {
+                    @Override
+                    public void accept(SearchDataType searchDataType) throws Exception {
+                        cache(keyword, 0, searchDataType);
+                    }
+                })
+                .onErrorResumeNext(new Function<Throwable, ObservableSource<SearchDataType>>() {
+                    @Override
+                    public ObservableSource<SearchDataType> apply(Throwable throwable) throws Exception {
+                        Logger.e(TAG, throwable.getMessage(), throwable);
+                        // Local results stay visible, e.g. while offline.
+                        if (!localResults.isEmpty()) {
+                            return Observable.empty();
+                        }
+                        return Observable.just(SearchDataType.error());
+                    }
+                });
+    }
 
-        mCompositeDisposable.add(searchDataTypeObservable.subscribeWith(new DisposableObserver<SearchDataType>() {
+    /**
+     * @return Posts and collections matching the keyword, from the cached results of its prefix
+     * and the offline full text search
+     */
+    private List<SearchDataType> getLocalResults(String keyword) {
+        SearchResultsCache searchResultsCache = SearchResultsCache.getInstance();
+        List<Post> localPosts = new ArrayList<>();
+        List<Collection> localCollections = new ArrayList<>();
+        try {
+            for (LocalSearchHit<Post> hit : PredatorDatabase.getInstance()
+                    .searchPosts(keyword, Constants.Search.LOCAL_HITS_LIMIT)) {
+                Post post = hit.getItem();
+                post.setNameSpannable(getSpannableText(post.getName(),
+                        hit.getHighlights(LocalSearchHit.COLUMN_NAME)));
+                post.setTaglineSpannable(getSpannableText(post.getTagline(),
+                        hit.getHighlights(LocalSearchHit.COLUMN_DETAIL)));
+                localPosts.add(post);
+            }
+            for (LocalSearchHit<Collection> hit : PredatorDatabase.getInstance()
+                    .searchCollections(keyword, Constants.Search.LOCAL_HITS_LIMIT)) {
+                Collection collection = hit.getItem();
+                collection.setNameSpannable(getSpannableText(collection.getName(),
+                        hit.getHighlights(LocalSearchHit.COLUMN_NAME)));
+                localCollections.add(collection);
+            }
+        } catch (Exception e) {
+            // Offline search is only a head start, the network results still follow.
+            Logger.e(TAG, "getLocalResults: " + e.getMessage(), e);
+        }
+
+        List<SearchDataType> localResults = new ArrayList<>();
+        List<Post> posts = mergePosts(searchResultsCache.getPostsForPrefix(keyword), localPosts);
+        if (!posts.isEmpty()) {
+            localResults.add(SearchDataType.posts(posts));
+        }
+        List<Collection> collections = mergeCollections(searchResultsCache.getCollectionsForPrefix(keyword), localCollections);
+        if (!collections.isEmpty()) {
+            localResults.add(SearchDataType.collections(collections));
+        }
+        return localResults;
+    }
+
+    /**
+     * Add the local hits which the network didn't return after the network results. Only done
+     * when the network returned its last page, otherwise the local hits could show up again in
+     * the next pages.
+     */
+    private SearchDataType mergeLocalResults(SearchDataType remoteResult, List<SearchDataType> localResults) {
+        for (SearchDataType localResult : localResults) {
+            if (localResult.getType() != remoteResult.getType()) {
+                continue;
+            }
+            switch (remoteResult.getType()) {
+                case POST:
+                    if (remoteResult.getPosts().size() < Constants.Search.HITS_PER_PAGE) {
+                        return SearchDataType.posts(mergePosts(remoteResult.getPosts(), localResult.getPosts()));
+                    }
+                    break;
+                case COLLECTION:
+                    if (remoteResult.getCollections().size() < Constants.Search.HITS_PER_PAGE) {
+                        return SearchDataType.collections(mergeCollections(remoteResult.getCollections(), localResult.getCollections()));
+                    }
+                    break;
+            }
+        }
+        return remoteResult;
+    }
+
+    /**
+     * @return Posts of the first list followed by the posts of second list which are not in it
+     */
+    private static List<Post> mergePosts(@Nullable List<Post> posts, List<Post> morePosts) {
+        List<Post> mergedPosts = new ArrayList<>();
+        Set<Integer> postIds = new HashSet<>();
+        if (posts != null) {
+            for (Post post : posts) {
+                if (postIds.add(post.getPostId())) {
+                    mergedPosts.add(post);
+                }
+            }
+        }
+        for (Post post : morePosts) {
+            if (postIds.add(post.getPostId())) {
+                mergedPosts.add(post);
+            }
+        }
+        return mergedPosts;
+    }
+
+    /**
+     * @return Collections of the first list followed by the collections of second list which are
+     * not in it
+     */
+    private static List<Collection> mergeCollections(@Nullable List<Collection> collections, List<Collection> moreCollections) {
+        List<Collection> mergedCollections = new ArrayList<>();
+        Set<Integer> collectionIds = new HashSet<>();
+        if (collections != null) {
+            for (Collection collection : collections) {
+                if (collectionIds.add(collection.getCollectionId())) {
+                    mergedCollections.add(collection);
+                }
+            }
+        }
+        for (Collection collection : moreCollections) {
+            if (collectionIds.add(collection.getCollectionId())) {
+                mergedCollections.add(collection);
+            }
+        }
+        return mergedCollections;
+    }
+
+    @Override
+    public void loadMorePosts(final String keyword) {
+        mLoadingMorePosts = true;
+
+        final int page = mPostSearchPage + 1;
+        List<Post> cachedPosts = SearchResultsCache.getInstance().getPosts(keyword, page);
+        Observable<SearchDataType> searchDataTypeObservable;
+        if (cachedPosts != null) {
+            searchDataTypeObservable = Observable.just(SearchDataType.posts(cachedPosts));
+        } else {
+            searchDataTypeObservable = ProductHuntRestApi.getSearchApi()
+                    .search(SearchRequestData.getPostRequest(keyword, page))
+                    .flatMapIterable(new Function<SearchData, Iterable<SearchDataType>>() {
+                        @Override
+                        public Iterable<SearchDataType> apply(SearchData searchData) throws Exception {
+                            return getSearchDataTypes(searchData, true, false);
+                        }
+                    })
+                    .doOnNext(new Consumer<SearchDataType>() {
+                        @Override
+                        public void accept(SearchDataType searchDataType) throws Exception {
+                            cache(keyword, page, searchDataType);
+                        }
+                    })
+                    .subscribeOn(Schedulers.io())
+                    .observeOn(AndroidSchedulers.mainThread());
+        }
+
+        mLoadMoreDisposable.add(searchDataTypeObservable.subscribeWith(new DisposableObserver<SearchDataType>() {
             @Override
             public void onNext(SearchDataType searchDataType) {
                 switch (searchDataType.getType()) {
@@ -307,65 +412,34 @@ public class SearchPresenter implements SearchContract.Presenter {
     }
 
     @Override
-    public void loadMoreCollections(String keyword) {
+    public void loadMoreCollections(final String keyword) {
         mLoadingMoreCollections = true;
 
-        Observable<SearchDataType> searchDataTypeObservable = ProductHuntRestApi.getSearchApi()
-                .search(SearchRequestData.getCollectionRequest(keyword, mCollectionSearchPage + 1))
-                .flatMap(new Function<SearchData, ObservableSource<SearchDataType>>() {
-                    @Override
-                    public ObservableSource<SearchDataType> apply(final SearchData searchData) throws Exception {
-                        return Observable.create(new ObservableOnSubscribe<SearchDataType>() {
-                            @Override
-                            public void subscribe(ObservableEmitter<SearchDataType> emitter) throws Exception {
-                                if (searchData == null) {
-                                    emitter.onError(new NullPointerException("SearchData is empty"));
-                                    emitter.onComplete();
-                                    return;
-                                }
-
-                                for (SearchData.Results results : searchData.getResults()) {
-                                    switch (results.getIndex()) {
-                                        case Constants.Search.COLLECTION_PRODUCTION:
-                                            List<Collection> collections = new ArrayList<>();
-
-                                            for (SearchData.Results.Hits hit : results.getHits()) {
-                                                Collection collection = new Collection();
-                                                collection.setCollectionId(hit.getId());
-                                                collection.setName(hit.getName());
-                                                collection.setTitle(hit.getTitle());
-                                                collection.setBackgroundImageUrl(hit.getBackgroundImageBannerUrl());
-                                                collection.setCollectionUrl(hit.getUrl());
-                                                collection.setCategoryId(hit.getCategoryId());
-                                                collection.setPostCounts(hit.getPostsCount());
-                                                collection.setUserId(hit.getUserId());
-                                                collection.setUsername(hit.getUser().getName());
-                                                collection.setUsernameAlternative(hit.getUser().getUsername());
-                                                collection.setUserImageUrl100px(hit.getUser().getAvatarUrl());
-                                                collection.setNameSpannable(getSpannableText(hit.getName(),
-                                                        hit.getHighlightResult().getName().getMatchedWords()));
-                                                /*collection.setTitleSpannable(getSpannableText(hit.getTitle(),
-                                                        hit.getHighlightResult().getTitle().getMatchedWords()));*/
-                                                collections.add(collection);
-                                            }
-
-                                            SearchDataType searchDataCollections = new SearchDataType();
-                                            searchDataCollections.setCollections(collections);
-                                            searchDataCollections.setType(SearchDataType.TYPE.COLLECTION);
-                                            emitter.onNext(searchDataCollections);
-                                            break;
-                                    }
-                                }
-
-                                emitter.onComplete();
-                            }
-                        });
-                    }
-                })
-                .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread());
+        final int page = mCollectionSearchPage + 1;
+        List<Collection> cachedCollections = SearchResultsCache.getInstance().getCollections(keyword, page);
+        Observable<SearchDataType> searchDataTypeObservable;
+        if (cachedCollections != null) {
+            searchDataTypeObservable = Observable.just(SearchDataType.collections(cachedCollections));
+        } else {
+            searchDataTypeObservable = ProductHuntRestApi.getSearchApi()
+                    .search(SearchRequestData.getCollectionRequest(keyword, page))
+                    .flatMapIterable(new Function<SearchData, Iterable<SearchDataType>>() {
+                        @Override
+                        public Iterable<SearchDataType> apply(SearchData searchData) throws Exception {
+                            return getSearchDataTypes(searchData, false, true);
+                        }
+                    })
+                    .doOnNext(new Consumer<SearchDataType>() {
+                        @Override
+                        public void accept(SearchDataType searchDataType) throws Exception {
+                            cache(keyword, page, searchDataType);
+                        }
+                    })
+                    .subscribeOn(Schedulers.io())
+                    .observeOn(AndroidSchedulers.mainThread());
+        }
 
-        mCompositeDisposable.add(searchDataTypeObservable.subscribeWith(new DisposableObserver<SearchDataType>() {
+        mLoadMoreDisposable.add(searchDataTypeObservable.subscribeWith(new DisposableObserver<SearchDataType>() {
             @Override
             public void onNext(SearchDataType searchDataType) {
                 switch (searchDataType.getType()) {
@@ -396,7 +470,8 @@ public class SearchPresenter implements SearchContract.Presenter {
 
     @Override
     public void cancelOngoingRequest() {
-        mCompositeDisposable.clear();
+        mLoadMoreDisposable.clear();
+        mKeywordSubject.onNext("");
     }
 
     @Override
@@ -409,9 +484,135 @@ public class SearchPresenter implements SearchContract.Presenter {
         return mLoadingMoreCollections;
     }
 
-    private Spannable getSpannableText(String text, List<String> selections) {
+    /**
+     * @param searchData  Response received for a search request
+     * @param posts       True, if the posts of the response are required
+     * @param collections True, if the collections of the response are required
+     */
+    private List<SearchDataType> getSearchDataTypes(@Nullable SearchData searchData, boolean posts, boolean collections) {
+        if (searchData == null) {
+            throw new NullPointerException("SearchData is empty");
+        }
+
+        // Matched words are the same keyword for every hit, so they are compiled only once.
+        SearchHighlighter searchHighlighter = SearchHighlighter.compile(getMatchedWords(searchData));
+
+        List<SearchDataType> searchDataTypes = new ArrayList<>();
+        for (SearchData.Results results : searchData.getResults()) {
+            switch (results.getIndex()) {
+                case Constants.Search.POST_PRODUCTION:
+                    if (posts) {
+                        searchDataTypes.add(SearchDataType.posts(getPosts(results, searchHighlighter)));
+                    }
+                    break;
+                case Constants.Search.COLLECTION_PRODUCTION:
+                    if (collections) {
+                        searchDataTypes.add(SearchDataType.collections(getCollections(results, searchHighlighter)));
+                    }
+                    break;
+            }
+        }
+        return searchDataTypes;
+    }
+
+    /**
+     * @return Words highlighted in the names and taglines of all the hits of the response
+     */
+    private Set<String> getMatchedWords(SearchData searchData) {
+        Set<String> matchedWords = new HashSet<>();
+        for (SearchData.Results results : searchData.getResults()) {
+            for (SearchData.Results.Hits hit : results.getHits()) {
+                SearchData.Results.Hits.HighlightResult highlightResult = hit.getHighlightResult();
+                if (highlightResult == null) {
+                    continue;
+                }
+                if (highlightResult.getName() != null
+                        && highlightResult.getName().getMatchedWords() != null) {
+                    matchedWords.addAll(highlightResult.getName().getMatchedWords());
+                }
+                if (highlightResult.getTagline() != null
+                        && highlightResult.getTagline().getMatchedWords() != null) {
+                    matchedWords.addAll(highlightResult.getTagline().getMatchedWords());
+                }
+            }
+        }
+        return matchedWords;
+    }
+
+    private List<Post> getPosts(SearchData.Results results, SearchHighlighter searchHighlighter) {
+        List<Post> posts = new ArrayList<>();
+
+        for (SearchData.Results.Hits hit : results.getHits()) {
+            Post post = new Post();
+            post.setName(hit.getName());
+            post.setTagline(hit.getTagline());
+            post.setVotesCount(hit.getVoteCount());
+            post.setCommentCount(hit.getCommentsCount());
+            post.setCreatedAt(hit.getCreatedAt());
+            post.setCreatedAtMillis(hit.getPostedDate());
+            post.setPostId(hit.getId());
+            post.setRedirectUrl(hit.getUrl());
+            post.setThumbnailImageUrl(hit.getThumbnail().getImageUrl());
+            post.setUserId(hit.getUserId());
+            post.setUserImageUrlOriginal(hit.getUser().getAvatarUrl());
+            post.setUsername(hit.getUser().getName());
+            post.setUsernameAlternative(hit.getUser().getUsername());
+            post.setNameSpannable(getSpannableText(hit.getName(), searchHighlighter));
+            post.setTaglineSpannable(getSpannableText(hit.getTagline(), searchHighlighter));
+            posts.add(post);
+        }
+
+        return posts;
+    }
+
+    private List<Collection> getCollections(SearchData.Results results, SearchHighlighter searchHighlighter) {
+        List<Collection> collections = new ArrayList<>();
+
+        for (SearchData.Results.Hits hit : results.getHits()) {
+            Collection collection = new Collection();
+            collection.setCollectionId(hit.getId());
+            collection.setName(hit.getName());
+            collection.setTitle(hit.getTitle());
+            collection.setBackgroundImageUrl(hit.getBackgroundImageBannerUrl());
+            collection.setCollectionUrl(hit.getUrl());
+            collection.setCategoryId(hit.getCategoryId());
+            collection.setPostCounts(hit.getPostsCount());
+            collection.setUserId(hit.getUserId());
+            collection.setUsername(hit.getUser().getName());
+            collection.setUsernameAlternative(hit.getUser().getUsername());
+            collection.setUserImageUrl100px(hit.getUser().getAvatarUrl());
+            collection.setNameSpannable(getSpannableText(hit.getName(), searchHighlighter));
+            /*collection.setTitleSpannable(getSpannableText(hit.getTitle(), searchHighlighter));*/
+            collections.add(collection);
+        }
+
+        return collections;
+    }
+
+    private void cache(String keyword, int page, SearchDataType searchDataType) {
+        switch (searchDataType.getType()) {
+            case POST:
+                SearchResultsCache.getInstance()
+                        .putPosts(keyword, page, searchDataType.getPosts());
+                break;
+            case COLLECTION:
+                SearchResultsCache.getInstance()
+                        .putCollections(keyword, page, searchDataType.getCollections());
+                break;
+        }
+    }
+
+    private Spannable getSpannableText(String text, SearchHighlighter searchHighlighter) {
+        if (mSearchSpanColor == SearchSpanCreator.COLOR_NONE || searchHighlighter.isEmpty()) {
+            return null;
+        }
         return SearchSpanCreator.getInstance()
-                .create(mSearchSpanColor, text, selections);
+                .create(mSearchSpanColor, text, searchHighlighter.find(text));
+    }
+
+    private Spannable getSpannableText(String text, int[] highlights) {
+        return SearchSpanCreator.getInstance()
+                .create(mSearchSpanColor, text, highlights);
     }
 
     private static class SearchDataType {
@@ -423,6 +624,26 @@ public class SearchPresenter implements SearchContract.Presenter {
 
         }
 
+        static SearchDataType posts(List<Post> posts) {
+            SearchDataType searchDataType = new SearchDataType();
+            searchDataType.setPosts(posts);
+            searchDataType.setType(TYPE.POST);
+            return searchDataType;
+        }
+
+        static SearchDataType collections(List<Collection> collections) {
+            SearchDataType searchDataType = new SearchDataType();
+            searchDataType.setCollections(collections);
+            searchDataType.setType(TYPE.COLLECTION);
+            return searchDataType;
+        }
+
+        static SearchDataType error() {
+            SearchDataType searchDataType = new SearchDataType();
+            searchDataType.setType(TYPE.ERROR);
+            return searchDataType;
+        }
+
         public List<Post> getPosts() {
             return posts;
         }
@@ -449,7 +670,8 @@ public class SearchPresenter implements SearchContract.Presenter {
 
         enum TYPE {
             POST,
-            COLLECTION
+            COLLECTION,
+            ERROR
         }
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.core.search;
+
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import com.crazyhitty.chdev.ks.predator.models.Collection;
+import com.crazyhitty.chdev.ks.predator.models.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the results of the recent searches in memory, page wise, so that going back
+ * to an earlier query or page doesn't hit the network again. While a longer query is being
+ * requested, results of its longest cached prefix which still match it are shown, e.g. results of
+ * "notio" for "notion".
+ */
+
+public class SearchResultsCache {
+    private static final int MAX_POST_PAGES = 30;
+    private static final int MAX_COLLECTION_PAGES = 30;
+
+    private static SearchResultsCache sSearchResultsCache;
+
+    private final LruCache<String, List<Post>> mPosts = new LruCache<>(MAX_POST_PAGES);
+
+    private final LruCache<String, List<Collection>> mCollections = new LruCache<>(MAX_COLLECTION_PAGES);
+
+    private SearchResultsCache() {
+
+    }
+
+    public static synchronized SearchResultsCache getInstance() {
+        if (sSearchResultsCache == null) {
+            sSearchResultsCache = new SearchResultsCache();
+        }
+        return sSearchResultsCache;
+    }
+
+    public @Nullable List<Post> getPosts(String query, int page) {
+        return mPosts.get(getKey(normalize(query), page));
+    }
+
+    public void putPosts(String query, int page, List<Post> posts) {
+        mPosts.put(getKey(normalize(query), page), posts);
+    }
+
+    public @Nullable List<Collection> getCollections(String query, int page) {
+        return mCollections.get(getKey(normalize(query), page));
+    }
+
+    public void putCollections(String query, int page, List<Collection> collections) {
+        mCollections.put(getKey(normalize(query), page), collections);
+    }
+
+    /**
+     * @param query Query which is being requested
+     * @return First page of posts of the longest cached prefix of the query which match the
+     * whole query, or null if no prefix is cached
+     */
+    public @Nullable List<Post> getPostsForPrefix(String query) {
+        String normalizedQuery = normalize(query);
+        String[] words = normalizedQuery.split(" ");
+        for (int end = normalizedQuery.length() - 1; end > 0; end--) {
+            List<Post> posts = mPosts.get(getKey(normalizedQuery.substring(0, end).trim(), 0));
+            if (posts == null) {
+                continue;
+            }
+            List<Post> matchingPosts = new ArrayList<>();
+            for (Post post : posts) {
+                if (matches(words, post.getName(), post.getTagline())) {
+                    matchingPosts.add(post);
+                }
+            }
+            return matchingPosts;
+        }
+        return null;
+    }
+
+    /**
+     * @param query Query which is being requested
+     * @return First page of collections of the longest cached prefix of the query which match
+     * the whole query, or null if no prefix is cached
+     */
+    public @Nullable List<Collection> getCollectionsForPrefix(String query) {
+        String normalizedQuery = normalize(query);
+        String[] words = normalizedQuery.split(" ");
+        for (int end = normalizedQuery.length() - 1; end > 0; end--) {
+            List<Collection> collections = mCollections.get(getKey(normalizedQuery.substring(0, end).trim(), 0));
+            if (collections == null) {
+                continue;
+            }
+            List<Collection> matchingCollections = new ArrayList<>();
+            for (Collection collection : collections) {
+                if (matches(words, collection.getName(), collection.getTitle())) {
+                    matchingCollections.add(collection);
+                }
+            }
+            return matchingCollections;
+        }
+        return null;
+    }
+
+    public void evictAll() {
+        mPosts.evictAll();
+        mCollections.evictAll();
+    }
+
+    /**
+     * @return True, if every word of the query starts a word of one of the texts
+     */
+    private static boolean matches(String[] words, String... texts) {
+        for (String word : words) {
+            boolean found = false;
+            for (String text : texts) {
+                if (startsAnyWord(text, word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsAnyWord(String text, String word) {
+        if (TextUtils.isEmpty(text)) {
+            return false;
+        }
+        String lowerCaseText = text.toLowerCase(Locale.US);
+        int index = lowerCaseText.indexOf(word);
+        while (index != -1) {
+            if (index == 0 || !Character.isLetterOrDigit(lowerCaseText.charAt(index - 1))) {
+                return true;
+            }
+            index = lowerCaseText.indexOf(word, index + 1);
+        }
+        return false;
+    }
+
+    private static String normalize(String query) {
+        return query.trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.US);
+    }
+
+    private static String getKey(String normalizedQuery, int page) {
+        return page + ":" + normalizedQuery;
+    }
+}
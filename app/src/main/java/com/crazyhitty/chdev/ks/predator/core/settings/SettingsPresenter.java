@@ -26,8 +26,10 @@ package com.crazyhitty.chdev.ks.predator.core.settings;
 
 import android.support.annotation.NonNull;
 
+import com.crazyhitty.chdev.ks.predator.data.PostsSyncState;
 import com.crazyhitty.chdev.ks.predator.data.PredatorDatabase;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
 import com.facebook.drawee.backends.pipeline.Fresco;
 
 import io.reactivex.Observable;
@@ -87,6 +89,13 @@ public class SettingsPresenter implements SettingsContract.Presenter {
                 // Clear fresco cache.
                 Fresco.getImagePipeline().clearCaches();
 
+                // Clear http cache.
+                ProductHuntHttpClient.evictCache();
+
+                // Stored posts are gone, so every day has to be synced again from scratch.
+                PostsSyncState.getInstance()
+                        .clear();
+
                 emitter.onNext(true);
                 emitter.onComplete();
             }
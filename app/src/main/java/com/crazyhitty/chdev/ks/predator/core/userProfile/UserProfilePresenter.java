@@ -98,7 +98,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                 // Fetch the voted posts of this user.
                 List<Post> votedPosts = PredatorDatabase.getInstance()
-                        .getVotedPosts(currentUser.get(0).getVotedPostIdsQuery());
+                        .getVotedPosts(userId);
                 if (votedPosts != null && !votedPosts.isEmpty()) {
                     UserProfileDataType currentUserPostsData = new UserProfileDataType();
                     currentUserPostsData.setPosts(votedPosts);
@@ -108,7 +108,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                 // Fetch the submitted posts of this user.
                 List<Post> submittedPosts = PredatorDatabase.getInstance()
-                        .getSubmittedPosts(currentUser.get(0).getHuntedPostIdsQuery());
+                        .getSubmittedPosts(userId);
                 if (submittedPosts != null && !submittedPosts.isEmpty()) {
                     UserProfileDataType currentUserPostsData = new UserProfileDataType();
                     currentUserPostsData.setPosts(submittedPosts);
@@ -118,7 +118,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                 // Fetch the posts which this user made (maker).
                 List<Post> madePosts = PredatorDatabase.getInstance()
-                        .getMadePosts(currentUser.get(0).getMadePostIdsQuery());
+                        .getMadePosts(userId);
                 if (madePosts != null && !madePosts.isEmpty()) {
                     UserProfileDataType currentUserPostsData = new UserProfileDataType();
                     currentUserPostsData.setPosts(madePosts);
@@ -128,7 +128,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                 // Fetch followers users.
                 List<User> followerUsers = PredatorDatabase.getInstance()
-                        .getFollowerUsers(currentUser.get(0).getFollowerUserIdsQuery());
+                        .getFollowerUsers(userId);
                 if (followerUsers != null && !followerUsers.isEmpty()) {
                     UserProfileDataType followerUsersData = new UserProfileDataType();
                     followerUsersData.setUsers(followerUsers);
@@ -138,7 +138,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                 // Fetch following users.
                 List<User> followingUsers = PredatorDatabase.getInstance()
-                        .getFollowingUsers(currentUser.get(0).getFollowingUserIdsQuery());
+                        .getFollowingUsers(userId);
                 if (followerUsers != null && !followerUsers.isEmpty()) {
                     UserProfileDataType followingUsersData = new UserProfileDataType();
                     followingUsersData.setUsers(followingUsers);
@@ -242,7 +242,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                                 // Fetch the voted posts of this user.
                                 List<Post> votedPosts = PredatorDatabase.getInstance()
-                                        .getVotedPosts(currentUser.get(0).getVotedPostIdsQuery());
+                                        .getVotedPosts(userId);
                                 if (votedPosts != null && !votedPosts.isEmpty()) {
                                     UserProfileDataType currentUserPostsData = new UserProfileDataType();
                                     currentUserPostsData.setPosts(votedPosts);
@@ -257,7 +257,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                                 // Fetch the submitted posts of this user.
                                 List<Post> submittedPosts = PredatorDatabase.getInstance()
-                                        .getSubmittedPosts(currentUser.get(0).getHuntedPostIdsQuery());
+                                        .getSubmittedPosts(userId);
                                 if (submittedPosts != null && !submittedPosts.isEmpty()) {
                                     UserProfileDataType currentUserPostsData = new UserProfileDataType();
                                     currentUserPostsData.setPosts(submittedPosts);
@@ -272,7 +272,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                                 // Fetch the posts which this user made (maker).
                                 List<Post> madePosts = PredatorDatabase.getInstance()
-                                        .getMadePosts(currentUser.get(0).getMadePostIdsQuery());
+                                        .getMadePosts(userId);
                                 if (madePosts != null && !madePosts.isEmpty()) {
                                     UserProfileDataType currentUserPostsData = new UserProfileDataType();
                                     currentUserPostsData.setPosts(madePosts);
@@ -287,7 +287,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                                 // Fetch followers users.
                                 List<User> followerUsers = PredatorDatabase.getInstance()
-                                        .getFollowerUsers(currentUser.get(0).getFollowerUserIdsQuery());
+                                        .getFollowerUsers(userId);
                                 if (followerUsers != null && !followerUsers.isEmpty()) {
                                     UserProfileDataType followerUsersData = new UserProfileDataType();
                                     followerUsersData.setUsers(followerUsers);
@@ -302,7 +302,7 @@ public class UserProfilePresenter implements UserProfileContract.Presenter {
 
                                 // Fetch following users.
                                 List<User> followingUsers =PredatorDatabase.getInstance()
-                                        .getFollowingUsers(currentUser.get(0).getFollowingUserIdsQuery());
+                                        .getFollowingUsers(userId);
                                 if (followingUsers != null && !followingUsers.isEmpty()) {
                                     UserProfileDataType followingUsersData = new UserProfileDataType();
                                     followingUsersData.setUsers(followingUsers);
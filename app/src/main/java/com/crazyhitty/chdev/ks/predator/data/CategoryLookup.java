@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+
+import com.crazyhitty.chdev.ks.predator.models.Category;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * All the categories stored in the category table, keyed by their category id. The
+ * table is read at most once until categories are written again, after which the next lookup
+ * reads it again.
+ */
+
+public class CategoryLookup {
+    private static CategoryLookup sCategoryLookup;
+
+    /**
+     * Incremented every time categories are written, so that categories read before a write are
+     * never published after it.
+     */
+    private final AtomicInteger mGeneration = new AtomicInteger();
+
+    private volatile SparseArray<Category> mCategories;
+
+    private CategoryLookup() {
+
+    }
+
+    public static synchronized CategoryLookup getInstance() {
+        if (sCategoryLookup == null) {
+            sCategoryLookup = new CategoryLookup();
+        }
+        return sCategoryLookup;
+    }
+
+    public static SparseArray<Category> toSparseArray(List<Category> categories) {
+        SparseArray<Category> categorySparseArray = new SparseArray<>(categories.size());
+        for (Category category : categories) {
+            categorySparseArray.put(category.getCategoryId(), category);
+        }
+        return categorySparseArray;
+    }
+
+    /**
+     * @return Categories keyed by their category id, or null if they haven't been read yet.
+     */
+    @Nullable
+    public SparseArray<Category> getCategories() {
+        return mCategories;
+    }
+
+    /**
+     * @return Current generation, read it before querying the category table and pass it to
+     * {@link #update(List, int)}.
+     */
+    public int getGeneration() {
+        return mGeneration.get();
+    }
+
+    /**
+     * Publish the categories read from the category table, unless they were written since the
+     * read started.
+     *
+     * @param categories Categories read from the category table
+     * @param generation Generation before the categories were read
+     */
+    public void update(List<Category> categories, int generation) {
+        SparseArray<Category> categorySparseArray = toSparseArray(categories);
+        synchronized (this) {
+            if (generation == mGeneration.get()) {
+                mCategories = categorySparseArray;
+            }
+        }
+    }
+
+    public void invalidate() {
+        synchronized (this) {
+            mGeneration.incrementAndGet();
+            mCategories = null;
+        }
+    }
+}
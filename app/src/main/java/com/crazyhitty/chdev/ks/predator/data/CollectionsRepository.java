@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import com.crazyhitty.chdev.ks.predator.models.Collection;
+import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
+import com.crazyhitty.chdev.ks.predator.utils.NotModifiedFallback;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.CollectionsData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+
+/**
+ * Revalidates the stored collections page wise. Every page emits all of the
+ * collections stored after it was written, the first page replaces the previous ones.
+ */
+
+public class CollectionsRepository extends StaleWhileRevalidateRepository<Integer, List<Collection>> {
+    public static final int FIRST_PAGE = 1;
+    private static final int PER_PAGE_COUNT = 50;
+
+    private static CollectionsRepository sCollectionsRepository;
+
+    private CollectionsRepository() {
+        super(Constants.Freshness.COLLECTIONS_TTL);
+    }
+
+    public static synchronized CollectionsRepository getInstance() {
+        if (sCollectionsRepository == null) {
+            sCollectionsRepository = new CollectionsRepository();
+        }
+        return sCollectionsRepository;
+    }
+
+    @Override
+    protected Observable<List<Collection>> fetch(final Integer page, final String token) {
+        return Observable.defer(new Callable<ObservableSource<CollectionsData>>() {
+            @Override
+            public ObservableSource<CollectionsData> call() throws Exception {
+                // Rows aren't stored page wise, and every other page is deleted whenever the first
+                // one changes. So only an unchanged first page can be skipped, while it is still
+                // stored.
+                boolean pageStored = page == FIRST_PAGE && PredatorDatabase.getInstance().hasCollections();
+                return ProductHuntRestApi.getApi()
+                        .getCollections(CoreUtils.getAuthToken(token),
+                                ProductHuntHttpClient.getConditionalRequest(pageStored),
+                                page,
+                                PER_PAGE_COUNT,
+                                true);
+            }
+        })
+                .map(new Function<CollectionsData, List<Collection>>() {
+                    @Override
+                    public List<Collection> apply(CollectionsData collectionsData) throws Exception {
+                        if (page == FIRST_PAGE) {
+                            // Replace the previous collections and their posts atomically, so that
+                            // they are never read half way.
+                            PredatorDatabase.getInstance()
+                                    .beginTransaction();
+                            try {
+                                // Clear previous collections from database.
+                                PredatorDatabase.getInstance()
+                                        .deleteAllCollections();
+
+                                // Clear posts currently available for collections from database.
+                                PredatorDatabase.getInstance()
+                                        .deletePostsForCollections();
+
+                                // Add content to the database.
+                                PredatorDatabase.getInstance()
+                                        .insertCollections(PredatorDbValuesHelper.getBulkContentValuesForCollections(collectionsData.getCollections()));
+
+                                PredatorDatabase.getInstance()
+                                        .setTransactionSuccessful();
+                            } finally {
+                                PredatorDatabase.getInstance()
+                                        .endTransaction();
+                            }
+                        } else {
+                            // Add content to the database.
+                            PredatorDatabase.getInstance()
+                                    .insertCollections(PredatorDbValuesHelper.getBulkContentValuesForCollections(collectionsData.getCollections()));
+                        }
+
+                        // Retrieve the results from the database.
+                        return PredatorDatabase.getInstance()
+                                .getCollections();
+                    }
+                })
+                .onErrorResumeNext(new NotModifiedFallback<List<Collection>>() {
+                    @Override
+                    protected List<Collection> getStoredData() throws Exception {
+                        return PredatorDatabase.getInstance()
+                                .getCollections();
+                    }
+                });
+    }
+}
@@ -52,6 +52,22 @@ public class Constants {
     public static class Sync {
         public static final int ON = 1;
         public static final int OFF = 0;
+        // Number of days synced in the background, including today.
+        public static final int WINDOW_DAYS = 7;
+        // Number of days requested at the same time while syncing.
+        public static final int MAX_PARALLEL_REQUESTS = 3;
+        // Jobs due within this time after a sync starts run along with it.
+        public static final long BATCH_WINDOW_MILLIS = 15 * 60 * 1000;
+        // Delay before a failed job is retried, doubled with every consecutive failure.
+        public static final long INITIAL_BACKOFF_MILLIS = 60 * 1000;
+        public static final long MAX_BACKOFF_MILLIS = 6 * 60 * 60 * 1000;
+        public static final String JOB_POSTS = "posts";
+        public static final String JOB_COLLECTIONS = "collections";
+        public static final String JOB_CATEGORIES = "categories";
+        public static final String JOB_PROFILE = "profile";
+        public static final long COLLECTIONS_INTERVAL_MILLIS = 6 * 60 * 60 * 1000;
+        public static final long CATEGORIES_INTERVAL_MILLIS = 24 * 60 * 60 * 1000;
+        public static final long PROFILE_INTERVAL_MILLIS = 12 * 60 * 60 * 1000;
 
         private Sync() {
 
@@ -70,12 +86,39 @@ public class Constants {
 
     public static class Posts {
         public static final String CATEGORY_ALL = "all";
+        // Number of offline posts loaded at once on the dashboard.
+        public static final int PAGE_SIZE = 20;
+        // Next page is loaded when the user scrolls this close to the last loaded post.
+        public static final int PREFETCH_DISTANCE = 5;
+        // Number of votes, comments, media or install links deserialized at once while post details are parsed.
+        public static final int DETAILS_BATCH_SIZE = 100;
 
         private Posts() {
 
         }
     }
 
+    public static class Http {
+        public static final String CACHE_DIRECTORY = "http_cache";
+        // Maximum size of the http responses stored on disk.
+        public static final long CACHE_SIZE = 10 * 1024 * 1024;
+
+        private Http() {
+
+        }
+    }
+
+    public static class Freshness {
+        // Time for which stored data is shown as it is, before it is revalidated in the background.
+        public static final long POSTS_TTL = 5 * 60 * 1000;
+        public static final long COLLECTIONS_TTL = 60 * 60 * 1000;
+        public static final long POST_DETAILS_TTL = 15 * 60 * 1000;
+
+        private Freshness() {
+
+        }
+    }
+
     public static class Library {
         public static final String LIBRARIES = "libraries";
         public static final String LIBRARY_TITLE = "library_title";
@@ -106,6 +149,15 @@ public class Constants {
     public static class Search {
         public static final String POST_PRODUCTION = "Post_production";
         public static final String COLLECTION_PRODUCTION = "Collection_production";
+        // Time for which the user has to stop typing before the keyword is searched.
+        public static final long DEBOUNCE_MILLIS = 300;
+        // Number of hits in a page of search results received from the network.
+        public static final int HITS_PER_PAGE = 10;
+        // Maximum number of stored posts or collections shown for a keyword.
+        public static final int LOCAL_HITS_LIMIT = 20;
+        // Maximum number of stored posts or collections ranked for a keyword. Short prefixes
+        // match most of the stored rows, which are then ranked from the most recently stored.
+        public static final int LOCAL_CANDIDATES_LIMIT = 200;
     }
 
     public static class SharedPreferences {
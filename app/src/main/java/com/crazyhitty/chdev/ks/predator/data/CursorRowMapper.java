@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the rows of a cursor into models. The column indexes are resolved only once
+ * when the mapper is created, so every row is read by int index instead of looking up the column
+ * names again. Columns which are not a part of the cursor's projection are skipped, so the same
+ * mapper works for queries which only request some of the columns.
+ */
+
+public abstract class CursorRowMapper<T> {
+    private final Cursor mCursor;
+
+    protected CursorRowMapper(@NonNull Cursor cursor) {
+        mCursor = cursor;
+    }
+
+    /**
+     * @param columnName Column name whose index is required.
+     * @return Index of the column or -1 if the cursor's projection doesn't contain it.
+     */
+    protected final int getColumnIndex(@NonNull String columnName) {
+        return mCursor.getColumnIndex(columnName);
+    }
+
+    /**
+     * Create a model from the row at the current position of cursor.
+     *
+     * @param cursor Cursor moved to the row which should be mapped.
+     * @return Model containing the values of the current row.
+     */
+    protected abstract T mapRow(@NonNull Cursor cursor);
+
+    /**
+     * @return Model for the first row of the cursor.
+     */
+    public T mapFirst() {
+        mCursor.moveToFirst();
+        return mapRow(mCursor);
+    }
+
+    /**
+     * @return Models for all of the rows in cursor.
+     */
+    public List<T> mapAll() {
+        List<T> models = new ArrayList<>(mCursor.getCount());
+        mCursor.moveToPosition(-1);
+        while (mCursor.moveToNext()) {
+            models.add(mapRow(mCursor));
+        }
+        return models;
+    }
+
+    protected static String getString(@NonNull Cursor cursor, int columnIndex) {
+        return columnIndex == -1 ? null : cursor.getString(columnIndex);
+    }
+
+    protected static int getInt(@NonNull Cursor cursor, int columnIndex) {
+        return columnIndex == -1 ? 0 : cursor.getInt(columnIndex);
+    }
+
+    protected static long getLong(@NonNull Cursor cursor, int columnIndex) {
+        return columnIndex == -1 ? 0 : cursor.getLong(columnIndex);
+    }
+
+    protected static boolean getBoolean(@NonNull Cursor cursor, int columnIndex) {
+        return getInt(cursor, columnIndex) == 1;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+/**
+ * Outcome of syncing the posts of a single day.
+ */
+
+public class DaySyncResult {
+    private final String day;
+    private final int postsCount;
+    private final int insertedCount;
+    private final int updatedCount;
+    private final boolean modified;
+    private final Throwable error;
+    private boolean unchanged;
+    private long fetchMillis;
+    private long persistMillis;
+
+    private DaySyncResult(String day, int postsCount, int insertedCount, int updatedCount, boolean modified, Throwable error) {
+        this.day = day;
+        this.postsCount = postsCount;
+        this.insertedCount = insertedCount;
+        this.updatedCount = updatedCount;
+        this.modified = modified;
+        this.error = error;
+    }
+
+    /**
+     * @param day           Day of the posts
+     * @param postsCount    Number of posts received for the day
+     * @param insertedCount Number of posts which were not stored before
+     * @param updatedCount  Number of stored posts whose votes or comments changed
+     */
+    public static DaySyncResult written(String day, int postsCount, int insertedCount, int updatedCount) {
+        return new DaySyncResult(day, postsCount, insertedCount, updatedCount, true, null);
+    }
+
+    /**
+     * Posts of the day didn't change since the stored response, so nothing was written.
+     */
+    public static DaySyncResult notModified(String day) {
+        return new DaySyncResult(day, 0, 0, 0, false, null);
+    }
+
+    /**
+     * Posts of the day were synced recently, so they weren't requested at all.
+     */
+    public static DaySyncResult skipped(String day) {
+        DaySyncResult daySyncResult = new DaySyncResult(day, 0, 0, 0, false, null);
+        daySyncResult.setUnchanged(true);
+        return daySyncResult;
+    }
+
+    public static DaySyncResult failed(String day, Throwable error) {
+        return new DaySyncResult(day, 0, 0, 0, false, error);
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public int getPostsCount() {
+        return postsCount;
+    }
+
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    /**
+     * @return True, if a new response was received for the day
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * @return True, if any post of the day was inserted or updated
+     */
+    public boolean hasChanges() {
+        return insertedCount + updatedCount > 0;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    /**
+     * @return True, if the day was already synced before and its posts are still the same
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    void setUnchanged(boolean unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * @return Time taken to receive the response of the day
+     */
+    public long getFetchMillis() {
+        return fetchMillis;
+    }
+
+    /**
+     * @return Time taken to compare and write the posts of the day
+     */
+    public long getPersistMillis() {
+        return persistMillis;
+    }
+
+    void setTimings(long fetchMillis, long persistMillis) {
+        this.fetchMillis = fetchMillis;
+        this.persistMillis = persistMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "day: " + day +
+                ", postsCount: " + postsCount +
+                ", inserted: " + insertedCount +
+                ", updated: " + updatedCount +
+                ", modified: " + modified +
+                ", unchanged: " + unchanged +
+                ", failed: " + isFailed() +
+                ", fetch(ms): " + fetchMillis +
+                ", persist(ms): " + persistMillis;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A post or collection found by the offline full text search, along with its rank
+ * and the parts of its name and tagline or title which matched the query.
+ */
+
+public class LocalSearchHit<T> {
+    /**
+     * Name of the post or collection.
+     */
+    public static final int COLUMN_NAME = 0;
+    /**
+     * Tagline of the post or title of the collection.
+     */
+    public static final int COLUMN_DETAIL = 1;
+
+    // A match in the name counts more than a match in the tagline or title.
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+
+    private final T item;
+    private final double rank;
+    private final int[][] highlights;
+
+    LocalSearchHit(T item, double rank, int[][] highlights) {
+        this.item = item;
+        this.rank = rank;
+        this.highlights = highlights;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * @return Relevance of the hit, higher is better
+     */
+    public double getRank() {
+        return rank;
+    }
+
+    /**
+     * @param column {@link #COLUMN_NAME} or {@link #COLUMN_DETAIL}
+     * @return Start and end character offsets of every match in the column, one pair after the
+     * other
+     */
+    public int[] getHighlights(int column) {
+        return highlights[column];
+    }
+
+    /**
+     * Rank a hit the same way as the example rank function of the sqlite full text search docs:
+     * every phrase adds the share of its matches which are in this row, weighted by the column.
+     *
+     * @param matchInfo Result of matchinfo(table, 'pcx') for the row
+     */
+    static double getRank(int[] matchInfo) {
+        int phrases = matchInfo[0];
+        int columns = matchInfo[1];
+        double rank = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int index = 2 + 3 * (phrase * columns + column);
+                int hitsInRow = matchInfo[index];
+                int hitsInAllRows = matchInfo[index + 1];
+                if (hitsInRow > 0 && column < COLUMN_WEIGHTS.length) {
+                    rank += COLUMN_WEIGHTS[column] * hitsInRow / hitsInAllRows;
+                }
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @param offsets Result of offsets(table) for the row, which contains the column, term, byte
+     *                offset and byte size of every match
+     * @param texts   Values of the indexed columns of the row
+     * @return Start and end character offsets of the matches, per column
+     */
+    static int[][] getHighlights(String offsets, String[] texts) {
+        List<List<Integer>> columnHighlights = new ArrayList<>(texts.length);
+        for (int i = 0; i < texts.length; i++) {
+            columnHighlights.add(new ArrayList<Integer>());
+        }
+
+        if (offsets != null && !offsets.isEmpty()) {
+            String[] values = offsets.split(" ");
+            for (int i = 0; i + 3 < values.length; i += 4) {
+                int column = Integer.parseInt(values[i]);
+                if (column >= texts.length || texts[column] == null) {
+                    continue;
+                }
+                int byteOffset = Integer.parseInt(values[i + 2]);
+                int byteSize = Integer.parseInt(values[i + 3]);
+                // Offsets are in bytes of the utf-8 text, spans need character offsets.
+                columnHighlights.get(column).add(getCharOffset(texts[column], byteOffset));
+                columnHighlights.get(column).add(getCharOffset(texts[column], byteOffset + byteSize));
+            }
+        }
+
+        int[][] highlights = new int[texts.length][];
+        for (int column = 0; column < texts.length; column++) {
+            List<Integer> columnHighlight = columnHighlights.get(column);
+            highlights[column] = new int[columnHighlight.size()];
+            for (int i = 0; i < columnHighlight.size(); i++) {
+                highlights[column][i] = columnHighlight.get(i);
+            }
+        }
+        return highlights;
+    }
+
+    /**
+     * @return Index of the character at which the utf-8 byte offset of the text starts
+     */
+    static int getCharOffset(String text, int byteOffset) {
+        int bytes = 0;
+        int index = 0;
+        while (index < text.length() && bytes < byteOffset) {
+            char c = text.charAt(index);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && index + 1 < text.length()) {
+                // Surrogate pair is a single code point of four bytes.
+                bytes += 4;
+                index++;
+            } else {
+                bytes += 3;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return Hits sorted by their rank, best first, limited to the given count
+     */
+    static <T> List<LocalSearchHit<T>> getTopHits(List<LocalSearchHit<T>> hits, int limit) {
+        Collections.sort(hits, new Comparator<LocalSearchHit<T>>() {
+            @Override
+            public int compare(LocalSearchHit<T> hit1, LocalSearchHit<T> hit2) {
+                return Double.compare(hit2.getRank(), hit1.getRank());
+            }
+        });
+        return hits.size() > limit ? new ArrayList<LocalSearchHit<T>>(hits.subList(0, limit)) : hits;
+    }
+}
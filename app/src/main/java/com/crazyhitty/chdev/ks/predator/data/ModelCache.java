@@ -0,0 +1,337 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.ComponentCallbacks2;
+import android.util.LruCache;
+
+import com.crazyhitty.chdev.ks.predator.models.Comment;
+import com.crazyhitty.chdev.ks.predator.models.Post;
+import com.crazyhitty.chdev.ks.predator.models.PostDetails;
+import com.crazyhitty.chdev.ks.predator.models.User;
+import com.crazyhitty.chdev.ks.predator.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the models recently read by {@link PredatorDatabase} in memory, so that
+ * opening the same post or user again doesn't touch the database. Every write made through
+ * {@link PredatorProvider} removes the affected entries. Writes made inside a
+ * {@link PredatorDatabase#beginTransaction()} block are removed once more when it ends, because
+ * other threads keep reading the previous rows until the transaction is committed.
+ * <p>
+ * Models are mutable, so every region stores its own copy of a model and hands out a new copy on
+ * every read. Callers are free to modify what they get without affecting other readers.
+ */
+
+public class ModelCache {
+    private static final String TAG = "ModelCache";
+
+    private static final int MAX_POSTS = 200;
+    private static final int MAX_POST_DETAILS = 50;
+    private static final int MAX_USERS = 200;
+    private static final int MAX_COMMENT_POSTS = 20;
+
+    private static ModelCache sModelCache;
+
+    private final Region<Post> mPosts = new Region<Post>(MAX_POSTS, new Copier<Post>() {
+        @Override
+        public Post copy(Post post) {
+            return new Post(post);
+        }
+    });
+
+    private final Region<PostDetails> mPostDetails = new Region<PostDetails>(MAX_POST_DETAILS, new Copier<PostDetails>() {
+        @Override
+        public PostDetails copy(PostDetails postDetails) {
+            return new PostDetails(postDetails);
+        }
+    });
+
+    private final Region<User> mUsers = new Region<User>(MAX_USERS, new Copier<User>() {
+        @Override
+        public User copy(User user) {
+            return new User(user);
+        }
+    });
+
+    /**
+     * Comments of a post before they are arranged in a thread, keyed by the post id.
+     */
+    private final Region<List<Comment>> mComments = new Region<List<Comment>>(MAX_COMMENT_POSTS, new Copier<List<Comment>>() {
+        @Override
+        public List<Comment> copy(List<Comment> comments) {
+            List<Comment> copiedComments = new ArrayList<>(comments.size());
+            for (Comment comment : comments) {
+                copiedComments.add(new Comment(comment));
+            }
+            return copiedComments;
+        }
+    });
+
+    /**
+     * Entries removed while a transaction is open on the current thread.
+     */
+    private final ThreadLocal<List<Invalidation>> mTransactionInvalidations = new ThreadLocal<>();
+
+    private ModelCache() {
+
+    }
+
+    public static synchronized ModelCache getInstance() {
+        if (sModelCache == null) {
+            sModelCache = new ModelCache();
+        }
+        return sModelCache;
+    }
+
+    public Region<Post> getPosts() {
+        return mPosts;
+    }
+
+    public Region<PostDetails> getPostDetails() {
+        return mPostDetails;
+    }
+
+    public Region<User> getUsers() {
+        return mUsers;
+    }
+
+    public Region<List<Comment>> getComments() {
+        return mComments;
+    }
+
+    public void invalidatePost(int postId) {
+        mPosts.invalidate(postId);
+        mPostDetails.invalidate(postId);
+    }
+
+    public void invalidateAllPosts() {
+        mPosts.invalidateAll();
+        mPostDetails.invalidateAll();
+    }
+
+    public void invalidateUser(int userId) {
+        mUsers.invalidate(userId);
+    }
+
+    public void invalidateAllUsers() {
+        mUsers.invalidateAll();
+    }
+
+    public void invalidateComments(int postId) {
+        mComments.invalidate(postId);
+    }
+
+    public void invalidateAllComments() {
+        mComments.invalidateAll();
+    }
+
+    public void invalidateAllCategories() {
+        // Post details contain the name of their category.
+        mPostDetails.invalidateAll();
+    }
+
+    public void evictAll() {
+        mPosts.invalidateAll();
+        mPostDetails.invalidateAll();
+        mUsers.invalidateAll();
+        mComments.invalidateAll();
+    }
+
+    /**
+     * Called when a transaction spanning multiple writes starts on the current thread.
+     */
+    void beginTransaction() {
+        if (mTransactionInvalidations.get() == null) {
+            mTransactionInvalidations.set(new ArrayList<Invalidation>());
+        }
+    }
+
+    /**
+     * Called when the transaction started on the current thread ends, entries removed during it
+     * are removed again as other threads might have cached the previous rows in the meantime.
+     */
+    void endTransaction() {
+        List<Invalidation> invalidations = mTransactionInvalidations.get();
+        mTransactionInvalidations.remove();
+        if (invalidations != null) {
+            for (Invalidation invalidation : invalidations) {
+                invalidation.apply();
+            }
+        }
+    }
+
+    /**
+     * Release memory according to the level reported by
+     * {@link ComponentCallbacks2#onTrimMemory(int)}.
+     *
+     * @param level Memory trim level
+     */
+    public void trimMemory(int level) {
+        Logger.d(TAG, "trimMemory: level: " + level + ", " + this);
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE ||
+                level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            // Nothing is worth keeping if the app is about to be killed or the device is critically
+            // low on memory.
+            evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND ||
+                level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mPosts.trimToHalf();
+            mPostDetails.trimToHalf();
+            mUsers.trimToHalf();
+            mComments.trimToHalf();
+        }
+    }
+
+    private void recordInvalidation(Invalidation invalidation) {
+        List<Invalidation> invalidations = mTransactionInvalidations.get();
+        if (invalidations != null) {
+            invalidations.add(invalidation);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "posts: [%s], post details: [%s], users: [%s], comments: [%s]",
+                mPosts,
+                mPostDetails,
+                mUsers,
+                mComments);
+    }
+
+    /**
+     * Bounded cache of a single type of model, keyed by its id.
+     *
+     * @param <V> Type of the model
+     */
+    public class Region<V> {
+        private final LruCache<Integer, V> mLruCache;
+
+        private final Copier<V> mCopier;
+
+        /**
+         * Incremented on every invalidation, so that a value read from the database before an
+         * invalidation is never stored afterwards.
+         */
+        private final AtomicInteger mGeneration = new AtomicInteger();
+
+        private Region(int maxSize, Copier<V> copier) {
+            mLruCache = new LruCache<>(maxSize);
+            mCopier = copier;
+        }
+
+        /**
+         * @param key Id of the model
+         * @return Copy of the cached model, or null if it isn't cached
+         */
+        public V get(int key) {
+            V value = mLruCache.get(key);
+            return value == null ? null : mCopier.copy(value);
+        }
+
+        /**
+         * @return Current generation, read it before querying the database and pass it to
+         * {@link #put(int, Object, int)}.
+         */
+        public int getGeneration() {
+            return mGeneration.get();
+        }
+
+        /**
+         * Store a copy of a value read from the database, unless an invalidation happened since
+         * the read started.
+         *
+         * @param key        Id of the model
+         * @param value      Model read from the database
+         * @param generation Generation before the model was read
+         */
+        public void put(int key, V value, int generation) {
+            synchronized (this) {
+                if (value != null && generation == mGeneration.get()) {
+                    mLruCache.put(key, mCopier.copy(value));
+                }
+            }
+        }
+
+        private void invalidate(final int key) {
+            synchronized (this) {
+                mGeneration.incrementAndGet();
+                mLruCache.remove(key);
+            }
+            recordInvalidation(new Invalidation() {
+                @Override
+                public void apply() {
+                    synchronized (Region.this) {
+                        mGeneration.incrementAndGet();
+                        mLruCache.remove(key);
+                    }
+                }
+            });
+        }
+
+        private void invalidateAll() {
+            synchronized (this) {
+                mGeneration.incrementAndGet();
+                mLruCache.evictAll();
+            }
+            recordInvalidation(new Invalidation() {
+                @Override
+                public void apply() {
+                    synchronized (Region.this) {
+                        mGeneration.incrementAndGet();
+                        mLruCache.evictAll();
+                    }
+                }
+            });
+        }
+
+        private void trimToHalf() {
+            mLruCache.trimToSize(mLruCache.maxSize() / 2);
+        }
+
+        @Override
+        public String toString() {
+            int hitCount = mLruCache.hitCount();
+            int requestCount = hitCount + mLruCache.missCount();
+            return String.format(Locale.US, "size: %d, hits: %d, misses: %d, hit rate: %d%%",
+                    mLruCache.size(),
+                    hitCount,
+                    mLruCache.missCount(),
+                    requestCount == 0 ? 0 : hitCount * 100 / requestCount);
+        }
+    }
+
+    private interface Invalidation {
+        void apply();
+    }
+
+    private interface Copier<V> {
+        V copy(V value);
+    }
+}
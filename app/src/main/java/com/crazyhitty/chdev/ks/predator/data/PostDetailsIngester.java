@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.ContentValues;
+import android.database.SQLException;
+
+import com.crazyhitty.chdev.ks.predator.utils.Logger;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostCommentsData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostDetailsData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostsData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.utils.PostDetailsStreamParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replaces the stored details of a post with the ones in a response. The response is
+ * parsed while it is still being downloaded by {@link PostDetailsStreamParser}, and the rows are
+ * only written once it was read completely, all of them inside a single transaction. Other
+ * writers are never blocked by the download, other connections keep reading the previous details
+ * of the post until the new ones are stored, and nothing is changed if the response couldn't be
+ * read or written completely.
+ */
+
+public class PostDetailsIngester implements PostDetailsStreamParser.Callback {
+    private static final String TAG = "PostDetailsIngester";
+
+    private final int mPostId;
+
+    private final PostDetailsStreamParser mPostDetailsStreamParser;
+
+    private ContentValues mPost;
+
+    private final List<ContentValues> mUsers = new ArrayList<>();
+
+    private final List<ContentValues> mComments = new ArrayList<>();
+
+    private final List<ContentValues> mMedia = new ArrayList<>();
+
+    private final List<ContentValues> mInstallLinks = new ArrayList<>();
+
+    public PostDetailsIngester(int postId) {
+        this(postId, Constants.Posts.DETAILS_BATCH_SIZE);
+    }
+
+    public PostDetailsIngester(int postId, int batchSize) {
+        mPostId = postId;
+        mPostDetailsStreamParser = new PostDetailsStreamParser(ProductHuntHttpClient.getGson(), batchSize);
+    }
+
+    /**
+     * Replace the stored details of the post with the ones available in the response atomically.
+     * Should be called on a background thread, and only once per instance.
+     *
+     * @param reader Reader providing the post details response, it is closed afterwards
+     * @throws IOException  If the response couldn't be read
+     * @throws SQLException If the details couldn't be written
+     */
+    public void ingest(Reader reader) throws IOException {
+        long ingestStartTime = System.currentTimeMillis();
+
+        mPostDetailsStreamParser.parse(reader, this);
+        long parsedAt = System.currentTimeMillis();
+
+        PredatorDatabase.getInstance()
+                .replacePostDetails(mPostId,
+                        mPost,
+                        mUsers.toArray(new ContentValues[mUsers.size()]),
+                        mComments.toArray(new ContentValues[mComments.size()]),
+                        mMedia.toArray(new ContentValues[mMedia.size()]),
+                        mInstallLinks.toArray(new ContentValues[mInstallLinks.size()]));
+
+        Logger.d(TAG, "ingest: post " + mPostId + " read in " + (parsedAt - ingestStartTime) +
+                "ms, written in " + (System.currentTimeMillis() - parsedAt) + "ms");
+    }
+
+    @Override
+    public void onPost(PostDetailsData.PostDetails post) {
+        mPost = PredatorDbValuesHelper.getContentValuesForPost(post);
+
+        // Hunter and makers of this post.
+        if (post.getUser() != null) {
+            mUsers.add(PredatorDbValuesHelper.getContentValuesForHunterUser(mPostId, post.getUser()));
+        }
+        if (post.getMakers() != null) {
+            for (PostsData.Posts.Makers maker : post.getMakers()) {
+                mUsers.add(PredatorDbValuesHelper.getContentValuesForMakerUser(mPostId, maker));
+            }
+        }
+    }
+
+    @Override
+    public void onVotes(List<PostDetailsData.PostDetails.Votes> votes) {
+        // Users who upvoted this post.
+        Collections.addAll(mUsers, PredatorDbValuesHelper.getBulkContentValuesForUsers(mPostId, votes));
+    }
+
+    @Override
+    public void onComments(List<PostCommentsData.Comments> comments) {
+        Collections.addAll(mComments, PredatorDbValuesHelper.getBulkContentValuesForComments(comments));
+    }
+
+    @Override
+    public void onMedia(List<PostDetailsData.PostDetails.Media> media) {
+        Collections.addAll(mMedia, PredatorDbValuesHelper.getBulkContentValuesForMedia(mPostId, media));
+    }
+
+    @Override
+    public void onInstallLinks(List<PostDetailsData.PostDetails.InstallLinks> installLinks) {
+        Collections.addAll(mInstallLinks, PredatorDbValuesHelper.getBulkContentValuesForInstallLinks(installLinks));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
+import com.crazyhitty.chdev.ks.predator.utils.NotModifiedFallback;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
+
+import java.util.concurrent.Callable;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+import okhttp3.ResponseBody;
+
+/**
+ * Revalidates the stored details of a post. Every revalidation emits true if the
+ * details were replaced by the ones in the response, or false if they didn't change at all.
+ */
+
+public class PostDetailsRepository extends StaleWhileRevalidateRepository<Integer, Boolean> {
+    private static PostDetailsRepository sPostDetailsRepository;
+
+    private PostDetailsRepository() {
+        super(Constants.Freshness.POST_DETAILS_TTL);
+    }
+
+    public static synchronized PostDetailsRepository getInstance() {
+        if (sPostDetailsRepository == null) {
+            sPostDetailsRepository = new PostDetailsRepository();
+        }
+        return sPostDetailsRepository;
+    }
+
+    @Override
+    protected Observable<Boolean> fetch(final Integer postId, final String token) {
+        return Observable.defer(new Callable<ObservableSource<ResponseBody>>() {
+            @Override
+            public ObservableSource<ResponseBody> call() throws Exception {
+                // Unchanged details can only be skipped if they are still stored, e.g. posts of a
+                // collection are deleted whenever the collections are refreshed.
+                return ProductHuntRestApi.getApi()
+                        .getPostDetailsStream(CoreUtils.getAuthToken(token),
+                                ProductHuntHttpClient.getConditionalRequest(PredatorDatabase.getInstance().hasPostDetails(postId)),
+                                postId);
+            }
+        })
+                .map(new Function<ResponseBody, Boolean>() {
+                    @Override
+                    public Boolean apply(ResponseBody responseBody) throws Exception {
+                        // Parse the response while it is being downloaded, then store it at once.
+                        try {
+                            new PostDetailsIngester(postId).ingest(responseBody.charStream());
+                        } finally {
+                            responseBody.close();
+                        }
+                        return true;
+                    }
+                })
+                .onErrorResumeNext(new NotModifiedFallback<Boolean>() {
+                    @Override
+                    protected Boolean getStoredData() throws Exception {
+                        // Stored details are still the latest ones.
+                        return false;
+                    }
+                });
+    }
+}
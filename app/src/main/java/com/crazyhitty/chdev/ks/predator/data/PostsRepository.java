@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.ContentValues;
+import android.os.SystemClock;
+import android.util.SparseArray;
+
+import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
+import com.crazyhitty.chdev.ks.predator.utils.Logger;
+import com.crazyhitty.chdev.ks.predator.utils.NotModifiedFallback;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostsData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
+import com.jakewharton.retrofit2.adapter.rxjava2.HttpException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+import retrofit2.Response;
+
+/**
+ * Revalidates the stored posts day wise. Only the posts which are new or changed are
+ * written. Posts are read back page wise by the presenters, so every revalidation only emits what
+ * was written for that day.
+ */
+
+public class PostsRepository extends StaleWhileRevalidateRepository<String, DaySyncResult> {
+    private static final String TAG = "PostsRepository";
+
+    private static PostsRepository sPostsRepository;
+
+    private PostsRepository() {
+        super(Constants.Freshness.POSTS_TTL);
+    }
+
+    public static synchronized PostsRepository getInstance() {
+        if (sPostsRepository == null) {
+            sPostsRepository = new PostsRepository();
+        }
+        return sPostsRepository;
+    }
+
+    @Override
+    protected Observable<DaySyncResult> fetch(final String day, final String token) {
+        return Observable.defer(new Callable<ObservableSource<DaySyncResult>>() {
+            @Override
+            public ObservableSource<DaySyncResult> call() throws Exception {
+                return fetchAndWrite(day, token, SystemClock.elapsedRealtime());
+            }
+        });
+    }
+
+    /**
+     * @param startedAt Time at which the request was made, used to time the fetch and persist
+     *                  stages of the day separately
+     */
+    private Observable<DaySyncResult> fetchAndWrite(final String day, String token, final long startedAt) {
+        // Posts of the day might have been dropped since they were written, in that case an
+        // unchanged response has to be written once more.
+        final boolean dayStored = PredatorDatabase.getInstance().hasPostsForDay(day);
+        return ProductHuntRestApi.getApi()
+                .getPostsCategoryWise(CoreUtils.getAuthToken(token),
+                        ProductHuntHttpClient.getConditionalRequest(dayStored),
+                        Constants.Posts.CATEGORY_ALL,
+                        day)
+                .map(new Function<Response<PostsData>, DaySyncResult>() {
+                    @Override
+                    public DaySyncResult apply(Response<PostsData> response) throws Exception {
+                        long fetchedAt = SystemClock.elapsedRealtime();
+                        if (!response.isSuccessful()) {
+                            throw new HttpException(response);
+                        }
+
+                        PostsSyncState postsSyncState = PostsSyncState.getInstance();
+                        String entityTag = ProductHuntHttpClient.getEntityTag(response);
+                        if (dayStored &&
+                                entityTag != null &&
+                                entityTag.equals(postsSyncState.getEntityTag(day))) {
+                            // Same response as the one written last time, e.g. after the http cache
+                            // was evicted.
+                            DaySyncResult daySyncResult = DaySyncResult.notModified(day);
+                            daySyncResult.setTimings(fetchedAt - startedAt, 0);
+                            return daySyncResult;
+                        }
+
+                        DaySyncResult daySyncResult = writeChangedPosts(day, response.body().getPosts());
+                        postsSyncState.setEntityTag(day, entityTag);
+                        daySyncResult.setTimings(fetchedAt - startedAt, SystemClock.elapsedRealtime() - fetchedAt);
+                        return daySyncResult;
+                    }
+                })
+                .onErrorResumeNext(new NotModifiedFallback<DaySyncResult>() {
+                    @Override
+                    protected DaySyncResult getStoredData() throws Exception {
+                        // Posts of this day didn't change, so nothing was written.
+                        DaySyncResult daySyncResult = DaySyncResult.notModified(day);
+                        daySyncResult.setTimings(SystemClock.elapsedRealtime() - startedAt, 0);
+                        return daySyncResult;
+                    }
+                });
+    }
+
+    /**
+     * Write only the posts which are new or whose votes or comments changed. Posts with an id
+     * higher than any post written before are new for sure, so only the rest are looked up.
+     *
+     * @param day   Day of the posts
+     * @param posts Posts received for the day
+     * @return Number of posts inserted and updated for the day
+     */
+    private DaySyncResult writeChangedPosts(String day, List<PostsData.Posts> posts) {
+        if (posts == null || posts.isEmpty()) {
+            return DaySyncResult.written(day, 0, 0, 0);
+        }
+
+        PostsSyncState postsSyncState = PostsSyncState.getInstance();
+        int lastMaxPostId = postsSyncState.getLastMaxPostId();
+
+        List<Integer> knownPostIds = new ArrayList<>();
+        for (PostsData.Posts post : posts) {
+            if (post.getId() <= lastMaxPostId) {
+                knownPostIds.add(post.getId());
+            }
+        }
+        SparseArray<int[]> storedPostCounts = PredatorDatabase.getInstance()
+                .getDashboardPostCounts(knownPostIds);
+
+        List<ContentValues> postsContentValues = new ArrayList<>();
+        List<ContentValues> usersContentValues = new ArrayList<>();
+        int insertedCount = 0;
+        int maxPostId = 0;
+        for (PostsData.Posts post : posts) {
+            maxPostId = Math.max(maxPostId, post.getId());
+
+            int[] storedCounts = storedPostCounts.get(post.getId());
+            if (storedCounts == null) {
+                insertedCount++;
+                postsContentValues.add(PredatorDbValuesHelper.getContentValuesForPost(post));
+                usersContentValues.add(PredatorDbValuesHelper.getContentValuesForHunterUser(post.getId(), post.getUser()));
+                for (PostsData.Posts.Makers maker : post.getMakers()) {
+                    usersContentValues.add(PredatorDbValuesHelper.getContentValuesForMakerUser(post.getId(), maker));
+                }
+            } else if (storedCounts[0] != post.getVotesCount() ||
+                    storedCounts[1] != post.getCommentsCount()) {
+                postsContentValues.add(PredatorDbValuesHelper.getContentValuesForPost(post));
+            }
+        }
+        int updatedCount = postsContentValues.size() - insertedCount;
+
+        if (!postsContentValues.isEmpty()) {
+            // Posts of a day are written together, so that readers never see half of a day.
+            PredatorDatabase predatorDatabase = PredatorDatabase.getInstance();
+            predatorDatabase.beginTransaction();
+            try {
+                predatorDatabase.insertPosts(postsContentValues.toArray(new ContentValues[postsContentValues.size()]));
+                if (!usersContentValues.isEmpty()) {
+                    predatorDatabase.insertUsers(usersContentValues.toArray(new ContentValues[usersContentValues.size()]));
+                }
+                predatorDatabase.setTransactionSuccessful();
+            } finally {
+                predatorDatabase.endTransaction();
+            }
+        }
+        postsSyncState.updateLastMaxPostId(maxPostId);
+        Logger.d(TAG, "writeChangedPosts: day: " + day + ", posts: " + posts.size() +
+                ", inserted: " + insertedCount + ", updated: " + updatedCount);
+
+        return DaySyncResult.written(day, posts.size(), insertedCount, updatedCount);
+    }
+}
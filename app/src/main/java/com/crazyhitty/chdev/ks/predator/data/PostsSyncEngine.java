@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import com.crazyhitty.chdev.ks.predator.utils.DateUtils;
+import com.crazyhitty.chdev.ks.predator.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Syncs the posts of the last few days, starting from today. Days are requested a
+ * few at a time in parallel, and only the new or changed posts of each day are written in its own
+ * transaction. Once a group of days turns out to be already synced and unchanged, older days are
+ * left alone as they were synced by an earlier run.
+ */
+
+public class PostsSyncEngine {
+    private static final String TAG = "PostsSyncEngine";
+
+    private final int mWindowDays;
+
+    private final int mMaxParallelRequests;
+
+    public PostsSyncEngine() {
+        this(Constants.Sync.WINDOW_DAYS, Constants.Sync.MAX_PARALLEL_REQUESTS);
+    }
+
+    /**
+     * @param windowDays          Number of days to be synced, including today
+     * @param maxParallelRequests Maximum number of days requested at the same time
+     */
+    public PostsSyncEngine(int windowDays, int maxParallelRequests) {
+        mWindowDays = windowDays;
+        mMaxParallelRequests = maxParallelRequests;
+    }
+
+    /**
+     * @param token Auth token used for the requests
+     * @return Observable emitting the result of every day which was synced, newest days first
+     */
+    public Observable<DaySyncResult> sync(final String token) {
+        final List<String> days = getWindow();
+        final PostsSyncState postsSyncState = PostsSyncState.getInstance();
+        postsSyncState.retainDays(days);
+        final String lastSyncedDay = postsSyncState.getLastSyncedDay();
+        Logger.d(TAG, "sync: last synced day: " + lastSyncedDay + ", last max post id: " + postsSyncState.getLastMaxPostId());
+
+        return Observable.fromIterable(days)
+                .buffer(mMaxParallelRequests)
+                .concatMap(new Function<List<String>, ObservableSource<List<DaySyncResult>>>() {
+                    @Override
+                    public ObservableSource<List<DaySyncResult>> apply(List<String> group) throws Exception {
+                        // Next group is only requested once this one is written.
+                        return Observable.fromIterable(group)
+                                .flatMap(new Function<String, ObservableSource<DaySyncResult>>() {
+                                    @Override
+                                    public ObservableSource<DaySyncResult> apply(String day) throws Exception {
+                                        // Last synced day might have ended since then, so it is
+                                        // synced once more no matter how recently that happened.
+                                        boolean ignoreTtl = day.equals(lastSyncedDay) && !day.equals(days.get(0));
+                                        return syncDay(day, token, ignoreTtl, day.equals(days.get(0)));
+                                    }
+                                }, mMaxParallelRequests)
+                                .toList()
+                                .toObservable();
+                    }
+                })
+                .takeUntil(new Predicate<List<DaySyncResult>>() {
+                    @Override
+                    public boolean test(List<DaySyncResult> daySyncResults) throws Exception {
+                        for (DaySyncResult daySyncResult : daySyncResults) {
+                            if (!daySyncResult.isUnchanged()) {
+                                return false;
+                            }
+                        }
+                        Logger.d(TAG, "sync: reached days which are already synced");
+                        return true;
+                    }
+                })
+                .flatMapIterable(new Function<List<DaySyncResult>, Iterable<DaySyncResult>>() {
+                    @Override
+                    public Iterable<DaySyncResult> apply(List<DaySyncResult> daySyncResults) throws Exception {
+                        return daySyncResults;
+                    }
+                });
+    }
+
+    /**
+     * @param day       Day to be synced
+     * @param token     Auth token used for the request
+     * @param ignoreTtl True, if the day has to be requested even if it was synced recently
+     * @param newestDay True, if the day is the newest day of the window
+     */
+    private Observable<DaySyncResult> syncDay(final String day,
+                                              String token,
+                                              boolean ignoreTtl,
+                                              final boolean newestDay) {
+        final PostsSyncState postsSyncState = PostsSyncState.getInstance();
+        // Recently synced days are only skipped while their posts are still stored.
+        if (!ignoreTtl &&
+                postsSyncState.isFresh(day, Constants.Freshness.POSTS_TTL) &&
+                PredatorDatabase.getInstance().hasPostsForDay(day)) {
+            return Observable.just(DaySyncResult.skipped(day));
+        }
+
+        final boolean wasSynced = postsSyncState.isSynced(day);
+        return PostsRepository.getInstance()
+                .revalidate(day, token)
+                .subscribeOn(Schedulers.io())
+                .map(new Function<DaySyncResult, DaySyncResult>() {
+                    @Override
+                    public DaySyncResult apply(DaySyncResult daySyncResult) throws Exception {
+                        daySyncResult.setUnchanged(wasSynced && !daySyncResult.hasChanges());
+                        postsSyncState.setSynced(day, System.currentTimeMillis());
+                        if (newestDay) {
+                            postsSyncState.setLastSyncedDay(day);
+                        }
+                        Logger.d(TAG, "syncDay: " + daySyncResult);
+                        return daySyncResult;
+                    }
+                })
+                .onErrorReturn(new Function<Throwable, DaySyncResult>() {
+                    @Override
+                    public DaySyncResult apply(Throwable throwable) throws Exception {
+                        // A failed day is retried by the next sync, it doesn't stop the other days.
+                        Logger.e(TAG, "syncDay: unable to sync day: " + day, throwable);
+                        return DaySyncResult.failed(day, throwable);
+                    }
+                });
+    }
+
+    /**
+     * @return Days to be synced, starting from today
+     */
+    private List<String> getWindow() {
+        List<String> days = new ArrayList<>(mWindowDays);
+        String day = DateUtils.getPredatorCurrentDate();
+        for (int i = 0; i < mWindowDays; i++) {
+            days.add(day);
+            day = DateUtils.getPredatorPostPreviousDate(day);
+        }
+        return days;
+    }
+}
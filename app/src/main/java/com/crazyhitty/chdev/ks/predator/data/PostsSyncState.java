@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sync state of the posts. Remembers when each day was synced the last time and the
+ * ETag of its response, along with the newest synced day and the highest stored post id, so that
+ * a sync can tell which days and posts are already up to date.
+ */
+
+public class PostsSyncState {
+    private static final String SP_TAG = "predator_posts_sync_state";
+    private static final String KEY_SYNCED_AT = "synced_at_";
+    private static final String KEY_ENTITY_TAG = "entity_tag_";
+    private static final String KEY_LAST_SYNCED_DAY = "last_synced_day";
+    private static final String KEY_LAST_MAX_POST_ID = "last_max_post_id";
+
+    private static PostsSyncState sPostsSyncState;
+
+    private final SharedPreferences mSharedPreferences;
+
+    private PostsSyncState(Context context) {
+        mSharedPreferences = context.getSharedPreferences(SP_TAG, Context.MODE_PRIVATE);
+    }
+
+    public static void init(Context context) {
+        sPostsSyncState = new PostsSyncState(context);
+    }
+
+    public static PostsSyncState getInstance() {
+        if (sPostsSyncState == null) {
+            throw new NullPointerException("Unable to get PostsSyncState object as it is null. " +
+                    "Looks like you haven't used PostsSyncState.init().");
+        }
+        return sPostsSyncState;
+    }
+
+    /**
+     * @param day Day of the posts
+     * @return Time in milliseconds at which the day was synced the last time, 0 if never
+     */
+    public long getSyncedAt(String day) {
+        return mSharedPreferences.getLong(KEY_SYNCED_AT + day, 0);
+    }
+
+    public boolean isSynced(String day) {
+        return getSyncedAt(day) != 0;
+    }
+
+    /**
+     * @param day       Day of the posts
+     * @param ttlMillis Time for which a synced day is considered up to date
+     * @return True, if the day was synced within the ttl
+     */
+    public boolean isFresh(String day, long ttlMillis) {
+        long syncedAt = getSyncedAt(day);
+        long elapsed = System.currentTimeMillis() - syncedAt;
+        return syncedAt != 0 && elapsed >= 0 && elapsed < ttlMillis;
+    }
+
+    public void setSynced(String day, long syncedAt) {
+        mSharedPreferences.edit()
+                .putLong(KEY_SYNCED_AT + day, syncedAt)
+                .apply();
+    }
+
+    /**
+     * @param day Day of the posts
+     * @return ETag of the last response written for the day wise posts endpoint, null if unknown
+     */
+    public String getEntityTag(String day) {
+        return mSharedPreferences.getString(KEY_ENTITY_TAG + day, null);
+    }
+
+    public void setEntityTag(String day, String entityTag) {
+        mSharedPreferences.edit()
+                .putString(KEY_ENTITY_TAG + day, entityTag)
+                .apply();
+    }
+
+    /**
+     * @return Newest day which was synced, null if none
+     */
+    public String getLastSyncedDay() {
+        return mSharedPreferences.getString(KEY_LAST_SYNCED_DAY, null);
+    }
+
+    public void setLastSyncedDay(String day) {
+        mSharedPreferences.edit()
+                .putString(KEY_LAST_SYNCED_DAY, day)
+                .apply();
+    }
+
+    /**
+     * @return Highest id of the posts written so far, posts with a higher id are always new
+     */
+    public int getLastMaxPostId() {
+        return mSharedPreferences.getInt(KEY_LAST_MAX_POST_ID, 0);
+    }
+
+    /**
+     * Raise the highest written post id, lower ids are ignored.
+     *
+     * @param postId Highest id of the posts which were just written
+     */
+    public synchronized void updateLastMaxPostId(int postId) {
+        if (postId > getLastMaxPostId()) {
+            mSharedPreferences.edit()
+                    .putInt(KEY_LAST_MAX_POST_ID, postId)
+                    .apply();
+        }
+    }
+
+    /**
+     * Forget the days which are not a part of the sync window anymore.
+     *
+     * @param days Days to be kept
+     */
+    public void retainDays(Collection<String> days) {
+        Set<String> keysToBeKept = new HashSet<>();
+        for (String day : days) {
+            keysToBeKept.add(KEY_SYNCED_AT + day);
+            keysToBeKept.add(KEY_ENTITY_TAG + day);
+        }
+
+        SharedPreferences.Editor editor = mSharedPreferences.edit();
+        for (String key : mSharedPreferences.getAll().keySet()) {
+            if ((key.startsWith(KEY_SYNCED_AT) || key.startsWith(KEY_ENTITY_TAG)) &&
+                    !keysToBeKept.contains(key)) {
+                editor.remove(key);
+            }
+        }
+        editor.apply();
+    }
+
+    public void clear() {
+        mSharedPreferences.edit()
+                .clear()
+                .apply();
+    }
+
+    /**
+     * Forget the whole sync state if it was initialized, used when the stored posts are dropped.
+     */
+    static void clearIfInitialized() {
+        PostsSyncState postsSyncState = sPostsSyncState;
+        if (postsSyncState != null) {
+            postsSyncState.clear();
+        }
+    }
+}
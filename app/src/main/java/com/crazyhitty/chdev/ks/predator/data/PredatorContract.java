@@ -79,6 +79,20 @@ public class PredatorContract {
         public static final String COLUMN_NOTIFICATION_SHOWN = "notification_shown";
         public static final String COLUMN_READ_STATUS = "read_status";
 
+        // Columns shown by the post lists and the widget. The complete post is loaded using its
+        // post id once it is opened.
+        public static final String[] SUMMARY_PROJECTION = new String[]{
+                COLUMN_ID,
+                COLUMN_POST_ID,
+                COLUMN_DAY,
+                COLUMN_NAME,
+                COLUMN_TAGLINE,
+                COLUMN_THUMBNAIL_IMAGE_URL,
+                // Keys used for paginating the dashboard.
+                COLUMN_CREATED_AT_MILLIS,
+                COLUMN_VOTES_COUNT
+        };
+
         // Define a function to build a URI to find a specific post by it's identifier
         public static Uri buildPostsUri(long id) {
             return ContentUris.withAppendedId(CONTENT_URI_POSTS, id);
@@ -128,18 +142,76 @@ public class PredatorContract {
         public static final String COLUMN_WEBSITE_URL = "website_url";
         public static final String COLUMN_IMAGE_URL_100PX = "image_url_100px";
         public static final String COLUMN_IMAGE_URL_ORIGINAL = "image_url_original";
+
+        // Comma separated relation keys, these are not stored in the users table. PredatorDbHelper
+        // expands them into PostUsersEntry and UserFollowsEntry rows whenever a user is added.
         public static final String COLUMN_MAKER_POST_IDS = "maker_post_ids";
         public static final String COLUMN_HUNTER_POST_IDS = "hunter_post_ids";
         public static final String COLUMN_VOTED_POST_IDS = "voted_post_ids";
         public static final String COLUMN_FOLLOWER_USER_IDS = "follower_user_ids";
         public static final String COLUMN_FOLLOWING_USER_IDS = "following_user_ids";
 
+        // Columns shown by the user lists, the user profile itself is loaded using its user id.
+        public static final String[] SUMMARY_PROJECTION = new String[]{
+                COLUMN_ID,
+                COLUMN_USER_ID,
+                COLUMN_NAME,
+                COLUMN_USERNAME,
+                COLUMN_HEADLINE,
+                COLUMN_WEBSITE_URL,
+                COLUMN_IMAGE_URL_100PX,
+                COLUMN_IMAGE_URL_ORIGINAL
+        };
+
         // Define a function to build a URI to find a specific post by it's identifier
         public static Uri buildUsersUri(long id) {
             return ContentUris.withAppendedId(CONTENT_URI_USERS, id);
         }
     }
 
+    /**
+     * PostUsers table definition. Each row links a user with a post in a particular role.
+     */
+    public static class PostUsersEntry implements BaseColumns {
+        // A list of possible paths that will be appended to the base URI for PostUsersEntry table.
+        public static final String PATH_POST_USERS = "post_users";
+
+        // Content URI represents the base location for the table. Querying it returns the users
+        // table rows joined with the combined roles of every user.
+        public static final Uri CONTENT_URI_POST_USERS = PredatorDbHelper.BASE_CONTENT_URI
+                .buildUpon()
+                .appendPath(PATH_POST_USERS)
+                .build();
+
+        // These are special type prefixes that specify if a URI returns a list or a specific item.
+        public static final String CONTENT_TYPE =
+                "vnd.android.cursor.dir/" + CONTENT_URI_POST_USERS + "/" + PATH_POST_USERS;
+
+        public static final String TABLE_NAME = "post_users_table";
+
+        public static final String COLUMN_ID = "id";
+        public static final String COLUMN_USER_ID = "user_id";
+        public static final String COLUMN_POST_ID = "post_id";
+        public static final String COLUMN_ROLE = "role";
+
+        // Roles are bit flags, so the sum of all roles of a user for a post can be used to check
+        // if that user is a hunter, maker, both or just an upvoter.
+        public static final int ROLE_HUNTER = 1;
+        public static final int ROLE_MAKER = 2;
+        public static final int ROLE_UPVOTER = 4;
+    }
+
+    /**
+     * UserFollows table definition. Each row represents a user following another user.
+     */
+    public static class UserFollowsEntry implements BaseColumns {
+        public static final String TABLE_NAME = "user_follows_table";
+
+        public static final String COLUMN_ID = "id";
+        public static final String COLUMN_FOLLOWER_USER_ID = "follower_user_id";
+        public static final String COLUMN_FOLLOWING_USER_ID = "following_user_id";
+    }
+
     /**
      * Comments table definition.
      */
@@ -348,6 +420,17 @@ public class PredatorContract {
         public static final String COLUMN_USER_IMAGE_URL_100PX = "user_image_url_100px";
         public static final String COLUMN_USER_IMAGE_URL_ORIGINAL = "user_image_url_original";
 
+        // Columns shown by the collection lists, along with the update time which tells the lists
+        // whether a collection changed. The complete collection is loaded using its collection id
+        // once it is opened.
+        public static final String[] SUMMARY_PROJECTION = new String[]{
+                COLUMN_ID,
+                COLUMN_COLLECTION_ID,
+                COLUMN_NAME,
+                COLUMN_TITLE,
+                COLUMN_UPDATED_AT
+        };
+
         // Define a function to build a URI to find a specific post by it's identifier
         public static Uri buildCollectionUri(long id) {
             return ContentUris.withAppendedId(CONTENT_URI_COLLECTIONS, id);
@@ -399,4 +482,41 @@ public class PredatorContract {
             return ContentUris.withAppendedId(CONTENT_URI_CATEGORY, id);
         }
     }
+
+    /**
+     * Full text search tables of posts and collections. Both are external content tables, so the
+     * names and taglines are not stored twice, and they are kept up to date by triggers on the
+     * posts and collections tables.
+     */
+    public static class SearchEntry implements BaseColumns {
+        // A list of possible paths that will be appended to the base URI for SearchEntry tables.
+        public static final String PATH_SEARCH_POSTS = "search_posts";
+        public static final String PATH_SEARCH_COLLECTIONS = "search_collections";
+
+        // Content URIs represent the base location for the tables. Querying them with a match
+        // expression as the only selection argument returns the matching rows of posts or
+        // collections table, along with the match info and offsets of every row.
+        public static final Uri CONTENT_URI_SEARCH_POSTS = PredatorDbHelper.BASE_CONTENT_URI
+                .buildUpon()
+                .appendPath(PATH_SEARCH_POSTS)
+                .build();
+
+        public static final Uri CONTENT_URI_SEARCH_COLLECTIONS = PredatorDbHelper.BASE_CONTENT_URI
+                .buildUpon()
+                .appendPath(PATH_SEARCH_COLLECTIONS)
+                .build();
+
+        // These are special type prefixes that specify if a URI returns a list or a specific item.
+        public static final String CONTENT_TYPE_POSTS =
+                "vnd.android.cursor.dir/" + CONTENT_URI_SEARCH_POSTS + "/" + PATH_SEARCH_POSTS;
+        public static final String CONTENT_TYPE_COLLECTIONS =
+                "vnd.android.cursor.dir/" + CONTENT_URI_SEARCH_COLLECTIONS + "/" + PATH_SEARCH_COLLECTIONS;
+
+        public static final String TABLE_NAME_POSTS = "posts_fts";
+        public static final String TABLE_NAME_COLLECTIONS = "collections_fts";
+
+        // Result of matchinfo(table, 'pcx') and offsets(table) for a matching row.
+        public static final String COLUMN_MATCH_INFO = "match_info";
+        public static final String COLUMN_MATCH_OFFSETS = "match_offsets";
+    }
 }
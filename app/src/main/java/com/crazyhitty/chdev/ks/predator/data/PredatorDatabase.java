@@ -28,6 +28,11 @@ import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.net.Uri;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.SparseArray;
 
 import com.crazyhitty.chdev.ks.predator.models.Category;
 import com.crazyhitty.chdev.ks.predator.models.Collection;
@@ -38,6 +43,7 @@ import com.crazyhitty.chdev.ks.predator.models.Post;
 import com.crazyhitty.chdev.ks.predator.models.PostDetails;
 import com.crazyhitty.chdev.ks.predator.models.User;
 import com.crazyhitty.chdev.ks.predator.utils.CommentTimeCalculator;
+import com.crazyhitty.chdev.ks.predator.utils.CommentTreeBuilder;
 import com.crazyhitty.chdev.ks.predator.utils.CursorUtils;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
 import com.crazyhitty.chdev.ks.predator.utils.UsersComparator;
@@ -45,7 +51,9 @@ import com.crazyhitty.chdev.ks.predator.utils.UsersComparator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
+import static com.crazyhitty.chdev.ks.predator.utils.CursorUtils.getInt;
 import static com.crazyhitty.chdev.ks.predator.utils.CursorUtils.getString;
 
 /**
@@ -62,6 +70,8 @@ public class PredatorDatabase {
 
     private ContentResolver mContentResolver;
 
+    private PredatorDbHelper mPredatorDbHelper;
+
     public static void init(Context context) {
         sPredatorDatabase = new PredatorDatabase(context);
     }
@@ -76,6 +86,37 @@ public class PredatorDatabase {
 
     private PredatorDatabase(Context context) {
         mContentResolver = context.getContentResolver();
+        mPredatorDbHelper = PredatorDbHelper.getInstance(context);
+    }
+
+    /**
+     * Begin a transaction covering every change made through this class on the current thread
+     * until {@link #endTransaction()} is called. {@link PredatorProvider} runs in the same process
+     * and uses the same {@link PredatorDbHelper}, so its own transactions are nested inside this
+     * one and nothing is visible to other connections until the outermost transaction commits.
+     */
+    public void beginTransaction() {
+        mPredatorDbHelper.getWritableDatabase().beginTransactionNonExclusive();
+        ModelCache.getInstance().beginTransaction();
+    }
+
+    /**
+     * Mark the current transaction as successful, so that it is committed once it ends.
+     */
+    public void setTransactionSuccessful() {
+        mPredatorDbHelper.getWritableDatabase().setTransactionSuccessful();
+    }
+
+    /**
+     * End the current transaction. Changes are rolled back if it, or any transaction nested
+     * inside of it, wasn't marked as successful.
+     */
+    public void endTransaction() {
+        SQLiteDatabase db = mPredatorDbHelper.getWritableDatabase();
+        db.endTransaction();
+        if (!db.inTransaction()) {
+            ModelCache.getInstance().endTransaction();
+        }
     }
 
     public void insertPost(ContentValues contentValues) {
@@ -104,6 +145,11 @@ public class PredatorDatabase {
                 contentValues);
     }
 
+    public void insertComments(ContentValues[] bulkContentValues) {
+        mContentResolver.bulkInsert(PredatorContract.CommentsEntry.CONTENT_URI_COMMENTS_ADD,
+                bulkContentValues);
+    }
+
     public void insertInstallLinks(ContentValues[] bulkContentValues) {
         mContentResolver.bulkInsert(PredatorContract.InstallLinksEntry.CONTENT_URI_INSTALL_LINKS_ADD,
                         bulkContentValues);
@@ -120,6 +166,13 @@ public class PredatorDatabase {
     }
 
     public Post getPost(int postId) {
+        ModelCache.Region<Post> cachedPosts = ModelCache.getInstance().getPosts();
+        Post cachedPost = cachedPosts.get(postId);
+        if (cachedPost != null) {
+            return cachedPost;
+        }
+        int generation = cachedPosts.getGeneration();
+
         Cursor cursor = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
                 null,
                 PredatorContract.PostsEntry.COLUMN_POST_ID + "=" + postId,
@@ -132,32 +185,68 @@ public class PredatorDatabase {
         }
         closeCursor(cursor);
 
+        cachedPosts.put(postId, post, generation);
         return post;
     }
 
-    public List<Post> getPosts() {
-        Cursor cursor = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + "=1",
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + " DESC");
-
-        List<Post> posts = new ArrayList<>();
-        if (cursor != null && cursor.getCount() != 0) {
-            posts = PredatorDbValuesHelper.getPostsFromCursor(cursor);
+    /**
+     * Get a page of dashboard posts. Pages are located using the sort keys of the last post of the
+     * previous page instead of an offset, so every page costs the same no matter how deep the user
+     * has scrolled.
+     *
+     * @param postsSortingType Order of the posts.
+     * @param lastPost         Last post of the previous page, or null for the first page.
+     * @param pageSize         Maximum number of posts in the page.
+     * @return Posts of the requested page, empty if no more posts are available.
+     */
+    public List<Post> getPostsPage(PredatorSharedPreferences.POSTS_SORTING_TYPE postsSortingType,
+                                   @Nullable Post lastPost,
+                                   int pageSize) {
+        String selection = PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + "=1";
+        String[] selectionArgs = null;
+        String sortOrder;
+        switch (postsSortingType) {
+            case VOTE_COUNT:
+                if (lastPost != null) {
+                    selection += " AND " + PredatorContract.PostsEntry.COLUMN_DAY + "<=? AND (" +
+                            PredatorContract.PostsEntry.COLUMN_DAY + "<? OR " +
+                            PredatorContract.PostsEntry.COLUMN_VOTES_COUNT + "<? OR (" +
+                            PredatorContract.PostsEntry.COLUMN_VOTES_COUNT + "=? AND " +
+                            PredatorContract.PostsEntry.COLUMN_POST_ID + "<?))";
+                    selectionArgs = new String[]{
+                            lastPost.getDay(),
+                            lastPost.getDay(),
+                            String.valueOf(lastPost.getVotesCount()),
+                            String.valueOf(lastPost.getVotesCount()),
+                            String.valueOf(lastPost.getPostId())
+                    };
+                }
+                sortOrder = PredatorContract.PostsEntry.COLUMN_DAY + " DESC, " +
+                        PredatorContract.PostsEntry.COLUMN_VOTES_COUNT + " DESC, " +
+                        PredatorContract.PostsEntry.COLUMN_POST_ID + " DESC";
+                break;
+            case LATEST:
+            default:
+                if (lastPost != null) {
+                    selection += " AND " + PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + "<=? AND (" +
+                            PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + "<? OR " +
+                            PredatorContract.PostsEntry.COLUMN_POST_ID + "<?)";
+                    selectionArgs = new String[]{
+                            String.valueOf(lastPost.getCreatedAtMillis()),
+                            String.valueOf(lastPost.getCreatedAtMillis()),
+                            String.valueOf(lastPost.getPostId())
+                    };
+                }
+                sortOrder = PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + " DESC, " +
+                        PredatorContract.PostsEntry.COLUMN_POST_ID + " DESC";
+                break;
         }
-        closeCursor(cursor);
-
-        return posts;
-    }
 
-    public List<Post> getPostsSortedByVoteCount() {
         Cursor cursor = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
-                null,
-                PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + "=1",
-                null,
-                PredatorContract.PostsEntry.COLUMN_DAY + " DESC, " +
-                        PredatorContract.PostsEntry.COLUMN_VOTES_COUNT + " DESC");
+                PredatorContract.PostsEntry.SUMMARY_PROJECTION,
+                selection,
+                selectionArgs,
+                sortOrder + " LIMIT " + pageSize);
 
         List<Post> posts = new ArrayList<>();
         if (cursor != null && cursor.getCount() != 0) {
@@ -168,55 +257,48 @@ public class PredatorDatabase {
         return posts;
     }
 
-    public List<Post> getVotedPosts(String votedPostIdsQuery) {
-        Cursor cursorVotedPosts = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_POST_ID + " in (" + votedPostIdsQuery + ")",
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + " DESC");
-
-        List<Post> votedPosts = new ArrayList<>();
-        if (cursorVotedPosts != null && cursorVotedPosts.getCount() != 0) {
-            votedPosts = PredatorDbValuesHelper.getPostsFromCursor(cursorVotedPosts);
-        }
-        closeCursor(cursorVotedPosts);
-
-        return votedPosts;
+    public List<Post> getVotedPosts(int userId) {
+        return getPostsForUser(userId, PredatorContract.PostUsersEntry.ROLE_UPVOTER);
     }
 
-    public List<Post> getSubmittedPosts(String huntedPostIdsQuery) {
-        Cursor cursorSubmittedPosts = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_POST_ID + " in (" + huntedPostIdsQuery + ")",
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + " DESC");
-
-        List<Post> submittedPosts = new ArrayList<>();
-        if (cursorSubmittedPosts != null && cursorSubmittedPosts.getCount() != 0) {
-            submittedPosts = PredatorDbValuesHelper.getPostsFromCursor(cursorSubmittedPosts);
-        }
-        closeCursor(cursorSubmittedPosts);
+    public List<Post> getSubmittedPosts(int userId) {
+        return getPostsForUser(userId, PredatorContract.PostUsersEntry.ROLE_HUNTER);
+    }
 
-        return submittedPosts;
+    public List<Post> getMadePosts(int userId) {
+        return getPostsForUser(userId, PredatorContract.PostUsersEntry.ROLE_MAKER);
     }
 
-    public List<Post> getMadePosts(String madePostIdsQuery) {
-        Cursor cursorMadePosts = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_POST_ID + " in (" + madePostIdsQuery + ")",
-                        null,
-                        PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + " DESC");
+    private List<Post> getPostsForUser(int userId, int role) {
+        // Resolved through the (user_id, role) index of post users table instead of matching
+        // comma separated ids.
+        Cursor cursor = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
+                PredatorContract.PostsEntry.SUMMARY_PROJECTION,
+                PredatorContract.PostsEntry.COLUMN_POST_ID + " IN (SELECT " +
+                        PredatorContract.PostUsersEntry.COLUMN_POST_ID + " FROM " +
+                        PredatorContract.PostUsersEntry.TABLE_NAME + " WHERE " +
+                        PredatorContract.PostUsersEntry.COLUMN_USER_ID + "=? AND " +
+                        PredatorContract.PostUsersEntry.COLUMN_ROLE + "=?)",
+                new String[]{String.valueOf(userId), String.valueOf(role)},
+                PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + " DESC");
 
-        List<Post> madePosts = new ArrayList<>();
-        if (cursorMadePosts != null && cursorMadePosts.getCount() != 0) {
-            madePosts = PredatorDbValuesHelper.getPostsFromCursor(cursorMadePosts);
+        List<Post> posts = new ArrayList<>();
+        if (cursor != null && cursor.getCount() != 0) {
+            posts = PredatorDbValuesHelper.getPostsFromCursor(cursor);
         }
-        closeCursor(cursorMadePosts);
+        closeCursor(cursor);
 
-        return madePosts;
+        return posts;
     }
 
     public PostDetails getPostDetails(int postId) {
+        ModelCache.Region<PostDetails> cachedPostDetails = ModelCache.getInstance().getPostDetails();
+        PostDetails cachedDetails = cachedPostDetails.get(postId);
+        if (cachedDetails != null) {
+            return cachedDetails;
+        }
+        int generation = cachedPostDetails.getGeneration();
+
         Cursor cursor = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
                         null,
                         PredatorContract.PostsEntry.COLUMN_POST_ID + "=" + postId,
@@ -230,35 +312,44 @@ public class PredatorDatabase {
         }
         closeCursor(cursor);
 
+        cachedPostDetails.put(postId, postDetails, generation);
         return postDetails;
     }
 
-    public List<User> getUsers(int postId) {
-        Cursor cursorUsers = mContentResolver.query(PredatorContract.UsersEntry.CONTENT_URI_USERS,
-                        null,
-                        PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS + "" +
-                                " LIKE '%" +
-                                postId +
-                                "%' OR " +
-                                PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS +
-                                " LIKE '%" +
-                                postId +
-                                "%'",
-                        null,
-                        null);
-
-        List<User> users = new ArrayList<>();
-        if (cursorUsers != null && cursorUsers.getCount() != 0) {
-            users = PredatorDbValuesHelper.getUsersFromCursor(cursorUsers, postId);
-            // Sort the users list on basis of user type.
-            Collections.sort(users, new UsersComparator());
-        }
-        closeCursor(cursorUsers);
+    /**
+     * Check if the details of a post are stored. Details without any comments or media can't be
+     * told apart from details which were never stored, so they are reported as not stored.
+     *
+     * @param postId Id of the post
+     * @return True, if the post is stored along with its comments or media
+     */
+    public boolean hasPostDetails(int postId) {
+        return hasRows(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
+                PredatorContract.PostsEntry.COLUMN_POST_ID,
+                PredatorContract.PostsEntry.COLUMN_POST_ID + "=" + postId,
+                null) &&
+                (hasRows(PredatorContract.CommentsEntry.CONTENT_URI_COMMENTS,
+                        PredatorContract.CommentsEntry.COLUMN_ID,
+                        PredatorContract.CommentsEntry.COLUMN_POST_ID + "=" + postId,
+                        null) ||
+                        hasRows(PredatorContract.MediaEntry.CONTENT_URI_MEDIA,
+                                PredatorContract.MediaEntry.COLUMN_ID,
+                                PredatorContract.MediaEntry.COLUMN_POST_ID + "=" + postId,
+                                null));
+    }
 
-        return users;
+    public List<User> getUsers(int postId) {
+        return getUsersForPost(postId, false);
     }
 
     public User getUser(int userId) {
+        ModelCache.Region<User> cachedUsers = ModelCache.getInstance().getUsers();
+        User cachedUser = cachedUsers.get(userId);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+        int generation = cachedUsers.getGeneration();
+
         Cursor cursorUser = mContentResolver.query(PredatorContract.UsersEntry.CONTENT_URI_USERS,
                         null,
                         PredatorContract.UsersEntry.COLUMN_USER_ID + "=" + userId,
@@ -271,6 +362,7 @@ public class PredatorDatabase {
         }
         closeCursor(cursorUser);
 
+        cachedUsers.put(userId, user, generation);
         return user;
     }
 
@@ -292,41 +384,50 @@ public class PredatorDatabase {
         return website;
     }
 
-    public List<User> getFollowerUsers(String followerUserIdsQuery) {
-        Cursor cursorFollowers = mContentResolver.query(PredatorContract.UsersEntry.CONTENT_URI_USERS,
-                        null,
-                        PredatorContract.UsersEntry.COLUMN_USER_ID + " in (" + followerUserIdsQuery + ")",
-                        null,
-                        null);
-
-        List<User> followerUsers = new ArrayList<>();
-        if (cursorFollowers != null && cursorFollowers.getCount() != 0) {
-            followerUsers = PredatorDbValuesHelper.getUsersFromCursor(cursorFollowers);
-        }
-        closeCursor(cursorFollowers);
+    public List<User> getFollowerUsers(int userId) {
+        return getUsersForFollows(PredatorContract.UserFollowsEntry.COLUMN_FOLLOWER_USER_ID,
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWING_USER_ID,
+                userId);
+    }
 
-        return followerUsers;
+    public List<User> getFollowingUsers(int userId) {
+        return getUsersForFollows(PredatorContract.UserFollowsEntry.COLUMN_FOLLOWING_USER_ID,
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWER_USER_ID,
+                userId);
     }
 
-    public List<User> getFollowingUsers(String followingUserIdsQuery) {
-        Cursor cursorFollowing = mContentResolver.query(PredatorContract.UsersEntry.CONTENT_URI_USERS,
-                        null,
-                        PredatorContract.UsersEntry.COLUMN_USER_ID + " in (" + followingUserIdsQuery + ")",
-                        null,
-                        null);
+    private List<User> getUsersForFollows(String resultColumn, String userColumn, int userId) {
+        Cursor cursor = mContentResolver.query(PredatorContract.UsersEntry.CONTENT_URI_USERS,
+                PredatorContract.UsersEntry.SUMMARY_PROJECTION,
+                PredatorContract.UsersEntry.COLUMN_USER_ID + " IN (SELECT " +
+                        resultColumn + " FROM " +
+                        PredatorContract.UserFollowsEntry.TABLE_NAME + " WHERE " +
+                        userColumn + "=?)",
+                new String[]{String.valueOf(userId)},
+                null);
 
-        List<User> followingUsers = new ArrayList<>();
-        if (cursorFollowing != null && cursorFollowing.getCount() != 0) {
-            followingUsers = PredatorDbValuesHelper.getUsersFromCursor(cursorFollowing);
+        List<User> users = new ArrayList<>();
+        if (cursor != null && cursor.getCount() != 0) {
+            users = PredatorDbValuesHelper.getUsersFromCursor(cursor);
         }
-        closeCursor(cursorFollowing);
+        closeCursor(cursor);
 
-        return followingUsers;
+        return users;
+    }
+
+    /**
+     * @return True, if any collections are stored
+     */
+    public boolean hasCollections() {
+        return hasRows(PredatorContract.CollectionsEntry.CONTENT_URI_COLLECTIONS,
+                PredatorContract.CollectionsEntry.COLUMN_ID,
+                null,
+                null);
     }
 
     public List<Collection> getCollections() {
         Cursor cursor = mContentResolver.query(PredatorContract.CollectionsEntry.CONTENT_URI_COLLECTIONS,
-                        null,
+                        PredatorContract.CollectionsEntry.SUMMARY_PROJECTION,
                         null,
                         null,
                         null);
@@ -358,7 +459,7 @@ public class PredatorDatabase {
 
     public List<Post> getPostsForCollection(int collectionId) {
         Cursor cursor = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
-                        null,
+                        PredatorContract.PostsEntry.SUMMARY_PROJECTION,
                         PredatorContract.PostsEntry.COLUMN_COLLECTION_ID + "=" + collectionId + " AND " +
                                 PredatorContract.PostsEntry.COLUMN_IS_IN_COLLECTION + "=1",
                         null,
@@ -374,26 +475,28 @@ public class PredatorDatabase {
     }
 
     public List<User> getAllUsersForPost(int postId) {
-        Cursor usersCursor = mContentResolver.query(PredatorContract.UsersEntry.CONTENT_URI_USERS,
-                        null,
-                        PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS +
-                                " LIKE '%" +
-                                postId +
-                                "%' OR " +
-                                PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS +
-                                " LIKE '%" +
-                                postId +
-                                "%' OR " +
-                                PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS +
-                                " LIKE '%" +
-                                postId +
-                                "%'",
-                        null,
-                        null);
+        return getUsersForPost(postId, true);
+    }
+
+    private List<User> getUsersForPost(int postId, boolean includeUpvoters) {
+        String selection = PredatorContract.PostUsersEntry.TABLE_NAME + "." +
+                PredatorContract.PostUsersEntry.COLUMN_POST_ID + "=?";
+        if (!includeUpvoters) {
+            selection += " AND " + PredatorContract.PostUsersEntry.TABLE_NAME + "." +
+                    PredatorContract.PostUsersEntry.COLUMN_ROLE + " IN (" +
+                    PredatorContract.PostUsersEntry.ROLE_HUNTER + ", " +
+                    PredatorContract.PostUsersEntry.ROLE_MAKER + ")";
+        }
+
+        Cursor usersCursor = mContentResolver.query(PredatorContract.PostUsersEntry.CONTENT_URI_POST_USERS,
+                null,
+                selection,
+                new String[]{String.valueOf(postId)},
+                null);
 
         List<User> users = new ArrayList<>();
         if (usersCursor != null && usersCursor.getCount() != 0) {
-            users = PredatorDbValuesHelper.getUsersFromCursor(usersCursor, postId);
+            users = PredatorDbValuesHelper.getPostUsersFromCursor(usersCursor);
             // Sort the users list on basis of user type.
             Collections.sort(users, new UsersComparator());
         }
@@ -403,23 +506,24 @@ public class PredatorDatabase {
     }
 
     public String getCategoryName(int categoryId) {
-        Cursor cursor = mContentResolver.query(PredatorContract.CategoryEntry.CONTENT_URI_CATEGORY,
-                        null,
-                        PredatorContract.CategoryEntry.COLUMN_CATEGORY_ID + " = " + categoryId,
-                        null,
-                        null);
+        Category category = getCategory(categoryId);
+        return category != null ? category.getName() : "";
+    }
 
-        String categoryName = "";
-        if (cursor != null && cursor.getCount() != 0) {
-            cursor.moveToFirst();
-            categoryName = getString(cursor, PredatorContract.CategoryEntry.COLUMN_NAME);
+    @Nullable
+    public Category getCategory(int categoryId) {
+        SparseArray<Category> categories = CategoryLookup.getInstance().getCategories();
+        if (categories == null) {
+            // Read the whole category table once, following lookups are served from memory.
+            categories = CategoryLookup.toSparseArray(getCategories());
         }
-        closeCursor(cursor);
-
-        return categoryName;
+        return categories.get(categoryId);
     }
 
     public List<Category> getCategories() {
+        CategoryLookup categoryLookup = CategoryLookup.getInstance();
+        int generation = categoryLookup.getGeneration();
+
         Cursor cursor = mContentResolver.query(PredatorContract.CategoryEntry.CONTENT_URI_CATEGORY,
                         null,
                         null,
@@ -432,9 +536,20 @@ public class PredatorDatabase {
         }
         closeCursor(cursor);
 
+        categoryLookup.update(categories, generation);
         return categories;
     }
 
+    /**
+     * @return True, if any categories are stored
+     */
+    public boolean hasCategories() {
+        return hasRows(PredatorContract.CategoryEntry.CONTENT_URI_CATEGORY,
+                PredatorContract.CategoryEntry.COLUMN_ID,
+                null,
+                null);
+    }
+
     public List<Media> getMediaForPost(int postId) {
         // Query the media available.
         Cursor mediaCursor = mContentResolver.query(PredatorContract.MediaEntry.CONTENT_URI_MEDIA,
@@ -452,68 +567,31 @@ public class PredatorDatabase {
         return media;
     }
 
-    public List<Comment> getCommentsForPost(int postId,
-                                            int parentCommentId,
-                                            List<Comment> comments,
-                                            int childSpaces,
-                                            CommentTimeCalculator commentTimeCalculator) {
-        String sortOrder = null;
-        if (childSpaces == 0) {
-            // If top level comments are being fetched, then sort them according to the vote count.
-            sortOrder = PredatorContract.CommentsEntry.COLUMN_VOTES + " DESC";
-        } else {
-            // If child comment, then sort according the time of their creation.
-            sortOrder = PredatorContract.CommentsEntry.COLUMN_CREATED_AT_MILLIS + " ASC";
+    public List<Comment> getCommentsForPost(int postId, CommentTimeCalculator commentTimeCalculator) {
+        ModelCache.Region<List<Comment>> cachedComments = ModelCache.getInstance().getComments();
+        List<Comment> comments = cachedComments.get(postId);
+        if (comments != null) {
+            // Thread is rebuilt every time, so that the relative time of the comments is up to date.
+            return CommentTreeBuilder.build(comments, commentTimeCalculator);
         }
+        int generation = cachedComments.getGeneration();
 
+        // Fetch all the comments for this post at once, the thread is then built in memory.
         Cursor cursor = mContentResolver.query(PredatorContract.CommentsEntry.CONTENT_URI_COMMENTS,
-                        null,
-                        PredatorContract.CommentsEntry.COLUMN_POST_ID + " = " + postId + " AND " +
-                                PredatorContract.CommentsEntry.COLUMN_PARENT_COMMENT_ID + " = " + parentCommentId,
-                        null,
-                        sortOrder);
+                null,
+                PredatorContract.CommentsEntry.COLUMN_POST_ID + " = " + postId,
+                null,
+                PredatorContract.CommentsEntry.COLUMN_CREATED_AT_MILLIS + " ASC, " +
+                        PredatorContract.CommentsEntry.COLUMN_ID + " ASC");
+
+        comments = new ArrayList<>();
         if (cursor != null && cursor.getCount() != 0) {
-            for (int i = 0; i < cursor.getCount(); i++) {
-                cursor.moveToPosition(i);
-
-                Comment comment = new Comment();
-                comment.setId(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_ID));
-                comment.setCommentId(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_COMMENT_ID));
-                comment.setParentCommentId(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_PARENT_COMMENT_ID));
-                comment.setBody(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_BODY));
-                comment.setCreatedAt(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_CREATED_AT));
-                comment.setCreatedAtMillis(CursorUtils.getLong(cursor, PredatorContract.CommentsEntry.COLUMN_CREATED_AT_MILLIS));
-                comment.setPostId(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_POST_ID));
-                comment.setUserId(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_USER_ID));
-                comment.setUsername(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_USER_NAME));
-                comment.setUsernameAlternative(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_USER_USERNAME));
-                comment.setUserHeadline(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_USER_HEADLINE));
-                comment.setUserImageThumbnailUrl(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_USER_IMAGE_URL_100PX));
-                comment.setUserWebsiteUrl(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_USER_WEBSITE_URL));
-                comment.setUrl(CursorUtils.getString(cursor, PredatorContract.CommentsEntry.COLUMN_URL));
-                comment.setVotes(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_VOTES));
-                comment.setSticky(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_IS_STICKY) == 1);
-                comment.setMaker(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_IS_MAKER) == 1);
-                comment.setHunter(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_IS_HUNTER) == 1);
-                comment.setLiveGuest(CursorUtils.getInt(cursor, PredatorContract.CommentsEntry.COLUMN_IS_LIVE_GUEST) == 1);
-                comment.setChildSpaces(childSpaces);
-
-                CommentTimeCalculator.CommentTime commentTime = commentTimeCalculator.getTimeAgo(comment.getCreatedAtMillis());
-                comment.setTimeAgo(commentTime.getTimeAgo());
-                comment.setTimeUnit(commentTime.getTimeUnit());
-
-                comments.add(comment);
-
-                getCommentsForPost(postId,
-                        comment.getCommentId(),
-                        comments,
-                        comment.getChildSpaces() + 1,
-                        commentTimeCalculator);
-            }
+            comments = PredatorDbValuesHelper.getCommentsFromCursor(cursor);
         }
         closeCursor(cursor);
 
-        return comments;
+        cachedComments.put(postId, comments, generation);
+        return CommentTreeBuilder.build(comments, commentTimeCalculator);
     }
 
     public List<InstallLink> getInstallLinksForPost(int postId) {
@@ -532,6 +610,38 @@ public class PredatorDatabase {
         return installLinks;
     }
 
+    /**
+     * Replace the stored details of a post at once, see
+     * {@link PredatorDbHelper#replacePostDetails(int, ContentValues, ContentValues[], ContentValues[], ContentValues[], ContentValues[])}.
+     * Only the cached models of this post and its users are evicted, the details of other posts
+     * stay cached and fresh.
+     *
+     * @throws android.database.SQLException If the details couldn't be written
+     */
+    public void replacePostDetails(int postId,
+                                   @Nullable ContentValues post,
+                                   ContentValues[] users,
+                                   ContentValues[] comments,
+                                   ContentValues[] media,
+                                   ContentValues[] installLinks) {
+        List<Integer> userIds = new ArrayList<>(users.length);
+        for (ContentValues user : users) {
+            Integer userId = user.getAsInteger(PredatorContract.UsersEntry.COLUMN_USER_ID);
+            if (userId != null) {
+                userIds.add(userId);
+            }
+        }
+
+        mPredatorDbHelper.replacePostDetails(postId, post, users, comments, media, installLinks);
+
+        ModelCache modelCache = ModelCache.getInstance();
+        modelCache.invalidatePost(postId);
+        modelCache.invalidateComments(postId);
+        for (int userId : userIds) {
+            modelCache.invalidateUser(userId);
+        }
+    }
+
     public void deleteMediaForPost(int postId) {
         mContentResolver.delete(PredatorContract.MediaEntry.CONTENT_URI_MEDIA_DELETE,
                         PredatorContract.MediaEntry.COLUMN_POST_ID + " = " + postId,
@@ -624,6 +734,52 @@ public class PredatorDatabase {
         return post;
     }
 
+    /**
+     * @param day Day of the posts
+     * @return True, if any dashboard posts of the day are stored
+     */
+    public boolean hasPostsForDay(String day) {
+        return hasRows(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
+                PredatorContract.PostsEntry.COLUMN_POST_ID,
+                PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + "=1 AND " +
+                        PredatorContract.PostsEntry.COLUMN_DAY + "=?",
+                new String[]{day});
+    }
+
+    /**
+     * Read the votes and comment count of the dashboard posts which are already stored.
+     *
+     * @param postIds Ids of the posts to be looked up
+     * @return Array of votes and comment count keyed by the post id, posts which are not stored on
+     * the dashboard are left out
+     */
+    public SparseArray<int[]> getDashboardPostCounts(List<Integer> postIds) {
+        SparseArray<int[]> postCounts = new SparseArray<>(postIds.size());
+        if (postIds.isEmpty()) {
+            return postCounts;
+        }
+
+        Cursor cursor = mContentResolver.query(PredatorContract.PostsEntry.CONTENT_URI_POSTS,
+                new String[]{PredatorContract.PostsEntry.COLUMN_POST_ID,
+                        PredatorContract.PostsEntry.COLUMN_VOTES_COUNT,
+                        PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT},
+                PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + "=1 AND " +
+                        PredatorContract.PostsEntry.COLUMN_POST_ID + " IN (" + TextUtils.join(",", postIds) + ")",
+                null,
+                null);
+
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                postCounts.put(getInt(cursor, PredatorContract.PostsEntry.COLUMN_POST_ID),
+                        new int[]{getInt(cursor, PredatorContract.PostsEntry.COLUMN_VOTES_COUNT),
+                                getInt(cursor, PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT)});
+            }
+        }
+        closeCursor(cursor);
+
+        return postCounts;
+    }
+
     public void setNotificationShownForPost(int postId) {
         ContentValues contentValues = new ContentValues();
         contentValues.put(PredatorContract.PostsEntry.COLUMN_POST_ID, postId);
@@ -674,6 +830,98 @@ public class PredatorDatabase {
         return redirectUrl;
     }
 
+    /**
+     * Search the stored posts by their name and tagline, works without network.
+     *
+     * @param query Words typed by the user, the last one may be incomplete
+     * @param limit Maximum number of hits
+     * @return Matching posts, best first
+     */
+    public List<LocalSearchHit<Post>> searchPosts(String query, int limit) {
+        String match = getMatchExpression(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+
+        Cursor cursor = mContentResolver.query(PredatorContract.SearchEntry.CONTENT_URI_SEARCH_POSTS,
+                null,
+                null,
+                new String[]{match},
+                null);
+
+        List<LocalSearchHit<Post>> hits = new ArrayList<>();
+        if (cursor != null && cursor.getCount() != 0) {
+            hits = PredatorDbValuesHelper.getPostSearchHitsFromCursor(cursor);
+        }
+        closeCursor(cursor);
+
+        return LocalSearchHit.getTopHits(hits, limit);
+    }
+
+    /**
+     * Search the stored collections by their name and title, works without network.
+     *
+     * @param query Words typed by the user, the last one may be incomplete
+     * @param limit Maximum number of hits
+     * @return Matching collections, best first
+     */
+    public List<LocalSearchHit<Collection>> searchCollections(String query, int limit) {
+        String match = getMatchExpression(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+
+        Cursor cursor = mContentResolver.query(PredatorContract.SearchEntry.CONTENT_URI_SEARCH_COLLECTIONS,
+                null,
+                null,
+                new String[]{match},
+                null);
+
+        List<LocalSearchHit<Collection>> hits = new ArrayList<>();
+        if (cursor != null && cursor.getCount() != 0) {
+            hits = PredatorDbValuesHelper.getCollectionSearchHitsFromCursor(cursor);
+        }
+        closeCursor(cursor);
+
+        return LocalSearchHit.getTopHits(hits, limit);
+    }
+
+    /**
+     * Every word of the query is matched as a prefix, so results show up while the user is
+     * still typing. Anything other than letters and digits is dropped, so that the query can't
+     * contain the operators of the match syntax.
+     *
+     * @return Match expression for the query, or null if it has no words
+     */
+    @Nullable
+    private static String getMatchExpression(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String word : query.toLowerCase(Locale.US).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (match.length() != 0) {
+                match.append(' ');
+            }
+            match.append(word).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    /**
+     * Check if any rows match the selection, without reading them.
+     */
+    private boolean hasRows(Uri uri, String idColumn, String selection, String[] selectionArgs) {
+        Cursor cursor = mContentResolver.query(uri,
+                new String[]{idColumn},
+                selection,
+                selectionArgs,
+                null);
+        boolean hasRows = cursor != null && cursor.getCount() != 0;
+        closeCursor(cursor);
+        return hasRows;
+    }
+
     /**
      * This method closes the cursor.
      *
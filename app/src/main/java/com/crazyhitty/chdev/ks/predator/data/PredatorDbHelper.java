@@ -27,14 +27,28 @@ package com.crazyhitty.chdev.ks.predator.data;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteQuery;
+import android.database.sqlite.SQLiteQueryBuilder;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
+import android.support.annotation.VisibleForTesting;
 import android.text.TextUtils;
 
 import com.crazyhitty.chdev.ks.predator.utils.CursorUtils;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static android.content.ContentValues.TAG;
 
 /**
@@ -59,12 +73,59 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
     public static final Uri BASE_CONTENT_URI = Uri.parse("content://" + CONTENT_AUTHORITY);
 
     private static final String DATABASE_NAME = "predator.db";
-    private static final int DATABASE_VERSION = 14;
+    static final int DATABASE_VERSION = 18;
 
     private static PredatorDbHelper sPredatorDbHelper;
 
+    /**
+     * Notified with the sql of every query executed on predator database. Only used by tests for
+     * verifying the query plans.
+     */
+    @VisibleForTesting
+    static volatile QueryListener sQueryListener;
+
+    private static final SQLiteDatabase.CursorFactory CURSOR_FACTORY = new SQLiteDatabase.CursorFactory() {
+        @Override
+        public Cursor newCursor(SQLiteDatabase db,
+                                SQLiteCursorDriver masterQuery,
+                                String editTable,
+                                SQLiteQuery query) {
+            QueryListener queryListener = sQueryListener;
+            if (queryListener != null) {
+                queryListener.onQuery(query.toString().replaceFirst("^SQLiteQuery: ", ""));
+            }
+            return new SQLiteCursor(masterQuery, editTable, query);
+        }
+    };
+
+    /**
+     * Write ahead logging lets the ui read from its own connections while sync is writing. Android
+     * manages the pool of reader connections itself once this is enabled.
+     */
+    private static final boolean WRITE_AHEAD_LOGGING_ENABLED = true;
+
+    /**
+     * In write ahead logging mode, NORMAL is still safe from corruption and only the last
+     * transactions before a power loss could be rolled back.
+     */
+    private static final String SYNCHRONOUS_MODE = "NORMAL";
+
+    private final boolean mWriteAheadLoggingEnabled;
+
     public PredatorDbHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME, WRITE_AHEAD_LOGGING_ENABLED);
+    }
+
+    @VisibleForTesting
+    PredatorDbHelper(Context context, String databaseName) {
+        this(context, databaseName, WRITE_AHEAD_LOGGING_ENABLED);
+    }
+
+    @VisibleForTesting
+    PredatorDbHelper(Context context, String databaseName, boolean writeAheadLoggingEnabled) {
+        super(context, databaseName, CURSOR_FACTORY, DATABASE_VERSION);
+        mWriteAheadLoggingEnabled = writeAheadLoggingEnabled;
+        setWriteAheadLoggingEnabled(writeAheadLoggingEnabled);
     }
 
     public static PredatorDbHelper getInstance(Context context) {
@@ -74,6 +135,14 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
         return sPredatorDbHelper;
     }
 
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        if (mWriteAheadLoggingEnabled) {
+            db.execSQL("PRAGMA synchronous=" + SYNCHRONOUS_MODE);
+        }
+    }
+
     @Override
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(getCreatePostsTableSqlQuery());
@@ -83,6 +152,129 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
         db.execSQL(getCreateMediaTableSqlQuery());
         db.execSQL(getCreateCollectionsTableSqlQuery());
         db.execSQL(getCreateCategoryTableSqlQuery());
+        createUserRelationTables(db);
+        createIndexes(db);
+        createSearchTables(db);
+    }
+
+    /**
+     * Create the secondary indexes used by the queries of {@link PredatorDatabase}.
+     */
+    private static void createIndexes(SQLiteDatabase db) {
+        // Dashboard posts sorted by date, post id breaks the ties between pages. This also covers
+        // the posts which are not a part of dashboard.
+        db.execSQL("CREATE INDEX IF NOT EXISTS posts_dashboard_created_at_post_id_index ON " +
+                PredatorContract.PostsEntry.TABLE_NAME + "(" +
+                PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + ", " +
+                PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + ", " +
+                PredatorContract.PostsEntry.COLUMN_POST_ID + ");");
+        // Dashboard posts sorted by day and votes.
+        db.execSQL("CREATE INDEX IF NOT EXISTS posts_dashboard_day_votes_post_id_index ON " +
+                PredatorContract.PostsEntry.TABLE_NAME + "(" +
+                PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + ", " +
+                PredatorContract.PostsEntry.COLUMN_DAY + ", " +
+                PredatorContract.PostsEntry.COLUMN_VOTES_COUNT + ", " +
+                PredatorContract.PostsEntry.COLUMN_POST_ID + ");");
+        // Unread dashboard posts for notifications.
+        db.execSQL("CREATE INDEX IF NOT EXISTS posts_notification_index ON " +
+                PredatorContract.PostsEntry.TABLE_NAME + "(" +
+                PredatorContract.PostsEntry.COLUMN_FOR_DASHBOARD + ", " +
+                PredatorContract.PostsEntry.COLUMN_NOTIFICATION_SHOWN + ", " +
+                PredatorContract.PostsEntry.COLUMN_READ_STATUS + ", " +
+                PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS + ");");
+        // Posts of a collection sorted by votes.
+        db.execSQL("CREATE INDEX IF NOT EXISTS posts_collection_index ON " +
+                PredatorContract.PostsEntry.TABLE_NAME + "(" +
+                PredatorContract.PostsEntry.COLUMN_COLLECTION_ID + ", " +
+                PredatorContract.PostsEntry.COLUMN_IS_IN_COLLECTION + ", " +
+                PredatorContract.PostsEntry.COLUMN_VOTES_COUNT + ");");
+        // Comments of a post in the order in which the thread is built.
+        db.execSQL("CREATE INDEX IF NOT EXISTS comments_post_id_index ON " +
+                PredatorContract.CommentsEntry.TABLE_NAME + "(" +
+                PredatorContract.CommentsEntry.COLUMN_POST_ID + ", " +
+                PredatorContract.CommentsEntry.COLUMN_CREATED_AT_MILLIS + ", " +
+                PredatorContract.CommentsEntry.COLUMN_ID + ");");
+        db.execSQL("CREATE INDEX IF NOT EXISTS media_post_id_index ON " +
+                PredatorContract.MediaEntry.TABLE_NAME + "(" +
+                PredatorContract.MediaEntry.COLUMN_POST_ID + ");");
+        db.execSQL("CREATE INDEX IF NOT EXISTS install_links_post_id_index ON " +
+                PredatorContract.InstallLinksEntry.TABLE_NAME + "(" +
+                PredatorContract.InstallLinksEntry.COLUMN_POST_ID + ");");
+    }
+
+    /**
+     * Create the full text search tables of posts and collections along with the triggers which
+     * keep them in sync, and index the rows which already exist.
+     */
+    private static void createSearchTables(SQLiteDatabase db) {
+        createSearchTable(db,
+                PredatorContract.SearchEntry.TABLE_NAME_POSTS,
+                PredatorContract.PostsEntry.TABLE_NAME,
+                PredatorContract.PostsEntry.COLUMN_ID,
+                PredatorContract.PostsEntry.COLUMN_NAME,
+                PredatorContract.PostsEntry.COLUMN_TAGLINE);
+        createSearchTable(db,
+                PredatorContract.SearchEntry.TABLE_NAME_COLLECTIONS,
+                PredatorContract.CollectionsEntry.TABLE_NAME,
+                PredatorContract.CollectionsEntry.COLUMN_ID,
+                PredatorContract.CollectionsEntry.COLUMN_NAME,
+                PredatorContract.CollectionsEntry.COLUMN_TITLE);
+    }
+
+    /**
+     * @param searchTable  Name of the full text search table
+     * @param contentTable Table whose rows are indexed, its id column is the docid of the index
+     * @param idColumn     Integer primary key of the content table
+     * @param columns      Indexed columns of the content table, in the order of their weight
+     */
+    private static void createSearchTable(SQLiteDatabase db,
+                                          String searchTable,
+                                          String contentTable,
+                                          String idColumn,
+                                          String... columns) {
+        String columnList = TextUtils.join(", ", columns);
+        StringBuilder newValues = new StringBuilder();
+        StringBuilder changed = new StringBuilder();
+        for (String column : columns) {
+            if (newValues.length() != 0) {
+                newValues.append(", ");
+                changed.append(" OR ");
+            }
+            newValues.append("new.").append(column);
+            changed.append("old.").append(column).append(" IS NOT new.").append(column);
+        }
+
+        db.execSQL("CREATE VIRTUAL TABLE " + searchTable + " USING fts4(" +
+                columnList + ", content=\"" + contentTable + "\");");
+
+        // Old values have to be removed before the content row changes, as they are read back
+        // from the content table. Updates which don't touch the indexed text, e.g. votes, are
+        // left alone.
+        db.execSQL("CREATE TRIGGER " + searchTable + "_before_update BEFORE UPDATE OF " + columnList +
+                " ON " + contentTable + " WHEN " + changed + " BEGIN " +
+                "DELETE FROM " + searchTable + " WHERE docid=old." + idColumn + "; END;");
+        db.execSQL("CREATE TRIGGER " + searchTable + "_before_delete BEFORE DELETE ON " + contentTable + " BEGIN " +
+                "DELETE FROM " + searchTable + " WHERE docid=old." + idColumn + "; END;");
+        db.execSQL("CREATE TRIGGER " + searchTable + "_after_update AFTER UPDATE OF " + columnList +
+                " ON " + contentTable + " WHEN " + changed + " BEGIN " +
+                "INSERT INTO " + searchTable + "(docid, " + columnList + ") VALUES(new." + idColumn + ", " + newValues + "); END;");
+        db.execSQL("CREATE TRIGGER " + searchTable + "_after_insert AFTER INSERT ON " + contentTable + " BEGIN " +
+                "INSERT INTO " + searchTable + "(docid, " + columnList + ") VALUES(new." + idColumn + ", " + newValues + "); END;");
+
+        // Index the rows which were added before the table existed.
+        db.execSQL("INSERT INTO " + searchTable + "(" + searchTable + ") VALUES('rebuild');");
+    }
+
+    private static void createUserRelationTables(SQLiteDatabase db) {
+        db.execSQL(getCreatePostUsersTableSqlQuery());
+        db.execSQL("CREATE INDEX post_users_user_id_role_index ON " +
+                PredatorContract.PostUsersEntry.TABLE_NAME + "(" +
+                PredatorContract.PostUsersEntry.COLUMN_USER_ID + ", " +
+                PredatorContract.PostUsersEntry.COLUMN_ROLE + ");");
+        db.execSQL(getCreateUserFollowsTableSqlQuery());
+        db.execSQL("CREATE INDEX user_follows_following_user_id_index ON " +
+                PredatorContract.UserFollowsEntry.TABLE_NAME + "(" +
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWING_USER_ID + ");");
     }
 
     private String getCreatePostsTableSqlQuery() {
@@ -115,7 +307,7 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
                 PredatorContract.PostsEntry.COLUMN_READ_STATUS + " INTEGER DEFAULT 0);";
     }
 
-    private String getCreateUsersTableSqlQuery() {
+    private static String getCreateUsersTableSqlQuery() {
         return "CREATE TABLE " + PredatorContract.UsersEntry.TABLE_NAME + "(" +
                 PredatorContract.UsersEntry.COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
                 PredatorContract.UsersEntry.COLUMN_USER_ID + " INTEGER UNIQUE, " +
@@ -125,12 +317,29 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
                 PredatorContract.UsersEntry.COLUMN_HEADLINE + " TEXT, " +
                 PredatorContract.UsersEntry.COLUMN_WEBSITE_URL + " TEXT, " +
                 PredatorContract.UsersEntry.COLUMN_IMAGE_URL_100PX + " TEXT, " +
-                PredatorContract.UsersEntry.COLUMN_IMAGE_URL_ORIGINAL + " TEXT, " +
-                PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS + " TEXT, " +
-                PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS + " TEXT, " +
-                PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS + " TEXT, " +
-                PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS + " TEXT, " +
-                PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS + " TEXT);";
+                PredatorContract.UsersEntry.COLUMN_IMAGE_URL_ORIGINAL + " TEXT);";
+    }
+
+    private static String getCreatePostUsersTableSqlQuery() {
+        // The unique constraint starts with post id, so it also acts as the index used for
+        // fetching the users of a post.
+        return "CREATE TABLE " + PredatorContract.PostUsersEntry.TABLE_NAME + "(" +
+                PredatorContract.PostUsersEntry.COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                PredatorContract.PostUsersEntry.COLUMN_USER_ID + " INTEGER NOT NULL, " +
+                PredatorContract.PostUsersEntry.COLUMN_POST_ID + " INTEGER NOT NULL, " +
+                PredatorContract.PostUsersEntry.COLUMN_ROLE + " INTEGER NOT NULL, " +
+                "UNIQUE(" + PredatorContract.PostUsersEntry.COLUMN_POST_ID + ", " +
+                PredatorContract.PostUsersEntry.COLUMN_ROLE + ", " +
+                PredatorContract.PostUsersEntry.COLUMN_USER_ID + "));";
+    }
+
+    private static String getCreateUserFollowsTableSqlQuery() {
+        return "CREATE TABLE " + PredatorContract.UserFollowsEntry.TABLE_NAME + "(" +
+                PredatorContract.UserFollowsEntry.COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWER_USER_ID + " INTEGER NOT NULL, " +
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWING_USER_ID + " INTEGER NOT NULL, " +
+                "UNIQUE(" + PredatorContract.UserFollowsEntry.COLUMN_FOLLOWER_USER_ID + ", " +
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWING_USER_ID + "));";
     }
 
     private String getCreateCommentsTableSqlQuery() {
@@ -215,6 +424,64 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        List<PredatorMigration> migrations = PredatorMigrations.getMigrationPath(PredatorMigrations.getMigrations(),
+                oldVersion,
+                newVersion);
+        if (migrations == null) {
+            // No migrations available for such an old version, so start with a fresh database.
+            Logger.d(TAG, "onUpgrade: no migration path from " + oldVersion + " to " + newVersion + ", recreating tables");
+            recreateTables(db);
+            return;
+        }
+
+        long upgradeStartTime = System.currentTimeMillis();
+        try {
+            for (PredatorMigration migration : migrations) {
+                long startTime = System.currentTimeMillis();
+                migration.migrate(db);
+                Logger.d(TAG, "onUpgrade: migrated from " + migration.getStartVersion() +
+                        " to " + migration.getEndVersion() +
+                        " in " + (System.currentTimeMillis() - startTime) + "ms");
+            }
+        } catch (Exception e) {
+            // A failed migration should not leave the database in an unusable state.
+            Logger.e(TAG, "onUpgrade: migration from " + oldVersion + " to " + newVersion + " failed, recreating tables", e);
+            recreateTables(db);
+            return;
+        }
+        Logger.d(TAG, "onUpgrade: upgraded from " + oldVersion + " to " + newVersion +
+                " in " + (System.currentTimeMillis() - upgradeStartTime) + "ms");
+    }
+
+    /**
+     * Copy the pages from write ahead log back into the database, so that the log doesn't keep
+     * growing and reads don't have to look through it. Should be called after a sync has finished
+     * writing. Passive mode never waits for the readers, so this can't block the ui.
+     */
+    public void checkpoint() {
+        if (!mWriteAheadLoggingEnabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Cursor cursor = null;
+        try {
+            cursor = getWritableDatabase().rawQuery("PRAGMA wal_checkpoint(PASSIVE)", null);
+            if (cursor.moveToFirst()) {
+                Logger.d(TAG, "checkpoint: busy: " + cursor.getInt(0) +
+                        ", log frames: " + cursor.getInt(1) +
+                        ", checkpointed frames: " + cursor.getInt(2) +
+                        " in " + (System.currentTimeMillis() - startTime) + "ms");
+            }
+        } catch (Exception e) {
+            Logger.e(TAG, "Error while trying to checkpoint database", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    private void recreateTables(SQLiteDatabase db) {
         // Remove existing tables from database.
         db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.PostsEntry.TABLE_NAME);
         db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.UsersEntry.TABLE_NAME);
@@ -223,9 +490,15 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
         db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.MediaEntry.TABLE_NAME);
         db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.CollectionsEntry.TABLE_NAME);
         db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.CategoryEntry.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.PostUsersEntry.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.UserFollowsEntry.TABLE_NAME);
+        db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.SearchEntry.TABLE_NAME_POSTS);
+        db.execSQL("DROP TABLE IF EXISTS " + PredatorContract.SearchEntry.TABLE_NAME_COLLECTIONS);
 
         // Recreate the tables.
         onCreate(db);
+
+        StoredDataNotifier.getInstance().notifyStoredDataDropped(null);
     }
 
     public int addOrUpdatePost(ContentValues contentValues) {
@@ -312,6 +585,55 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
                 sortOrder);
     }
 
+    /**
+     * @param match Full text query, e.g. "notion* app*"
+     * @return Posts whose name or tagline match the query, with the match info and offsets of
+     * every post
+     */
+    public Cursor searchPosts(String match) {
+        return search(PredatorContract.SearchEntry.TABLE_NAME_POSTS,
+                PredatorContract.PostsEntry.TABLE_NAME,
+                PredatorContract.PostsEntry.COLUMN_ID,
+                PredatorContract.PostsEntry.SUMMARY_PROJECTION,
+                match);
+    }
+
+    /**
+     * @param match Full text query, e.g. "design* tools*"
+     * @return Collections whose name or title match the query, with the match info and offsets
+     * of every collection
+     */
+    public Cursor searchCollections(String match) {
+        return search(PredatorContract.SearchEntry.TABLE_NAME_COLLECTIONS,
+                PredatorContract.CollectionsEntry.TABLE_NAME,
+                PredatorContract.CollectionsEntry.COLUMN_ID,
+                PredatorContract.CollectionsEntry.SUMMARY_PROJECTION,
+                match);
+    }
+
+    /**
+     * Only the columns shown in the search results are read, and at most
+     * {@link Constants.Search#LOCAL_CANDIDATES_LIMIT} rows are returned for ranking.
+     */
+    private Cursor search(String searchTable, String contentTable, String idColumn, String[] columns, String match) {
+        SQLiteDatabase db = getReadableDatabase();
+
+        StringBuilder selection = new StringBuilder();
+        for (String column : columns) {
+            selection.append(contentTable).append(".").append(column).append(", ");
+        }
+
+        return db.rawQuery("SELECT " + selection +
+                        "matchinfo(" + searchTable + ", 'pcx') AS " + PredatorContract.SearchEntry.COLUMN_MATCH_INFO + ", " +
+                        "offsets(" + searchTable + ") AS " + PredatorContract.SearchEntry.COLUMN_MATCH_OFFSETS +
+                        " FROM " + searchTable +
+                        " JOIN " + contentTable + " ON " + contentTable + "." + idColumn + "=" + searchTable + ".docid" +
+                        " WHERE " + searchTable + " MATCH ?" +
+                        " ORDER BY " + searchTable + ".docid DESC" +
+                        " LIMIT " + Constants.Search.LOCAL_CANDIDATES_LIMIT,
+                new String[]{match});
+    }
+
     public int deleteAllPosts(String selection, String[] selectionArgs) {
         // Create and/or open the database for writing
         SQLiteDatabase db = getWritableDatabase();
@@ -336,85 +658,22 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
         // Create and/or open the database for writing
         SQLiteDatabase db = getWritableDatabase();
 
+        Map<String, SQLiteStatement> relationStatements = new HashMap<>();
+
         // It's a good idea to wrap our insert in a transaction. This helps with performance and ensures
         // consistency of the database.
         db.beginTransaction();
         try {
             int id = contentValues.getAsInteger(PredatorContract.UsersEntry.COLUMN_USER_ID);
 
-            Cursor cursor = db.query(PredatorContract.UsersEntry.TABLE_NAME,
-                    null,
-                    PredatorContract.UsersEntry.COLUMN_USER_ID + "=" + contentValues.getAsInteger(PredatorContract.UsersEntry.COLUMN_USER_ID),
-                    null,
-                    null,
-                    null,
-                    null);
-
-            if (cursor != null && cursor.getCount() != 0) {
-                cursor.moveToFirst();
-
-                String makerPostIds = CursorUtils.getString(cursor, PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS);
-                if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS) &&
-                        !TextUtils.isEmpty(makerPostIds) &&
-                        !TextUtils.isEmpty(contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS))) {
-                    makerPostIds += "," + contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS);
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS, makerPostIds);
-                } else if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS) &&
-                        TextUtils.isEmpty(makerPostIds) &&
-                        !TextUtils.isEmpty(contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS))) {
-                    makerPostIds = contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS);
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS, makerPostIds);
-                } else {
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS, makerPostIds);
-                }
+            // Post and follower ids are stored as relation rows, the remaining values are stored
+            // in the users table. Columns which are not available are left untouched.
+            addUserRelations(db, relationStatements, id, contentValues);
 
-                String hunterPostIds = CursorUtils.getString(cursor, PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS);
-                if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS) &&
-                        !TextUtils.isEmpty(hunterPostIds) &&
-                        !TextUtils.isEmpty(contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS))) {
-                    hunterPostIds += "," + contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS);
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS, hunterPostIds);
-                } else if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS) &&
-                        TextUtils.isEmpty(hunterPostIds) &&
-                        !TextUtils.isEmpty(contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS))) {
-                    hunterPostIds = contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS);
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS, hunterPostIds);
-                } else {
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS, hunterPostIds);
-                }
-
-                String votedPostIds = CursorUtils.getString(cursor, PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS);
-                if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS) &&
-                        !TextUtils.isEmpty(votedPostIds) &&
-                        !TextUtils.isEmpty(contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS))) {
-                    votedPostIds += "," + contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS);
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS, votedPostIds);
-                } else if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS) &&
-                        TextUtils.isEmpty(votedPostIds) &&
-                        !TextUtils.isEmpty(contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS))) {
-                    votedPostIds = contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS);
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS, votedPostIds);
-                } else {
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS, votedPostIds);
-                }
-
-                if (!contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS)) {
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS,
-                            CursorUtils.getString(cursor, PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS));
-                }
-
-                if (!contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS)) {
-                    contentValues.put(PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS,
-                            CursorUtils.getString(cursor, PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS));
-                }
-
-                cursor.close();
-
-                db.update(PredatorContract.UsersEntry.TABLE_NAME,
-                        contentValues,
-                        PredatorContract.UsersEntry.COLUMN_USER_ID + "=" + id,
-                        null);
-            } else {
+            if (db.update(PredatorContract.UsersEntry.TABLE_NAME,
+                    contentValues,
+                    PredatorContract.UsersEntry.COLUMN_USER_ID + "=" + id,
+                    null) == 0) {
                 db.insertOrThrow(PredatorContract.UsersEntry.TABLE_NAME, null, contentValues);
             }
             db.setTransactionSuccessful();
@@ -422,6 +681,7 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
             Logger.e(TAG, "Error while trying to add/update user to database", e);
         } finally {
             db.endTransaction();
+            closeStatements(relationStatements);
         }
         return contentValues.getAsInteger(PredatorContract.UsersEntry.COLUMN_USER_ID);
     }
@@ -441,6 +701,34 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
                 sortOrder);
     }
 
+    /**
+     * Get users joined with the posts they are related to. Every user is returned only once along
+     * with the sum of all of its matching roles in {@link PredatorContract.PostUsersEntry#COLUMN_ROLE}.
+     * Columns in selection should be prefixed with their table names.
+     */
+    public Cursor getPostUsers(String[] columns, String selection, String[] selectionArgs, String sortOrder) {
+        SQLiteDatabase db = getReadableDatabase();
+
+        if (columns == null) {
+            columns = new String[]{PredatorContract.UsersEntry.TABLE_NAME + ".*",
+                    "SUM(" + PredatorContract.PostUsersEntry.TABLE_NAME + "." + PredatorContract.PostUsersEntry.COLUMN_ROLE + ") AS " +
+                            PredatorContract.PostUsersEntry.COLUMN_ROLE};
+        }
+
+        SQLiteQueryBuilder queryBuilder = new SQLiteQueryBuilder();
+        queryBuilder.setTables(PredatorContract.PostUsersEntry.TABLE_NAME +
+                " INNER JOIN " + PredatorContract.UsersEntry.TABLE_NAME +
+                " ON " + PredatorContract.UsersEntry.TABLE_NAME + "." + PredatorContract.UsersEntry.COLUMN_USER_ID +
+                "=" + PredatorContract.PostUsersEntry.TABLE_NAME + "." + PredatorContract.PostUsersEntry.COLUMN_USER_ID);
+        return queryBuilder.query(db,
+                columns,
+                selection,
+                selectionArgs,
+                PredatorContract.UsersEntry.TABLE_NAME + "." + PredatorContract.UsersEntry.COLUMN_USER_ID,
+                null,
+                sortOrder);
+    }
+
     public int deleteAllUsers(String selection, String[] selectionArgs) {
         // Create and/or open the database for writing
         SQLiteDatabase db = getWritableDatabase();
@@ -725,4 +1013,408 @@ public class PredatorDbHelper extends SQLiteOpenHelper {
         }
         return numOfRowsAffected;
     }
-}
\ No newline at end of file
+
+    /**
+     * Add or update a batch of posts inside a single transaction. Columns which are not available
+     * in a particular {@link ContentValues} object are left untouched for existing posts.
+     *
+     * @param bulkContentValues Array of posts to be added or updated.
+     * @return Number of posts which were added or updated.
+     */
+    public int bulkAddOrUpdatePosts(ContentValues[] bulkContentValues) {
+        return bulkAddOrUpdate(PredatorContract.PostsEntry.TABLE_NAME,
+                PredatorContract.PostsEntry.COLUMN_POST_ID,
+                bulkContentValues);
+    }
+
+    /**
+     * Add or update a batch of users inside a single transaction. Hunter, maker and voted post ids
+     * as well as follower and following user ids are stored as relation rows, same as
+     * {@link #addOrUpdateUser(ContentValues)}.
+     *
+     * @param bulkContentValues Array of users to be added or updated.
+     * @return Number of users which were added or updated.
+     */
+    public int bulkAddOrUpdateUsers(ContentValues[] bulkContentValues) {
+        SQLiteDatabase db = getWritableDatabase();
+
+        Map<String, SQLiteStatement> relationStatements = new HashMap<>();
+
+        int numOfRowsAffected = 0;
+        db.beginTransaction();
+        try {
+            for (ContentValues contentValues : bulkContentValues) {
+                Integer userId = contentValues.getAsInteger(PredatorContract.UsersEntry.COLUMN_USER_ID);
+                if (userId != null) {
+                    addUserRelations(db, relationStatements, userId, contentValues);
+                }
+            }
+            numOfRowsAffected = bulkAddOrUpdate(PredatorContract.UsersEntry.TABLE_NAME,
+                    PredatorContract.UsersEntry.COLUMN_USER_ID,
+                    bulkContentValues);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Logger.e(TAG, "Error while trying to bulk add/update users in database", e);
+            numOfRowsAffected = 0;
+        } finally {
+            db.endTransaction();
+            closeStatements(relationStatements);
+        }
+        return numOfRowsAffected;
+    }
+
+    /**
+     * Replace the stored details of a post inside a single transaction. Media, comments and
+     * install links of the post are deleted and inserted again, while the post and its users are
+     * added or updated.
+     *
+     * @param postId       Id of the post
+     * @param post         Values of the post, or null if the post itself isn't updated
+     * @param users        Hunter, makers and voters of the post
+     * @param comments     Comments of the post
+     * @param media        Media of the post
+     * @param installLinks Install links of the post
+     * @throws SQLException If any of the rows couldn't be written, nothing is changed in that case
+     */
+    public void replacePostDetails(int postId,
+                                   ContentValues post,
+                                   ContentValues[] users,
+                                   ContentValues[] comments,
+                                   ContentValues[] media,
+                                   ContentValues[] installLinks) {
+        SQLiteDatabase db = getWritableDatabase();
+
+        String[] postIdArgs = new String[]{String.valueOf(postId)};
+        db.beginTransaction();
+        try {
+            db.delete(PredatorContract.MediaEntry.TABLE_NAME,
+                    PredatorContract.MediaEntry.COLUMN_POST_ID + "=?",
+                    postIdArgs);
+            db.delete(PredatorContract.CommentsEntry.TABLE_NAME,
+                    PredatorContract.CommentsEntry.COLUMN_POST_ID + "=?",
+                    postIdArgs);
+            db.delete(PredatorContract.InstallLinksEntry.TABLE_NAME,
+                    PredatorContract.InstallLinksEntry.COLUMN_POST_ID + "=?",
+                    postIdArgs);
+
+            // Bulk writes log their errors and report that nothing was written, which also rolls
+            // back this transaction once it ends. Failing here makes that rollback visible.
+            if (post != null) {
+                checkWritten(PredatorContract.PostsEntry.TABLE_NAME,
+                        1,
+                        bulkAddOrUpdatePosts(new ContentValues[]{post}));
+            }
+            checkWritten(PredatorContract.UsersEntry.TABLE_NAME,
+                    users.length,
+                    bulkAddOrUpdateUsers(users));
+            checkWritten(PredatorContract.CommentsEntry.TABLE_NAME,
+                    comments.length,
+                    bulkAdd(PredatorContract.CommentsEntry.TABLE_NAME, comments));
+            checkWritten(PredatorContract.MediaEntry.TABLE_NAME,
+                    media.length,
+                    bulkAdd(PredatorContract.MediaEntry.TABLE_NAME, media));
+            checkWritten(PredatorContract.InstallLinksEntry.TABLE_NAME,
+                    installLinks.length,
+                    bulkAdd(PredatorContract.InstallLinksEntry.TABLE_NAME, installLinks));
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void checkWritten(String tableName, int rowsCount, int numOfRowsAffected) {
+        if (rowsCount > 0 && numOfRowsAffected == 0) {
+            throw new SQLException("Unable to write " + rowsCount + " rows to " + tableName);
+        }
+    }
+
+    /**
+     * Insert a batch of rows into the provided table inside a single transaction. Rows which
+     * cannot be inserted (for eg: duplicate unique ids) are skipped.
+     *
+     * @param tableName         Name of the table in which rows will be inserted.
+     * @param bulkContentValues Array of rows to be inserted.
+     * @return Number of rows which were inserted.
+     */
+    public int bulkAdd(String tableName, ContentValues[] bulkContentValues) {
+        SQLiteDatabase db = getWritableDatabase();
+
+        Map<String, SQLiteStatement> insertStatements = new HashMap<>();
+
+        int numOfRowsAffected = 0;
+        db.beginTransaction();
+        try {
+            for (ContentValues contentValues : bulkContentValues) {
+                String[] columns = getSortedColumns(contentValues);
+                SQLiteStatement insertStatement = getInsertStatement(db, insertStatements, tableName, columns);
+                bindValues(insertStatement, contentValues, columns, 1);
+                try {
+                    insertStatement.executeInsert();
+                    numOfRowsAffected++;
+                } catch (SQLException e) {
+                    Logger.e(TAG, "Error while trying to add row to " + tableName, e);
+                }
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Logger.e(TAG, "Error while trying to bulk add rows to " + tableName, e);
+            numOfRowsAffected = 0;
+        } finally {
+            db.endTransaction();
+            closeStatements(insertStatements);
+        }
+        return numOfRowsAffected;
+    }
+
+    private int bulkAddOrUpdate(String tableName,
+                                String keyColumn,
+                                ContentValues[] bulkContentValues) {
+        SQLiteDatabase db = getWritableDatabase();
+
+        // Statements are compiled once per distinct set of columns and then reused for every
+        // row sharing the same set.
+        Map<String, SQLiteStatement> updateStatements = new HashMap<>();
+        Map<String, SQLiteStatement> insertStatements = new HashMap<>();
+
+        int numOfRowsAffected = 0;
+        db.beginTransaction();
+        try {
+            for (ContentValues contentValues : bulkContentValues) {
+                if (contentValues.get(keyColumn) == null) {
+                    continue;
+                }
+
+                String[] columns = getSortedColumns(contentValues);
+
+                String updateKey = TextUtils.join(",", columns);
+                SQLiteStatement updateStatement = updateStatements.get(updateKey);
+                if (updateStatement == null) {
+                    updateStatement = db.compileStatement(getUpdateSqlQuery(tableName, keyColumn, columns));
+                    updateStatements.put(updateKey, updateStatement);
+                }
+
+                updateStatement.clearBindings();
+                int index = 1;
+                for (String column : columns) {
+                    if (!column.equals(keyColumn)) {
+                        bindValue(updateStatement, index++, contentValues.get(column));
+                    }
+                }
+                bindValue(updateStatement, index, contentValues.get(keyColumn));
+
+                if (updateStatement.executeUpdateDelete() == 0) {
+                    SQLiteStatement insertStatement = getInsertStatement(db, insertStatements, tableName, columns);
+                    bindValues(insertStatement, contentValues, columns, 1);
+                    insertStatement.executeInsert();
+                }
+                numOfRowsAffected++;
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Logger.e(TAG, "Error while trying to bulk add/update rows in " + tableName, e);
+            numOfRowsAffected = 0;
+        } finally {
+            db.endTransaction();
+            closeStatements(updateStatements);
+            closeStatements(insertStatements);
+        }
+        return numOfRowsAffected;
+    }
+
+    private String getUpdateSqlQuery(String tableName, String keyColumn, String[] columns) {
+        StringBuilder sql = new StringBuilder("UPDATE " + tableName + " SET ");
+        boolean first = true;
+        for (String column : columns) {
+            if (column.equals(keyColumn)) {
+                continue;
+            }
+            if (!first) {
+                sql.append(", ");
+            }
+            sql.append(column).append("=?");
+            first = false;
+        }
+        if (first) {
+            // Nothing to update except the key itself.
+            sql.append(keyColumn).append("=").append(keyColumn);
+        }
+        sql.append(" WHERE ").append(keyColumn).append("=?");
+        return sql.toString();
+    }
+
+    /**
+     * Move the comma separated post and user ids out of the provided user values and store them
+     * as relation rows. Post ids are only ever added, while follower and following ids replace the
+     * ones already stored for this user.
+     */
+    private static void addUserRelations(SQLiteDatabase db,
+                                         Map<String, SQLiteStatement> statements,
+                                         int userId,
+                                         ContentValues contentValues) {
+        addPostUsers(db, statements, userId,
+                contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS),
+                PredatorContract.PostUsersEntry.ROLE_HUNTER);
+        addPostUsers(db, statements, userId,
+                contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS),
+                PredatorContract.PostUsersEntry.ROLE_MAKER);
+        addPostUsers(db, statements, userId,
+                contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS),
+                PredatorContract.PostUsersEntry.ROLE_UPVOTER);
+
+        if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS)) {
+            addUserFollows(db, statements,
+                    PredatorContract.UserFollowsEntry.COLUMN_FOLLOWING_USER_ID,
+                    userId,
+                    contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS));
+        }
+        if (contentValues.containsKey(PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS)) {
+            addUserFollows(db, statements,
+                    PredatorContract.UserFollowsEntry.COLUMN_FOLLOWER_USER_ID,
+                    userId,
+                    contentValues.getAsString(PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS));
+        }
+
+        contentValues.remove(PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS);
+        contentValues.remove(PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS);
+        contentValues.remove(PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS);
+        contentValues.remove(PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS);
+        contentValues.remove(PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS);
+    }
+
+    private static void addPostUsers(SQLiteDatabase db,
+                                     Map<String, SQLiteStatement> statements,
+                                     int userId,
+                                     String postIds,
+                                     int role) {
+        if (TextUtils.isEmpty(postIds)) {
+            return;
+        }
+        SQLiteStatement statement = getStatement(db, statements, "INSERT OR IGNORE INTO " +
+                PredatorContract.PostUsersEntry.TABLE_NAME + "(" +
+                PredatorContract.PostUsersEntry.COLUMN_USER_ID + ", " +
+                PredatorContract.PostUsersEntry.COLUMN_POST_ID + ", " +
+                PredatorContract.PostUsersEntry.COLUMN_ROLE + ") VALUES (?, ?, ?)");
+        for (long postId : parseIds(postIds)) {
+            statement.bindLong(1, userId);
+            statement.bindLong(2, postId);
+            statement.bindLong(3, role);
+            statement.executeInsert();
+        }
+    }
+
+    private static void addUserFollows(SQLiteDatabase db,
+                                       Map<String, SQLiteStatement> statements,
+                                       String userColumn,
+                                       int userId,
+                                       String otherUserIds) {
+        boolean isFollower = userColumn.equals(PredatorContract.UserFollowsEntry.COLUMN_FOLLOWER_USER_ID);
+
+        SQLiteStatement deleteStatement = getStatement(db, statements, "DELETE FROM " +
+                PredatorContract.UserFollowsEntry.TABLE_NAME + " WHERE " + userColumn + "=?");
+        deleteStatement.bindLong(1, userId);
+        deleteStatement.executeUpdateDelete();
+
+        SQLiteStatement insertStatement = getStatement(db, statements, "INSERT OR IGNORE INTO " +
+                PredatorContract.UserFollowsEntry.TABLE_NAME + "(" +
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWER_USER_ID + ", " +
+                PredatorContract.UserFollowsEntry.COLUMN_FOLLOWING_USER_ID + ") VALUES (?, ?)");
+        for (long otherUserId : parseIds(otherUserIds)) {
+            insertStatement.bindLong(1, isFollower ? userId : otherUserId);
+            insertStatement.bindLong(2, isFollower ? otherUserId : userId);
+            insertStatement.executeInsert();
+        }
+    }
+
+    private static SQLiteStatement getStatement(SQLiteDatabase db,
+                                                Map<String, SQLiteStatement> statements,
+                                                String sql) {
+        SQLiteStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = db.compileStatement(sql);
+            statements.put(sql, statement);
+        }
+        statement.clearBindings();
+        return statement;
+    }
+
+    private static List<Long> parseIds(String ids) {
+        List<Long> parsedIds = new ArrayList<>();
+        if (TextUtils.isEmpty(ids)) {
+            return parsedIds;
+        }
+        for (String id : ids.split(",")) {
+            try {
+                parsedIds.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                Logger.e(TAG, "Skipping invalid id: " + id, e);
+            }
+        }
+        return parsedIds;
+    }
+
+    private SQLiteStatement getInsertStatement(SQLiteDatabase db,
+                                               Map<String, SQLiteStatement> insertStatements,
+                                               String tableName,
+                                               String[] columns) {
+        String insertKey = TextUtils.join(",", columns);
+        SQLiteStatement insertStatement = insertStatements.get(insertKey);
+        if (insertStatement == null) {
+            String[] placeholders = new String[columns.length];
+            Arrays.fill(placeholders, "?");
+            insertStatement = db.compileStatement("INSERT INTO " + tableName + "(" +
+                    insertKey +
+                    ") VALUES (" +
+                    TextUtils.join(",", placeholders) +
+                    ")");
+            insertStatements.put(insertKey, insertStatement);
+        }
+        insertStatement.clearBindings();
+        return insertStatement;
+    }
+
+    private static String[] getSortedColumns(ContentValues contentValues) {
+        Set<String> keys = contentValues.keySet();
+        String[] columns = keys.toArray(new String[keys.size()]);
+        Arrays.sort(columns);
+        return columns;
+    }
+
+    private static void bindValues(SQLiteStatement statement,
+                                   ContentValues contentValues,
+                                   String[] columns,
+                                   int startIndex) {
+        for (int i = 0; i < columns.length; i++) {
+            bindValue(statement, startIndex + i, contentValues.get(columns[i]));
+        }
+    }
+
+    private static void bindValue(SQLiteStatement statement, int index, Object value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else if (value instanceof String) {
+            statement.bindString(index, (String) value);
+        } else if (value instanceof Float || value instanceof Double) {
+            statement.bindDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            statement.bindLong(index, ((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            statement.bindLong(index, (Boolean) value ? 1 : 0);
+        } else if (value instanceof byte[]) {
+            statement.bindBlob(index, (byte[]) value);
+        } else {
+            statement.bindString(index, value.toString());
+        }
+    }
+
+    private static void closeStatements(Map<String, SQLiteStatement> statements) {
+        for (SQLiteStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+    }
+
+    @VisibleForTesting
+    interface QueryListener {
+        void onQuery(String sql);
+    }
+}
@@ -26,16 +26,16 @@ package com.crazyhitty.chdev.ks.predator.data;
 
 import android.content.ContentValues;
 import android.database.Cursor;
-import android.text.TextUtils;
+import android.support.annotation.NonNull;
 
 import com.crazyhitty.chdev.ks.predator.models.Category;
 import com.crazyhitty.chdev.ks.predator.models.Collection;
+import com.crazyhitty.chdev.ks.predator.models.Comment;
 import com.crazyhitty.chdev.ks.predator.models.InstallLink;
 import com.crazyhitty.chdev.ks.predator.models.Media;
 import com.crazyhitty.chdev.ks.predator.models.Post;
 import com.crazyhitty.chdev.ks.predator.models.PostDetails;
 import com.crazyhitty.chdev.ks.predator.models.User;
-import com.crazyhitty.chdev.ks.predator.utils.CursorUtils;
 import com.crazyhitty.chdev.ks.predator.utils.DateUtils;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.models.CategoriesData;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.models.CollectionsData;
@@ -44,6 +44,9 @@ import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostDetailsData;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostsData;
 import com.crazyhitty.chdev.ks.producthunt_wrapper.models.UserProfileData;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -63,68 +66,11 @@ public class PredatorDbValuesHelper {
     }
 
     public static Post getPostFromCursor(Cursor cursor) {
-        cursor.moveToFirst();
-
-        Post post = new Post();
-        post.setId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_ID));
-        post.setPostId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_POST_ID));
-        post.setCategoryId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_CATEGORY_ID));
-        post.setDay(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_DAY));
-        post.setName(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_NAME));
-        post.setTagline(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_TAGLINE));
-        post.setCommentCount(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT));
-        post.setCreatedAt(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_CREATED_AT));
-        post.setCreatedAtMillis(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS));
-        post.setDiscussionUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_DISCUSSION_URL));
-        post.setRedirectUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_REDIRECT_URL));
-        post.setVotesCount(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_VOTES_COUNT));
-        post.setThumbnailImageUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL));
-        post.setThumbnailImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL_ORIGINAL));
-        post.setScreenshotUrl300px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_300PX));
-        post.setScreenshotUrl850px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_850PX));
-        post.setUsername(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_NAME));
-        post.setUsernameAlternative(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_USERNAME));
-        post.setUserId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_USER_ID));
-        post.setUserImageUrl100px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_100PX));
-        post.setUserImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL));
-        post.setNotificationShown(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_NOTIFICATION_SHOWN));
-        post.setRead(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_READ_STATUS));
-
-        return post;
+        return new PostRowMapper(cursor).mapFirst();
     }
 
     public static List<Post> getPostsFromCursor(Cursor cursor) {
-        List<Post> posts = new ArrayList<>();
-        for (int i = 0; i < cursor.getCount(); i++) {
-            cursor.moveToPosition(i);
-            Post post = new Post();
-            post.setId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_ID));
-            post.setPostId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_POST_ID));
-            post.setCategoryId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_CATEGORY_ID));
-            post.setDay(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_DAY));
-            post.setName(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_NAME));
-            post.setTagline(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_TAGLINE));
-            post.setCommentCount(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT));
-            post.setCreatedAt(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_CREATED_AT));
-            post.setCreatedAtMillis(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS));
-            post.setDiscussionUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_DISCUSSION_URL));
-            post.setRedirectUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_REDIRECT_URL));
-            post.setVotesCount(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_VOTES_COUNT));
-            post.setThumbnailImageUrl(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL));
-            post.setThumbnailImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL_ORIGINAL));
-            post.setScreenshotUrl300px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_300PX));
-            post.setScreenshotUrl850px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_850PX));
-            post.setUsername(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_NAME));
-            post.setUsernameAlternative(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_USERNAME));
-            post.setUserId(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_USER_ID));
-            post.setUserImageUrl100px(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_100PX));
-            post.setUserImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL));
-            post.setNotificationShown(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_NOTIFICATION_SHOWN));
-            post.setRead(CursorUtils.getInt(cursor, PredatorContract.PostsEntry.COLUMN_READ_STATUS));
-            posts.add(post);
-        }
-
-        return posts;
+        return new PostRowMapper(cursor).mapAll();
     }
 
     public static PostDetails getPostDetailsFromCursor(Cursor cursor) {
@@ -156,207 +102,56 @@ public class PredatorDbValuesHelper {
         return postDetails;
     }
 
-    public static List<User> getUsersFromCursor(Cursor cursorUsers, int postId) {
-        List<User> users = new ArrayList<User>();
-        for (int i = 0; i < cursorUsers.getCount(); i++) {
-            cursorUsers.moveToPosition(i);
-
-            User user = new User();
-            user.setId(CursorUtils.getInt(cursorUsers, PredatorContract.UsersEntry.COLUMN_ID));
-            user.setUserId(CursorUtils.getInt(cursorUsers, PredatorContract.UsersEntry.COLUMN_USER_ID));
-            user.setName(getString(cursorUsers, PredatorContract.UsersEntry.COLUMN_NAME));
-            user.setUsername(getString(cursorUsers, PredatorContract.UsersEntry.COLUMN_USERNAME));
-            user.setThumbnail(getString(cursorUsers, PredatorContract.UsersEntry.COLUMN_IMAGE_URL_100PX));
-            user.setImage(getString(cursorUsers, PredatorContract.UsersEntry.COLUMN_IMAGE_URL_ORIGINAL));
-
-            // Check if user is hunter, maker, both or a user who just
-            // upvoted this post.
-            String hunterPostIds = getString(cursorUsers, PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS);
-            String makersPostIds = getString(cursorUsers, PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS);
-
-            if (!TextUtils.isEmpty(hunterPostIds) &&
-                    !TextUtils.isEmpty(makersPostIds) &&
-                    hunterPostIds.contains(String.valueOf(postId)) &&
-                    makersPostIds.contains(String.valueOf(postId))) {
-                // User is both hunter and maker.
-                user.setType(User.TYPE.BOTH);
-            } else if (!TextUtils.isEmpty(hunterPostIds) &&
-                    hunterPostIds.contains(String.valueOf(postId))) {
-                // User is hunter.
-                user.setType(User.TYPE.HUNTER);
-            } else if (!TextUtils.isEmpty(makersPostIds) &&
-                    makersPostIds.contains(String.valueOf(postId))) {
-                // User is maker.
-                user.setType(User.TYPE.MAKER);
-            } else {
-                // User upvoted this post.
-                user.setType(User.TYPE.UPVOTER);
-            }
-            users.add(user);
-        }
-
-        return users;
+    public static List<User> getPostUsersFromCursor(Cursor cursorUsers) {
+        return new PostUserRowMapper(cursorUsers).mapAll();
     }
 
     public static List<User> getUsersFromCursor(Cursor cursor) {
-        List<User> users = new ArrayList<>();
-
-        for (int i = 0; i < cursor.getCount(); i++) {
-            cursor.moveToPosition(i);
-
-            User user = new User();
-            user.setId(CursorUtils.getInt(cursor, PredatorContract.UsersEntry.COLUMN_ID));
-            user.setUserId(CursorUtils.getInt(cursor, PredatorContract.UsersEntry.COLUMN_USER_ID));
-            user.setName(getString(cursor, PredatorContract.UsersEntry.COLUMN_NAME));
-            user.setHeadline(getString(cursor, PredatorContract.UsersEntry.COLUMN_HEADLINE));
-            user.setUsername(getString(cursor, PredatorContract.UsersEntry.COLUMN_USERNAME));
-            user.setThumbnail(getString(cursor, PredatorContract.UsersEntry.COLUMN_IMAGE_URL_100PX));
-            user.setImage(getString(cursor, PredatorContract.UsersEntry.COLUMN_IMAGE_URL_ORIGINAL));
-
-            users.add(user);
-        }
-
+        List<User> users = new UserRowMapper(cursor).mapAll();
         cursor.close();
-
         return users;
     }
 
     public static User getUserFromCursor(Cursor cursor) {
-        cursor.moveToFirst();
-
-        User user = new User();
-        user.setId(CursorUtils.getInt(cursor, PredatorContract.UsersEntry.COLUMN_ID));
-        user.setUserId(CursorUtils.getInt(cursor, PredatorContract.UsersEntry.COLUMN_USER_ID));
-        user.setName(getString(cursor, PredatorContract.UsersEntry.COLUMN_NAME));
-        user.setUsername(getString(cursor, PredatorContract.UsersEntry.COLUMN_USERNAME));
-        user.setHeadline(getString(cursor, PredatorContract.UsersEntry.COLUMN_HEADLINE));
-        user.setWebsiteUrl(getString(cursor, PredatorContract.UsersEntry.COLUMN_WEBSITE_URL));
-        user.setThumbnail(getString(cursor, PredatorContract.UsersEntry.COLUMN_IMAGE_URL_100PX));
-        user.setImage(getString(cursor, PredatorContract.UsersEntry.COLUMN_IMAGE_URL_ORIGINAL));
-        user.setHuntedPostIds(getString(cursor, PredatorContract.UsersEntry.COLUMN_HUNTER_POST_IDS));
-        user.setMadePostIds(getString(cursor, PredatorContract.UsersEntry.COLUMN_MAKER_POST_IDS));
-        user.setVotedPostIds(getString(cursor, PredatorContract.UsersEntry.COLUMN_VOTED_POST_IDS));
-        user.setFollowerUserIds(getString(cursor, PredatorContract.UsersEntry.COLUMN_FOLLOWER_USER_IDS));
-        user.setFollowingUserIds(getString(cursor, PredatorContract.UsersEntry.COLUMN_FOLLOWING_USER_IDS));
+        return new UserRowMapper(cursor).mapFirst();
+    }
 
-        return user;
+    public static List<Comment> getCommentsFromCursor(Cursor cursor) {
+        return new CommentRowMapper(cursor).mapAll();
     }
 
     public static List<Media> getMediaFromCursor(Cursor mediaCursor) {
-        List<Media> media = new ArrayList<Media>();
-
-        for (int i = 0; i < mediaCursor.getCount(); i++) {
-            mediaCursor.moveToPosition(i);
-
-            Media mediaObj = new Media();
-            mediaObj.setId(CursorUtils.getInt(mediaCursor, PredatorContract.MediaEntry.COLUMN_ID));
-            mediaObj.setMediaId(CursorUtils.getInt(mediaCursor, PredatorContract.MediaEntry.COLUMN_MEDIA_ID));
-            mediaObj.setPostId(CursorUtils.getInt(mediaCursor, PredatorContract.MediaEntry.COLUMN_POST_ID));
-            mediaObj.setMediaType(getString(mediaCursor, PredatorContract.MediaEntry.COLUMN_MEDIA_TYPE));
-            mediaObj.setPlatform(getString(mediaCursor, PredatorContract.MediaEntry.COLUMN_PLATFORM));
-            mediaObj.setVideoId(getString(mediaCursor, PredatorContract.MediaEntry.COLUMN_VIDEO_ID));
-            mediaObj.setOriginalWidth(CursorUtils.getInt(mediaCursor, PredatorContract.MediaEntry.COLUMN_ORIGINAL_WIDTH));
-            mediaObj.setOriginalHeight(CursorUtils.getInt(mediaCursor, PredatorContract.MediaEntry.COLUMN_ORIGINAL_HEIGHT));
-            mediaObj.setImageUrl(getString(mediaCursor, PredatorContract.MediaEntry.COLUMN_IMAGE_URL));
-
-            media.add(mediaObj);
-        }
-
-        return media;
+        return new MediaRowMapper(mediaCursor).mapAll();
     }
 
     public static List<InstallLink> getInstallLinksFromCursor(Cursor installLinksCursor) {
-        List<InstallLink> installLinks = new ArrayList<InstallLink>();
-
-        for (int i = 0; i < installLinksCursor.getCount(); i++) {
-            installLinksCursor.moveToPosition(i);
-
-            InstallLink installLink = new InstallLink();
-            installLink.setId(CursorUtils.getInt(installLinksCursor, PredatorContract.InstallLinksEntry.COLUMN_ID));
-            installLink.setInstallLinkId(CursorUtils.getInt(installLinksCursor, PredatorContract.InstallLinksEntry.COLUMN_INSTALL_LINK_ID));
-            installLink.setPostId(CursorUtils.getInt(installLinksCursor, PredatorContract.InstallLinksEntry.COLUMN_POST_ID));
-            installLink.setCreatedAt(getString(installLinksCursor, PredatorContract.InstallLinksEntry.COLUMN_CREATED_AT));
-            installLink.setPrimaryLink(CursorUtils.getInt(installLinksCursor, PredatorContract.InstallLinksEntry.COLUMN_IS_PRIMARY_LINK) == 1);
-            installLink.setRedirectUrl(getString(installLinksCursor, PredatorContract.InstallLinksEntry.COLUMN_REDIRECT_URL));
-            installLink.setPlatform(getString(installLinksCursor, PredatorContract.InstallLinksEntry.COLUMN_PLATFORM));
-
-            installLinks.add(installLink);
-        }
-
-        return installLinks;
+        return new InstallLinkRowMapper(installLinksCursor).mapAll();
     }
 
     public static List<Collection> getCollectionsFromCursor(Cursor cursor) {
-        List<Collection> collections = new ArrayList<>();
-        for (int i = 0; i < cursor.getCount(); i++) {
-            cursor.moveToPosition(i);
-
-            Collection collection = new Collection();
-            collection.setId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_ID));
-            collection.setCollectionId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_COLLECTION_ID));
-            collection.setName(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_NAME));
-            collection.setTitle(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_TITLE));
-            collection.setCreatedAt(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_CREATED_AT));
-            collection.setUpdatedAt(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_UPDATED_AT));
-            collection.setFeaturedAt(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_FEATURED_AT));
-            collection.setSubscriberCount(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_SUBSCRIBER_COUNT));
-            collection.setCategoryId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_CATEGORY_ID));
-            collection.setCollectionUrl(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_COLLECTION_URL));
-            collection.setPostCounts(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_POST_COUNTS));
-            collection.setBackgroundImageUrl(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_BACKGROUND_IMAGE_URL));
-            collection.setUsername(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_NAME));
-            collection.setUsernameAlternative(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_USERNAME));
-            collection.setUserId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_ID));
-            collection.setUserImageUrl100px(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_IMAGE_URL_100PX));
-            collection.setUserImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL));
-            collections.add(collection);
-        }
-        return collections;
+        return new CollectionRowMapper(cursor).mapAll();
     }
 
     public static Collection getCollectionFromCursor(Cursor cursor) {
-        cursor.moveToFirst();
-
-        Collection collection = new Collection();
-        collection.setId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_ID));
-        collection.setCollectionId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_COLLECTION_ID));
-        collection.setName(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_NAME));
-        collection.setTitle(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_TITLE));
-        collection.setCreatedAt(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_CREATED_AT));
-        collection.setUpdatedAt(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_UPDATED_AT));
-        collection.setFeaturedAt(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_FEATURED_AT));
-        collection.setSubscriberCount(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_SUBSCRIBER_COUNT));
-        collection.setCategoryId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_CATEGORY_ID));
-        collection.setCollectionUrl(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_COLLECTION_URL));
-        collection.setPostCounts(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_POST_COUNTS));
-        collection.setBackgroundImageUrl(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_BACKGROUND_IMAGE_URL));
-        collection.setUsername(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_NAME));
-        collection.setUsernameAlternative(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_USERNAME));
-        collection.setUserId(CursorUtils.getInt(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_ID));
-        collection.setUserImageUrl100px(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_IMAGE_URL_100PX));
-        collection.setUserImageUrlOriginal(CursorUtils.getString(cursor, PredatorContract.CollectionsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL));
-
-        return collection;
+        return new CollectionRowMapper(cursor).mapFirst();
     }
 
-    public static List<Category> getCategoriesFromCursor(Cursor cursor) {
-        List<Category> categories = new ArrayList<>();
-        cursor.moveToFirst();
-
-        for (int i = 0; i < cursor.getCount(); i++) {
-            Category category = new Category();
-
-            category.setId(CursorUtils.getInt(cursor, PredatorContract.CategoryEntry.COLUMN_CATEGORY_ID));
-            category.setCategoryId(CursorUtils.getInt(cursor, PredatorContract.CategoryEntry.COLUMN_CATEGORY_ID));
-            category.setSlug(CursorUtils.getString(cursor, PredatorContract.CategoryEntry.COLUMN_SLUG));
-            category.setName(CursorUtils.getString(cursor, PredatorContract.CategoryEntry.COLUMN_NAME));
-            category.setColor(CursorUtils.getString(cursor, PredatorContract.CategoryEntry.COLUMN_COLOR));
-            category.setItemName(CursorUtils.getString(cursor, PredatorContract.CategoryEntry.COLUMN_ITEM_NAME));
+    public static List<LocalSearchHit<Post>> getPostSearchHitsFromCursor(Cursor cursor) {
+        return new LocalSearchHitRowMapper<>(cursor,
+                new PostRowMapper(cursor),
+                PredatorContract.PostsEntry.COLUMN_NAME,
+                PredatorContract.PostsEntry.COLUMN_TAGLINE).mapAll();
+    }
 
-            categories.add(category);
-        }
+    public static List<LocalSearchHit<Collection>> getCollectionSearchHitsFromCursor(Cursor cursor) {
+        return new LocalSearchHitRowMapper<>(cursor,
+                new CollectionRowMapper(cursor),
+                PredatorContract.CollectionsEntry.COLUMN_NAME,
+                PredatorContract.CollectionsEntry.COLUMN_TITLE).mapAll();
+    }
 
-        return categories;
+    public static List<Category> getCategoriesFromCursor(Cursor cursor) {
+        return new CategoryRowMapper(cursor).mapAll();
     }
 
     public static ContentValues getContentValuesForPost(PostsData.Posts post) {
@@ -722,6 +517,26 @@ public class PredatorDbValuesHelper {
         return contentValues;
     }
 
+    /**
+     * @param comments Comments along with their child comments
+     * @return Content values of all the comments and their child comments
+     */
+    public static ContentValues[] getBulkContentValuesForComments(List<PostCommentsData.Comments> comments) {
+        List<ContentValues> contentValuesList = new ArrayList<ContentValues>();
+        addContentValuesForComments(contentValuesList, comments);
+        return contentValuesList.toArray(new ContentValues[contentValuesList.size()]);
+    }
+
+    private static void addContentValuesForComments(List<ContentValues> contentValuesList, List<PostCommentsData.Comments> comments) {
+        if (comments == null) {
+            return;
+        }
+        for (PostCommentsData.Comments comment : comments) {
+            contentValuesList.add(getContentValuesForComments(comment));
+            addContentValuesForComments(contentValuesList, comment.getChildComments());
+        }
+    }
+
     public static ContentValues[] getBulkContentValuesForInstallLinks(List<PostDetailsData.PostDetails.InstallLinks> installLinks) {
         ContentValues[] contentValuesArr = new ContentValues[installLinks.size()];
         for (int i = 0; i < installLinks.size(); i++) {
@@ -783,4 +598,443 @@ public class PredatorDbValuesHelper {
 
         return contentValuesArr;
     }
+
+    static class PostRowMapper extends CursorRowMapper<Post> {
+        private final int mIdIndex;
+        private final int mPostIdIndex;
+        private final int mCategoryIdIndex;
+        private final int mDayIndex;
+        private final int mNameIndex;
+        private final int mTaglineIndex;
+        private final int mCommentCountIndex;
+        private final int mCreatedAtIndex;
+        private final int mCreatedAtMillisIndex;
+        private final int mDiscussionUrlIndex;
+        private final int mRedirectUrlIndex;
+        private final int mVotesCountIndex;
+        private final int mThumbnailImageUrlIndex;
+        private final int mThumbnailImageUrlOriginalIndex;
+        private final int mScreenshotUrl300pxIndex;
+        private final int mScreenshotUrl850pxIndex;
+        private final int mUserNameIndex;
+        private final int mUserUsernameIndex;
+        private final int mUserIdIndex;
+        private final int mUserImageUrl100pxIndex;
+        private final int mUserImageUrlOriginalIndex;
+        private final int mNotificationShownIndex;
+        private final int mReadStatusIndex;
+
+        PostRowMapper(Cursor cursor) {
+            super(cursor);
+            mIdIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_ID);
+            mPostIdIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_POST_ID);
+            mCategoryIdIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_CATEGORY_ID);
+            mDayIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_DAY);
+            mNameIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_NAME);
+            mTaglineIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_TAGLINE);
+            mCommentCountIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_COMMENT_COUNT);
+            mCreatedAtIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_CREATED_AT);
+            mCreatedAtMillisIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_CREATED_AT_MILLIS);
+            mDiscussionUrlIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_DISCUSSION_URL);
+            mRedirectUrlIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_REDIRECT_URL);
+            mVotesCountIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_VOTES_COUNT);
+            mThumbnailImageUrlIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL);
+            mThumbnailImageUrlOriginalIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_THUMBNAIL_IMAGE_URL_ORIGINAL);
+            mScreenshotUrl300pxIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_300PX);
+            mScreenshotUrl850pxIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_SCREENSHOT_URL_850PX);
+            mUserNameIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_USER_NAME);
+            mUserUsernameIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_USER_USERNAME);
+            mUserIdIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_USER_ID);
+            mUserImageUrl100pxIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_100PX);
+            mUserImageUrlOriginalIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL);
+            mNotificationShownIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_NOTIFICATION_SHOWN);
+            mReadStatusIndex = getColumnIndex(PredatorContract.PostsEntry.COLUMN_READ_STATUS);
+        }
+
+        @Override
+        protected Post mapRow(@NonNull Cursor cursor) {
+            Post post = new Post();
+            post.setId(getInt(cursor, mIdIndex));
+            post.setPostId(getInt(cursor, mPostIdIndex));
+            post.setCategoryId(getInt(cursor, mCategoryIdIndex));
+            post.setDay(getString(cursor, mDayIndex));
+            post.setName(getString(cursor, mNameIndex));
+            post.setTagline(getString(cursor, mTaglineIndex));
+            post.setCommentCount(getInt(cursor, mCommentCountIndex));
+            post.setCreatedAt(getString(cursor, mCreatedAtIndex));
+            post.setCreatedAtMillis(getLong(cursor, mCreatedAtMillisIndex));
+            post.setDiscussionUrl(getString(cursor, mDiscussionUrlIndex));
+            post.setRedirectUrl(getString(cursor, mRedirectUrlIndex));
+            post.setVotesCount(getInt(cursor, mVotesCountIndex));
+            post.setThumbnailImageUrl(getString(cursor, mThumbnailImageUrlIndex));
+            post.setThumbnailImageUrlOriginal(getString(cursor, mThumbnailImageUrlOriginalIndex));
+            post.setScreenshotUrl300px(getString(cursor, mScreenshotUrl300pxIndex));
+            post.setScreenshotUrl850px(getString(cursor, mScreenshotUrl850pxIndex));
+            post.setUsername(getString(cursor, mUserNameIndex));
+            post.setUsernameAlternative(getString(cursor, mUserUsernameIndex));
+            post.setUserId(getInt(cursor, mUserIdIndex));
+            post.setUserImageUrl100px(getString(cursor, mUserImageUrl100pxIndex));
+            post.setUserImageUrlOriginal(getString(cursor, mUserImageUrlOriginalIndex));
+            post.setNotificationShown(getInt(cursor, mNotificationShownIndex));
+            post.setRead(getInt(cursor, mReadStatusIndex));
+            return post;
+        }
+    }
+
+    static class UserRowMapper extends CursorRowMapper<User> {
+        private final int mIdIndex;
+        private final int mUserIdIndex;
+        private final int mNameIndex;
+        private final int mUsernameIndex;
+        private final int mHeadlineIndex;
+        private final int mWebsiteUrlIndex;
+        private final int mImageUrl100pxIndex;
+        private final int mImageUrlOriginalIndex;
+
+        UserRowMapper(Cursor cursor) {
+            super(cursor);
+            mIdIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_ID);
+            mUserIdIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_USER_ID);
+            mNameIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_NAME);
+            mUsernameIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_USERNAME);
+            mHeadlineIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_HEADLINE);
+            mWebsiteUrlIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_WEBSITE_URL);
+            mImageUrl100pxIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_IMAGE_URL_100PX);
+            mImageUrlOriginalIndex = getColumnIndex(PredatorContract.UsersEntry.COLUMN_IMAGE_URL_ORIGINAL);
+        }
+
+        @Override
+        protected User mapRow(@NonNull Cursor cursor) {
+            User user = new User();
+            user.setId(getInt(cursor, mIdIndex));
+            user.setUserId(getInt(cursor, mUserIdIndex));
+            user.setName(getString(cursor, mNameIndex));
+            user.setUsername(getString(cursor, mUsernameIndex));
+            user.setHeadline(getString(cursor, mHeadlineIndex));
+            user.setWebsiteUrl(getString(cursor, mWebsiteUrlIndex));
+            user.setThumbnail(getString(cursor, mImageUrl100pxIndex));
+            user.setImage(getString(cursor, mImageUrlOriginalIndex));
+            return user;
+        }
+    }
+
+    static class PostUserRowMapper extends UserRowMapper {
+        private final int mRoleIndex;
+
+        PostUserRowMapper(Cursor cursor) {
+            super(cursor);
+            mRoleIndex = getColumnIndex(PredatorContract.PostUsersEntry.COLUMN_ROLE);
+        }
+
+        @Override
+        protected User mapRow(@NonNull Cursor cursor) {
+            User user = super.mapRow(cursor);
+
+            // Check if user is hunter, maker, both or a user who just
+            // upvoted this post.
+            int role = getInt(cursor, mRoleIndex);
+            boolean isHunter = (role & PredatorContract.PostUsersEntry.ROLE_HUNTER) != 0;
+            boolean isMaker = (role & PredatorContract.PostUsersEntry.ROLE_MAKER) != 0;
+
+            if (isHunter && isMaker) {
+                // User is both hunter and maker.
+                user.setType(User.TYPE.BOTH);
+            } else if (isHunter) {
+                // User is hunter.
+                user.setType(User.TYPE.HUNTER);
+            } else if (isMaker) {
+                // User is maker.
+                user.setType(User.TYPE.MAKER);
+            } else {
+                // User upvoted this post.
+                user.setType(User.TYPE.UPVOTER);
+            }
+            return user;
+        }
+    }
+
+    static class CommentRowMapper extends CursorRowMapper<Comment> {
+        private final int mIdIndex;
+        private final int mCommentIdIndex;
+        private final int mParentCommentIdIndex;
+        private final int mBodyIndex;
+        private final int mCreatedAtIndex;
+        private final int mCreatedAtMillisIndex;
+        private final int mPostIdIndex;
+        private final int mUserIdIndex;
+        private final int mUserNameIndex;
+        private final int mUserUsernameIndex;
+        private final int mUserHeadlineIndex;
+        private final int mUserImageUrl100pxIndex;
+        private final int mUserWebsiteUrlIndex;
+        private final int mUrlIndex;
+        private final int mVotesIndex;
+        private final int mIsStickyIndex;
+        private final int mIsMakerIndex;
+        private final int mIsHunterIndex;
+        private final int mIsLiveGuestIndex;
+
+        CommentRowMapper(Cursor cursor) {
+            super(cursor);
+            mIdIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_ID);
+            mCommentIdIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_COMMENT_ID);
+            mParentCommentIdIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_PARENT_COMMENT_ID);
+            mBodyIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_BODY);
+            mCreatedAtIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_CREATED_AT);
+            mCreatedAtMillisIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_CREATED_AT_MILLIS);
+            mPostIdIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_POST_ID);
+            mUserIdIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_USER_ID);
+            mUserNameIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_USER_NAME);
+            mUserUsernameIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_USER_USERNAME);
+            mUserHeadlineIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_USER_HEADLINE);
+            mUserImageUrl100pxIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_USER_IMAGE_URL_100PX);
+            mUserWebsiteUrlIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_USER_WEBSITE_URL);
+            mUrlIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_URL);
+            mVotesIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_VOTES);
+            mIsStickyIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_IS_STICKY);
+            mIsMakerIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_IS_MAKER);
+            mIsHunterIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_IS_HUNTER);
+            mIsLiveGuestIndex = getColumnIndex(PredatorContract.CommentsEntry.COLUMN_IS_LIVE_GUEST);
+        }
+
+        @Override
+        protected Comment mapRow(@NonNull Cursor cursor) {
+            Comment comment = new Comment();
+            comment.setId(getInt(cursor, mIdIndex));
+            comment.setCommentId(getInt(cursor, mCommentIdIndex));
+            comment.setParentCommentId(getInt(cursor, mParentCommentIdIndex));
+            comment.setBody(getString(cursor, mBodyIndex));
+            comment.setCreatedAt(getString(cursor, mCreatedAtIndex));
+            comment.setCreatedAtMillis(getLong(cursor, mCreatedAtMillisIndex));
+            comment.setPostId(getInt(cursor, mPostIdIndex));
+            comment.setUserId(getInt(cursor, mUserIdIndex));
+            comment.setUsername(getString(cursor, mUserNameIndex));
+            comment.setUsernameAlternative(getString(cursor, mUserUsernameIndex));
+            comment.setUserHeadline(getString(cursor, mUserHeadlineIndex));
+            comment.setUserImageThumbnailUrl(getString(cursor, mUserImageUrl100pxIndex));
+            comment.setUserWebsiteUrl(getString(cursor, mUserWebsiteUrlIndex));
+            comment.setUrl(getString(cursor, mUrlIndex));
+            comment.setVotes(getInt(cursor, mVotesIndex));
+            comment.setSticky(getBoolean(cursor, mIsStickyIndex));
+            comment.setMaker(getBoolean(cursor, mIsMakerIndex));
+            comment.setHunter(getBoolean(cursor, mIsHunterIndex));
+            comment.setLiveGuest(getBoolean(cursor, mIsLiveGuestIndex));
+            return comment;
+        }
+    }
+
+    static class MediaRowMapper extends CursorRowMapper<Media> {
+        private final int mIdIndex;
+        private final int mMediaIdIndex;
+        private final int mPostIdIndex;
+        private final int mMediaTypeIndex;
+        private final int mPlatformIndex;
+        private final int mVideoIdIndex;
+        private final int mOriginalWidthIndex;
+        private final int mOriginalHeightIndex;
+        private final int mImageUrlIndex;
+
+        MediaRowMapper(Cursor cursor) {
+            super(cursor);
+            mIdIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_ID);
+            mMediaIdIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_MEDIA_ID);
+            mPostIdIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_POST_ID);
+            mMediaTypeIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_MEDIA_TYPE);
+            mPlatformIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_PLATFORM);
+            mVideoIdIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_VIDEO_ID);
+            mOriginalWidthIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_ORIGINAL_WIDTH);
+            mOriginalHeightIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_ORIGINAL_HEIGHT);
+            mImageUrlIndex = getColumnIndex(PredatorContract.MediaEntry.COLUMN_IMAGE_URL);
+        }
+
+        @Override
+        protected Media mapRow(@NonNull Cursor cursor) {
+            Media media = new Media();
+            media.setId(getInt(cursor, mIdIndex));
+            media.setMediaId(getInt(cursor, mMediaIdIndex));
+            media.setPostId(getInt(cursor, mPostIdIndex));
+            media.setMediaType(getString(cursor, mMediaTypeIndex));
+            media.setPlatform(getString(cursor, mPlatformIndex));
+            media.setVideoId(getString(cursor, mVideoIdIndex));
+            media.setOriginalWidth(getInt(cursor, mOriginalWidthIndex));
+            media.setOriginalHeight(getInt(cursor, mOriginalHeightIndex));
+            media.setImageUrl(getString(cursor, mImageUrlIndex));
+            return media;
+        }
+    }
+
+    static class InstallLinkRowMapper extends CursorRowMapper<InstallLink> {
+        private final int mIdIndex;
+        private final int mInstallLinkIdIndex;
+        private final int mPostIdIndex;
+        private final int mCreatedAtIndex;
+        private final int mIsPrimaryLinkIndex;
+        private final int mRedirectUrlIndex;
+        private final int mPlatformIndex;
+
+        InstallLinkRowMapper(Cursor cursor) {
+            super(cursor);
+            mIdIndex = getColumnIndex(PredatorContract.InstallLinksEntry.COLUMN_ID);
+            mInstallLinkIdIndex = getColumnIndex(PredatorContract.InstallLinksEntry.COLUMN_INSTALL_LINK_ID);
+            mPostIdIndex = getColumnIndex(PredatorContract.InstallLinksEntry.COLUMN_POST_ID);
+            mCreatedAtIndex = getColumnIndex(PredatorContract.InstallLinksEntry.COLUMN_CREATED_AT);
+            mIsPrimaryLinkIndex = getColumnIndex(PredatorContract.InstallLinksEntry.COLUMN_IS_PRIMARY_LINK);
+            mRedirectUrlIndex = getColumnIndex(PredatorContract.InstallLinksEntry.COLUMN_REDIRECT_URL);
+            mPlatformIndex = getColumnIndex(PredatorContract.InstallLinksEntry.COLUMN_PLATFORM);
+        }
+
+        @Override
+        protected InstallLink mapRow(@NonNull Cursor cursor) {
+            InstallLink installLink = new InstallLink();
+            installLink.setId(getInt(cursor, mIdIndex));
+            installLink.setInstallLinkId(getInt(cursor, mInstallLinkIdIndex));
+            installLink.setPostId(getInt(cursor, mPostIdIndex));
+            installLink.setCreatedAt(getString(cursor, mCreatedAtIndex));
+            installLink.setPrimaryLink(getBoolean(cursor, mIsPrimaryLinkIndex));
+            installLink.setRedirectUrl(getString(cursor, mRedirectUrlIndex));
+            installLink.setPlatform(getString(cursor, mPlatformIndex));
+            return installLink;
+        }
+    }
+
+    static class CollectionRowMapper extends CursorRowMapper<Collection> {
+        private final int mIdIndex;
+        private final int mCollectionIdIndex;
+        private final int mNameIndex;
+        private final int mTitleIndex;
+        private final int mCreatedAtIndex;
+        private final int mUpdatedAtIndex;
+        private final int mFeaturedAtIndex;
+        private final int mSubscriberCountIndex;
+        private final int mCategoryIdIndex;
+        private final int mCollectionUrlIndex;
+        private final int mPostCountsIndex;
+        private final int mBackgroundImageUrlIndex;
+        private final int mUserNameIndex;
+        private final int mUserUsernameIndex;
+        private final int mUserIdIndex;
+        private final int mUserImageUrl100pxIndex;
+        private final int mUserImageUrlOriginalIndex;
+
+        CollectionRowMapper(Cursor cursor) {
+            super(cursor);
+            mIdIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_ID);
+            mCollectionIdIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_COLLECTION_ID);
+            mNameIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_NAME);
+            mTitleIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_TITLE);
+            mCreatedAtIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_CREATED_AT);
+            mUpdatedAtIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_UPDATED_AT);
+            mFeaturedAtIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_FEATURED_AT);
+            mSubscriberCountIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_SUBSCRIBER_COUNT);
+            mCategoryIdIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_CATEGORY_ID);
+            mCollectionUrlIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_COLLECTION_URL);
+            mPostCountsIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_POST_COUNTS);
+            mBackgroundImageUrlIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_BACKGROUND_IMAGE_URL);
+            mUserNameIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_USER_NAME);
+            mUserUsernameIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_USER_USERNAME);
+            mUserIdIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_USER_ID);
+            mUserImageUrl100pxIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_USER_IMAGE_URL_100PX);
+            mUserImageUrlOriginalIndex = getColumnIndex(PredatorContract.CollectionsEntry.COLUMN_USER_IMAGE_URL_ORIGINAL);
+        }
+
+        @Override
+        protected Collection mapRow(@NonNull Cursor cursor) {
+            Collection collection = new Collection();
+            collection.setId(getInt(cursor, mIdIndex));
+            collection.setCollectionId(getInt(cursor, mCollectionIdIndex));
+            collection.setName(getString(cursor, mNameIndex));
+            collection.setTitle(getString(cursor, mTitleIndex));
+            collection.setCreatedAt(getString(cursor, mCreatedAtIndex));
+            collection.setUpdatedAt(getString(cursor, mUpdatedAtIndex));
+            collection.setFeaturedAt(getString(cursor, mFeaturedAtIndex));
+            collection.setSubscriberCount(getString(cursor, mSubscriberCountIndex));
+            collection.setCategoryId(getInt(cursor, mCategoryIdIndex));
+            collection.setCollectionUrl(getString(cursor, mCollectionUrlIndex));
+            collection.setPostCounts(getInt(cursor, mPostCountsIndex));
+            collection.setBackgroundImageUrl(getString(cursor, mBackgroundImageUrlIndex));
+            collection.setUsername(getString(cursor, mUserNameIndex));
+            collection.setUsernameAlternative(getString(cursor, mUserUsernameIndex));
+            collection.setUserId(getInt(cursor, mUserIdIndex));
+            collection.setUserImageUrl100px(getString(cursor, mUserImageUrl100pxIndex));
+            collection.setUserImageUrlOriginal(getString(cursor, mUserImageUrlOriginalIndex));
+            return collection;
+        }
+    }
+
+    static class CategoryRowMapper extends CursorRowMapper<Category> {
+        private final int mCategoryIdIndex;
+        private final int mSlugIndex;
+        private final int mNameIndex;
+        private final int mColorIndex;
+        private final int mItemNameIndex;
+
+        CategoryRowMapper(Cursor cursor) {
+            super(cursor);
+            mCategoryIdIndex = getColumnIndex(PredatorContract.CategoryEntry.COLUMN_CATEGORY_ID);
+            mSlugIndex = getColumnIndex(PredatorContract.CategoryEntry.COLUMN_SLUG);
+            mNameIndex = getColumnIndex(PredatorContract.CategoryEntry.COLUMN_NAME);
+            mColorIndex = getColumnIndex(PredatorContract.CategoryEntry.COLUMN_COLOR);
+            mItemNameIndex = getColumnIndex(PredatorContract.CategoryEntry.COLUMN_ITEM_NAME);
+        }
+
+        @Override
+        protected Category mapRow(@NonNull Cursor cursor) {
+            Category category = new Category();
+            category.setId(getInt(cursor, mCategoryIdIndex));
+            category.setCategoryId(getInt(cursor, mCategoryIdIndex));
+            category.setSlug(getString(cursor, mSlugIndex));
+            category.setName(getString(cursor, mNameIndex));
+            category.setColor(getString(cursor, mColorIndex));
+            category.setItemName(getString(cursor, mItemNameIndex));
+            return category;
+        }
+    }
+
+    /**
+     * Maps the rows returned by the full text search, the item itself is mapped by the mapper of
+     * its table.
+     */
+    static class LocalSearchHitRowMapper<T> extends CursorRowMapper<LocalSearchHit<T>> {
+        private final CursorRowMapper<T> mItemRowMapper;
+        private final int mMatchInfoIndex;
+        private final int mMatchOffsetsIndex;
+        private final int[] mIndexedColumnIndexes;
+
+        /**
+         * @param indexedColumns Columns of the search table, in the same order
+         */
+        LocalSearchHitRowMapper(Cursor cursor, CursorRowMapper<T> itemRowMapper, String... indexedColumns) {
+            super(cursor);
+            mItemRowMapper = itemRowMapper;
+            mMatchInfoIndex = getColumnIndex(PredatorContract.SearchEntry.COLUMN_MATCH_INFO);
+            mMatchOffsetsIndex = getColumnIndex(PredatorContract.SearchEntry.COLUMN_MATCH_OFFSETS);
+            mIndexedColumnIndexes = new int[indexedColumns.length];
+            for (int i = 0; i < indexedColumns.length; i++) {
+                mIndexedColumnIndexes[i] = getColumnIndex(indexedColumns[i]);
+            }
+        }
+
+        @Override
+        protected LocalSearchHit<T> mapRow(@NonNull Cursor cursor) {
+            String[] texts = new String[mIndexedColumnIndexes.length];
+            for (int i = 0; i < mIndexedColumnIndexes.length; i++) {
+                texts[i] = getString(cursor, mIndexedColumnIndexes[i]);
+            }
+            return new LocalSearchHit<>(mItemRowMapper.mapRow(cursor),
+                    LocalSearchHit.getRank(getMatchInfo(cursor.getBlob(mMatchInfoIndex))),
+                    LocalSearchHit.getHighlights(getString(cursor, mMatchOffsetsIndex), texts));
+        }
+
+        /**
+         * Match info is an array of 32 bit unsigned integers in the byte order of the device.
+         */
+        private static int[] getMatchInfo(byte[] blob) {
+            IntBuffer intBuffer = ByteBuffer.wrap(blob)
+                    .order(ByteOrder.nativeOrder())
+                    .asIntBuffer();
+            int[] matchInfo = new int[intBuffer.remaining()];
+            intBuffer.get(matchInfo);
+            return matchInfo;
+        }
+    }
 }
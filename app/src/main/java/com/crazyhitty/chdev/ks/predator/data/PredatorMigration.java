@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * A single schema change which upgrades the database from one version to the next
+ * one, while preserving the data already available.
+ */
+
+public abstract class PredatorMigration {
+    private final int mStartVersion;
+    private final int mEndVersion;
+
+    public PredatorMigration(int startVersion, int endVersion) {
+        mStartVersion = startVersion;
+        mEndVersion = endVersion;
+    }
+
+    public int getStartVersion() {
+        return mStartVersion;
+    }
+
+    public int getEndVersion() {
+        return mEndVersion;
+    }
+
+    /**
+     * Apply this schema change. This is called inside the upgrade transaction, so it should not
+     * begin or end any transaction on its own.
+     *
+     * @param db Database which is currently at {@link #getStartVersion()}.
+     */
+    public abstract void migrate(SQLiteDatabase db);
+}
@@ -0,0 +1,273 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.crazyhitty.chdev.ks.predator.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ordered list of all schema migrations of predator database. Every schema change
+ * should bump {@link PredatorDbHelper#DATABASE_VERSION} and add a new migration at the end of
+ * this list, instead of dropping the existing tables. Migrations only contain the SQL of the
+ * schema they upgrade to, and never call the code which creates the current schema, so that
+ * later schema changes can't alter what an old upgrade does.
+ */
+
+public class PredatorMigrations {
+    private static final String TAG = "PredatorMigrations";
+
+    /**
+     * Oldest database version which can be migrated. Databases older than this are recreated.
+     */
+    public static final int OLDEST_MIGRATABLE_VERSION = 14;
+
+    // Roles of the users of a post, as stored by version 15.
+    private static final int ROLE_HUNTER = 1;
+    private static final int ROLE_MAKER = 2;
+    private static final int ROLE_UPVOTER = 4;
+
+    private static final List<PredatorMigration> MIGRATIONS = Arrays.asList(
+            new PredatorMigration(14, 15) {
+                @Override
+                public void migrate(SQLiteDatabase db) {
+                    // Move comma separated ids of users into relation tables.
+                    db.execSQL("CREATE TABLE post_users_table(" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "user_id INTEGER NOT NULL, " +
+                            "post_id INTEGER NOT NULL, " +
+                            "role INTEGER NOT NULL, " +
+                            "UNIQUE(post_id, role, user_id));");
+                    db.execSQL("CREATE INDEX post_users_user_id_role_index ON post_users_table(user_id, role);");
+                    db.execSQL("CREATE TABLE user_follows_table(" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "follower_user_id INTEGER NOT NULL, " +
+                            "following_user_id INTEGER NOT NULL, " +
+                            "UNIQUE(follower_user_id, following_user_id));");
+                    db.execSQL("CREATE INDEX user_follows_following_user_id_index ON user_follows_table(following_user_id);");
+
+                    addUserRelations(db);
+
+                    // SQLite cannot drop columns, so rebuild the users table without the comma
+                    // separated ids.
+                    String userColumns = "id, user_id, created_at, name, username, headline, " +
+                            "website_url, image_url_100px, image_url_original";
+                    db.execSQL("ALTER TABLE users_table RENAME TO users_table_old");
+                    db.execSQL("CREATE TABLE users_table(" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "user_id INTEGER UNIQUE, " +
+                            "created_at TEXT, " +
+                            "name TEXT, " +
+                            "username TEXT, " +
+                            "headline TEXT, " +
+                            "website_url TEXT, " +
+                            "image_url_100px TEXT, " +
+                            "image_url_original TEXT);");
+                    db.execSQL("INSERT INTO users_table(" + userColumns + ") " +
+                            "SELECT " + userColumns + " FROM users_table_old");
+                    db.execSQL("DROP TABLE users_table_old");
+                }
+            },
+            new PredatorMigration(15, 16) {
+                @Override
+                public void migrate(SQLiteDatabase db) {
+                    // Add secondary indexes for dashboard, collection, notification and post
+                    // details queries.
+                    db.execSQL("CREATE INDEX IF NOT EXISTS posts_dashboard_created_at_index ON " +
+                            "posts_table(for_dashboard, created_at_millis);");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS posts_dashboard_day_votes_index ON " +
+                            "posts_table(for_dashboard, day, votes_count);");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS posts_notification_index ON " +
+                            "posts_table(for_dashboard, notification_shown, read_status, created_at_millis);");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS posts_collection_index ON " +
+                            "posts_table(collection_id, is_in_collection, votes_count);");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS comments_post_id_index ON " +
+                            "comments_table(post_id, created_at_millis, id);");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS media_post_id_index ON " +
+                            "media_table(post_id);");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS install_links_post_id_index ON " +
+                            "install_links_table(post_id);");
+                }
+            },
+            new PredatorMigration(16, 17) {
+                @Override
+                public void migrate(SQLiteDatabase db) {
+                    // Dashboard indexes now end with post id, which is used for keyset pagination.
+                    db.execSQL("DROP INDEX IF EXISTS posts_dashboard_created_at_index");
+                    db.execSQL("DROP INDEX IF EXISTS posts_dashboard_day_votes_index");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS posts_dashboard_created_at_post_id_index ON " +
+                            "posts_table(for_dashboard, created_at_millis, post_id);");
+                    db.execSQL("CREATE INDEX IF NOT EXISTS posts_dashboard_day_votes_post_id_index ON " +
+                            "posts_table(for_dashboard, day, votes_count, post_id);");
+                }
+            },
+            new PredatorMigration(17, 18) {
+                @Override
+                public void migrate(SQLiteDatabase db) {
+                    // Add full text search tables of posts and collections for offline search,
+                    // kept in sync with their content tables by triggers.
+                    db.execSQL("CREATE VIRTUAL TABLE posts_fts USING fts4(name, tagline, content=\"posts_table\");");
+                    db.execSQL("CREATE TRIGGER posts_fts_before_update BEFORE UPDATE OF name, tagline ON posts_table " +
+                            "WHEN old.name IS NOT new.name OR old.tagline IS NOT new.tagline BEGIN " +
+                            "DELETE FROM posts_fts WHERE docid=old.id; END;");
+                    db.execSQL("CREATE TRIGGER posts_fts_before_delete BEFORE DELETE ON posts_table BEGIN " +
+                            "DELETE FROM posts_fts WHERE docid=old.id; END;");
+                    db.execSQL("CREATE TRIGGER posts_fts_after_update AFTER UPDATE OF name, tagline ON posts_table " +
+                            "WHEN old.name IS NOT new.name OR old.tagline IS NOT new.tagline BEGIN " +
+                            "INSERT INTO posts_fts(docid, name, tagline) VALUES(new.id, new.name, new.tagline); END;");
+                    db.execSQL("CREATE TRIGGER posts_fts_after_insert AFTER INSERT ON posts_table BEGIN " +
+                            "INSERT INTO posts_fts(docid, name, tagline) VALUES(new.id, new.name, new.tagline); END;");
+                    db.execSQL("INSERT INTO posts_fts(posts_fts) VALUES('rebuild');");
+
+                    db.execSQL("CREATE VIRTUAL TABLE collections_fts USING fts4(name, title, content=\"collections_table\");");
+                    db.execSQL("CREATE TRIGGER collections_fts_before_update BEFORE UPDATE OF name, title ON collections_table " +
+                            "WHEN old.name IS NOT new.name OR old.title IS NOT new.title BEGIN " +
+                            "DELETE FROM collections_fts WHERE docid=old.id; END;");
+                    db.execSQL("CREATE TRIGGER collections_fts_before_delete BEFORE DELETE ON collections_table BEGIN " +
+                            "DELETE FROM collections_fts WHERE docid=old.id; END;");
+                    db.execSQL("CREATE TRIGGER collections_fts_after_update AFTER UPDATE OF name, title ON collections_table " +
+                            "WHEN old.name IS NOT new.name OR old.title IS NOT new.title BEGIN " +
+                            "INSERT INTO collections_fts(docid, name, title) VALUES(new.id, new.name, new.title); END;");
+                    db.execSQL("CREATE TRIGGER collections_fts_after_insert AFTER INSERT ON collections_table BEGIN " +
+                            "INSERT INTO collections_fts(docid, name, title) VALUES(new.id, new.name, new.title); END;");
+                    db.execSQL("INSERT INTO collections_fts(collections_fts) VALUES('rebuild');");
+                }
+            }
+    );
+
+    private PredatorMigrations() {
+
+    }
+
+    public static List<PredatorMigration> getMigrations() {
+        return MIGRATIONS;
+    }
+
+    /**
+     * Get the ordered migrations which upgrade a database from one version to another.
+     *
+     * @param migrations Available migrations.
+     * @param oldVersion Current version of the database.
+     * @param newVersion Version to which the database should be upgraded.
+     * @return Ordered list of migrations, or null if any of the intermediate versions cannot be
+     * migrated.
+     */
+    @Nullable
+    public static List<PredatorMigration> getMigrationPath(List<PredatorMigration> migrations,
+                                                           int oldVersion,
+                                                           int newVersion) {
+        List<PredatorMigration> migrationPath = new ArrayList<>();
+        int version = oldVersion;
+        while (version < newVersion) {
+            PredatorMigration nextMigration = null;
+            for (PredatorMigration migration : migrations) {
+                // Prefer the migration which skips the most versions.
+                if (migration.getStartVersion() == version &&
+                        migration.getEndVersion() <= newVersion &&
+                        (nextMigration == null || migration.getEndVersion() > nextMigration.getEndVersion())) {
+                    nextMigration = migration;
+                }
+            }
+            if (nextMigration == null || nextMigration.getEndVersion() <= version) {
+                return null;
+            }
+            migrationPath.add(nextMigration);
+            version = nextMigration.getEndVersion();
+        }
+        return version == newVersion ? migrationPath : null;
+    }
+
+    /**
+     * Expand the comma separated post and user ids of every user of a version 14 database into
+     * the relation tables of version 15. Both sides of a follow may be stored, so the follows
+     * which already exist are kept.
+     */
+    private static void addUserRelations(SQLiteDatabase db) {
+        SQLiteStatement postUserStatement = db.compileStatement("INSERT OR IGNORE INTO " +
+                "post_users_table(user_id, post_id, role) VALUES (?, ?, ?)");
+        SQLiteStatement userFollowStatement = db.compileStatement("INSERT OR IGNORE INTO " +
+                "user_follows_table(follower_user_id, following_user_id) VALUES (?, ?)");
+        Cursor cursor = db.rawQuery("SELECT user_id, hunter_post_ids, maker_post_ids, voted_post_ids, " +
+                "follower_user_ids, following_user_ids FROM users_table", null);
+        try {
+            while (cursor.moveToNext()) {
+                long userId = cursor.getLong(0);
+                addPostUsers(postUserStatement, userId, cursor.getString(1), ROLE_HUNTER);
+                addPostUsers(postUserStatement, userId, cursor.getString(2), ROLE_MAKER);
+                addPostUsers(postUserStatement, userId, cursor.getString(3), ROLE_UPVOTER);
+                for (long followerUserId : parseIds(cursor.getString(4))) {
+                    addUserFollow(userFollowStatement, followerUserId, userId);
+                }
+                for (long followingUserId : parseIds(cursor.getString(5))) {
+                    addUserFollow(userFollowStatement, userId, followingUserId);
+                }
+            }
+        } finally {
+            cursor.close();
+            postUserStatement.close();
+            userFollowStatement.close();
+        }
+    }
+
+    private static void addPostUsers(SQLiteStatement statement, long userId, String postIds, int role) {
+        for (long postId : parseIds(postIds)) {
+            statement.clearBindings();
+            statement.bindLong(1, userId);
+            statement.bindLong(2, postId);
+            statement.bindLong(3, role);
+            statement.executeInsert();
+        }
+    }
+
+    private static void addUserFollow(SQLiteStatement statement, long followerUserId, long followingUserId) {
+        statement.clearBindings();
+        statement.bindLong(1, followerUserId);
+        statement.bindLong(2, followingUserId);
+        statement.executeInsert();
+    }
+
+    private static List<Long> parseIds(String ids) {
+        List<Long> parsedIds = new ArrayList<>();
+        if (TextUtils.isEmpty(ids)) {
+            return parsedIds;
+        }
+        for (String id : ids.split(",")) {
+            try {
+                parsedIds.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                Logger.e(TAG, "Skipping invalid id: " + id, e);
+            }
+        }
+        return parsedIds;
+    }
+}
@@ -72,6 +72,9 @@ public class PredatorProvider extends ContentProvider {
     private static final int CATEGORY_DELETE = 7601;
     private static final int CATEGORY_GET = 702;
     private static final int CATEGORY_GET_BY_ID = 703;
+    private static final int POST_USERS_GET = 800;
+    private static final int SEARCH_POSTS = 900;
+    private static final int SEARCH_COLLECTIONS = 901;
 
     private static final UriMatcher sUriMatcher = buildUriMatcher();
     private PredatorDbHelper mPredatorDbHelper;
@@ -107,6 +110,9 @@ public class PredatorProvider extends ContentProvider {
         uriMatcher.addURI(PredatorDbHelper.CONTENT_AUTHORITY, PredatorContract.CategoryEntry.PATH_CATEGORY_DELETE_ALL, CATEGORY_DELETE);
         uriMatcher.addURI(PredatorDbHelper.CONTENT_AUTHORITY, PredatorContract.CategoryEntry.PATH_CATEGORY, CATEGORY_GET);
         uriMatcher.addURI(PredatorDbHelper.CONTENT_AUTHORITY, PredatorContract.CategoryEntry.PATH_CATEGORY + "/#", CATEGORY_GET_BY_ID);
+        uriMatcher.addURI(PredatorDbHelper.CONTENT_AUTHORITY, PredatorContract.PostUsersEntry.PATH_POST_USERS, POST_USERS_GET);
+        uriMatcher.addURI(PredatorDbHelper.CONTENT_AUTHORITY, PredatorContract.SearchEntry.PATH_SEARCH_POSTS, SEARCH_POSTS);
+        uriMatcher.addURI(PredatorDbHelper.CONTENT_AUTHORITY, PredatorContract.SearchEntry.PATH_SEARCH_COLLECTIONS, SEARCH_COLLECTIONS);
         return uriMatcher;
     }
 
@@ -134,6 +140,12 @@ public class PredatorProvider extends ContentProvider {
                 return mPredatorDbHelper.getCollections(projection, selection, selectionArgs, sortOrder);
             case CATEGORY_GET:
                 return mPredatorDbHelper.getCategories(projection, selection, selectionArgs, sortOrder);
+            case POST_USERS_GET:
+                return mPredatorDbHelper.getPostUsers(projection, selection, selectionArgs, sortOrder);
+            case SEARCH_POSTS:
+                return mPredatorDbHelper.searchPosts(selectionArgs[0]);
+            case SEARCH_COLLECTIONS:
+                return mPredatorDbHelper.searchCollections(selectionArgs[0]);
             default:
                 throw new UnsupportedOperationException("Unknown uri: " + uri);
         }
@@ -171,6 +183,12 @@ public class PredatorProvider extends ContentProvider {
                 return PredatorContract.CategoryEntry.CONTENT_TYPE;
             case CATEGORY_GET_BY_ID:
                 return PredatorContract.CategoryEntry.CONTENT_ITEM_TYPE;
+            case POST_USERS_GET:
+                return PredatorContract.PostUsersEntry.CONTENT_TYPE;
+            case SEARCH_POSTS:
+                return PredatorContract.SearchEntry.CONTENT_TYPE_POSTS;
+            case SEARCH_COLLECTIONS:
+                return PredatorContract.SearchEntry.CONTENT_TYPE_COLLECTIONS;
             default:
                 throw new UnsupportedOperationException("Unknown uri: " + uri);
         }
@@ -185,6 +203,7 @@ public class PredatorProvider extends ContentProvider {
         switch (sUriMatcher.match(uri)) {
             case POSTS_ADD:
                 id = mPredatorDbHelper.addOrUpdatePost(values);
+                invalidateCachedModels(POSTS_ADD, values);
                 if (id > 0) {
                     returnUri = PredatorContract.PostsEntry.buildPostsUri(id);
                 } else {
@@ -193,6 +212,7 @@ public class PredatorProvider extends ContentProvider {
                 return returnUri;
             case USERS_ADD:
                 id = mPredatorDbHelper.addOrUpdateUser(values);
+                invalidateCachedModels(USERS_ADD, values);
                 if (id > 0) {
                     returnUri = PredatorContract.UsersEntry.buildUsersUri(id);
                 } else {
@@ -201,6 +221,7 @@ public class PredatorProvider extends ContentProvider {
                 return returnUri;
             case COMMENTS_ADD:
                 id = mPredatorDbHelper.addComment(values);
+                invalidateCachedModels(COMMENTS_ADD, values);
                 if (id > 0) {
                     returnUri = PredatorContract.CommentsEntry.buildCommentsUri(id);
                 } else {
@@ -233,6 +254,7 @@ public class PredatorProvider extends ContentProvider {
                 return returnUri;
             case CATEGORY_ADD:
                 id = mPredatorDbHelper.addCategory(values);
+                invalidateCachedModels(CATEGORY_ADD, values);
                 if (id > 0) {
                     returnUri = PredatorContract.CategoryEntry.buildCategoryUri(id);
                 } else {
@@ -245,36 +267,147 @@ public class PredatorProvider extends ContentProvider {
         }
     }
 
+    @Override
+    public int bulkInsert(@NonNull Uri uri, @NonNull ContentValues[] values) {
+        int numOfRowsAffected;
+
+        int match = sUriMatcher.match(uri);
+        switch (match) {
+            case POSTS_ADD:
+                numOfRowsAffected = mPredatorDbHelper.bulkAddOrUpdatePosts(values);
+                break;
+            case USERS_ADD:
+                numOfRowsAffected = mPredatorDbHelper.bulkAddOrUpdateUsers(values);
+                break;
+            case COMMENTS_ADD:
+                numOfRowsAffected = mPredatorDbHelper.bulkAdd(PredatorContract.CommentsEntry.TABLE_NAME, values);
+                break;
+            case INSTALL_LINKS_ADD:
+                numOfRowsAffected = mPredatorDbHelper.bulkAdd(PredatorContract.InstallLinksEntry.TABLE_NAME, values);
+                break;
+            case MEDIA_ADD:
+                numOfRowsAffected = mPredatorDbHelper.bulkAdd(PredatorContract.MediaEntry.TABLE_NAME, values);
+                break;
+            case COLLECTIONS_ADD:
+                numOfRowsAffected = mPredatorDbHelper.bulkAdd(PredatorContract.CollectionsEntry.TABLE_NAME, values);
+                break;
+            case CATEGORY_ADD:
+                numOfRowsAffected = mPredatorDbHelper.bulkAdd(PredatorContract.CategoryEntry.TABLE_NAME, values);
+                break;
+            default:
+                throw new UnsupportedOperationException("Unknown uri: " + uri);
+        }
+
+        for (ContentValues contentValues : values) {
+            invalidateCachedModels(match, contentValues);
+        }
+
+        // Notify the observers only once for the whole batch.
+        if (numOfRowsAffected > 0 && getContext() != null) {
+            getContext().getContentResolver().notifyChange(uri, null);
+        }
+        return numOfRowsAffected;
+    }
+
     @Override
     public int delete(@NonNull Uri uri, String selection, String[] selectionArgs) {
+        int numOfRowsDeleted;
+        String tableName;
+        // Deleted rows are only known by their selection, so the whole type of model is evicted.
         switch (sUriMatcher.match(uri)) {
             case POSTS_DELETE:
-                return mPredatorDbHelper.deleteAllPosts(selection, selectionArgs);
+                numOfRowsDeleted = mPredatorDbHelper.deleteAllPosts(selection, selectionArgs);
+                ModelCache.getInstance().invalidateAllPosts();
+                tableName = PredatorContract.PostsEntry.TABLE_NAME;
+                break;
             case USERS_DELETE:
-                return mPredatorDbHelper.deleteAllUsers(selection, selectionArgs);
+                numOfRowsDeleted = mPredatorDbHelper.deleteAllUsers(selection, selectionArgs);
+                ModelCache.getInstance().invalidateAllUsers();
+                tableName = PredatorContract.UsersEntry.TABLE_NAME;
+                break;
             case COMMENTS_DELETE:
-                return mPredatorDbHelper.deleteAllComments(selection, selectionArgs);
+                numOfRowsDeleted = mPredatorDbHelper.deleteAllComments(selection, selectionArgs);
+                ModelCache.getInstance().invalidateAllComments();
+                tableName = PredatorContract.CommentsEntry.TABLE_NAME;
+                break;
             case INSTALL_LINKS_DELETE:
-                return mPredatorDbHelper.deleteAllInstallLinks(selection, selectionArgs);
+                numOfRowsDeleted = mPredatorDbHelper.deleteAllInstallLinks(selection, selectionArgs);
+                tableName = PredatorContract.InstallLinksEntry.TABLE_NAME;
+                break;
             case MEDIA_DELETE:
-                return mPredatorDbHelper.deleteAllMedia(selection, selectionArgs);
+                numOfRowsDeleted = mPredatorDbHelper.deleteAllMedia(selection, selectionArgs);
+                tableName = PredatorContract.MediaEntry.TABLE_NAME;
+                break;
             case COLLECTIONS_DELETE:
-                return mPredatorDbHelper.deleteAllCollections(selection, selectionArgs);
+                numOfRowsDeleted = mPredatorDbHelper.deleteAllCollections(selection, selectionArgs);
+                tableName = PredatorContract.CollectionsEntry.TABLE_NAME;
+                break;
             case CATEGORY_DELETE:
-                return mPredatorDbHelper.deleteAllCategories(selection, selectionArgs);
+                numOfRowsDeleted = mPredatorDbHelper.deleteAllCategories(selection, selectionArgs);
+                CategoryLookup.getInstance().invalidate();
+                ModelCache.getInstance().invalidateAllCategories();
+                tableName = PredatorContract.CategoryEntry.TABLE_NAME;
+                break;
             default:
                 throw new UnsupportedOperationException("Unknown uri: " + uri);
 
         }
+        if (numOfRowsDeleted > 0) {
+            StoredDataNotifier.getInstance().notifyStoredDataDropped(tableName);
+        }
+        return numOfRowsDeleted;
     }
 
     @Override
     public int update(@NonNull Uri uri, ContentValues values, String selection, String[] selectionArgs) {
         switch (sUriMatcher.match(uri)) {
             case POSTS_UPDATE:
-                return mPredatorDbHelper.updatePost(values);
+                int numOfRowsUpdated = mPredatorDbHelper.updatePost(values);
+                invalidateCachedModels(POSTS_UPDATE, values);
+                return numOfRowsUpdated;
             default:
                 throw new UnsupportedOperationException("Unknown uri: " + uri);
         }
     }
+
+    /**
+     * Remove the cached models affected by a write, so that the next read goes to the database.
+     *
+     * @param match  Matched uri of the write
+     * @param values Values written
+     */
+    private void invalidateCachedModels(int match, ContentValues values) {
+        ModelCache modelCache = ModelCache.getInstance();
+        switch (match) {
+            case POSTS_ADD:
+            case POSTS_UPDATE:
+                Integer postId = values.getAsInteger(PredatorContract.PostsEntry.COLUMN_POST_ID);
+                if (postId != null) {
+                    modelCache.invalidatePost(postId);
+                } else {
+                    modelCache.invalidateAllPosts();
+                }
+                break;
+            case USERS_ADD:
+                Integer userId = values.getAsInteger(PredatorContract.UsersEntry.COLUMN_USER_ID);
+                if (userId != null) {
+                    modelCache.invalidateUser(userId);
+                } else {
+                    modelCache.invalidateAllUsers();
+                }
+                break;
+            case COMMENTS_ADD:
+                Integer commentPostId = values.getAsInteger(PredatorContract.CommentsEntry.COLUMN_POST_ID);
+                if (commentPostId != null) {
+                    modelCache.invalidateComments(commentPostId);
+                } else {
+                    modelCache.invalidateAllComments();
+                }
+                break;
+            case CATEGORY_ADD:
+                CategoryLookup.getInstance().invalidate();
+                modelCache.invalidateAllCategories();
+                break;
+        }
+    }
 }
@@ -26,24 +26,45 @@ package com.crazyhitty.chdev.ks.predator.data;
 
 import android.accounts.Account;
 import android.accounts.AccountManager;
+import android.accounts.AuthenticatorException;
+import android.accounts.OperationCanceledException;
+import android.appwidget.AppWidgetManager;
 import android.content.AbstractThreadedSyncAdapter;
+import android.content.ComponentName;
 import android.content.ContentProviderClient;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.content.SyncResult;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.text.TextUtils;
 
+import com.crazyhitty.chdev.ks.predator.R;
 import com.crazyhitty.chdev.ks.predator.account.PredatorAccount;
-import com.crazyhitty.chdev.ks.predator.core.posts.PostsContract;
-import com.crazyhitty.chdev.ks.predator.core.posts.PostsPresenter;
 import com.crazyhitty.chdev.ks.predator.models.Post;
 import com.crazyhitty.chdev.ks.predator.ui.notifications.PostNotification;
+import com.crazyhitty.chdev.ks.predator.ui.widget.PredatorPostsWidgetProvider;
+import com.crazyhitty.chdev.ks.predator.utils.CoreUtils;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
 import com.crazyhitty.chdev.ks.predator.utils.NetworkConnectionUtil;
+import com.crazyhitty.chdev.ks.predator.utils.NotModifiedFallback;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.CategoriesData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.MyProfileData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.UserProfileData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntRestApi;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
 /**
  * Author:      Kartik Sharma
  * Email Id:    cr42yh17m4n@gmail.com
@@ -56,61 +77,12 @@ public class PredatorSyncAdapter extends AbstractThreadedSyncAdapter {
 
     private final AccountManager mAccountManager;
 
-    private PostsContract.Presenter mPostsPresenter;
-
-    private PostsContract.View mPostsView = new PostsContract.View() {
-        @Override
-        public void showPosts(List<Post> posts, HashMap<Integer, String> dateHashMap) {
-            Logger.d(TAG, "showPosts: posts synced with size: " + (posts != null ? posts.size() : 0));
-            // Update widgets.
-            mPostsPresenter.updateWidgets(getContext());
-            // Show notifications, if enabled.
-            if (PredatorSharedPreferences.areNotificationsEnabled(getContext())) {
-                mPostsPresenter.getNotification();
-            }
-        }
-
-        @Override
-        public void unableToGetPosts(boolean onLoadMore, boolean wasLoadingOfflinePosts, String errorMessage) {
-            Logger.e(TAG, "unableToGetPosts: error: " + errorMessage);
-        }
-
-        @Override
-        public void postsCleared() {
-            Logger.d(TAG, "postsCleared: called");
-        }
-
-        @Override
-        public void unableToClearPosts(String message) {
-            Logger.e(TAG, "unableToClearPosts: " + message);
-        }
-
-        @Override
-        public void showNotification(Post post) {
-            Logger.d(TAG, "showNotification: called");
-            mPostsPresenter.notificationShownForPost(post.getPostId());
-            new PostNotification(getContext()).show(post);
-        }
-
-        @Override
-        public void unableToShowNotification() {
-            Logger.e(TAG, "unableToShowNotification: called");
-        }
-
-        @Override
-        public void setPresenter(PostsContract.Presenter presenter) {
-            // Do nothing here.
-        }
-    };
+    private PostsSyncEngine mPostsSyncEngine;
 
     public PredatorSyncAdapter(Context context, boolean autoInitialize) {
         super(context, autoInitialize);
         mAccountManager = AccountManager.get(context);
-
-        // Initialize the presenters.
-        mPostsPresenter = new PostsPresenter(mPostsView);
-
-        mPostsPresenter.subscribe();
+        mPostsSyncEngine = new PostsSyncEngine();
     }
 
     public static void initializePeriodicSync(Context context) {
@@ -163,32 +135,234 @@ public class PredatorSyncAdapter extends AbstractThreadedSyncAdapter {
     @Override
     public void onPerformSync(Account account, Bundle extras, String authority, ContentProviderClient provider, SyncResult syncResult) {
         Logger.d(TAG, "onPerformSync: account: " + account.name);
-        try {
-            // Check if internet is available. If not then don't perform any sync.
-            if (!NetworkConnectionUtil.isNetworkAvailable(getContext())) {
-                return;
-            }
+        // Check if internet is available. If not then don't perform any sync.
+        if (!NetworkConnectionUtil.isNetworkAvailable(getContext())) {
+            return;
+        }
 
-            // Get the auth token for the current account.
-            String authToken = mAccountManager.blockingGetAuthToken(account,
+        // Get the auth token for the current account.
+        String authToken;
+        try {
+            authToken = mAccountManager.blockingGetAuthToken(account,
                     PredatorSharedPreferences.getAuthTokenType(getContext().getApplicationContext()),
                     true);
+        } catch (OperationCanceledException e) {
+            Logger.e(TAG, "onPerformSync: auth token request canceled", e);
+            return;
+        } catch (AuthenticatorException e) {
+            Logger.e(TAG, "onPerformSync: " + e.getMessage(), e);
+            syncResult.stats.numAuthExceptions++;
+            return;
+        } catch (IOException e) {
+            Logger.e(TAG, "onPerformSync: " + e.getMessage(), e);
+            syncResult.stats.numIoExceptions++;
+            return;
+        }
 
-            // Fetch latest posts.
-            mPostsPresenter.getPosts(authToken,
-                    mPostsPresenter.getSortType(getContext()),
-                    true);
-        } catch (Exception e) {
-            e.printStackTrace();
+        // Run the sync jobs which are due.
+        SyncStats syncStats = new SyncStats();
+        SyncScheduler syncScheduler = new SyncScheduler(getContext(), createSyncJobs());
+        long startedAt = SystemClock.elapsedRealtime();
+        try {
+            // Sync is considered done as soon as this method returns, so the adapter thread waits
+            // for every job to be fetched, written and shown. Jobs run on the io scheduler, so that
+            // canceling the sync, which interrupts this thread, disposes them mid batch.
+            syncScheduler.runDueJobs(authToken, syncStats)
+                    .subscribeOn(Schedulers.io())
+                    .blockingAwait();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof InterruptedException) {
+                Logger.d(TAG, "onPerformSync: sync canceled, remaining jobs stay due");
+            } else {
+                Logger.e(TAG, "onPerformSync: " + e.getMessage(), e);
+                syncStats.addError(e);
+            }
         }
+
+        syncStats.applyTo(syncResult);
+        Logger.d(TAG, "onPerformSync: duration(ms): " + (SystemClock.elapsedRealtime() - startedAt) +
+                ", stats: " + syncStats);
+        Logger.d(TAG, "onPerformSync: sync jobs: " + syncScheduler);
+    }
+
+    private List<SyncJob> createSyncJobs() {
+        List<SyncJob> syncJobs = new ArrayList<>();
+
+        // Latest posts are what the widgets and notifications show, so they sync on any network.
+        syncJobs.add(new SyncJob(Constants.Sync.JOB_POSTS,
+                PredatorSharedPreferences.getSyncIntervalInSeconds(getContext()) * 1000,
+                new SyncConstraints.Builder().build()) {
+            @Override
+            public Completable run(String token, final SyncStats syncStats) {
+                return mPostsSyncEngine.sync(token)
+                        .toList()
+                        .flatMapCompletable(new Function<List<DaySyncResult>, CompletableSource>() {
+                            @Override
+                            public CompletableSource apply(List<DaySyncResult> daySyncResults) throws Exception {
+                                int changedPostsCount = 0;
+                                Throwable error = null;
+                                for (DaySyncResult daySyncResult : daySyncResults) {
+                                    changedPostsCount += daySyncResult.getInsertedCount() + daySyncResult.getUpdatedCount();
+                                    syncStats.addInserts(daySyncResult.getInsertedCount());
+                                    syncStats.addUpdates(daySyncResult.getUpdatedCount());
+                                    syncStats.addStageMillis(SyncStats.STAGE_FETCH, daySyncResult.getFetchMillis());
+                                    syncStats.addStageMillis(SyncStats.STAGE_PERSIST, daySyncResult.getPersistMillis());
+                                    if (daySyncResult.isFailed() && error == null) {
+                                        error = daySyncResult.getError();
+                                    }
+                                }
+                                Logger.d(TAG, "run: days synced: " + daySyncResults.size() + ", changed posts: " + changedPostsCount);
+                                if (changedPostsCount != 0) {
+                                    // Only show something if anything new was written.
+                                    long refreshStartedAt = SystemClock.elapsedRealtime();
+                                    onPostsSynced();
+                                    syncStats.addStageMillis(SyncStats.STAGE_REFRESH, SystemClock.elapsedRealtime() - refreshStartedAt);
+                                }
+                                // Days which did sync are kept, but the job fails so that the failed
+                                // days are retried with a backoff instead of after the full interval.
+                                return error == null ? Completable.complete() : Completable.error(error);
+                            }
+                        });
+            }
+        });
+
+        syncJobs.add(new SyncJob(Constants.Sync.JOB_COLLECTIONS,
+                Constants.Sync.COLLECTIONS_INTERVAL_MILLIS,
+                new SyncConstraints.Builder()
+                        .setRequiresUnmeteredNetwork(true)
+                        .build()) {
+            @Override
+            public Completable run(String token, SyncStats syncStats) {
+                return CollectionsRepository.getInstance()
+                        .revalidate(CollectionsRepository.FIRST_PAGE, token)
+                        .ignoreElements();
+            }
+        });
+
+        // Categories hardly ever change, so they wait until the device is charging.
+        syncJobs.add(new SyncJob(Constants.Sync.JOB_CATEGORIES,
+                Constants.Sync.CATEGORIES_INTERVAL_MILLIS,
+                new SyncConstraints.Builder()
+                        .setRequiresUnmeteredNetwork(true)
+                        .setRequiresCharging(true)
+                        .build()) {
+            @Override
+            public Completable run(String token, SyncStats syncStats) {
+                return ProductHuntRestApi.getApi()
+                        .getCategories(CoreUtils.getAuthToken(token),
+                                ProductHuntHttpClient.getConditionalRequest(PredatorDatabase.getInstance().hasCategories()))
+                        .map(new Function<CategoriesData, Boolean>() {
+                            @Override
+                            public Boolean apply(CategoriesData categoriesData) throws Exception {
+                                // Nothing is visible until the new categories are inserted, so
+                                // the categories screen never reads an empty table.
+                                PredatorDatabase.getInstance()
+                                        .beginTransaction();
+                                try {
+                                    PredatorDatabase.getInstance()
+                                            .deleteAllCategories();
+                                    PredatorDatabase.getInstance()
+                                            .insertCategories(PredatorDbValuesHelper.getBulkContentValuesForCategories(categoriesData.getCategories()));
+                                    PredatorDatabase.getInstance()
+                                            .setTransactionSuccessful();
+                                } finally {
+                                    PredatorDatabase.getInstance()
+                                            .endTransaction();
+                                }
+                                // Read them back, so that the category lookup table is up to date.
+                                PredatorDatabase.getInstance()
+                                        .getCategories();
+                                return true;
+                            }
+                        })
+                        .onErrorResumeNext(new NotModifiedFallback<Boolean>() {
+                            @Override
+                            protected Boolean getStoredData() throws Exception {
+                                return false;
+                            }
+                        })
+                        .ignoreElements();
+            }
+        });
+
+        // Only a logged in user has a profile of their own.
+        if (TextUtils.equals(PredatorSharedPreferences.getAuthTokenType(getContext()),
+                Constants.Authenticator.AUTH_TYPE_USER)) {
+            syncJobs.add(new SyncJob(Constants.Sync.JOB_PROFILE,
+                    Constants.Sync.PROFILE_INTERVAL_MILLIS,
+                    new SyncConstraints.Builder()
+                            .setRequiresUnmeteredNetwork(true)
+                            .setRequiresIdle(true)
+                            .build()) {
+                @Override
+                public Completable run(final String token, SyncStats syncStats) {
+                    return ProductHuntRestApi.getApi()
+                            .getMyProfile(CoreUtils.getAuthToken(token))
+                            .flatMap(new Function<MyProfileData, ObservableSource<UserProfileData>>() {
+                                @Override
+                                public ObservableSource<UserProfileData> apply(MyProfileData myProfileData) throws Exception {
+                                    return ProductHuntRestApi.getApi()
+                                            .getUserProfile(CoreUtils.getAuthToken(token), myProfileData.getUser().getId());
+                                }
+                            })
+                            .doOnNext(new Consumer<UserProfileData>() {
+                                @Override
+                                public void accept(UserProfileData userProfileData) throws Exception {
+                                    PredatorDatabase.getInstance()
+                                            .insertUser(PredatorDbValuesHelper.getContentValuesForCurrentUser(userProfileData));
+                                    PredatorDatabase.getInstance()
+                                            .insertUsers(PredatorDbValuesHelper.getBulkContentValuesForFollowingFollowerUsers(userProfileData));
+                                    PredatorDatabase.getInstance()
+                                            .insertPosts(PredatorDbValuesHelper.getBulkContentValuesForPosts(userProfileData));
+                                    PredatorDatabase.getInstance()
+                                            .insertUsers(PredatorDbValuesHelper.getBulkContentValuesForPostUsers(userProfileData));
+                                }
+                            })
+                            .ignoreElements();
+                }
+            });
+        }
+
+        return syncJobs;
+    }
+
+    private void onPostsSynced() {
+        // Sync has finished writing, so move the write ahead log back into the database.
+        PredatorDbHelper.getInstance(getContext()).checkpoint();
+        Logger.d(TAG, "onPostsSynced: http cache: " + ProductHuntHttpClient.getCacheStats());
+        Logger.d(TAG, "onPostsSynced: coalesced requests: " + ProductHuntHttpClient.getCoalescingStats());
+        Logger.d(TAG, "onPostsSynced: model cache: " + ModelCache.getInstance());
+        // Update widgets.
+        updateWidgets();
+        // Show notifications, if enabled.
+        if (PredatorSharedPreferences.areNotificationsEnabled(getContext())) {
+            showNotification();
+        }
+    }
+
+    private void updateWidgets() {
+        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(getContext());
+        int appWidgetIds[] = appWidgetManager.getAppWidgetIds(
+                new ComponentName(getContext(), PredatorPostsWidgetProvider.class));
+        appWidgetManager.notifyAppWidgetViewDataChanged(appWidgetIds, R.id.list_view_posts);
+    }
+
+    private void showNotification() {
+        Post post = PredatorDatabase.getInstance()
+                .getPostForNotification();
+        if (post == null) {
+            Logger.d(TAG, "showNotification: no post available to be shown for notification");
+            return;
+        }
+        PredatorDatabase.getInstance()
+                .setNotificationShownForPost(post.getPostId());
+        new PostNotification(getContext()).showBlocking(post);
     }
 
     @Override
     public void onSyncCanceled() {
+        // Interrupts the sync thread, which disposes the jobs it is waiting for.
         super.onSyncCanceled();
-
-        if (mPostsPresenter != null) {
-            mPostsPresenter.unSubscribe();
-        }
+        Logger.d(TAG, "onSyncCanceled: called");
     }
 }
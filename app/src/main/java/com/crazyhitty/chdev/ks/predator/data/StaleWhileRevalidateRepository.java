@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.os.SystemClock;
+
+import com.crazyhitty.chdev.ks.predator.utils.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Observable;
+import io.reactivex.functions.Action;
+
+/**
+ * Sits between the presenters and the web service for a particular resource. Stored
+ * data is always shown first, this class decides whether it is still fresh or has to be
+ * revalidated in the background, and makes sure that only one request is running for a key no
+ * matter how many screens ask for it at the same time.
+ */
+
+public abstract class StaleWhileRevalidateRepository<K, T> {
+    private static final String TAG = "StaleWhileRevalidate";
+
+    private final long mTtlMillis;
+
+    /**
+     * Time at which the data for a key was revalidated the last time.
+     */
+    private final Map<K, Long> mRevalidatedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Requests currently running for a key, shared by all of the subscribers asking for that key.
+     */
+    private final Map<K, Observable<T>> mInFlightRequests = new HashMap<>();
+
+    protected StaleWhileRevalidateRepository(long ttlMillis) {
+        mTtlMillis = ttlMillis;
+    }
+
+    /**
+     * Fetch the latest data for the key from the web service and store it in the database.
+     *
+     * @param key   Key identifying the data
+     * @param token Auth token used for the request
+     * @return Observable emitting the result of the revalidation
+     */
+    protected abstract Observable<T> fetch(K key, String token);
+
+    /**
+     * @param key Key identifying the data
+     * @return True, if the stored data was never revalidated or its ttl has expired
+     */
+    public boolean isStale(K key) {
+        Long revalidatedAt = mRevalidatedAt.get(key);
+        return revalidatedAt == null ||
+                SystemClock.elapsedRealtime() - revalidatedAt >= mTtlMillis;
+    }
+
+    /**
+     * Revalidate the stored data for the key. If a request for the same key is already running,
+     * the caller subscribes to that one instead of starting a new request.
+     *
+     * @param key   Key identifying the data
+     * @param token Auth token used for the request
+     * @return Observable emitting the result of the revalidation
+     */
+    public Observable<T> revalidate(final K key, String token) {
+        synchronized (mInFlightRequests) {
+            Observable<T> inFlightRequest = mInFlightRequests.get(key);
+            if (inFlightRequest != null) {
+                Logger.d(TAG, "revalidate: joining request already running for " + key);
+                return inFlightRequest;
+            }
+
+            final AtomicReference<Observable<T>> requestReference = new AtomicReference<>();
+            Observable<T> request = fetch(key, token)
+                    .doOnComplete(new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            mRevalidatedAt.put(key, SystemClock.elapsedRealtime());
+                        }
+                    })
+                    .doFinally(new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            synchronized (mInFlightRequests) {
+                                // Only remove the request if it wasn't replaced by a newer one.
+                                if (mInFlightRequests.get(key) == requestReference.get()) {
+                                    mInFlightRequests.remove(key);
+                                }
+                            }
+                        }
+                    })
+                    .replay(1)
+                    .refCount();
+            requestReference.set(request);
+            mInFlightRequests.put(key, request);
+            return request;
+        }
+    }
+
+    /**
+     * Mark the stored data for the key as stale, so that it is revalidated the next time.
+     *
+     * @param key Key identifying the data
+     */
+    public void invalidate(K key) {
+        mRevalidatedAt.remove(key);
+    }
+
+    /**
+     * Mark all of the stored data as stale.
+     */
+    public void invalidateAll() {
+        mRevalidatedAt.clear();
+    }
+}
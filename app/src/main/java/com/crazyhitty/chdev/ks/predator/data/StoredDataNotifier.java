@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.support.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single place which is told whenever stored rows are dropped, either by a delete of
+ * {@link PredatorProvider} or because all of the tables were recreated. Resets the revalidation
+ * state kept by the data layer for those rows, and passes the event on to the registered
+ * listeners, e.g. the http cache which lives outside of the data layer.
+ */
+
+public class StoredDataNotifier {
+    private static StoredDataNotifier sStoredDataNotifier;
+
+    private final List<OnStoredDataDroppedListener> mListeners = new CopyOnWriteArrayList<>();
+
+    private StoredDataNotifier() {
+
+    }
+
+    public static synchronized StoredDataNotifier getInstance() {
+        if (sStoredDataNotifier == null) {
+            sStoredDataNotifier = new StoredDataNotifier();
+        }
+        return sStoredDataNotifier;
+    }
+
+    public void addListener(OnStoredDataDroppedListener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(OnStoredDataDroppedListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * @param tableName Table whose rows were deleted, or null if all of the tables were recreated
+     */
+    void notifyStoredDataDropped(@Nullable String tableName) {
+        if (tableName == null) {
+            // Nothing is stored anymore, so every day has to be synced again from scratch.
+            PostsSyncState.clearIfInitialized();
+            PostsRepository.getInstance().invalidateAll();
+            PostDetailsRepository.getInstance().invalidateAll();
+            CollectionsRepository.getInstance().invalidateAll();
+        } else if (tableName.equals(PredatorContract.PostsEntry.TABLE_NAME)) {
+            PostsRepository.getInstance().invalidateAll();
+            PostDetailsRepository.getInstance().invalidateAll();
+        } else if (tableName.equals(PredatorContract.UsersEntry.TABLE_NAME) ||
+                tableName.equals(PredatorContract.CommentsEntry.TABLE_NAME) ||
+                tableName.equals(PredatorContract.InstallLinksEntry.TABLE_NAME) ||
+                tableName.equals(PredatorContract.MediaEntry.TABLE_NAME)) {
+            PostDetailsRepository.getInstance().invalidateAll();
+        } else if (tableName.equals(PredatorContract.CollectionsEntry.TABLE_NAME)) {
+            CollectionsRepository.getInstance().invalidateAll();
+        }
+
+        for (OnStoredDataDroppedListener listener : mListeners) {
+            listener.onStoredDataDropped(tableName);
+        }
+    }
+
+    public interface OnStoredDataDroppedListener {
+        /**
+         * Called on the thread which dropped the rows.
+         *
+         * @param tableName Table whose rows were deleted, or null if all of the tables were
+         *                  recreated
+         */
+        void onStoredDataDropped(@Nullable String tableName);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.Context;
+
+import com.crazyhitty.chdev.ks.predator.utils.DeviceStateUtil;
+import com.crazyhitty.chdev.ks.predator.utils.NetworkConnectionUtil;
+
+/**
+ * Conditions the device has to meet before a {@link SyncJob} is allowed to run.
+ */
+
+public class SyncConstraints {
+    private final boolean requiresUnmeteredNetwork;
+    private final boolean requiresCharging;
+    private final boolean requiresIdle;
+
+    private SyncConstraints(Builder builder) {
+        requiresUnmeteredNetwork = builder.requiresUnmeteredNetwork;
+        requiresCharging = builder.requiresCharging;
+        requiresIdle = builder.requiresIdle;
+    }
+
+    /**
+     * @param context Current context of the application
+     * @return Name of the first constraint which is not met, null if all of them are met
+     */
+    public String getUnmetConstraint(Context context) {
+        if (!NetworkConnectionUtil.isNetworkAvailable(context)) {
+            return "network";
+        }
+        if (requiresUnmeteredNetwork && NetworkConnectionUtil.isNetworkMetered(context)) {
+            return "unmetered network";
+        }
+        if (requiresCharging && !DeviceStateUtil.isCharging(context)) {
+            return "charging";
+        }
+        if (requiresIdle && !DeviceStateUtil.isIdle(context)) {
+            return "idle";
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "requiresUnmeteredNetwork: " + requiresUnmeteredNetwork +
+                ", requiresCharging: " + requiresCharging +
+                ", requiresIdle: " + requiresIdle;
+    }
+
+    public static class Builder {
+        private boolean requiresUnmeteredNetwork;
+        private boolean requiresCharging;
+        private boolean requiresIdle;
+
+        public Builder setRequiresUnmeteredNetwork(boolean requiresUnmeteredNetwork) {
+            this.requiresUnmeteredNetwork = requiresUnmeteredNetwork;
+            return this;
+        }
+
+        public Builder setRequiresCharging(boolean requiresCharging) {
+            this.requiresCharging = requiresCharging;
+            return this;
+        }
+
+        public Builder setRequiresIdle(boolean requiresIdle) {
+            this.requiresIdle = requiresIdle;
+            return this;
+        }
+
+        public SyncConstraints build() {
+            return new SyncConstraints(this);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import io.reactivex.Completable;
+
+/**
+ * A piece of background work run by {@link SyncScheduler} once its interval has
+ * passed and its constraints are met.
+ */
+
+public abstract class SyncJob {
+    private final String mName;
+    private final long mIntervalMillis;
+    private final SyncConstraints mConstraints;
+
+    /**
+     * @param name           Unique name of the job, its schedule is stored under this name
+     * @param intervalMillis Time between two successful runs of the job
+     * @param constraints    Conditions to be met before the job runs
+     */
+    protected SyncJob(String name, long intervalMillis, SyncConstraints constraints) {
+        mName = name;
+        mIntervalMillis = intervalMillis;
+        mConstraints = constraints;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public long getIntervalMillis() {
+        return mIntervalMillis;
+    }
+
+    public SyncConstraints getConstraints() {
+        return mConstraints;
+    }
+
+    /**
+     * @param token     Auth token used for the requests
+     * @param syncStats Stats of the current sync, to which the job adds what it wrote
+     * @return Completable which fetches and stores the data of this job when subscribed
+     */
+    public abstract Completable run(String token, SyncStats syncStats);
+}
@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+
+import com.crazyhitty.chdev.ks.predator.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+
+/**
+ * Decides which {@link SyncJob}s run on a background sync. A job runs once its
+ * interval has passed and its constraints are met. Jobs which become due shortly after the current
+ * sync run along with it, so that the device isn't woken up again for them. Failed jobs are
+ * retried after an exponentially growing delay, and are never run before it is over. How long every job and every stage of a sync
+ * takes is recorded, so that the intervals can be tuned.
+ */
+
+public class SyncScheduler {
+    private static final String TAG = "SyncScheduler";
+    private static final String SP_TAG = "predator_sync_scheduler";
+    private static final String KEY_NEXT_RUN_AT = "_next_run_at";
+    private static final String KEY_RUNS = "_runs";
+    private static final String KEY_FAILURES = "_failures";
+    private static final String KEY_LAST_DURATION = "_last_duration";
+    private static final String KEY_AVERAGE_DURATION = "_average_duration";
+    private static final String KEY_STAGE = "stage_";
+
+    // Backoff doesn't grow any further after these many consecutive failures.
+    private static final int MAX_BACKOFF_EXPONENT = 16;
+
+    private final Context mContext;
+
+    private final SharedPreferences mSharedPreferences;
+
+    private final List<SyncJob> mJobs;
+
+    public SyncScheduler(Context context, List<SyncJob> jobs) {
+        mContext = context.getApplicationContext();
+        mSharedPreferences = mContext.getSharedPreferences(SP_TAG, Context.MODE_PRIVATE);
+        mJobs = jobs;
+    }
+
+    /**
+     * @return Jobs which are due, or within the batch window, and whose constraints are met
+     */
+    public List<SyncJob> getJobsToRun() {
+        long now = System.currentTimeMillis();
+        List<SyncJob> jobsToRun = new ArrayList<>();
+        for (SyncJob job : mJobs) {
+            long dueIn = getNextRunAt(job) - now;
+            if (!isDue(dueIn, mSharedPreferences.getInt(job.getName() + KEY_FAILURES, 0))) {
+                Logger.d(TAG, "getJobsToRun: " + job.getName() + " is due in(ms): " + dueIn);
+                continue;
+            }
+
+            String unmetConstraint = job.getConstraints().getUnmetConstraint(mContext);
+            if (unmetConstraint != null) {
+                // Job stays due, it runs on the next sync which meets its constraints.
+                Logger.d(TAG, "getJobsToRun: " + job.getName() + " is waiting for: " + unmetConstraint);
+                continue;
+            }
+            jobsToRun.add(job);
+        }
+        return jobsToRun;
+    }
+
+    /**
+     * Run the due jobs one after another. A failed job is rescheduled with a backoff and doesn't
+     * stop the jobs after it. Disposing the returned completable stops the current job and skips
+     * the remaining ones, which stay due for the next sync.
+     *
+     * @param token     Auth token used for the requests
+     * @param syncStats Stats to which the jobs add what they wrote and how long its stages took
+     * @return Completable which runs the due jobs when subscribed
+     */
+    public Completable runDueJobs(final String token, final SyncStats syncStats) {
+        return Completable.defer(new Callable<CompletableSource>() {
+            @Override
+            public CompletableSource call() throws Exception {
+                List<Completable> jobRuns = new ArrayList<>();
+                for (SyncJob job : getJobsToRun()) {
+                    jobRuns.add(runJob(job, token, syncStats));
+                }
+                return Completable.concat(jobRuns);
+            }
+        }).doOnComplete(new Action() {
+            @Override
+            public void run() throws Exception {
+                for (String stage : SyncStats.STAGES) {
+                    long durationMillis = syncStats.getStageMillis(stage);
+                    if (durationMillis > 0) {
+                        recordDuration(KEY_STAGE + stage, durationMillis);
+                    }
+                }
+            }
+        });
+    }
+
+    private Completable runJob(final SyncJob job, final String token, final SyncStats syncStats) {
+        return Completable.defer(new Callable<CompletableSource>() {
+            @Override
+            public CompletableSource call() throws Exception {
+                Logger.d(TAG, "runJob: " + job.getName());
+                final long startedAt = SystemClock.elapsedRealtime();
+                return job.run(token, syncStats)
+                        .doOnComplete(new Action() {
+                            @Override
+                            public void run() throws Exception {
+                                onJobSucceeded(job, SystemClock.elapsedRealtime() - startedAt);
+                            }
+                        })
+                        .doOnError(new Consumer<Throwable>() {
+                            @Override
+                            public void accept(Throwable throwable) throws Exception {
+                                Logger.e(TAG, "runJob: " + job.getName() + " failed", throwable);
+                                syncStats.addError(throwable);
+                                onJobFailed(job, SystemClock.elapsedRealtime() - startedAt);
+                            }
+                        })
+                        .onErrorComplete();
+            }
+        });
+    }
+
+    private void onJobSucceeded(SyncJob job, long durationMillis) {
+        String name = job.getName();
+        mSharedPreferences.edit()
+                .putLong(name + KEY_NEXT_RUN_AT, System.currentTimeMillis() + job.getIntervalMillis())
+                .putInt(name + KEY_RUNS, mSharedPreferences.getInt(name + KEY_RUNS, 0) + 1)
+                .putInt(name + KEY_FAILURES, 0)
+                .apply();
+        recordDuration(name, durationMillis);
+        Logger.d(TAG, "onJobSucceeded: " + name + ", duration(ms): " + durationMillis);
+    }
+
+    private void onJobFailed(SyncJob job, long durationMillis) {
+        String name = job.getName();
+        int failures = mSharedPreferences.getInt(name + KEY_FAILURES, 0) + 1;
+        long backoffMillis = getBackoffMillis(failures);
+        mSharedPreferences.edit()
+                .putLong(name + KEY_NEXT_RUN_AT, System.currentTimeMillis() + backoffMillis)
+                .putInt(name + KEY_RUNS, mSharedPreferences.getInt(name + KEY_RUNS, 0) + 1)
+                .putInt(name + KEY_FAILURES, failures)
+                .apply();
+        recordDuration(name, durationMillis);
+        Logger.d(TAG, "onJobFailed: " + name + ", failures: " + failures + ", retry in(ms): " + backoffMillis);
+    }
+
+    /**
+     * @param dueIn    Time left until the job is due, negative if it is overdue
+     * @param failures Number of consecutive failures of the job
+     * @return True, if the job should run on the current sync
+     */
+    static boolean isDue(long dueIn, int failures) {
+        if (failures > 0) {
+            // First backoffs are shorter than the batch window, so a failed job only runs once its
+            // backoff is over, otherwise it would be retried by the very next sync.
+            return dueIn <= 0;
+        }
+        return dueIn <= Constants.Sync.BATCH_WINDOW_MILLIS;
+    }
+
+    /**
+     * @param failures Number of consecutive failures
+     * @return Delay before the next attempt, doubled with every failure
+     */
+    static long getBackoffMillis(int failures) {
+        int exponent = Math.min(Math.max(failures - 1, 0), MAX_BACKOFF_EXPONENT);
+        return Math.min(Constants.Sync.INITIAL_BACKOFF_MILLIS << exponent, Constants.Sync.MAX_BACKOFF_MILLIS);
+    }
+
+    private void recordDuration(String name, long durationMillis) {
+        long averageDuration = mSharedPreferences.getLong(name + KEY_AVERAGE_DURATION, 0);
+        // Recent runs weigh more, so that the average follows changes in network or data size.
+        averageDuration = averageDuration == 0 ?
+                durationMillis :
+                (averageDuration * 3 + durationMillis) / 4;
+        mSharedPreferences.edit()
+                .putLong(name + KEY_LAST_DURATION, durationMillis)
+                .putLong(name + KEY_AVERAGE_DURATION, averageDuration)
+                .apply();
+    }
+
+    private long getNextRunAt(SyncJob job) {
+        return mSharedPreferences.getLong(job.getName() + KEY_NEXT_RUN_AT, 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (SyncJob job : mJobs) {
+            String name = job.getName();
+            if (stringBuilder.length() != 0) {
+                stringBuilder.append(", ");
+            }
+            stringBuilder.append(String.format(Locale.US, "%s: [runs: %d, failures: %d, last duration(ms): %d, average duration(ms): %d]",
+                    name,
+                    mSharedPreferences.getInt(name + KEY_RUNS, 0),
+                    mSharedPreferences.getInt(name + KEY_FAILURES, 0),
+                    mSharedPreferences.getLong(name + KEY_LAST_DURATION, 0),
+                    mSharedPreferences.getLong(name + KEY_AVERAGE_DURATION, 0)));
+        }
+        for (String stage : SyncStats.STAGES) {
+            String name = KEY_STAGE + stage;
+            stringBuilder.append(String.format(Locale.US, ", %s: [last duration(ms): %d, average duration(ms): %d]",
+                    name,
+                    mSharedPreferences.getLong(name + KEY_LAST_DURATION, 0),
+                    mSharedPreferences.getLong(name + KEY_AVERAGE_DURATION, 0)));
+        }
+        return stringBuilder.toString();
+    }
+}
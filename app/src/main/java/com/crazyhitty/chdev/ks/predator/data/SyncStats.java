@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.content.SyncResult;
+
+import com.jakewharton.retrofit2.adapter.rxjava2.HttpException;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Collects what a background sync wrote and how long each of its stages took. Days
+ * are synced in parallel, so every method is synchronized. Counters are copied to the
+ * {@link SyncResult} of the sync adapter once the sync is over.
+ */
+
+public class SyncStats {
+    public static final String STAGE_FETCH = "fetch";
+    public static final String STAGE_PERSIST = "persist";
+    public static final String STAGE_REFRESH = "refresh";
+    public static final String[] STAGES = {STAGE_FETCH, STAGE_PERSIST, STAGE_REFRESH};
+
+    private static final int HTTP_UNAUTHORIZED = 401;
+
+    private long mInserts;
+    private long mUpdates;
+    private long mIoExceptions;
+    private long mAuthExceptions;
+    private long mParseExceptions;
+    private final long[] mStageMillis = new long[STAGES.length];
+
+    public synchronized void addInserts(long inserts) {
+        mInserts += inserts;
+    }
+
+    public synchronized void addUpdates(long updates) {
+        mUpdates += updates;
+    }
+
+    /**
+     * Network and http errors are retried by the framework, a rejected auth token is reported as
+     * such and anything else is counted as a hard error.
+     *
+     * @param throwable Error due to which a day or a job failed
+     */
+    public synchronized void addError(Throwable throwable) {
+        if (throwable instanceof HttpException &&
+                ((HttpException) throwable).code() == HTTP_UNAUTHORIZED) {
+            mAuthExceptions++;
+        } else if (throwable instanceof IOException || throwable instanceof HttpException) {
+            mIoExceptions++;
+        } else {
+            mParseExceptions++;
+        }
+    }
+
+    /**
+     * @param stage          One of {@link #STAGES}
+     * @param durationMillis Time spent in the stage, added to the time spent in it before
+     */
+    public synchronized void addStageMillis(String stage, long durationMillis) {
+        mStageMillis[indexOf(stage)] += durationMillis;
+    }
+
+    public synchronized long getStageMillis(String stage) {
+        return mStageMillis[indexOf(stage)];
+    }
+
+    public synchronized long getInserts() {
+        return mInserts;
+    }
+
+    public synchronized long getUpdates() {
+        return mUpdates;
+    }
+
+    public synchronized long getIoExceptions() {
+        return mIoExceptions;
+    }
+
+    public synchronized long getAuthExceptions() {
+        return mAuthExceptions;
+    }
+
+    /**
+     * Add the collected counters to the stats which are reported to the sync manager.
+     */
+    public synchronized void applyTo(SyncResult syncResult) {
+        syncResult.stats.numInserts += mInserts;
+        syncResult.stats.numUpdates += mUpdates;
+        syncResult.stats.numIoExceptions += mIoExceptions;
+        syncResult.stats.numAuthExceptions += mAuthExceptions;
+        syncResult.stats.numParseExceptions += mParseExceptions;
+    }
+
+    private static int indexOf(String stage) {
+        for (int i = 0; i < STAGES.length; i++) {
+            if (STAGES[i].equals(stage)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sync stage: " + stage);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "inserts: %d, updates: %d, io exceptions: %d, auth exceptions: %d, " +
+                        "parse exceptions: %d, fetch(ms): %d, persist(ms): %d, refresh(ms): %d",
+                mInserts,
+                mUpdates,
+                mIoExceptions,
+                mAuthExceptions,
+                mParseExceptions,
+                mStageMillis[0],
+                mStageMillis[1],
+                mStageMillis[2]);
+    }
+}
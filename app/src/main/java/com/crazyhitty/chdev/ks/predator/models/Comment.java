@@ -55,6 +55,39 @@ public class Comment {
     private long timeAgo;
     private TIME_UNIT timeUnit;
 
+    public Comment() {
+    }
+
+    /**
+     * Create a copy of another comment, so that it can be modified without affecting the original.
+     *
+     * @param comment Comment to copy
+     */
+    public Comment(Comment comment) {
+        id = comment.id;
+        commentId = comment.commentId;
+        parentCommentId = comment.parentCommentId;
+        body = comment.body;
+        createdAt = comment.createdAt;
+        createdAtMillis = comment.createdAtMillis;
+        postId = comment.postId;
+        userId = comment.userId;
+        username = comment.username;
+        usernameAlternative = comment.usernameAlternative;
+        userHeadline = comment.userHeadline;
+        userImageThumbnailUrl = comment.userImageThumbnailUrl;
+        userWebsiteUrl = comment.userWebsiteUrl;
+        url = comment.url;
+        votes = comment.votes;
+        isSticky = comment.isSticky;
+        isMaker = comment.isMaker;
+        isHunter = comment.isHunter;
+        isLiveGuest = comment.isLiveGuest;
+        childSpaces = comment.childSpaces;
+        timeAgo = comment.timeAgo;
+        timeUnit = comment.timeUnit;
+    }
+
     public int getId() {
         return id;
     }
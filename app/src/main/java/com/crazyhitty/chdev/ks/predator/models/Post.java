@@ -25,6 +25,7 @@
 package com.crazyhitty.chdev.ks.predator.models;
 
 import android.text.Spannable;
+import android.text.SpannableString;
 
 /**
  * Author:      Kartik Sharma
@@ -43,7 +44,7 @@ public class Post {
     private String tagline;
     private int commentCount;
     private String createdAt;
-    private int createdAtMillis;
+    private long createdAtMillis;
     private String discussionUrl;
     private String redirectUrl;
     private int votesCount;
@@ -62,6 +63,45 @@ public class Post {
     private Spannable nameSpannable;
     private Spannable taglineSpannable;
 
+    public Post() {
+    }
+
+    /**
+     * Create a copy of another post, so that it can be modified without affecting the original.
+     *
+     * @param post Post to copy
+     */
+    public Post(Post post) {
+        id = post.id;
+        postId = post.postId;
+        collectionId = post.collectionId;
+        categoryId = post.categoryId;
+        day = post.day;
+        name = post.name;
+        tagline = post.tagline;
+        commentCount = post.commentCount;
+        createdAt = post.createdAt;
+        createdAtMillis = post.createdAtMillis;
+        discussionUrl = post.discussionUrl;
+        redirectUrl = post.redirectUrl;
+        votesCount = post.votesCount;
+        thumbnailImageUrl = post.thumbnailImageUrl;
+        thumbnailImageUrlOriginal = post.thumbnailImageUrlOriginal;
+        screenshotUrl300px = post.screenshotUrl300px;
+        screenshotUrl850px = post.screenshotUrl850px;
+        username = post.username;
+        usernameAlternative = post.usernameAlternative;
+        userId = post.userId;
+        userImageUrl100px = post.userImageUrl100px;
+        userImageUrlOriginal = post.userImageUrlOriginal;
+        isInCollection = post.isInCollection;
+        notificationShown = post.notificationShown;
+        read = post.read;
+        // Spans can be added to a spannable, so the copy gets its own.
+        nameSpannable = post.nameSpannable == null ? null : new SpannableString(post.nameSpannable);
+        taglineSpannable = post.taglineSpannable == null ? null : new SpannableString(post.taglineSpannable);
+    }
+
     public int getId() {
         return id;
     }
@@ -134,11 +174,11 @@ public class Post {
         this.createdAt = createdAt;
     }
 
-    public int getCreatedAtMillis() {
+    public long getCreatedAtMillis() {
         return createdAtMillis;
     }
 
-    public void setCreatedAtMillis(int createdAtMillis) {
+    public void setCreatedAtMillis(long createdAtMillis) {
         this.createdAtMillis = createdAtMillis;
     }
 
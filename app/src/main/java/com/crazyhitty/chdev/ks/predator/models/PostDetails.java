@@ -50,6 +50,26 @@ public class PostDetails implements Parcelable {
     public PostDetails() {
     }
 
+    /**
+     * Create a copy of other post details, so that they can be modified without affecting the
+     * original.
+     *
+     * @param postDetails Post details to copy
+     */
+    public PostDetails(PostDetails postDetails) {
+        title = postDetails.title;
+        description = postDetails.description;
+        day = postDetails.day;
+        date = postDetails.date;
+        backdropUrl = postDetails.backdropUrl;
+        redirectUrl = postDetails.redirectUrl;
+        tagline = postDetails.tagline;
+        discussionUrl = postDetails.discussionUrl;
+        categoryId = postDetails.categoryId;
+        category = postDetails.category;
+        voteCount = postDetails.voteCount;
+    }
+
     protected PostDetails(Parcel in) {
         title = in.readString();
         description = in.readString();
@@ -24,8 +24,6 @@
 
 package com.crazyhitty.chdev.ks.predator.models;
 
-import android.text.TextUtils;
-
 /**
  * Author:      Kartik Sharma
  * Email Id:    cr42yh17m4n@gmail.com
@@ -42,13 +40,28 @@ public class User {
     private String websiteUrl;
     private String thumbnail;
     private String image;
-    private String huntedPostIds;
-    private String madePostIds;
-    private String votedPostIds;
-    private String followerUserIds;
-    private String followingUserIds;
     private TYPE type;
 
+    public User() {
+    }
+
+    /**
+     * Create a copy of another user, so that it can be modified without affecting the original.
+     *
+     * @param user User to copy
+     */
+    public User(User user) {
+        id = user.id;
+        userId = user.userId;
+        name = user.name;
+        username = user.username;
+        headline = user.headline;
+        websiteUrl = user.websiteUrl;
+        thumbnail = user.thumbnail;
+        image = user.image;
+        type = user.type;
+    }
+
     public int getId() {
         return id;
     }
@@ -113,101 +126,6 @@ public class User {
         this.image = image;
     }
 
-    public String getHuntedPostIds() {
-        return huntedPostIds;
-    }
-
-    public void setHuntedPostIds(String huntedPostIds) {
-        this.huntedPostIds = huntedPostIds;
-    }
-
-    public String getHuntedPostIdsQuery() {
-        if (!TextUtils.isEmpty(huntedPostIds)) {
-            String[] huntedPostIdsArr = huntedPostIds.split(",");
-            for (int i = 0; i < huntedPostIdsArr.length; i++) {
-                huntedPostIdsArr[i] = "'" + huntedPostIdsArr[i] + "'";
-            }
-            return TextUtils.join(", ", huntedPostIdsArr);
-        }
-        return huntedPostIds;
-    }
-
-    public String getMadePostIds() {
-        return madePostIds;
-    }
-
-    public void setMadePostIds(String madePostIds) {
-        this.madePostIds = madePostIds;
-    }
-
-    public String getMadePostIdsQuery() {
-        if (!TextUtils.isEmpty(madePostIds)) {
-            String[] madePostIdsArr = madePostIds.split(",");
-            for (int i = 0; i < madePostIdsArr.length; i++) {
-                madePostIdsArr[i] = "'" + madePostIdsArr[i] + "'";
-            }
-            return TextUtils.join(", ", madePostIdsArr);
-        }
-        return madePostIds;
-    }
-
-    public String getVotedPostIds() {
-        return votedPostIds;
-    }
-
-    public void setVotedPostIds(String votedPostIds) {
-        this.votedPostIds = votedPostIds;
-    }
-
-    public String getVotedPostIdsQuery() {
-        if (!TextUtils.isEmpty(votedPostIds)) {
-            String[] votedPostIdsArr = votedPostIds.split(",");
-            for (int i = 0; i < votedPostIdsArr.length; i++) {
-                votedPostIdsArr[i] = "'" + votedPostIdsArr[i] + "'";
-            }
-            return TextUtils.join(", ", votedPostIdsArr);
-        }
-        return votedPostIds;
-    }
-
-    public String getFollowerUserIds() {
-        return followerUserIds;
-    }
-
-    public void setFollowerUserIds(String followerUserIds) {
-        this.followerUserIds = followerUserIds;
-    }
-
-    public String getFollowerUserIdsQuery() {
-        if (!TextUtils.isEmpty(followerUserIds)) {
-            String[] followerUserIdsArr = followerUserIds.split(",");
-            for (int i = 0; i < followerUserIdsArr.length; i++) {
-                followerUserIdsArr[i] = "'" + followerUserIdsArr[i] + "'";
-            }
-            return TextUtils.join(", ", followerUserIdsArr);
-        }
-        return followerUserIds;
-    }
-
-    public String getFollowingUserIds() {
-        return followingUserIds;
-    }
-
-    public void setFollowingUserIds(String followingUserIds) {
-        this.followingUserIds = followingUserIds;
-    }
-
-    public String getFollowingUserIdsQuery() {
-        if (!TextUtils.isEmpty(followingUserIds)) {
-            String[] followingUserIdsArr = followingUserIds.split(",");
-            for (int i = 0; i < followingUserIdsArr.length; i++) {
-                followingUserIdsArr[i] = "'" + followingUserIdsArr[i] + "'";
-            }
-            return TextUtils.join(", ", followingUserIdsArr);
-        }
-        return followingUserIds;
-    }
-
     public TYPE getType() {
         return type;
     }
@@ -224,9 +142,6 @@ public class User {
                 ", username: " + username +
                 ", thumbnail: " + thumbnail +
                 ", image: " + image +
-                ", huntedPostIds: " + huntedPostIds +
-                ", madePostIds: " + madePostIds +
-                ", votedPostIds: " + votedPostIds +
                 ", type: " + type;
     }
 
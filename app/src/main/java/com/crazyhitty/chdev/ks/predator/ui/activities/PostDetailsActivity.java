@@ -482,6 +482,14 @@ public class PostDetailsActivity extends BaseAppCompatActivity implements MediaR
         }
     }
 
+    @Override
+    public void offlineDataStale() {
+        if (isNetworkAvailable(false)) {
+            // Stored details are already shown, so silently replace them with the latest ones.
+            getPostDetails(getIntent().getExtras().getInt(ARG_POST_TABLE_POST_ID), false);
+        }
+    }
+
     @Override
     public void dismissLoading() {
         Logger.d(TAG, "dismissLoading: Stop refreshing");
@@ -185,9 +185,8 @@ public class SearchActivity extends BaseAppCompatActivity implements SearchContr
                 .subscribe(new DisposableObserver<CharSequence>() {
                     @Override
                     public void onNext(CharSequence charSequence) {
-                        if (!isNetworkAvailable(true)) {
-                            networkUnavailable();
-                        } else if (TextUtils.isEmpty(charSequence) ||
+                        // Stored posts and collections are searched even while offline.
+                        if (TextUtils.isEmpty(charSequence) ||
                                 TextUtils.isEmpty(charSequence.toString().trim())) {
                             editTextSearch.post(new Runnable() {
                                 @Override
@@ -296,17 +295,6 @@ public class SearchActivity extends BaseAppCompatActivity implements SearchContr
         }
     }
 
-    @SuppressLint("RestrictedApi")
-    private void networkUnavailable() {
-        for (Fragment fragment : getSupportFragmentManager().getFragments()) {
-            if (fragment instanceof SearchPostsFragment) {
-                ((SearchPostsFragment) fragment).onNetworkConnectivityChanged(false);
-            } else if (fragment instanceof SearchCollectionsFragment) {
-                ((SearchCollectionsFragment) fragment).onNetworkConnectivityChanged(false);
-            }
-        }
-    }
-
     @SuppressLint("RestrictedApi")
     private void searchingStarted() {
         for (Fragment fragment : getSupportFragmentManager().getFragments()) {
@@ -26,6 +26,7 @@ package com.crazyhitty.chdev.ks.predator.ui.adapters.recycler;
 
 import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.CardView;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.StaggeredGridLayoutManager;
@@ -108,6 +109,13 @@ public class CollectionsRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
     }
 
     public void updateDataset(List<Collection> collections, boolean forceReplace) {
+        if (forceReplace && !isEmpty() && collections != null) {
+            // Collections are already shown, so only update the ones which have changed.
+            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new CollectionsDiffCallback(mCollections, collections));
+            mCollections = collections;
+            diffResult.dispatchUpdatesTo(this);
+            return;
+        }
         mCollections = collections;
         if (forceReplace) {
             mLastPosition = -1;
@@ -316,6 +324,44 @@ public class CollectionsRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
         }
     }
 
+    private static class CollectionsDiffCallback extends DiffUtil.Callback {
+        private final List<Collection> mOldCollections;
+        private final List<Collection> mNewCollections;
+
+        CollectionsDiffCallback(List<Collection> oldCollections, List<Collection> newCollections) {
+            mOldCollections = oldCollections;
+            mNewCollections = newCollections;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldCollections.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewCollections.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldCollections.get(oldItemPosition).getCollectionId() ==
+                    mNewCollections.get(newItemPosition).getCollectionId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            Collection oldCollection = mOldCollections.get(oldItemPosition);
+            Collection newCollection = mNewCollections.get(newItemPosition);
+            return TextUtils.equals(oldCollection.getName(), newCollection.getName()) &&
+                    TextUtils.equals(oldCollection.getTitle(), newCollection.getTitle()) &&
+                    TextUtils.equals(oldCollection.getUpdatedAt(), newCollection.getUpdatedAt()) &&
+                    // Highlighted search results are always rebound.
+                    oldCollection.getNameSpannable() == newCollection.getNameSpannable() &&
+                    oldCollection.getTitleSpannable() == newCollection.getTitleSpannable();
+        }
+    }
+
     private static class RootViewHolder extends RecyclerView.ViewHolder {
         public RootViewHolder(View itemView) {
             super(itemView);
@@ -25,8 +25,10 @@
 package com.crazyhitty.chdev.ks.predator.ui.adapters.recycler;
 
 import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.RecyclerView;
 import android.text.Spannable;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -138,7 +140,20 @@ public class PostsRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.View
      * @param forceReplace
      */
     public void updateDataset(List<Post> posts, HashMap<Integer, String> dateHashMap, boolean forceReplace) {
-        mDateHashMap = dateHashMap;
+        // Keep a copy of the dates, as the provided hashmap keeps changing while more posts are loaded.
+        HashMap<Integer, String> newDateHashMap = new HashMap<>(dateHashMap);
+        if (forceReplace && !isEmpty() && posts != null) {
+            // Posts are already shown, so only update the ones which have changed.
+            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new PostsDiffCallback(mPosts,
+                    mDateHashMap,
+                    posts,
+                    newDateHashMap));
+            mDateHashMap = newDateHashMap;
+            mPosts = posts;
+            diffResult.dispatchUpdatesTo(this);
+            return;
+        }
+        mDateHashMap = newDateHashMap;
         mPosts = posts;
         if (forceReplace) {
             mLastPosition = -1;
@@ -163,6 +178,17 @@ public class PostsRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.View
         notifyDataSetChanged();
     }
 
+    /**
+     * Append a page of posts to the current dataset.
+     *
+     * @param posts       Posts to be appended
+     * @param dateHashMap Hashmap containing where to show appropriate dates for all of the posts
+     */
+    public void addDataset(@NonNull List<Post> posts, HashMap<Integer, String> dateHashMap) {
+        mDateHashMap = new HashMap<>(dateHashMap);
+        addDataset(posts);
+    }
+
     public void addDataset(@NonNull List<Post> posts) {
         if (mPosts != null) {
             int oldCount = mPosts.size();
@@ -393,6 +419,50 @@ public class PostsRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.View
         }
     }
 
+    private static class PostsDiffCallback extends DiffUtil.Callback {
+        private final List<Post> mOldPosts;
+        private final HashMap<Integer, String> mOldDateHashMap;
+        private final List<Post> mNewPosts;
+        private final HashMap<Integer, String> mNewDateHashMap;
+
+        PostsDiffCallback(List<Post> oldPosts,
+                          HashMap<Integer, String> oldDateHashMap,
+                          List<Post> newPosts,
+                          HashMap<Integer, String> newDateHashMap) {
+            mOldPosts = oldPosts;
+            mOldDateHashMap = oldDateHashMap;
+            mNewPosts = newPosts;
+            mNewDateHashMap = newDateHashMap;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldPosts.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewPosts.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldPosts.get(oldItemPosition).getPostId() ==
+                    mNewPosts.get(newItemPosition).getPostId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            Post oldPost = mOldPosts.get(oldItemPosition);
+            Post newPost = mNewPosts.get(newItemPosition);
+            return TextUtils.equals(oldPost.getName(), newPost.getName()) &&
+                    TextUtils.equals(oldPost.getTagline(), newPost.getTagline()) &&
+                    TextUtils.equals(oldPost.getThumbnailImageUrl(), newPost.getThumbnailImageUrl()) &&
+                    oldPost.getVotesCount() == newPost.getVotesCount() &&
+                    TextUtils.equals(mOldDateHashMap.get(oldItemPosition), mNewDateHashMap.get(newItemPosition));
+        }
+    }
+
     private static class RootViewHolder extends RecyclerView.ViewHolder {
         public RootViewHolder(View itemView) {
             super(itemView);
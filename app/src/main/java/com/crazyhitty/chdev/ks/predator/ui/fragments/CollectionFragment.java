@@ -293,6 +293,14 @@ public class CollectionFragment extends BaseSupportFragment implements Collectio
         }
     }
 
+    @Override
+    public void offlineDataStale() {
+        if (isNetworkAvailable(false)) {
+            // Stored collections are already shown, so silently replace them with the latest ones.
+            getLatestCollections();
+        }
+    }
+
     @Override
     public void setPresenter(CollectionsContract.Presenter presenter) {
         mCollectionsPresenter = presenter;
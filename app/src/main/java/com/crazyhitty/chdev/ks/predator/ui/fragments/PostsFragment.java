@@ -167,6 +167,10 @@ public class PostsFragment extends BaseSupportFragment implements PostsContract.
         mPostsPresenter.getOfflinePosts(mPostsPresenter.getSortType(getActivity().getApplicationContext()));
     }
 
+    private void loadMoreOfflinePosts() {
+        mPostsPresenter.loadMoreOfflinePosts(mPostsPresenter.getSortType(getActivity().getApplicationContext()));
+    }
+
     /**
      * Get auth token and retrieve latest posts.
      */
@@ -245,13 +249,18 @@ public class PostsFragment extends BaseSupportFragment implements PostsContract.
             public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
                 super.onScrolled(recyclerView, dx, dy);
 
-                // Check if the last item is on screen, if yes then start loading more posts.
+                // Check if the user is close to the last item, if yes then start loading more
+                // posts. Offline posts are loaded first, older posts are fetched afterwards.
                 if (!mIsLoading &&
                         mPostsRecyclerAdapter.getItemCount() != 0 &&
-                        layoutManager.findLastVisibleItemPosition() == mPostsRecyclerAdapter.getItemCount() - 1 &&
-                        isNetworkAvailable(false)) {
-                    mIsLoading = true;
-                    loadMorePosts();
+                        layoutManager.findLastVisibleItemPosition() >= mPostsRecyclerAdapter.getItemCount() - 1 - Constants.Posts.PREFETCH_DISTANCE) {
+                    if (mPostsPresenter.hasMoreOfflinePosts()) {
+                        mIsLoading = true;
+                        loadMoreOfflinePosts();
+                    } else if (isNetworkAvailable(false)) {
+                        mIsLoading = true;
+                        loadMorePosts();
+                    }
                 }
             }
         });
@@ -375,21 +384,18 @@ public class PostsFragment extends BaseSupportFragment implements PostsContract.
 
     @Override
     public void showPosts(List<Post> posts, HashMap<Integer, String> dateHashMap) {
-        if (mIsLoading) {
-            mIsLoading = false;
-            mPostsRecyclerAdapter.updateDataset(posts, dateHashMap, false);
-        } else {
-            // Hide loading view, only if it was visible.
-            if (loadingView.getVisibility() == View.VISIBLE) {
-                loadingView.setComplete(getString(R.string.posts_successfully_loaded_posts));
-            }
-
-            // Enable swipe refresh layout
-            swipeRefreshLayoutPosts.setEnabled(true);
+        mIsLoading = false;
 
-            setListTypeAdapter(posts, dateHashMap);
+        // Hide loading view, only if it was visible.
+        if (loadingView.getVisibility() == View.VISIBLE) {
+            loadingView.setComplete(getString(R.string.posts_successfully_loaded_posts));
         }
 
+        // Enable swipe refresh layout
+        swipeRefreshLayoutPosts.setEnabled(true);
+
+        setListTypeAdapter(posts, dateHashMap);
+
         // Dismiss swipe refresh layout animation if it is going on.
         if (swipeRefreshLayoutPosts.isRefreshing()) {
             swipeRefreshLayoutPosts.setRefreshing(false);
@@ -403,6 +409,22 @@ public class PostsFragment extends BaseSupportFragment implements PostsContract.
         mCanManagePosts = true;
     }
 
+    @Override
+    public void showMorePosts(List<Post> posts, HashMap<Integer, String> dateHashMap) {
+        mIsLoading = false;
+        mPostsRecyclerAdapter.addDataset(posts, dateHashMap);
+
+        if (posts.isEmpty() && isNetworkAvailable(false)) {
+            // All of the offline posts are already shown, so fetch the older ones.
+            mIsLoading = true;
+            loadMorePosts();
+        }
+
+        mPostsRecyclerAdapter.setNetworkStatus(isNetworkAvailable(false), getString(R.string.item_load_more_posts_error_desc));
+
+        mCanManagePosts = true;
+    }
+
     @Override
     public void unableToGetPosts(boolean onLoadMore, boolean wasLoadingOfflinePosts, String errorMessage) {
         swipeRefreshLayoutPosts.post(new Runnable() {
@@ -429,6 +451,14 @@ public class PostsFragment extends BaseSupportFragment implements PostsContract.
         mCanManagePosts = true;
     }
 
+    @Override
+    public void offlineDataStale() {
+        if (isNetworkAvailable(false)) {
+            // Stored posts are already shown, so silently replace them with the latest ones.
+            getLatestPosts();
+        }
+    }
+
     @Override
     public void postsCleared() {
         swipeRefreshLayoutPosts.setEnabled(false);
@@ -80,11 +80,7 @@ public class PostNotification {
     }
 
     public void show(final Post post) {
-        String url = ImageUtils.getCustomPostThumbnailImageUrl(post.getThumbnailImageUrl(),
-                ScreenUtils.dpToPxInt(mContext, 64.0f),
-                ScreenUtils.dpToPxInt(mContext, 64.0f));
-
-        ImageFetcher.getBitmap(url)
+        ImageFetcher.getBitmap(getThumbnailUrl(post))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new DisposableObserver<Bitmap>(){
@@ -107,6 +103,28 @@ public class PostNotification {
                 });
     }
 
+    /**
+     * Fetch the thumbnail and show the notification on the calling thread, which must not be the
+     * main thread.
+     */
+    public void showBlocking(Post post) {
+        Bitmap bitmap = null;
+        try {
+            bitmap = ImageFetcher.getBitmap(getThumbnailUrl(post))
+                    .blockingFirst();
+            Logger.d(TAG, "Thumbnail for post fetched from url");
+        } catch (Exception e) {
+            Logger.e(TAG, "showBlocking: " + e.getMessage(), e);
+        }
+        showPostNotification(post, bitmap);
+    }
+
+    private String getThumbnailUrl(Post post) {
+        return ImageUtils.getCustomPostThumbnailImageUrl(post.getThumbnailImageUrl(),
+                ScreenUtils.dpToPxInt(mContext, 64.0f),
+                ScreenUtils.dpToPxInt(mContext, 64.0f));
+    }
+
     private void showPostNotification(Post post, Bitmap bitmap) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
             showHeaderNotification();
@@ -145,11 +145,21 @@ public class PredatorPostsWidgetFactory implements RemoteViewsService.RemoteView
         mPosts = posts;
     }
 
+    @Override
+    public void showMorePosts(List<Post> posts, HashMap<Integer, String> dateHashMap) {
+        // Widget only shows the first page of posts.
+    }
+
     @Override
     public void unableToGetPosts(boolean onLoadMore, boolean wasLoadingOfflinePosts, String errorMessage) {
         Logger.e(TAG, "unableToGetPosts: error: " + errorMessage);
     }
 
+    @Override
+    public void offlineDataStale() {
+        // Widget only shows the stored posts, they are revalidated by the app and the sync adapter.
+    }
+
     @Override
     public void postsCleared() {
         Logger.d(TAG, "postsCleared: called");
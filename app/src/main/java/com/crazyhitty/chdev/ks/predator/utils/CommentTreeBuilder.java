@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.utils;
+
+import com.crazyhitty.chdev.ks.predator.models.Comment;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the threaded list of comments for a post from a flat list of comments.
+ * Top level comments are sorted according to their vote count and child comments according to
+ * the time of their creation.
+ */
+
+public class CommentTreeBuilder {
+    private static final int TOP_LEVEL_PARENT_COMMENT_ID = 0;
+
+    private static final Comparator<Comment> TOP_LEVEL_COMMENTS_COMPARATOR = new Comparator<Comment>() {
+        @Override
+        public int compare(Comment comment1, Comment comment2) {
+            if (comment1.getVotes() != comment2.getVotes()) {
+                return comment1.getVotes() > comment2.getVotes() ? -1 : 1;
+            }
+            return comment1.getId() < comment2.getId() ? -1 : (comment1.getId() == comment2.getId() ? 0 : 1);
+        }
+    };
+
+    private CommentTreeBuilder() {
+
+    }
+
+    /**
+     * Arrange the comments in the same order in which they will be shown to the user. Child
+     * spaces are also assigned to every comment depending upon its depth in the thread.
+     *
+     * @param comments              Comments of a post, sorted according to the time of their
+     *                              creation.
+     * @param commentTimeCalculator Calculator used for setting up the relative time of every
+     *                              comment, can be null.
+     * @return Threaded list of comments.
+     */
+    public static List<Comment> build(List<Comment> comments, CommentTimeCalculator commentTimeCalculator) {
+        // Group all the comments according to their parents, the relative order of the child
+        // comments is preserved.
+        Map<Integer, List<Comment>> childComments = new HashMap<>();
+        for (Comment comment : comments) {
+            List<Comment> siblings = childComments.get(comment.getParentCommentId());
+            if (siblings == null) {
+                siblings = new ArrayList<>();
+                childComments.put(comment.getParentCommentId(), siblings);
+            }
+            siblings.add(comment);
+        }
+
+        List<Comment> topLevelComments = childComments.get(TOP_LEVEL_PARENT_COMMENT_ID);
+        if (topLevelComments == null) {
+            return new ArrayList<>();
+        }
+        Collections.sort(topLevelComments, TOP_LEVEL_COMMENTS_COMPARATOR);
+
+        // Walk the thread depth first without recursion, so that deeply nested threads don't
+        // blow up the stack.
+        List<Comment> threadedComments = new ArrayList<>(comments.size());
+        Deque<Comment> pendingComments = new ArrayDeque<>();
+        pushInReverse(pendingComments, topLevelComments, 0);
+        while (!pendingComments.isEmpty()) {
+            Comment comment = pendingComments.pop();
+
+            if (commentTimeCalculator != null) {
+                CommentTimeCalculator.CommentTime commentTime = commentTimeCalculator.getTimeAgo(comment.getCreatedAtMillis());
+                comment.setTimeAgo(commentTime.getTimeAgo());
+                comment.setTimeUnit(commentTime.getTimeUnit());
+            }
+
+            threadedComments.add(comment);
+
+            List<Comment> children = childComments.get(comment.getCommentId());
+            if (children != null) {
+                pushInReverse(pendingComments, children, comment.getChildSpaces() + 1);
+            }
+        }
+
+        return threadedComments;
+    }
+
+    private static void pushInReverse(Deque<Comment> pendingComments, List<Comment> comments, int childSpaces) {
+        for (int i = comments.size() - 1; i >= 0; i--) {
+            Comment comment = comments.get(i);
+            comment.setChildSpaces(childSpaces);
+            pendingComments.push(comment);
+        }
+    }
+}
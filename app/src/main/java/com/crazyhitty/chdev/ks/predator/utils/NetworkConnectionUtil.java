@@ -52,4 +52,16 @@ public class NetworkConnectionUtil {
         return networkInfo != null &&
                 networkInfo.isConnectedOrConnecting();
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if the device is currently connected with a network which might charge for the data
+     * used, like mobile data or a hotspot.
+     *
+     * @param context Current context of the application
+     * @return "true" if the network is metered, "false" otherwise.
+     */
+    public static boolean isNetworkMetered(Context context) {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        return connectivityManager.isActiveNetworkMetered();
+    }
+}
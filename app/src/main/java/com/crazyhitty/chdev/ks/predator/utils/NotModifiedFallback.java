@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.utils;
+
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.NotModifiedException;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+
+/**
+ * Resumes an observable with the data already stored in the database if the web
+ * service reports that its response didn't change, every other error is passed on as it is.
+ */
+
+public abstract class NotModifiedFallback<T> implements Function<Throwable, ObservableSource<T>> {
+    private static final String TAG = "NotModifiedFallback";
+
+    @Override
+    public ObservableSource<T> apply(Throwable throwable) throws Exception {
+        if (throwable instanceof NotModifiedException) {
+            Logger.d(TAG, "apply: " + throwable.getMessage() + ", using stored data");
+            T storedData = getStoredData();
+            if (storedData != null) {
+                return Observable.just(storedData);
+            }
+        }
+        return Observable.error(throwable);
+    }
+
+    /**
+     * @return Data which was stored when the response was fetched the last time.
+     * @throws Exception If the data couldn't be retrieved
+     */
+    protected abstract T getStoredData() throws Exception;
+}
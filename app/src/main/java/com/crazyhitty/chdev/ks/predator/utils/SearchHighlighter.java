@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the matched words of a search response in the texts of its hits. The
+ * words are compiled into a single pattern once per response, which is then reused for every
+ * hit. The last compiled pattern is kept, so that more pages of the same keyword reuse it too.
+ */
+
+public class SearchHighlighter {
+    private static final int[] NO_HIGHLIGHTS = new int[0];
+
+    private static final SearchHighlighter EMPTY = new SearchHighlighter(null);
+
+    private static Set<String> sLastWords;
+    private static SearchHighlighter sLastHighlighter;
+
+    private final Pattern mPattern;
+
+    private SearchHighlighter(@Nullable Pattern pattern) {
+        mPattern = pattern;
+    }
+
+    /**
+     * @param words Words to be highlighted, compared without case; blank or duplicate words
+     *              are ignored
+     * @return Highlighter for the words, reused while the same set of words is requested
+     */
+    public static synchronized SearchHighlighter compile(@NonNull Collection<String> words) {
+        Set<String> wordSet = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String word : words) {
+            if (word != null && !word.trim().isEmpty()) {
+                wordSet.add(word.trim());
+            }
+        }
+
+        if (wordSet.isEmpty()) {
+            return EMPTY;
+        }
+
+        if (wordSet.equals(sLastWords)) {
+            return sLastHighlighter;
+        }
+
+        sLastWords = wordSet;
+        sLastHighlighter = new SearchHighlighter(getPattern(wordSet));
+        return sLastHighlighter;
+    }
+
+    private static Pattern getPattern(Set<String> words) {
+        // Longer words are tried first, so that a word is not cut short by one of its prefixes.
+        List<String> sortedWords = new ArrayList<>(words);
+        Collections.sort(sortedWords, new Comparator<String>() {
+            @Override
+            public int compare(String first, String second) {
+                return second.length() - first.length();
+            }
+        });
+
+        StringBuilder patternBuilder = new StringBuilder();
+        for (String word : sortedWords) {
+            if (patternBuilder.length() > 0) {
+                patternBuilder.append('|');
+            }
+            patternBuilder.append(Pattern.quote(word));
+        }
+
+        return Pattern.compile(patternBuilder.toString(),
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    public boolean isEmpty() {
+        return mPattern == null;
+    }
+
+    /**
+     * @return Start and end character offsets of every occurrence of the words in the text,
+     * one pair after the other
+     */
+    public @NonNull int[] find(@Nullable String text) {
+        if (mPattern == null || text == null || text.isEmpty()) {
+            return NO_HIGHLIGHTS;
+        }
+
+        Matcher matcher = mPattern.matcher(text);
+        int[] highlights = NO_HIGHLIGHTS;
+        int count = 0;
+        while (matcher.find()) {
+            if (count + 2 > highlights.length) {
+                highlights = Arrays.copyOf(highlights, Math.max(4, highlights.length * 2));
+            }
+            highlights[count++] = matcher.start();
+            highlights[count++] = matcher.end();
+        }
+
+        return count == highlights.length ? highlights : Arrays.copyOf(highlights, count);
+    }
+}
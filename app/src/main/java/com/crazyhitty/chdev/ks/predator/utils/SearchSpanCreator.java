@@ -31,10 +31,6 @@ import android.text.SpannableString;
 import android.text.TextUtils;
 import android.text.style.ForegroundColorSpan;
 
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Author:      Kartik Sharma
  * Email Id:    cr42yh17m4n@gmail.com
@@ -60,55 +56,29 @@ public class SearchSpanCreator {
 
     }
 
-    public @Nullable Spannable create(int color, @NonNull String text, @NonNull List<String> selections) {
-        if (color == COLOR_NONE)  {
-            return null;
-        }
-
-        if (TextUtils.isEmpty(text)) {
+    /**
+     * @param highlights Start and end character offsets of every part of the text to be
+     *                   highlighted, one pair after the other, e.g. found by a
+     *                   {@link SearchHighlighter}
+     */
+    public @Nullable Spannable create(int color, @Nullable String text, @NonNull int[] highlights) {
+        if (color == COLOR_NONE) {
             return null;
         }
 
-        String patternString = getPattern(selections);
-        Logger.d(TAG, "create: pattern: " + patternString);
-        if (TextUtils.isEmpty(patternString)) {
+        if (TextUtils.isEmpty(text) || highlights.length == 0) {
             return null;
         }
 
         Spannable spannable = new SpannableString(text);
-
-        Pattern pattern = Pattern.compile(patternString, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(text);
-
-        while (matcher.find()) {
-            Logger.d(TAG, String.format("create: group: %s; start: %s; end: %s",
-                    matcher.group(),
-                    matcher.start(),
-                    matcher.end()));
-            spannable.setSpan(new ForegroundColorSpan(color),
-                    matcher.start(),
-                    matcher.end(),
-                    0);
+        for (int i = 0; i + 1 < highlights.length; i += 2) {
+            int start = Math.min(highlights[i], text.length());
+            int end = Math.min(highlights[i + 1], text.length());
+            if (start < end) {
+                spannable.setSpan(new ForegroundColorSpan(color), start, end, 0);
+            }
         }
 
         return spannable;
     }
-
-    private @Nullable String getPattern(@NonNull List<String> selections) {
-        if (selections.isEmpty()) {
-            return null;
-        }
-
-        String pattern = "(";
-
-        if (selections.size() == 1) {
-            return pattern.concat(selections.get(0) + ")");
-        }
-
-        for (String selection : selections) {
-            pattern = pattern.concat(selection + "|");
-        }
-
-        return pattern.substring(0, pattern.length() - 1).concat(")");
-    }
 }
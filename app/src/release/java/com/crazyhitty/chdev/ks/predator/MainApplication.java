@@ -26,14 +26,24 @@ package com.crazyhitty.chdev.ks.predator;
 
 import android.app.Application;
 import android.content.Context;
+import android.support.annotation.Nullable;
 import android.support.v7.app.AppCompatDelegate;
 import android.text.TextUtils;
 
+import com.crazyhitty.chdev.ks.predator.core.search.SearchResultsCache;
+import com.crazyhitty.chdev.ks.predator.data.Constants;
+import com.crazyhitty.chdev.ks.predator.data.ModelCache;
+import com.crazyhitty.chdev.ks.predator.data.PostsSyncState;
 import com.crazyhitty.chdev.ks.predator.data.PredatorDatabase;
 import com.crazyhitty.chdev.ks.predator.data.PredatorSharedPreferences;
+import com.crazyhitty.chdev.ks.predator.data.StoredDataNotifier;
 import com.crazyhitty.chdev.ks.predator.utils.Logger;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.rest.ProductHuntHttpClient;
 import com.facebook.drawee.backends.pipeline.Fresco;
 
+import java.io.File;
+import java.io.IOException;
+
 import uk.co.chrisjenx.calligraphy.CalligraphyConfig;
 
 
@@ -57,6 +67,30 @@ public class MainApplication extends Application {
     public void onCreate() {
         super.onCreate();
 
+        // Initialize http cache.
+        ProductHuntHttpClient.setCache(new File(getCacheDir(), Constants.Http.CACHE_DIRECTORY),
+                Constants.Http.CACHE_SIZE);
+
+        // Stored responses would be revalidated against data which doesn't exist anymore once
+        // the tables are recreated. Registered before the database is opened, as an upgrade may
+        // recreate the tables.
+        StoredDataNotifier.getInstance().addListener(new StoredDataNotifier.OnStoredDataDroppedListener() {
+            @Override
+            public void onStoredDataDropped(@Nullable String tableName) {
+                if (tableName != null) {
+                    return;
+                }
+                try {
+                    ProductHuntHttpClient.evictCache();
+                } catch (IOException e) {
+                    Logger.e(TAG, "onStoredDataDropped: unable to clear http cache", e);
+                }
+            }
+        });
+
+        // Initialize posts sync state.
+        PostsSyncState.init(getApplicationContext());
+
         // Initialize Predator Database.
         PredatorDatabase.init(getApplicationContext());
 
@@ -98,6 +132,19 @@ public class MainApplication extends Application {
         }
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        ModelCache.getInstance().trimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        ModelCache.getInstance().evictAll();
+        SearchResultsCache.getInstance().evictAll();
+    }
+
     public static void reInitializeCalligraphy(Context context, String fontName) {
         if (!TextUtils.equals(fontName, context.getString(R.string.settings_change_font_system))) {
             Logger.d(TAG, "re initializing calligraphy");
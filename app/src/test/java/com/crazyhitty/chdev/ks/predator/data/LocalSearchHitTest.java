@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies the ranking and highlight offsets of offline search hits.
+ */
+
+public class LocalSearchHitTest {
+    @Test
+    public void nameMatchRanksAboveDetailMatch() {
+        // One phrase, two columns: hits in row, hits in all rows and rows with hits per column.
+        int[] nameMatch = {1, 2, 1, 4, 2, 0, 4, 2};
+        int[] detailMatch = {1, 2, 0, 4, 2, 1, 4, 2};
+        assertTrue(LocalSearchHit.getRank(nameMatch) > LocalSearchHit.getRank(detailMatch));
+    }
+
+    @Test
+    public void rankAddsWeightedShareOfHits() {
+        int[] matchInfo = {1, 2, 1, 2, 2, 1, 4, 3};
+        assertEquals(2.0 * 1 / 2 + 1.0 * 1 / 4, LocalSearchHit.getRank(matchInfo), 0.0001);
+    }
+
+    @Test
+    public void byteOffsetsAreConvertedToCharOffsets() {
+        assertEquals(5, LocalSearchHit.getCharOffset("Café app", 6));
+        // Emoji takes two chars and four bytes.
+        assertEquals(3, LocalSearchHit.getCharOffset("😀 notion", 5));
+        assertEquals(4, LocalSearchHit.getCharOffset("abcd", 10));
+    }
+
+    @Test
+    public void highlightsAreGroupedByColumn() {
+        int[][] highlights = LocalSearchHit.getHighlights("0 0 0 6 1 0 4 6 1 1 15 4",
+                new String[]{"Notion app", "All notion for apps"});
+        assertArrayEquals(new int[]{0, 6}, highlights[LocalSearchHit.COLUMN_NAME]);
+        assertArrayEquals(new int[]{4, 10, 15, 19}, highlights[LocalSearchHit.COLUMN_DETAIL]);
+    }
+
+    @Test
+    public void topHitsAreSortedAndLimited() {
+        List<LocalSearchHit<String>> hits = new ArrayList<>();
+        hits.add(new LocalSearchHit<>("low", 0.5, new int[2][0]));
+        hits.add(new LocalSearchHit<>("high", 2.0, new int[2][0]));
+        hits.add(new LocalSearchHit<>("mid", 1.0, new int[2][0]));
+
+        List<LocalSearchHit<String>> topHits = LocalSearchHit.getTopHits(hits, 2);
+        assertEquals(2, topHits.size());
+        assertEquals("high", topHits.get(0).getItem());
+        assertEquals("mid", topHits.get(1).getItem());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Verifies that every historical database version can be migrated to the latest
+ * version. The migrations themselves are run against real databases in PredatorMigrationTest
+ * (androidTest).
+ */
+
+public class PredatorMigrationsTest {
+    @Test
+    public void everyHistoricalVersionReachesLatestVersion() {
+        for (int version = PredatorMigrations.OLDEST_MIGRATABLE_VERSION;
+             version < PredatorDbHelper.DATABASE_VERSION;
+             version++) {
+            List<PredatorMigration> migrations = PredatorMigrations.getMigrationPath(PredatorMigrations.getMigrations(),
+                    version,
+                    PredatorDbHelper.DATABASE_VERSION);
+            assertNotNull("No migration path from version " + version, migrations);
+
+            int currentVersion = version;
+            for (PredatorMigration migration : migrations) {
+                assertEquals("Migrations are not contiguous", currentVersion, migration.getStartVersion());
+                currentVersion = migration.getEndVersion();
+            }
+            assertEquals(PredatorDbHelper.DATABASE_VERSION, currentVersion);
+        }
+    }
+
+    @Test
+    public void migrationsAreOrdered() {
+        List<PredatorMigration> migrations = PredatorMigrations.getMigrations();
+        for (int i = 1; i < migrations.size(); i++) {
+            assertEquals("Migrations should be ordered by version",
+                    migrations.get(i - 1).getEndVersion(),
+                    migrations.get(i).getStartVersion());
+        }
+        assertEquals(PredatorDbHelper.DATABASE_VERSION, migrations.get(migrations.size() - 1).getEndVersion());
+    }
+
+    @Test
+    public void versionsOlderThanOldestMigratableVersionAreRecreated() {
+        assertNull(PredatorMigrations.getMigrationPath(PredatorMigrations.getMigrations(),
+                PredatorMigrations.OLDEST_MIGRATABLE_VERSION - 1,
+                PredatorDbHelper.DATABASE_VERSION));
+    }
+
+    @Test
+    public void migrationPathPrefersLongestStepsAndDetectsGaps() {
+        List<PredatorMigration> migrations = Arrays.asList(getMigration(1, 2),
+                getMigration(2, 3),
+                getMigration(1, 3),
+                getMigration(3, 4),
+                getMigration(5, 6));
+
+        List<PredatorMigration> migrationPath = PredatorMigrations.getMigrationPath(migrations, 1, 4);
+        assertNotNull(migrationPath);
+        assertEquals(2, migrationPath.size());
+        assertEquals(3, migrationPath.get(0).getEndVersion());
+
+        assertEquals(0, PredatorMigrations.getMigrationPath(migrations, 4, 4).size());
+        assertNull(PredatorMigrations.getMigrationPath(migrations, 1, 6));
+    }
+
+    private static PredatorMigration getMigration(int startVersion, int endVersion) {
+        return new PredatorMigration(startVersion, endVersion) {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies which sync jobs run along with a sync and the backoff applied to failed ones.
+ */
+
+public class SyncSchedulerTest {
+    @Test
+    public void backoffStartsWithInitialDelay() {
+        assertEquals(Constants.Sync.INITIAL_BACKOFF_MILLIS, SyncScheduler.getBackoffMillis(1));
+    }
+
+    @Test
+    public void backoffDoublesWithEveryFailure() {
+        assertEquals(Constants.Sync.INITIAL_BACKOFF_MILLIS * 2, SyncScheduler.getBackoffMillis(2));
+        assertEquals(Constants.Sync.INITIAL_BACKOFF_MILLIS * 8, SyncScheduler.getBackoffMillis(4));
+    }
+
+    @Test
+    public void backoffIsCapped() {
+        assertEquals(Constants.Sync.MAX_BACKOFF_MILLIS, SyncScheduler.getBackoffMillis(20));
+        assertEquals(Constants.Sync.MAX_BACKOFF_MILLIS, SyncScheduler.getBackoffMillis(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void jobsDueWithinBatchWindowRun() {
+        assertTrue(SyncScheduler.isDue(-1000, 0));
+        assertTrue(SyncScheduler.isDue(0, 0));
+        assertTrue(SyncScheduler.isDue(Constants.Sync.BATCH_WINDOW_MILLIS, 0));
+        assertFalse(SyncScheduler.isDue(Constants.Sync.BATCH_WINDOW_MILLIS + 1, 0));
+    }
+
+    @Test
+    public void failedJobsWaitForTheirBackoff() {
+        for (int failures = 1; failures <= 5; failures++) {
+            long backoffMillis = SyncScheduler.getBackoffMillis(failures);
+            // Retried by a sync starting right after the failure only once the backoff is over.
+            assertFalse("Retried early after " + failures + " failures",
+                    SyncScheduler.isDue(backoffMillis, failures));
+            assertFalse(SyncScheduler.isDue(1, failures));
+            assertTrue(SyncScheduler.isDue(0, failures));
+            assertTrue(SyncScheduler.isDue(-1000, failures));
+        }
+    }
+}
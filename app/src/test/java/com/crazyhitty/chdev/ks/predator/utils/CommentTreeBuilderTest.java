@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.utils;
+
+import com.crazyhitty.chdev.ks.predator.models.Comment;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that the in memory comment thread matches the thread built using one
+ * query per parent comment, and that the thread is only gone through once while building it.
+ */
+
+public class CommentTreeBuilderTest {
+    private static final int THREAD_SIZE = 5000;
+
+    private int mParentLookups;
+
+    @Test
+    public void build_matchesPerParentOrdering() throws Exception {
+        List<Comment> comments = getSyntheticThread(THREAD_SIZE);
+
+        mParentLookups = 0;
+        List<Comment> expected = new ArrayList<>();
+        buildPerParent(comments, 0, 0, expected);
+        int perParentLookups = mParentLookups;
+
+        List<Integer> expectedIds = new ArrayList<>();
+        List<Integer> expectedChildSpaces = new ArrayList<>();
+        for (Comment comment : expected) {
+            expectedIds.add(comment.getCommentId());
+            expectedChildSpaces.add(comment.getChildSpaces());
+        }
+
+        mParentLookups = 0;
+        List<Comment> actual = CommentTreeBuilder.build(comments, null);
+        int treeBuilderLookups = mParentLookups;
+
+        assertEquals(THREAD_SIZE, actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(expectedIds.get(i).intValue(), actual.get(i).getCommentId());
+            assertEquals(expectedChildSpaces.get(i).intValue(), actual.get(i).getChildSpaces());
+        }
+
+        // Looking up the children of every parent separately goes through the whole thread once
+        // per comment, building the tree in memory looks at the parent of every comment at most
+        // twice.
+        assertTrue("tree builder lookups: " + treeBuilderLookups, treeBuilderLookups <= 2 * THREAD_SIZE);
+        assertEquals((THREAD_SIZE + 1) * THREAD_SIZE, perParentLookups);
+    }
+
+    /**
+     * Creates a thread where every comment replies to a random older comment or to the post
+     * itself. Comments are sorted according to the time of their creation, like the query in
+     * PredatorDatabase.getCommentsForPost().
+     */
+    private List<Comment> getSyntheticThread(int size) {
+        Random random = new Random(42);
+        List<Comment> comments = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Comment comment = new CountingComment();
+            comment.setId(i);
+            comment.setCommentId(i * 10);
+            comment.setParentCommentId(i == 1 || random.nextInt(4) == 0 ? 0 : random.nextInt(i - 1) * 10 + 10);
+            comment.setCreatedAtMillis(i / 3);
+            comment.setVotes(random.nextInt(20));
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    /**
+     * Mirrors the old behaviour, where every parent comment was queried separately.
+     */
+    private void buildPerParent(List<Comment> comments, int parentCommentId, int childSpaces, List<Comment> result) {
+        List<Comment> children = new ArrayList<>();
+        for (Comment comment : comments) {
+            if (comment.getParentCommentId() == parentCommentId) {
+                children.add(comment);
+            }
+        }
+        if (childSpaces == 0) {
+            Collections.sort(children, new Comparator<Comment>() {
+                @Override
+                public int compare(Comment comment1, Comment comment2) {
+                    if (comment1.getVotes() != comment2.getVotes()) {
+                        return comment2.getVotes() - comment1.getVotes();
+                    }
+                    return comment1.getId() - comment2.getId();
+                }
+            });
+        }
+        for (Comment comment : children) {
+            Comment copy = new Comment();
+            copy.setCommentId(comment.getCommentId());
+            copy.setChildSpaces(childSpaces);
+            result.add(copy);
+            buildPerParent(comments, comment.getCommentId(), childSpaces + 1, result);
+        }
+    }
+
+    /**
+     * Counts how often the parent of a comment is looked up.
+     */
+    private class CountingComment extends Comment {
+        @Override
+        public int getParentCommentId() {
+            mParentLookups++;
+            return super.getParentCommentId();
+        }
+    }
+}
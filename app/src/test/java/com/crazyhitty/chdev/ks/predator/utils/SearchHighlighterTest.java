@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.predator.utils;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies the highlights found by SearchHighlighter and compares it with
+ * compiling a pattern for every text of every hit, over 1,000 hits.
+ */
+
+public class SearchHighlighterTest {
+    private static final int HITS = 1000;
+    private static final int ROUNDS = 20;
+
+    @Test
+    public void wordsAreMatchedWithoutCase() {
+        SearchHighlighter searchHighlighter = SearchHighlighter.compile(Arrays.asList("work"));
+        assertArrayEquals(new int[]{0, 4, 13, 17},
+                searchHighlighter.find("Workplace by work"));
+    }
+
+    @Test
+    public void regexMetacharactersAreMatchedLiterally() {
+        SearchHighlighter searchHighlighter = SearchHighlighter.compile(Arrays.asList("c++", "(beta)"));
+        assertArrayEquals(new int[]{6, 9, 10, 16},
+                searchHighlighter.find("Learn c++ (beta) cxx"));
+    }
+
+    @Test
+    public void longerWordsAreMatchedFirst() {
+        SearchHighlighter searchHighlighter = SearchHighlighter.compile(Arrays.asList("note", "notes"));
+        assertArrayEquals(new int[]{0, 5}, searchHighlighter.find("Notes"));
+    }
+
+    @Test
+    public void sameWordsReuseCompiledHighlighter() {
+        SearchHighlighter searchHighlighter = SearchHighlighter.compile(Arrays.asList("slack", "bot"));
+        assertSame(searchHighlighter, SearchHighlighter.compile(Arrays.asList("Bot", "slack", "bot")));
+    }
+
+    @Test
+    public void emptyWordsFindNothing() {
+        SearchHighlighter searchHighlighter = SearchHighlighter.compile(Collections.<String>emptyList());
+        assertTrue(searchHighlighter.isEmpty());
+        assertEquals(0, searchHighlighter.find("Anything").length);
+    }
+
+    @Test
+    public void highlightsOfThousandHitsMatchAndAllocateLess() {
+        List<String> matchedWords = Arrays.asList("work", "place", "chat");
+        List<String> texts = getTexts();
+
+        // Warm up both ways before measuring.
+        for (int i = 0; i < ROUNDS; i++) {
+            highlightPerText(texts, matchedWords);
+            highlightOnce(texts, matchedWords);
+        }
+
+        long perTextBytes = getAllocatedBytes();
+        List<int[]> perTextHighlights = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            perTextHighlights = highlightPerText(texts, matchedWords);
+        }
+        perTextBytes = (getAllocatedBytes() - perTextBytes) / ROUNDS;
+
+        long onceBytes = getAllocatedBytes();
+        List<int[]> onceHighlights = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            onceHighlights = highlightOnce(texts, matchedWords);
+        }
+        onceBytes = (getAllocatedBytes() - onceBytes) / ROUNDS;
+
+        assertEquals(perTextHighlights.size(), onceHighlights.size());
+        for (int i = 0; i < perTextHighlights.size(); i++) {
+            assertArrayEquals(perTextHighlights.get(i), onceHighlights.get(i));
+        }
+        // Allocations can only be measured on jvms which report them per thread.
+        if (perTextBytes > 0) {
+            assertTrue("Pattern per response allocated " + onceBytes + " bytes, pattern per text " + perTextBytes,
+                    onceBytes * 2 < perTextBytes);
+        }
+    }
+
+    private List<String> getTexts() {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < HITS; i++) {
+            texts.add("Workplace " + i);
+            texts.add("Chat with everyone at work, no matter the place #" + i);
+        }
+        return texts;
+    }
+
+    /**
+     * Highlights the texts the way they were highlighted before, by building and compiling a
+     * pattern for every text.
+     */
+    private List<int[]> highlightPerText(List<String> texts, List<String> matchedWords) {
+        List<int[]> highlights = new ArrayList<>();
+        for (String text : texts) {
+            String patternString = "(";
+            for (String matchedWord : matchedWords) {
+                patternString = patternString.concat(matchedWord + "|");
+            }
+            patternString = patternString.substring(0, patternString.length() - 1).concat(")");
+
+            Matcher matcher = Pattern.compile(patternString, Pattern.CASE_INSENSITIVE).matcher(text);
+            List<Integer> offsets = new ArrayList<>();
+            while (matcher.find()) {
+                offsets.add(matcher.start());
+                offsets.add(matcher.end());
+            }
+
+            int[] textHighlights = new int[offsets.size()];
+            for (int i = 0; i < textHighlights.length; i++) {
+                textHighlights[i] = offsets.get(i);
+            }
+            highlights.add(textHighlights);
+        }
+        return highlights;
+    }
+
+    private List<int[]> highlightOnce(List<String> texts, List<String> matchedWords) {
+        SearchHighlighter searchHighlighter = SearchHighlighter.compile(matchedWords);
+        List<int[]> highlights = new ArrayList<>();
+        for (String text : texts) {
+            highlights.add(searchHighlighter.find(text));
+        }
+        return highlights;
+    }
+
+    private long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
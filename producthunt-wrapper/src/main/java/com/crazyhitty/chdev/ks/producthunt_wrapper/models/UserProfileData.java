@@ -266,7 +266,7 @@ public class UserProfileData {
                 for (PostsData.Posts post : posts) {
                     huntedPostsIds += post.getId() + ",";
                 }
-                return huntedPostsIds.substring(0, huntedPostsIds.length() - 2);
+                return huntedPostsIds.substring(0, huntedPostsIds.length() - 1);
             }
             return "";
         }
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts how the GET requests were served by the http cache.
+ */
+
+public class CacheStats {
+    private final AtomicInteger mHitCount = new AtomicInteger();
+    private final AtomicInteger mRevalidationCount = new AtomicInteger();
+    private final AtomicInteger mMissCount = new AtomicInteger();
+
+    CacheStats() {
+
+    }
+
+    /**
+     * @return Number of responses served from the cache without contacting the server.
+     */
+    public int getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * @return Number of conditional requests which the server answered with 304 Not Modified.
+     */
+    public int getRevalidationCount() {
+        return mRevalidationCount.get();
+    }
+
+    /**
+     * @return Number of responses which were downloaded completely.
+     */
+    public int getMissCount() {
+        return mMissCount.get();
+    }
+
+    void onHit() {
+        mHitCount.incrementAndGet();
+    }
+
+    void onRevalidation() {
+        mRevalidationCount.incrementAndGet();
+    }
+
+    void onMiss() {
+        mMissCount.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "hits: %d, revalidations: %d, misses: %d",
+                getHitCount(),
+                getRevalidationCount(),
+                getMissCount());
+    }
+}
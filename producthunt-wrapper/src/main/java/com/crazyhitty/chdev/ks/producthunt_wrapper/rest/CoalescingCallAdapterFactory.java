@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import io.reactivex.Observable;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Retrofit;
+import retrofit2.http.Streaming;
+
+/**
+ * Wraps the observables created by the next call adapter, so that identical GET
+ * requests made at the same time are collapsed into a single one by {@link RequestCoalescer}.
+ * Streamed or raw response bodies can only be read once, so those requests are never shared.
+ */
+
+class CoalescingCallAdapterFactory extends CallAdapter.Factory {
+    private final RequestCoalescer mRequestCoalescer;
+
+    CoalescingCallAdapterFactory(RequestCoalescer requestCoalescer) {
+        mRequestCoalescer = requestCoalescer;
+    }
+
+    @Override
+    public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Observable.class ||
+                !(returnType instanceof ParameterizedType) ||
+                getRawType(getParameterUpperBound(0, (ParameterizedType) returnType)) == ResponseBody.class) {
+            return null;
+        }
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Streaming) {
+                return null;
+            }
+        }
+
+        final CallAdapter<?> delegate = retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Observable<?>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public <R> Observable<?> adapt(Call<R> call) {
+                Observable<?> observable = (Observable<?>) delegate.adapt(call);
+                Request request = call.request();
+                if (!"GET".equals(request.method())) {
+                    return observable;
+                }
+                return mRequestCoalescer.coalesce(getKey(request), observable);
+            }
+        };
+    }
+
+    private static String getKey(Request request) {
+        // Responses depend on the credentials as well, so never share them between different tokens.
+        // Conditional requests may fail where the others return the cached body, so they aren't
+        // shared either.
+        return request.method() + " " + request.url() + " " + request.header(Constants.AUTHORIZATION) +
+                " " + request.header(Constants.CONDITIONAL_REQUEST);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts how many of the GET requests were collapsed into a request for the same
+ * endpoint and parameters which was already running or had just completed.
+ */
+
+public class CoalescingStats {
+    private final AtomicInteger mRequestCount = new AtomicInteger();
+    private final AtomicInteger mCollapsedCount = new AtomicInteger();
+
+    CoalescingStats() {
+
+    }
+
+    /**
+     * @return Number of requests which were actually sent.
+     */
+    public int getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * @return Number of requests which reused a request that was already sent.
+     */
+    public int getCollapsedCount() {
+        return mCollapsedCount.get();
+    }
+
+    void onRequest() {
+        mRequestCount.incrementAndGet();
+    }
+
+    void onCollapsed() {
+        mCollapsedCount.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "requests: %d, collapsed: %d",
+                getRequestCount(),
+                getCollapsedCount());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor which records how every GET request was served by the
+ * cache. Requests marked with {@link Constants#CONDITIONAL_REQUEST} set to true fail with
+ * {@link NotModifiedException} if the response didn't change, so that it is neither parsed nor
+ * stored again.
+ */
+
+class ConditionalRequestInterceptor implements Interceptor {
+    private final CacheStats mCacheStats;
+
+    ConditionalRequestInterceptor(CacheStats cacheStats) {
+        mCacheStats = cacheStats;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        if (!request.method().equals("GET")) {
+            return response;
+        }
+
+        boolean notModified = false;
+        if (response.cacheResponse() != null && response.networkResponse() == null) {
+            mCacheStats.onHit();
+            notModified = true;
+        } else if (response.cacheResponse() != null &&
+                response.networkResponse().code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            mCacheStats.onRevalidation();
+            notModified = true;
+        } else {
+            mCacheStats.onMiss();
+        }
+
+        if (notModified && Constants.TRUE.equals(request.header(Constants.CONDITIONAL_REQUEST))) {
+            response.body().close();
+            throw new NotModifiedException(request.url().toString());
+        }
+        return response;
+    }
+}
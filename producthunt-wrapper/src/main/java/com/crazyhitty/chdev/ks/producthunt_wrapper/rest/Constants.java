@@ -38,11 +38,21 @@ class Constants {
     static final String AUTHORIZATION = "Authorization";
     static final String HOST = "Host";
     static final String IF_NONE_MATCH = "If-None-Match";
+    static final String CACHE_CONTROL = "Cache-Control";
+    static final String PRAGMA = "Pragma";
+    static final String CONDITIONAL_REQUEST = "Predator-Conditional-Request";
+
+    // core response headers
+    static final String E_TAG = "ETag";
+    static final String LAST_MODIFIED = "Last-Modified";
 
     // core request values
     static final String APPLICATION_JSON = "application/json";
     static final String HOST_PRODUCT_HUNT = "api.producthunt.com";
     static final String BEARER = "Bearer ";
+    static final String NO_CACHE = "no-cache";
+    static final String TRUE = "true";
+    static final String FALSE = "false";
 
     // posts
     static final String CATEGORY_NAME = "category_name";
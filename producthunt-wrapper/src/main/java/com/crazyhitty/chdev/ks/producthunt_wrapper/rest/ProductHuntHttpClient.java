@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import com.google.gson.Gson;
+import com.jakewharton.retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Owns the single base {@link OkHttpClient} used for every web service. Clients for
+ * each host are derived from it via {@link OkHttpClient#newBuilder()}, so all of them share the
+ * same connection pool, dispatcher, TLS sessions and http cache.
+ * <p>
+ * Calls are executed synchronously on the thread of the scheduler they are subscribed on, so the
+ * dispatcher's request limits don't apply to them. The number of requests made at once is
+ * bounded by the callers, through the scheduler they subscribe on or the concurrency of their
+ * flatMap.
+ */
+
+public class ProductHuntHttpClient {
+    // Connection timeout
+    private static final long CONNECTION_TIMEOUT = 30L;
+
+    // Idle connections are kept alive for this long before being evicted from the pool.
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_DURATION = 5L;
+
+    private static final ConnectionPool CONNECTION_POOL = new ConnectionPool(MAX_IDLE_CONNECTIONS,
+            KEEP_ALIVE_DURATION,
+            TimeUnit.MINUTES);
+
+    private static final Gson GSON = new Gson();
+
+    private static final CacheStats CACHE_STATS = new CacheStats();
+
+    // Result of a GET request is reused by identical requests made within this window.
+    private static final long REQUEST_REUSE_WINDOW = 2000L;
+
+    private static final CoalescingStats COALESCING_STATS = new CoalescingStats();
+
+    private static final RequestCoalescer REQUEST_COALESCER = new RequestCoalescer(REQUEST_REUSE_WINDOW,
+            COALESCING_STATS);
+
+    private static Cache sCache;
+
+    private static volatile OkHttpClient sBaseClient;
+
+    private ProductHuntHttpClient() {
+
+    }
+
+    /**
+     * @return Base client, derive host specific clients from it instead of creating new ones.
+     */
+    public static OkHttpClient getBaseClient() {
+        if (sBaseClient == null) {
+            synchronized (ProductHuntHttpClient.class) {
+                if (sBaseClient == null) {
+                    sBaseClient = new OkHttpClient.Builder()
+                            .connectionPool(CONNECTION_POOL)
+                            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                            .connectTimeout(CONNECTION_TIMEOUT, TimeUnit.SECONDS)
+                            .readTimeout(CONNECTION_TIMEOUT, TimeUnit.SECONDS)
+                            .writeTimeout(CONNECTION_TIMEOUT, TimeUnit.SECONDS)
+                            .cache(sCache)
+                            .addInterceptor(new ConditionalRequestInterceptor(CACHE_STATS))
+                            .addNetworkInterceptor(new RevalidationInterceptor())
+                            .build();
+                }
+            }
+        }
+        return sBaseClient;
+    }
+
+    /**
+     * Store the responses on disk, so unchanged responses can be revalidated instead of being
+     * downloaded again. Should be called before any of the web services are accessed.
+     *
+     * @param directory Directory where the responses are stored
+     * @param maxSize   Maximum size of the cache in bytes
+     */
+    public static void setCache(File directory, long maxSize) {
+        synchronized (ProductHuntHttpClient.class) {
+            sCache = new Cache(directory, maxSize);
+        }
+    }
+
+    /**
+     * Value of the conditional request header of {@link ProductHuntService}. Both values revalidate
+     * the stored response, but only a conditional request fails with {@link NotModifiedException}
+     * if the response didn't change. So it should only be sent if the data persisted from the
+     * previous response is still stored, otherwise the unchanged response is returned from the
+     * cache to be persisted again.
+     *
+     * @param dataStored True, if the data of the previous response is still stored
+     * @return Value of the header
+     */
+    public static String getConditionalRequest(boolean dataStored) {
+        return dataStored ? Constants.TRUE : Constants.FALSE;
+    }
+
+    /**
+     * @param response Response of any of the web services
+     * @return Entity tag of the response, or null if it didn't send one
+     */
+    public static String getEntityTag(Response<?> response) {
+        return response.headers().get(Constants.E_TAG);
+    }
+
+    /**
+     * Remove all of the stored responses.
+     *
+     * @throws IOException If the cache couldn't be cleared
+     */
+    public static void evictCache() throws IOException {
+        synchronized (ProductHuntHttpClient.class) {
+            if (sCache != null) {
+                sCache.evictAll();
+            }
+        }
+    }
+
+    /**
+     * @return Hit, revalidation and miss counts of the GET requests made since the app started.
+     */
+    public static CacheStats getCacheStats() {
+        return CACHE_STATS;
+    }
+
+    /**
+     * @return Number of GET requests sent and the number of identical ones collapsed into them.
+     */
+    public static CoalescingStats getCoalescingStats() {
+        return COALESCING_STATS;
+    }
+
+    /**
+     * @return Shared {@link Gson} instance, reuse it to parse responses outside of Retrofit.
+     */
+    public static Gson getGson() {
+        return GSON;
+    }
+
+    /**
+     * Create a {@link Retrofit} instance which uses the shared {@link Gson} instance, so that the
+     * reflective type adapters are only built once. Identical GET requests made at the same time
+     * through any of the instances are collapsed into a single one.
+     *
+     * @param baseUrl Base url of the web service
+     * @param client  Client derived from {@link #getBaseClient()}
+     * @return {@link Retrofit}
+     */
+    public static Retrofit createRetrofit(String baseUrl, OkHttpClient client) {
+        return createRetrofit(baseUrl, client, REQUEST_COALESCER);
+    }
+
+    /**
+     * Same as {@link #createRetrofit(String, OkHttpClient)}, but requests are only coalesced with
+     * the other requests made through the provided coalescer.
+     */
+    static Retrofit createRetrofit(String baseUrl, OkHttpClient client, RequestCoalescer requestCoalescer) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(client)
+                .addCallAdapterFactory(new CoalescingCallAdapterFactory(requestCoalescer))
+                .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(GSON))
+                .build();
+    }
+}
@@ -39,12 +39,15 @@ import com.crazyhitty.chdev.ks.producthunt_wrapper.models.UserProfileData;
 import java.util.HashMap;
 
 import io.reactivex.Observable;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Author:      Kartik Sharma
@@ -59,23 +62,47 @@ public interface ProductHuntService {
                                    @Query(Constants.PAGE) int page,
                                    @Query(Constants.PER_PAGE) int perPage);
 
+    /**
+     * Whole response is returned, so that its ETag can be recorded by the caller.
+     *
+     * @param conditionalRequest See {@link ProductHuntHttpClient#getConditionalRequest(boolean)}
+     */
     @GET(ApiUrls.GET_POSTS_BY_CATEGORY_DAYWISE)
-    Observable<PostsData> getPostsCategoryWise(@Header(Constants.AUTHORIZATION) String authorization,
-                                               @Path(Constants.CATEGORY_NAME) String categoryName,
-                                               @Query(Constants.DAY) String day);
-
+    Observable<Response<PostsData>> getPostsCategoryWise(@Header(Constants.AUTHORIZATION) String authorization,
+                                                         @Header(Constants.CONDITIONAL_REQUEST) String conditionalRequest,
+                                                         @Path(Constants.CATEGORY_NAME) String categoryName,
+                                                         @Query(Constants.DAY) String day);
+
+    /**
+     * @param conditionalRequest See {@link ProductHuntHttpClient#getConditionalRequest(boolean)}
+     */
     @GET(ApiUrls.GET_POSTS_DETAILS)
     Observable<PostDetailsData> getPostDetails(@Header(Constants.AUTHORIZATION) String authorization,
+                                               @Header(Constants.CONDITIONAL_REQUEST) String conditionalRequest,
                                                @Path(Constants.POST_ID) int postId);
 
+    /**
+     * Same as {@link #getPostDetails(String, String, int)}, but the body is not buffered so that it
+     * can be parsed as a stream.
+     */
+    @Streaming
+    @GET(ApiUrls.GET_POSTS_DETAILS)
+    Observable<ResponseBody> getPostDetailsStream(@Header(Constants.AUTHORIZATION) String authorization,
+                                                  @Header(Constants.CONDITIONAL_REQUEST) String conditionalRequest,
+                                                  @Path(Constants.POST_ID) int postId);
+
     @GET(ApiUrls.GET_POST_COMMENTS)
     Observable<PostCommentsData> getPostComments(@Header(Constants.AUTHORIZATION) String authorization,
                                                  @Path(Constants.POST_ID) int postId,
                                                  @Query(Constants.PAGE) int page,
                                                  @Query(Constants.PER_PAGE) int perPage);
 
+    /**
+     * @param conditionalRequest See {@link ProductHuntHttpClient#getConditionalRequest(boolean)}
+     */
     @GET(ApiUrls.GET_COLLECTIONS)
     Observable<CollectionsData> getCollections(@Header(Constants.AUTHORIZATION) String authorization,
+                                               @Header(Constants.CONDITIONAL_REQUEST) String conditionalRequest,
                                                @Query(Constants.PAGE) int page,
                                                @Query(Constants.PER_PAGE) int perPage,
                                                @Query(Constants.SEARCH_FEATURED) boolean isFeatured);
@@ -91,8 +118,12 @@ public interface ProductHuntService {
     Observable<UserProfileData> getUserProfile(@Header(Constants.AUTHORIZATION) String authorization,
                                                @Path(Constants.USER_ID) int userId);
 
+    /**
+     * @param conditionalRequest See {@link ProductHuntHttpClient#getConditionalRequest(boolean)}
+     */
     @GET(ApiUrls.GET_CATEGORIES)
-    Observable<CategoriesData> getCategories(@Header(Constants.AUTHORIZATION) String authorization);
+    Observable<CategoriesData> getCategories(@Header(Constants.AUTHORIZATION) String authorization,
+                                             @Header(Constants.CONDITIONAL_REQUEST) String conditionalRequest);
 
     @GET(ApiUrls.GET_POSTS)
     Observable<PostsData> searchPostBySlug(@Header(Constants.AUTHORIZATION) String authorization,
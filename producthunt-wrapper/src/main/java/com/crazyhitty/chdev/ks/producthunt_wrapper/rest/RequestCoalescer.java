@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+
+/**
+ * Shares a single request among all of the subscribers asking for the same key. Every
+ * request is expected to emit a single response, like a Retrofit call. The response of a
+ * completed request keeps being handed out for a short window, while a failed request
+ * is forgotten immediately so that it can be retried. A running request is canceled once all of
+ * its subscribers are gone.
+ */
+
+class RequestCoalescer {
+    private final long mReuseWindowMillis;
+
+    private final CoalescingStats mCoalescingStats;
+
+    private final Map<String, Entry> mEntries = new HashMap<>();
+
+    RequestCoalescer(long reuseWindowMillis, CoalescingStats coalescingStats) {
+        mReuseWindowMillis = reuseWindowMillis;
+        mCoalescingStats = coalescingStats;
+    }
+
+    /**
+     * @param key     Key identifying the request, usually its method, url and credentials
+     * @param request Observable which executes the request once subscribed
+     * @return Observable shared with every other caller using the same key
+     */
+    @SuppressWarnings("unchecked")
+    <T> Observable<T> coalesce(final String key, Observable<T> request) {
+        synchronized (mEntries) {
+            removeExpiredEntries();
+
+            Entry entry = mEntries.get(key);
+            if (entry != null) {
+                mCoalescingStats.onCollapsed();
+                return (Observable<T>) entry.mObservable;
+            }
+
+            final Entry newEntry = new Entry();
+            final Observable<T> sharedRequest = request
+                    .doOnNext(new Consumer<T>() {
+                        @Override
+                        public void accept(T value) throws Exception {
+                            synchronized (mEntries) {
+                                // Calls emit a single response, so the request is complete as
+                                // soon as it arrives. Subscribers taking only the first value
+                                // dispose the call before it reports completion.
+                                newEntry.mValues.add(value);
+                                newEntry.mCompletedAt = System.currentTimeMillis();
+                            }
+                        }
+                    })
+                    .doOnComplete(new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            synchronized (mEntries) {
+                                if (newEntry.mCompletedAt == 0) {
+                                    newEntry.mCompletedAt = System.currentTimeMillis();
+                                }
+                            }
+                        }
+                    })
+                    .doOnError(new Consumer<Throwable>() {
+                        @Override
+                        public void accept(Throwable throwable) throws Exception {
+                            removeEntry(key, newEntry);
+                        }
+                    })
+                    .doOnDispose(new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            synchronized (mEntries) {
+                                // Every subscriber left before the request finished, so it was
+                                // canceled and can't be reused.
+                                if (newEntry.mCompletedAt == 0) {
+                                    removeEntry(key, newEntry);
+                                }
+                            }
+                        }
+                    })
+                    .replay(1)
+                    .refCount();
+            // Once completed, the request is disconnected, so the values are handed out from the
+            // entry instead of executing the request again.
+            newEntry.mObservable = Observable.defer(new Callable<ObservableSource<T>>() {
+                @Override
+                public ObservableSource<T> call() throws Exception {
+                    synchronized (mEntries) {
+                        if (newEntry.mCompletedAt != 0) {
+                            return Observable.fromIterable(new ArrayList<>((List<T>) newEntry.mValues));
+                        }
+                    }
+                    return sharedRequest;
+                }
+            });
+            mEntries.put(key, newEntry);
+            mCoalescingStats.onRequest();
+            return (Observable<T>) newEntry.mObservable;
+        }
+    }
+
+    private void removeEntry(String key, Entry entry) {
+        synchronized (mEntries) {
+            // Only remove the request if it wasn't replaced by a newer one.
+            if (mEntries.get(key) == entry) {
+                mEntries.remove(key);
+            }
+        }
+    }
+
+    private void removeExpiredEntries() {
+        long currentTime = System.currentTimeMillis();
+        Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.mCompletedAt != 0 && currentTime - entry.mCompletedAt >= mReuseWindowMillis) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+        private Observable<?> mObservable;
+        // Values emitted by the request, handed out while the entry is reused.
+        private final List<Object> mValues = new ArrayList<>();
+        // Time at which the response arrived or the request completed, 0 while it is still running.
+        private long mCompletedAt;
+    }
+}
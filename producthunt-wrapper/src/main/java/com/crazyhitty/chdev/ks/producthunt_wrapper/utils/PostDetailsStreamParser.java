@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.utils;
+
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostCommentsData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostDetailsData;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the post details response as a stream. Votes, comments, media and install
+ * links are deserialized one element at a time and handed over in batches, so only a single batch
+ * of every section is held in memory instead of the complete response. The remaining fields of the
+ * post are handed over once the post object has been read completely.
+ */
+
+public class PostDetailsStreamParser {
+    private static final String POST = "post";
+    private static final String VOTES = "votes";
+    private static final String COMMENTS = "comments";
+    private static final String MEDIA = "media";
+    private static final String INSTALL_LINKS = "install_links";
+    private static final String RELATED_POSTS = "related_posts";
+    private static final String RELATED_LINKS = "related_links";
+
+    private final Gson mGson;
+
+    private final int mBatchSize;
+
+    public PostDetailsStreamParser(Gson gson, int batchSize) {
+        mGson = gson;
+        mBatchSize = batchSize;
+    }
+
+    /**
+     * Parse the post details response, the reader is closed afterwards.
+     *
+     * @param reader   Reader providing the response body
+     * @param callback Callback receiving the parsed sections
+     * @throws IOException If the response couldn't be read or is malformed
+     */
+    public void parse(Reader reader, Callback callback) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if (POST.equals(jsonReader.nextName())) {
+                    parsePost(jsonReader, callback);
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+        } finally {
+            jsonReader.close();
+        }
+    }
+
+    private void parsePost(JsonReader jsonReader, final Callback callback) throws IOException {
+        // Small fields of the post, these are deserialized together once the post is read.
+        JsonObject postFields = new JsonObject();
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            switch (name) {
+                case VOTES:
+                    parseArray(jsonReader, PostDetailsData.PostDetails.Votes.class, new BatchListener<PostDetailsData.PostDetails.Votes>() {
+                        @Override
+                        public void onBatch(List<PostDetailsData.PostDetails.Votes> batch) throws IOException {
+                            callback.onVotes(batch);
+                        }
+                    });
+                    break;
+                case COMMENTS:
+                    parseArray(jsonReader, PostCommentsData.Comments.class, new BatchListener<PostCommentsData.Comments>() {
+                        @Override
+                        public void onBatch(List<PostCommentsData.Comments> batch) throws IOException {
+                            callback.onComments(batch);
+                        }
+                    });
+                    break;
+                case MEDIA:
+                    parseArray(jsonReader, PostDetailsData.PostDetails.Media.class, new BatchListener<PostDetailsData.PostDetails.Media>() {
+                        @Override
+                        public void onBatch(List<PostDetailsData.PostDetails.Media> batch) throws IOException {
+                            callback.onMedia(batch);
+                        }
+                    });
+                    break;
+                case INSTALL_LINKS:
+                    parseArray(jsonReader, PostDetailsData.PostDetails.InstallLinks.class, new BatchListener<PostDetailsData.PostDetails.InstallLinks>() {
+                        @Override
+                        public void onBatch(List<PostDetailsData.PostDetails.InstallLinks> batch) throws IOException {
+                            callback.onInstallLinks(batch);
+                        }
+                    });
+                    break;
+                case RELATED_POSTS:
+                case RELATED_LINKS:
+                    // Not stored, so don't deserialize them at all.
+                    jsonReader.skipValue();
+                    break;
+                default:
+                    postFields.add(name, mGson.fromJson(jsonReader, JsonElement.class));
+                    break;
+            }
+        }
+        jsonReader.endObject();
+
+        callback.onPost(mGson.fromJson(postFields, PostDetailsData.PostDetails.class));
+    }
+
+    private <T> void parseArray(JsonReader jsonReader, Class<T> type, BatchListener<T> batchListener) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.skipValue();
+            return;
+        }
+
+        List<T> batch = new ArrayList<>(mBatchSize);
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            batch.add(mGson.<T>fromJson(jsonReader, type));
+            if (batch.size() == mBatchSize) {
+                batchListener.onBatch(batch);
+                batch = new ArrayList<>(mBatchSize);
+            }
+        }
+        jsonReader.endArray();
+
+        if (!batch.isEmpty()) {
+            batchListener.onBatch(batch);
+        }
+    }
+
+    private interface BatchListener<T> {
+        void onBatch(List<T> batch) throws IOException;
+    }
+
+    /**
+     * Receives the sections of the post details in the order they appear in the response.
+     */
+    public interface Callback {
+        /**
+         * @param post Post without votes, comments, media, install links and related posts.
+         */
+        void onPost(PostDetailsData.PostDetails post) throws IOException;
+
+        void onVotes(List<PostDetailsData.PostDetails.Votes> votes) throws IOException;
+
+        /**
+         * @param comments Top level comments along with their child comments.
+         */
+        void onComments(List<PostCommentsData.Comments> comments) throws IOException;
+
+        void onMedia(List<PostDetailsData.PostDetails.Media> media) throws IOException;
+
+        void onInstallLinks(List<PostDetailsData.PostDetails.InstallLinks> installLinks) throws IOException;
+    }
+}
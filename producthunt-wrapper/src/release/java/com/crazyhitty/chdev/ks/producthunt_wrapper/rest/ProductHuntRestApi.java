@@ -24,17 +24,12 @@
 
 package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
 
-import com.jakewharton.retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
-
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 /**
  * Author:      Kartik Sharma
@@ -44,9 +39,6 @@ import retrofit2.converter.gson.GsonConverterFactory;
  */
 
 public class ProductHuntRestApi {
-    // Connection timeout
-    private static final long CONNECTION_TIMEOUT = 30L;
-
     /**
      * This interceptor will add some predefined params/headers to each request.
      */
@@ -65,6 +57,10 @@ public class ProductHuntRestApi {
         }
     };
 
+    private static volatile ProductHuntService sApi;
+
+    private static volatile ProductHuntService sSearchApi;
+
     private ProductHuntRestApi() {
 
     }
@@ -75,37 +71,33 @@ public class ProductHuntRestApi {
      * @return {@link ProductHuntService}
      */
     public static ProductHuntService getApi() {
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(Authorization.BASE_URL)
-                .client(getOkHttpClient(true))
-                .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-
-        return retrofit.create(ProductHuntService.class);
+        if (sApi == null) {
+            synchronized (ProductHuntRestApi.class) {
+                if (sApi == null) {
+                    OkHttpClient okHttpClient = ProductHuntHttpClient.getBaseClient()
+                            .newBuilder()
+                            .addInterceptor(sInterceptor)
+                            .build();
+                    sApi = ProductHuntHttpClient.createRetrofit(Authorization.BASE_URL, okHttpClient)
+                            .create(ProductHuntService.class);
+                }
+            }
+        }
+        return sApi;
     }
 
     public static ProductHuntService getSearchApi() {
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(Authorization.SEARCH_URL)
-                .client(getOkHttpClient(false))
-                .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-
-        return retrofit.create(ProductHuntService.class);
-    }
-
-    private static OkHttpClient getOkHttpClient(boolean withInterceptor) {
-        OkHttpClient.Builder okHttpClientBuilder = new OkHttpClient.Builder();
-        okHttpClientBuilder.connectTimeout(CONNECTION_TIMEOUT, TimeUnit.SECONDS);
-        okHttpClientBuilder.readTimeout(CONNECTION_TIMEOUT, TimeUnit.SECONDS);
-        okHttpClientBuilder.writeTimeout(CONNECTION_TIMEOUT, TimeUnit.SECONDS);
-
-        if (withInterceptor) {
-            okHttpClientBuilder.addInterceptor(sInterceptor);
+        if (sSearchApi == null) {
+            synchronized (ProductHuntRestApi.class) {
+                if (sSearchApi == null) {
+                    OkHttpClient okHttpClient = ProductHuntHttpClient.getBaseClient()
+                            .newBuilder()
+                            .build();
+                    sSearchApi = ProductHuntHttpClient.createRetrofit(Authorization.SEARCH_URL, okHttpClient)
+                            .create(ProductHuntService.class);
+                }
+            }
         }
-
-        return okHttpClientBuilder.build();
+        return sSearchApi;
     }
 }
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Verifies that unchanged responses are revalidated with their ETag and reported as
+ * not modified instead of being parsed again.
+ */
+
+public class ConditionalRequestInterceptorTest {
+    private static final String E_TAG = "\"categories-v1\"";
+
+    private static final String CATEGORIES_RESPONSE = "{\"categories\":[]}";
+
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    private MockWebServer mMockWebServer;
+
+    private CacheStats mCacheStats;
+
+    private ProductHuntService mProductHuntService;
+
+    @Before
+    public void setUp() throws Exception {
+        mMockWebServer = new MockWebServer();
+        mMockWebServer.start();
+
+        mCacheStats = new CacheStats();
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .cache(new Cache(mTemporaryFolder.getRoot(), 1024 * 1024))
+                .addInterceptor(new ConditionalRequestInterceptor(mCacheStats))
+                .addNetworkInterceptor(new RevalidationInterceptor())
+                .build();
+        // Identical calls are made one after another, so none of them may reuse a response.
+        mProductHuntService = ProductHuntHttpClient.createRetrofit(mMockWebServer.url("/").toString(),
+                okHttpClient,
+                new RequestCoalescer(0L, new CoalescingStats()))
+                .create(ProductHuntService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mMockWebServer.shutdown();
+    }
+
+    @Test
+    public void unchangedResponseIsNotModified() throws Exception {
+        mMockWebServer.enqueue(new MockResponse()
+                .setHeader(Constants.E_TAG, E_TAG)
+                .setHeader(Constants.CACHE_CONTROL, "private, max-age=0, must-revalidate")
+                .setBody(CATEGORIES_RESPONSE));
+        mMockWebServer.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .setHeader(Constants.E_TAG, E_TAG));
+
+        assertNotNull(mProductHuntService.getCategories("", Constants.TRUE).blockingFirst());
+
+        try {
+            mProductHuntService.getCategories("", Constants.TRUE).blockingFirst();
+            fail("Unchanged response should not be parsed again");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof NotModifiedException);
+        }
+
+        RecordedRequest firstRequest = mMockWebServer.takeRequest();
+        assertNull(firstRequest.getHeader(Constants.CONDITIONAL_REQUEST));
+        RecordedRequest secondRequest = mMockWebServer.takeRequest();
+        assertEquals(E_TAG, secondRequest.getHeader("If-None-Match"));
+
+        assertEquals(1, mCacheStats.getMissCount());
+        assertEquals(1, mCacheStats.getRevalidationCount());
+        assertEquals(0, mCacheStats.getHitCount());
+    }
+
+    @Test
+    public void unchangedResponseIsReturnedForUnconditionalRequest() throws Exception {
+        mMockWebServer.enqueue(new MockResponse()
+                .setHeader(Constants.E_TAG, E_TAG)
+                .setHeader(Constants.CACHE_CONTROL, "private, max-age=0, must-revalidate")
+                .setBody(CATEGORIES_RESPONSE));
+        mMockWebServer.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .setHeader(Constants.E_TAG, E_TAG));
+
+        assertNotNull(mProductHuntService.getCategories("", ProductHuntHttpClient.getConditionalRequest(true)).blockingFirst());
+        // Stored data is gone, so the cached body is needed to persist it again.
+        assertNotNull(mProductHuntService.getCategories("", ProductHuntHttpClient.getConditionalRequest(false)).blockingFirst());
+
+        mMockWebServer.takeRequest();
+        assertEquals(E_TAG, mMockWebServer.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void changedResponseIsParsed() throws Exception {
+        mMockWebServer.enqueue(new MockResponse()
+                .setHeader(Constants.E_TAG, E_TAG)
+                .setBody(CATEGORIES_RESPONSE));
+        mMockWebServer.enqueue(new MockResponse()
+                .setHeader(Constants.E_TAG, "\"categories-v2\"")
+                .setBody(CATEGORIES_RESPONSE));
+
+        assertNotNull(mProductHuntService.getCategories("", Constants.TRUE).blockingFirst());
+        assertNotNull(mProductHuntService.getCategories("", Constants.TRUE).blockingFirst());
+
+        assertEquals(2, mCacheStats.getMissCount());
+        assertEquals(0, mCacheStats.getRevalidationCount());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies that sequential calls made through the shared client reuse one connection, while
+ * building a new client for every call opens a new connection each time.
+ */
+
+public class ProductHuntHttpClientTest {
+    private static final int CALLS = 100;
+
+    private static final String POSTS_RESPONSE = "{\"posts\":[]}";
+
+    private MockWebServer mMockWebServer;
+
+    private RequestCoalescer mRequestCoalescer;
+
+    @Before
+    public void setUp() throws Exception {
+        // Identical calls are made one after another, so none of them may reuse a response.
+        mRequestCoalescer = new RequestCoalescer(0L, new CoalescingStats());
+        mMockWebServer = new MockWebServer();
+        for (int i = 0; i < CALLS; i++) {
+            mMockWebServer.enqueue(new MockResponse().setBody(POSTS_RESPONSE));
+        }
+        mMockWebServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mMockWebServer.shutdown();
+    }
+
+    @Test
+    public void sharedClientReusesConnection() throws Exception {
+        OkHttpClient okHttpClient = ProductHuntHttpClient.getBaseClient()
+                .newBuilder()
+                .build();
+        ProductHuntService service = ProductHuntHttpClient.createRetrofit(mMockWebServer.url("/").toString(), okHttpClient, mRequestCoalescer)
+                .create(ProductHuntService.class);
+
+        for (int i = 0; i < CALLS; i++) {
+            service.getPosts("", 1, 1).blockingFirst();
+        }
+
+        // Every request should have been sent over the same connection.
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals(i, mMockWebServer.takeRequest().getSequenceNumber());
+        }
+    }
+
+    @Test
+    public void newClientPerCall() throws Exception {
+        for (int i = 0; i < CALLS; i++) {
+            ProductHuntHttpClient.createRetrofit(mMockWebServer.url("/").toString(), new OkHttpClient(), mRequestCoalescer)
+                    .create(ProductHuntService.class)
+                    .getPosts("", 1, 1)
+                    .blockingFirst();
+        }
+
+        // Every request opens a new connection.
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals(0, mMockWebServer.takeRequest().getSequenceNumber());
+        }
+    }
+}
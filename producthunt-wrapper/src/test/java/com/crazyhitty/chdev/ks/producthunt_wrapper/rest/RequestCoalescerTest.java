@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.rest;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostsData;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that identical requests share a single execution while it is running and
+ * for the reuse window afterwards, that failed requests are retried and that abandoned requests
+ * are canceled.
+ */
+
+public class RequestCoalescerTest {
+    private static final String KEY = "GET https://api.producthunt.com/v1/posts/1 Bearer token";
+
+    private final AtomicInteger mExecutionCount = new AtomicInteger();
+
+    private Observable<String> createRequest(PublishSubject<String> response) {
+        return response.doOnSubscribe(new Consumer<Disposable>() {
+            @Override
+            public void accept(Disposable disposable) throws Exception {
+                mExecutionCount.incrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    public void collapsesConcurrentRequests() throws Exception {
+        CoalescingStats coalescingStats = new CoalescingStats();
+        RequestCoalescer requestCoalescer = new RequestCoalescer(60000L, coalescingStats);
+        PublishSubject<String> response = PublishSubject.create();
+
+        TestObserver<String> first = requestCoalescer.coalesce(KEY, createRequest(response)).test();
+        TestObserver<String> second = requestCoalescer.coalesce(KEY, createRequest(response)).test();
+        response.onNext("post");
+        response.onComplete();
+
+        first.assertValue("post").assertComplete();
+        second.assertValue("post").assertComplete();
+        assertEquals(1, mExecutionCount.get());
+        assertEquals(1, coalescingStats.getRequestCount());
+        assertEquals(1, coalescingStats.getCollapsedCount());
+    }
+
+    @Test
+    public void reusesResultWithinWindow() throws Exception {
+        CoalescingStats coalescingStats = new CoalescingStats();
+        RequestCoalescer requestCoalescer = new RequestCoalescer(60000L, coalescingStats);
+        PublishSubject<String> response = PublishSubject.create();
+
+        Observable<String> first = requestCoalescer.coalesce(KEY, createRequest(response));
+        first.test();
+        response.onNext("post");
+        response.onComplete();
+
+        Observable<String> second = requestCoalescer.coalesce(KEY, createRequest(PublishSubject.<String>create()));
+        assertSame(first, second);
+        second.test().assertValue("post").assertComplete();
+        assertEquals(1, mExecutionCount.get());
+    }
+
+    @Test
+    public void sendsNewRequestAfterWindow() throws Exception {
+        CoalescingStats coalescingStats = new CoalescingStats();
+        RequestCoalescer requestCoalescer = new RequestCoalescer(0L, coalescingStats);
+        PublishSubject<String> response = PublishSubject.create();
+
+        Observable<String> first = requestCoalescer.coalesce(KEY, createRequest(response));
+        first.test();
+        response.onComplete();
+
+        Observable<String> second = requestCoalescer.coalesce(KEY, createRequest(PublishSubject.<String>create()));
+        assertNotSame(first, second);
+        assertEquals(2, coalescingStats.getRequestCount());
+        assertEquals(0, coalescingStats.getCollapsedCount());
+    }
+
+    @Test
+    public void retriesFailedRequest() throws Exception {
+        CoalescingStats coalescingStats = new CoalescingStats();
+        RequestCoalescer requestCoalescer = new RequestCoalescer(60000L, coalescingStats);
+        PublishSubject<String> response = PublishSubject.create();
+
+        requestCoalescer.coalesce(KEY, createRequest(response)).test();
+        response.onError(new IOException("Connection reset"));
+
+        PublishSubject<String> retriedResponse = PublishSubject.create();
+        TestObserver<String> retried = requestCoalescer.coalesce(KEY, createRequest(retriedResponse)).test();
+        retriedResponse.onNext("post");
+        retriedResponse.onComplete();
+
+        retried.assertValue("post").assertComplete();
+        assertEquals(2, mExecutionCount.get());
+        assertEquals(2, coalescingStats.getRequestCount());
+    }
+
+    @Test
+    public void reusesResponseWhenSubscriberTakesFirstValue() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody("{\"posts\":[]}"));
+        server.start();
+        try {
+            CoalescingStats coalescingStats = new CoalescingStats();
+            RequestCoalescer requestCoalescer = new RequestCoalescer(60000L, coalescingStats);
+            ProductHuntService service = ProductHuntHttpClient.createRetrofit(server.url("/").toString(),
+                    new OkHttpClient(),
+                    requestCoalescer)
+                    .create(ProductHuntService.class);
+
+            // blockingFirst() disposes the call as soon as the response arrives.
+            PostsData first = service.getPosts("", 1, 1).blockingFirst();
+            PostsData second = service.getPosts("", 1, 1).blockingFirst();
+
+            assertNotNull(first);
+            assertNotNull(second);
+            assertEquals(1, server.getRequestCount());
+            assertEquals(1, coalescingStats.getRequestCount());
+            assertEquals(1, coalescingStats.getCollapsedCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void cancelsRequestWhenAllSubscribersDispose() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.start();
+        try {
+            RequestCoalescer requestCoalescer = new RequestCoalescer(60000L, new CoalescingStats());
+            final Call call = new OkHttpClient().newCall(new Request.Builder()
+                    .url(server.url("/v1/posts/1"))
+                    .build());
+            // Executes the call the same way the retrofit call adapter does.
+            Observable<String> request = Observable.create(new ObservableOnSubscribe<String>() {
+                @Override
+                public void subscribe(ObservableEmitter<String> emitter) throws Exception {
+                    emitter.setCancellable(new Cancellable() {
+                        @Override
+                        public void cancel() throws Exception {
+                            call.cancel();
+                        }
+                    });
+                    try {
+                        Response response = call.execute();
+                        emitter.onNext(response.body().string());
+                        emitter.onComplete();
+                    } catch (IOException e) {
+                        if (!emitter.isDisposed()) {
+                            emitter.onError(e);
+                        }
+                    }
+                }
+            }).subscribeOn(Schedulers.io());
+
+            TestObserver<String> first = requestCoalescer.coalesce(KEY, request).test();
+            TestObserver<String> second = requestCoalescer.coalesce(KEY, request).test();
+            assertNotNull(server.takeRequest(10, TimeUnit.SECONDS));
+
+            first.dispose();
+            assertFalse(call.isCanceled());
+            second.dispose();
+            assertTrue(call.isCanceled());
+
+            PublishSubject<String> response = PublishSubject.create();
+            TestObserver<String> retried = requestCoalescer.coalesce(KEY, createRequest(response)).test();
+            response.onNext("post");
+            response.onComplete();
+
+            retried.assertValue("post").assertComplete();
+            assertEquals(1, mExecutionCount.get());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
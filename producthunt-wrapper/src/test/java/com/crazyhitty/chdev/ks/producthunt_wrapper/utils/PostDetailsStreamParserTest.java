@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2016 Kartik Sharma
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.crazyhitty.chdev.ks.producthunt_wrapper.utils;
+
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostCommentsData;
+import com.crazyhitty.chdev.ks.producthunt_wrapper.models.PostDetailsData;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Verifies that the post details response is handed over section by section in
+ * batches of the configured size.
+ */
+
+public class PostDetailsStreamParserTest {
+    private static final int BATCH_SIZE = 100;
+
+    @Test
+    public void sectionsAreParsedInBatches() throws Exception {
+        StringBuilder json = new StringBuilder("{\"post\":{\"votes\":[");
+        for (int i = 0; i < 250; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"id\":").append(i)
+                    .append(",\"user_id\":").append(i)
+                    .append(",\"user\":{\"id\":").append(i).append(",\"name\":\"user ").append(i).append("\"}}");
+        }
+        json.append("],\"id\":42,\"name\":\"Predator\",\"votes_count\":250,")
+                .append("\"user\":{\"id\":1,\"name\":\"hunter\"},")
+                .append("\"comments\":[{\"id\":1,\"body\":\"parent\",\"child_comments\":[{\"id\":2,\"body\":\"child\"}]}],")
+                .append("\"related_posts\":[{\"id\":7,\"name\":\"related\"}],")
+                .append("\"media\":[{\"id\":3,\"media_type\":\"image\"},{\"id\":4,\"media_type\":\"video\"}],")
+                .append("\"install_links\":null}}");
+
+        RecordingCallback callback = new RecordingCallback();
+        new PostDetailsStreamParser(new Gson(), BATCH_SIZE).parse(new StringReader(json.toString()), callback);
+
+        assertEquals(3, callback.mVoteBatchSizes.size());
+        assertEquals(100, (int) callback.mVoteBatchSizes.get(0));
+        assertEquals(100, (int) callback.mVoteBatchSizes.get(1));
+        assertEquals(50, (int) callback.mVoteBatchSizes.get(2));
+
+        assertEquals(1, callback.mComments.size());
+        assertEquals(1, callback.mComments.get(0).getChildComments().size());
+        assertEquals(2, callback.mMediaCount);
+        assertEquals(0, callback.mInstallLinksCount);
+
+        assertNotNull(callback.mPost);
+        assertEquals(42, callback.mPost.getId());
+        assertEquals("Predator", callback.mPost.getName());
+        assertEquals("hunter", callback.mPost.getUser().getName());
+        // Sections are handed over separately, they are not a part of the post.
+        assertNull(callback.mPost.getVotes());
+        assertNull(callback.mPost.getRelatedPosts());
+    }
+
+    private static class RecordingCallback implements PostDetailsStreamParser.Callback {
+        private PostDetailsData.PostDetails mPost;
+        private List<Integer> mVoteBatchSizes = new ArrayList<>();
+        private List<PostCommentsData.Comments> mComments = new ArrayList<>();
+        private int mMediaCount;
+        private int mInstallLinksCount;
+
+        @Override
+        public void onPost(PostDetailsData.PostDetails post) {
+            mPost = post;
+        }
+
+        @Override
+        public void onVotes(List<PostDetailsData.PostDetails.Votes> votes) {
+            mVoteBatchSizes.add(votes.size());
+        }
+
+        @Override
+        public void onComments(List<PostCommentsData.Comments> comments) {
+            mComments.addAll(comments);
+        }
+
+        @Override
+        public void onMedia(List<PostDetailsData.PostDetails.Media> media) {
+            mMediaCount += media.size();
+        }
+
+        @Override
+        public void onInstallLinks(List<PostDetailsData.PostDetails.InstallLinks> installLinks) {
+            mInstallLinksCount += installLinks.size();
+        }
+    }
+}